@@ -0,0 +1,90 @@
+package j2ee.j2ee.benchmarks;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import j2ee.j2ee.apps.appointment.AppointmentRepository;
+import j2ee.j2ee.apps.service.ServiceEntity;
+import j2ee.j2ee.apps.service.ServiceRepository;
+import j2ee.j2ee.apps.staff_availability.AvailabilityService;
+import j2ee.j2ee.apps.staff_availability.StaffAvailabilityDTO;
+import j2ee.j2ee.apps.staff_availability.TimeSlotDTO;
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.apps.store.StoreRepository;
+import j2ee.j2ee.apps.user.UserEntity;
+import j2ee.j2ee.apps.user.UserRepository;
+
+// Slot generation and booking overlap checks, with the repositories answering
+// from memory so only the service's own work is measured
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    @Param({ "3", "10" })
+    private int staffCount;
+
+    @Param({ "4", "12" })
+    private int bookingsPerStaff;
+
+    private AvailabilityService availabilityService;
+    private StoreEntity store;
+    private ServiceEntity service;
+
+    @Setup
+    public void setUp() {
+        List<UserEntity> staff = Fixtures.staff(staffCount);
+        store = Fixtures.store(1, Fixtures.user(1, "Chủ cửa hàng", Fixtures.role(3, "owner")));
+        service = Fixtures.service(1, store, 30);
+
+        // Bookings spread across the day, staggered per staff member
+        List<Object[]> bookings = new ArrayList<>();
+        for (int s = 0; s < staff.size(); s++) {
+            for (int b = 0; b < bookingsPerStaff; b++) {
+                LocalTime start = LocalTime.of(8, 0).plusMinutes(((b * 3L + s) % 24) * 30);
+                bookings.add(new Object[] { staff.get(s).getId(), start, 45 });
+            }
+        }
+
+        availabilityService = new AvailabilityService();
+        ReflectionTestUtils.setField(availabilityService, "serviceRepository",
+                RepositoryFake.of(ServiceRepository.class).on("findById", args -> Optional.of(service)).build());
+        ReflectionTestUtils.setField(availabilityService, "storeRepository",
+                RepositoryFake.of(StoreRepository.class).on("findById", args -> Optional.of(store)).build());
+        ReflectionTestUtils.setField(availabilityService, "userRepository",
+                RepositoryFake.of(UserRepository.class).on("findStaffByStoreAndService", args -> staff).build());
+        ReflectionTestUtils.setField(availabilityService, "appointmentRepository",
+                RepositoryFake.of(AppointmentRepository.class)
+                        .on("findBookedTimesByStaffAndDate", args -> bookings).build());
+    }
+
+    @Benchmark
+    public List<TimeSlotDTO> timeSlotsForDate() {
+        return availabilityService.getAvailableTimeSlotsForDate(service.getId(), store.getId(), Fixtures.DATE);
+    }
+
+    @Benchmark
+    public List<StaffAvailabilityDTO> staffForSlot() {
+        return availabilityService.getAvailableStaffForTimeSlot(service.getId(), store.getId(), Fixtures.DATE,
+                LocalTime.of(14, 0), LocalTime.of(14, 30));
+    }
+}
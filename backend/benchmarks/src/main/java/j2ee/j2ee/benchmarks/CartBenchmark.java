@@ -0,0 +1,108 @@
+package j2ee.j2ee.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import j2ee.j2ee.apps.cart.CartEntity;
+import j2ee.j2ee.apps.cart.CartJournal;
+import j2ee.j2ee.apps.cart.CartRepository;
+import j2ee.j2ee.apps.cart.CartService;
+import j2ee.j2ee.apps.cart.CartStore;
+import j2ee.j2ee.apps.flash_sale.FlashSaleService;
+import j2ee.j2ee.apps.inventory.HotStockCounters;
+import j2ee.j2ee.apps.inventory.StockRepository;
+import j2ee.j2ee.apps.inventory.StockService;
+import j2ee.j2ee.apps.user.UserEntity;
+
+// CartService.changeQuantity against an in-memory CartStore cart of a given size.
+// The journal writes to a temporary directory; stock answers from a fake
+// repository and no flash sale is active.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBenchmark {
+
+    private static final long USER_ID = 7L;
+
+    @Param({ "5", "50" })
+    private int itemsInCart;
+
+    private CartService cartService;
+    private CartJournal journal;
+    private long nextProduct;
+    private long absentProductId;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        absentProductId = itemsInCart + 1;
+
+        UserEntity user = new UserEntity();
+        user.setId(USER_ID);
+        CartEntity cart = new CartEntity();
+        cart.setId(1);
+        cart.setUser(user);
+        cart.setItems(new ArrayList<>());
+
+        journal = new CartJournal(Files.createTempDirectory("cart-journal-bench").toString());
+        CartStore cartStore = new CartStore(journal);
+        ReflectionTestUtils.setField(cartStore, "cartRepository",
+                RepositoryFake.of(CartRepository.class)
+                        .on("findWithItemsByUserId", args -> Optional.of(cart))
+                        .build());
+
+        StockService stockService = new StockService();
+        ReflectionTestUtils.setField(stockService, "stockRepository",
+                RepositoryFake.of(StockRepository.class)
+                        .on("findStock", args -> Optional.of(Integer.MAX_VALUE))
+                        .build());
+        ReflectionTestUtils.setField(stockService, "hotStockCounters", new HotStockCounters(8, 20, 10000));
+
+        cartService = new CartService();
+        ReflectionTestUtils.setField(cartService, "cartStore", cartStore);
+        ReflectionTestUtils.setField(cartService, "stockService", stockService);
+        ReflectionTestUtils.setField(cartService, "flashSaleService", new FlashSaleService());
+
+        for (long id = 1; id <= itemsInCart; id++) {
+            cartService.changeQuantity(USER_ID, id, 1);
+        }
+        nextProduct = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        journal.close();
+    }
+
+    @Benchmark
+    public void incrementExistingItem() {
+        nextProduct = nextProduct % itemsInCart + 1;
+        cartService.changeQuantity(USER_ID, nextProduct, 1);
+    }
+
+    @Benchmark
+    public void addThenRemoveItem() {
+        cartService.changeQuantity(USER_ID, absentProductId, 1);
+        cartService.changeQuantity(USER_ID, absentProductId, -2);
+    }
+}
@@ -0,0 +1,101 @@
+package j2ee.j2ee.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import j2ee.j2ee.apps.appointment.AppointmentEntity;
+import j2ee.j2ee.apps.category_of_service.CategoryOfServiceEntity;
+import j2ee.j2ee.apps.role.RoleEntity;
+import j2ee.j2ee.apps.service.ServiceEntity;
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.apps.user.UserEntity;
+
+// Entity graphs shared by the benchmarks, shaped like production rows
+final class Fixtures {
+
+    static final LocalDate DATE = LocalDate.of(2025, 3, 14);
+
+    private Fixtures() {
+    }
+
+    static RoleEntity role(long id, String name) {
+        return RoleEntity.builder().id(id).name(name).build();
+    }
+
+    static UserEntity user(long id, String name, RoleEntity role) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail("user" + id + "@example.com");
+        user.setPhone(String.format("09%08d", id));
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z4EKAo9kXzh0F1T4k4C7mP0u");
+        user.setCreated_at(DATE.minusDays(id % 365));
+        user.setRole(role);
+        return user;
+    }
+
+    static StoreEntity store(long id, UserEntity owner) {
+        StoreEntity store = new StoreEntity();
+        store.setId(id);
+        store.setName("Beauty Salon " + id);
+        store.setDescription("Salon số " + id);
+        store.setAddress(id + " Nguyễn Trãi, Quận 5, TP. Hồ Chí Minh");
+        store.setPhone("028000" + id);
+        store.setOpen_time(LocalTime.of(8, 0));
+        store.setClose_time(LocalTime.of(20, 0));
+        store.setStatus("1");
+        store.setOwner(owner);
+        return store;
+    }
+
+    static ServiceEntity service(long id, StoreEntity store, int duration) {
+        CategoryOfServiceEntity category = new CategoryOfServiceEntity();
+        category.setId((int) (id % 4) + 1);
+        category.setName("Tóc");
+        category.setStatus("1");
+
+        ServiceEntity service = new ServiceEntity();
+        service.setId(id);
+        service.setName("Dịch vụ " + id);
+        service.setDescription("Mô tả dịch vụ " + id);
+        service.setPrice(150000.0);
+        service.setDuration(duration);
+        service.setStatus("1");
+        service.setStore(store);
+        service.setCategory_of_service(category);
+        return service;
+    }
+
+    static List<UserEntity> staff(int count) {
+        RoleEntity role = role(4, "staff");
+        List<UserEntity> staff = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            staff.add(user(1000 + i, "Nhân viên " + i, role));
+        }
+        return staff;
+    }
+
+    static List<AppointmentEntity> appointments(int count) {
+        RoleEntity customerRole = role(2, "customer");
+        RoleEntity ownerRole = role(3, "owner");
+        List<UserEntity> staff = staff(5);
+        StoreEntity store = store(1, user(1, "Chủ cửa hàng", ownerRole));
+
+        List<AppointmentEntity> appointments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AppointmentEntity appointment = new AppointmentEntity();
+            appointment.setId((long) i + 1);
+            appointment.setAppointment_date(DATE);
+            appointment.setAppointment_time(LocalTime.of(8, 0).plusMinutes((i % 20) * 30L));
+            appointment.setStatus("completed");
+            appointment.setStore(store);
+            appointment.setService(service(i % 8 + 1, store, 30 + (i % 4) * 15));
+            appointment.setCustomer(user(2000 + i, "Khách hàng " + i, customerRole));
+            appointment.setStaff(staff.get(i % staff.size()));
+            appointments.add(appointment);
+        }
+        return appointments;
+    }
+}
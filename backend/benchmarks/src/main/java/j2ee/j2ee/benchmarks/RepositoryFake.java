@@ -0,0 +1,51 @@
+package j2ee.j2ee.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// In-memory stand-in for a Spring Data repository interface. Only the methods
+// registered with on(...) answer; anything else fails loudly so a benchmark
+// never silently measures a no-op.
+public class RepositoryFake<T> {
+
+    private final Class<T> type;
+    private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+    private RepositoryFake(Class<T> type) {
+        this.type = type;
+    }
+
+    public static <T> RepositoryFake<T> of(Class<T> type) {
+        return new RepositoryFake<>(type);
+    }
+
+    public RepositoryFake<T> on(String method, Function<Object[], Object> answer) {
+        answers.put(method, answer);
+        return this;
+    }
+
+    public T build() {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (self, method, args) -> {
+                    switch (method.getName()) {
+                        case "toString":
+                            return "RepositoryFake(" + type.getSimpleName() + ")";
+                        case "hashCode":
+                            return System.identityHashCode(self);
+                        case "equals":
+                            return self == args[0];
+                        default:
+                            break;
+                    }
+
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                    }
+                    return answer.apply(args);
+                });
+        return type.cast(proxy);
+    }
+}
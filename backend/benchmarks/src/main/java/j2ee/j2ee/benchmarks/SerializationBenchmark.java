@@ -0,0 +1,71 @@
+package j2ee.j2ee.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import j2ee.j2ee.apps.appointment.AppointmentEntity;
+
+// Jackson output of a page of appointments: the full entity graph the
+// controllers return today versus a flat row with only what the client shows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    public record AppointmentRow(Long id, LocalDate appointment_date, LocalTime appointment_time, String status,
+            Long store_id, String store_name, Long service_id, String service_name, Integer duration,
+            Long customer_id, String customer_name, Long staff_id, String staff_name) {
+    }
+
+    @Param({ "20", "200" })
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private List<AppointmentEntity> entities;
+    private List<AppointmentRow> rows;
+
+    @Setup
+    public void setUp() {
+        // Same settings Spring Boot applies to its ObjectMapper
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        entities = Fixtures.appointments(pageSize);
+        rows = entities.stream()
+                .map(a -> new AppointmentRow(a.getId(), a.getAppointment_date(), a.getAppointment_time(),
+                        a.getStatus(), a.getStore().getId(), a.getStore().getName(), a.getService().getId(),
+                        a.getService().getName(), a.getService().getDuration(), a.getCustomer().getId(),
+                        a.getCustomer().getName(), a.getStaff().getId(), a.getStaff().getName()))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] entityGraph() throws Exception {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] flatDto() throws Exception {
+        return objectMapper.writeValueAsBytes(rows);
+    }
+}
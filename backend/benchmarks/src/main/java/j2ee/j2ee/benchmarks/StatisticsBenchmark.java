@@ -0,0 +1,85 @@
+package j2ee.j2ee.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import j2ee.j2ee.apps.role.RoleEntity;
+import j2ee.j2ee.apps.statistics.StatisticsRepository;
+import j2ee.j2ee.apps.statistics.StatisticsService;
+import j2ee.j2ee.apps.statistics.StoreStatsDTO;
+import j2ee.j2ee.apps.statistics.UserStatsDTO;
+import j2ee.j2ee.apps.user.UserEntity;
+
+// Mapping of the Object[] report rows into the statistics DTOs
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatisticsBenchmark {
+
+    @Param({ "50", "1000" })
+    private int rows;
+
+    private StatisticsService statisticsService;
+
+    @Setup
+    public void setUp() {
+        RoleEntity ownerRole = Fixtures.role(3, "owner");
+        RoleEntity customerRole = Fixtures.role(2, "customer");
+
+        List<Object[]> storeCounts = new ArrayList<>();
+        List<Object[]> storeRevenue = new ArrayList<>();
+        List<Object[]> userCounts = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            UserEntity owner = Fixtures.user(i + 1, "Chủ cửa hàng " + i, ownerRole);
+            storeCounts.add(new Object[] { Fixtures.store(i + 1, owner), (long) (rows - i) });
+            storeRevenue.add(new Object[] { Fixtures.store(i + 1, owner), (rows - i) * 125000.0 });
+            userCounts.add(new Object[] { Fixtures.user(10000 + i, "Khách hàng " + i, customerRole), (long) (rows - i) });
+        }
+
+        statisticsService = new StatisticsService();
+        ReflectionTestUtils.setField(statisticsService, "statisticsRepository",
+                RepositoryFake.of(StatisticsRepository.class)
+                        .on("findStoreAppointmentStats", args -> storeCounts)
+                        .on("findStoreAppointmentStatsAsc", args -> storeCounts)
+                        .on("findStoreRevenueStats", args -> storeRevenue)
+                        .on("findStoreRevenueStatsAsc", args -> storeRevenue)
+                        .on("findCustomerAppointmentStats", args -> userCounts)
+                        .on("findCustomerAppointmentStatsAsc", args -> userCounts)
+                        .on("findStaffAppointmentStats", args -> userCounts)
+                        .on("findStaffAppointmentStatsAsc", args -> userCounts)
+                        .build());
+    }
+
+    @Benchmark
+    public Map<String, List<StoreStatsDTO>> storeAppointmentStats() {
+        return statisticsService.getStoreAppointmentStats("monthly", "2025-3");
+    }
+
+    @Benchmark
+    public Map<String, List<StoreStatsDTO>> storeRevenueStats() {
+        return statisticsService.getStoreRevenueStats("monthly", "2025-3");
+    }
+
+    @Benchmark
+    public Map<String, List<UserStatsDTO>> customerAppointmentStats() {
+        return statisticsService.getCustomerAppointmentStats("yearly", "2025");
+    }
+}
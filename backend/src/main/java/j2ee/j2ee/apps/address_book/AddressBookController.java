@@ -5,34 +5,86 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
 
 @RestController
 @RequestMapping("/api/addresses")
+@ExecutionLane(Lane.BOOKING)
 public class AddressBookController {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final String externalApi = "https://provinces.open-api.vn/api/?depth=3";
+    // Province data changes a few times a year; browsers revalidate daily
+    private static final CacheControl PROVINCES_CACHE = CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic();
 
     @Autowired
     private AddressBookService addressBookService;
+    @Autowired
+    private ProvinceDirectory provinceDirectory;
 
-    // Get provinces API
+    // Province tree from the local dataset (see ProvinceDirectory), in the
+    // shape of provinces.open-api.vn; depth 1 = provinces, 2 = + districts,
+    // 3 = + wards. Served gzipped when the client accepts it; a matching
+    // If-None-Match gets a 304
+    @ExecutionLane(Lane.CATALOG)
     @GetMapping("/provinces")
-    public ResponseEntity<String> getProvinces() {
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(externalApi, String.class);
-            return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
-        } catch (Exception e) {
-            System.out.println("Internal Server Errors:" + e.getMessage());
-            return ResponseEntity.internalServerError().build();
+    public ResponseEntity<byte[]> getProvinces(@RequestParam(name = "depth", defaultValue = "3") int depth,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (!provinceDirectory.isLoaded()) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "30").build();
         }
+        Optional<ProvinceDirectory.Body> tree = provinceDirectory.tree(depth);
+        if (tree.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ProvinceDirectory.Body body = tree.get();
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(PROVINCES_CACHE)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.eTag(body.gzipEtag()).header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.eTag(body.etag()).body(body.json());
+    }
+
+    @ExecutionLane(Lane.CATALOG)
+    @GetMapping("/provinces/{code}/districts")
+    public ResponseEntity<Object> getDistricts(@PathVariable(value = "code") int code) {
+        if (!provinceDirectory.isLoaded()) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        return provinceDirectory.districts(code)
+                .<ResponseEntity<Object>>map(districts -> ResponseEntity.ok()
+                        .cacheControl(PROVINCES_CACHE)
+                        .eTag("\"" + provinceDirectory.version().orElse("") + "-p" + code + "\"")
+                        .body(districts))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @ExecutionLane(Lane.CATALOG)
+    @GetMapping("/districts/{code}/wards")
+    public ResponseEntity<Object> getWards(@PathVariable(value = "code") int code) {
+        if (!provinceDirectory.isLoaded()) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        return provinceDirectory.wards(code)
+                .<ResponseEntity<Object>>map(wards -> ResponseEntity.ok()
+                        .cacheControl(PROVINCES_CACHE)
+                        .eTag("\"" + provinceDirectory.version().orElse("") + "-d" + code + "\"")
+                        .body(wards))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     // Get pageable addresses by user_id
@@ -60,17 +112,56 @@ public class AddressBookController {
         }
     }
 
+    // Default address for checkout: one lookup through users.default_address_id, cached per user
+    @GetMapping("/users/{user_id}/default")
+    public ResponseEntity<Object> getDefaultByUserId(@PathVariable(value = "user_id") long user_id) {
+        try {
+            return addressBookService.getDefaultByUserId(user_id)
+                    .<ResponseEntity<Object>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            System.out.println("Internal Server Errors:" + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Cursor-paged variant: pass back nextCursor to get the following page; past
+    // the last one the list is empty and nextCursor is null.
+    // No COUNT(*) runs unless with_total is set, and that total is cached
+    @GetMapping("/users/{user_id}/cursor")
+    public ResponseEntity<Object> getAllByUserIdAfter(
+            @PathVariable(value = "user_id") long user_id,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "with_total", defaultValue = "false") boolean withTotal) {
+        try {
+            int limit = Math.min(Math.max(size, 1), 100);
+            var keysetPage = addressBookService.getAllByUserIdAfter(user_id, cursor, limit);
+            HashMap<String, Object> response = new HashMap<>();
+            response.put("addresses", keysetPage.getContent());
+            response.put("nextCursor", keysetPage.getNextCursor());
+            response.put("hasNext", keysetPage.isHasNext());
+            if (withTotal) {
+                response.put("approximateTotal", addressBookService.getApproximateCountByUserId(user_id));
+            }
+
+            return ResponseEntity.ok().body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.out.println("Internal Server Errors:" + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     // Delete address by id
     @DeleteMapping("/{id}")
     public ResponseEntity<Object> deleteById(@PathVariable(value = "id") long id) {
         try {
-            var address = this.addressBookService.getById(id);
-            if (!address.isPresent()) {
+            if (!this.addressBookService.deleteById(id)) {
                 return ResponseEntity.notFound().build();
             }
 
-            this.addressBookService.deleteById(id);
-
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             System.out.println("Internal Server Errors:" + e.getMessage());
@@ -98,8 +189,7 @@ public class AddressBookController {
     @PutMapping("/update/{id}")
     public ResponseEntity<Object> update(@PathVariable(value = "id") long id, @RequestBody AddressBookEntity payload) {
         try {
-            var address = this.addressBookService.getById(id);
-            if (!address.isPresent()) {
+            if (!this.addressBookService.existsById(id)) {
                 return ResponseEntity.notFound().build();
             }
 
@@ -118,7 +208,9 @@ public class AddressBookController {
             @RequestBody AddressBookEntity payload) {
         System.out.println("Payload:" + payload.toString());
         try {
-            this.addressBookService.setDefaultById(id, payload.getUser().getId());
+            if (!this.addressBookService.setDefaultById(id, payload.getUser().getId())) {
+                return ResponseEntity.notFound().build();
+            }
 
             return ResponseEntity.ok().build();
         } catch (Exception e) {
@@ -9,6 +9,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import lombok.Data;
 
+import org.hibernate.annotations.Formula;
+
 @Entity(name = "address_book")
 @Data
 public class AddressBookEntity {
@@ -23,6 +25,10 @@ public class AddressBookEntity {
 
     private String address;
 
+    // Derived from users.default_address_id, which is the only place the
+    // default is stored. Still read from request bodies: create and update
+    // move the pointer when it is true (see AddressBookService)
+    @Formula("EXISTS (SELECT 1 FROM users u WHERE u.id = user_id AND u.default_address_id = id)")
     private Boolean is_default;
 
     private String type;
@@ -6,26 +6,36 @@ import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import jakarta.transaction.Transactional;
 
 @Repository
 public interface AddressBookRepository extends JpaRepository<AddressBookEntity, Long> {
-    @Query("FROM address_book a WHERE a.user.id = :userId ORDER BY a.is_default DESC, a.id ASC")
-    Page<AddressBookEntity> findAllByUserId(long userId, Pageable pageable);
+    // Default address (users.default_address_id) first, then by id
+    @Query(value = "SELECT a FROM address_book a JOIN a.user u WHERE u.id = :userId " +
+            "ORDER BY CASE WHEN a.id = u.default_address_id THEN 0 ELSE 1 END, a.id ASC",
+            countQuery = "SELECT COUNT(a) FROM address_book a WHERE a.user.id = :userId")
+    Page<AddressBookEntity> findAllByUserId(@Param("userId") long userId, Pageable pageable);
 
-    List<AddressBookEntity> findAllByUserId(long userId);
+    boolean existsByUserId(long userId);
 
-    AddressBookEntity findByUserId(long userId);
+    long countByUserId(long userId);
 
-    @Query("FROM address_book a WHERE a.user.id = :userId AND a.is_default = true")
-    Optional<AddressBookEntity> findByUserIdAndIsDefault(@Param("userId") long userId);
+    // Keyset page in the same order as above: default address first (rank 0), then by id.
+    // rank = -1, afterId = 0 gives the first page
+    @Query("SELECT a FROM address_book a JOIN a.user u WHERE u.id = :userId " +
+            "AND ((CASE WHEN a.id = u.default_address_id THEN 0 ELSE 1 END) > :rank " +
+            "OR ((CASE WHEN a.id = u.default_address_id THEN 0 ELSE 1 END) = :rank AND a.id > :afterId)) " +
+            "ORDER BY CASE WHEN a.id = u.default_address_id THEN 0 ELSE 1 END, a.id ASC")
+    List<AddressBookEntity> findPageByUserIdAfter(@Param("userId") long userId, @Param("rank") int rank,
+            @Param("afterId") long afterId, Pageable pageable);
 
-    @Modifying
-    @Transactional
-    @Query("UPDATE address_book a SET a.is_default = false WHERE a.user.id = :userId")
-    void clearDefaultForUser(@Param("userId") long userId);
+    @Query("SELECT a.user.id FROM address_book a WHERE a.id = :id")
+    Optional<Long> findUserIdById(@Param("id") long id);
+
+    // Two primary-key lookups: the user row, then the address it points at
+    @Query("SELECT new j2ee.j2ee.apps.address_book.DefaultAddressDTO(a.id, a.name, a.phone, a.address, a.type, u.id) " +
+            "FROM users u JOIN address_book a ON a.id = u.default_address_id WHERE u.id = :userId")
+    Optional<DefaultAddressDTO> findDefaultByUserId(@Param("userId") long userId);
 }
@@ -1,5 +1,6 @@
 package j2ee.j2ee.apps.address_book;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,16 +9,28 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import jakarta.transaction.Transactional;
+import j2ee.j2ee.apps.user.UserRepository;
+import j2ee.j2ee.utils.ApproximateCounts;
+import j2ee.j2ee.utils.Cursor;
+import j2ee.j2ee.utils.KeysetPage;
+import j2ee.j2ee.utils.TransactionHooks;
 
 @Service
 @Transactional
 public class AddressBookService {
 
     private final AddressBookRepository addressBookRepository;
+    private final UserRepository userRepository;
+    private final ApproximateCounts approximateCounts;
+    private final DefaultAddressCache defaultAddressCache;
 
     @Autowired
-    public AddressBookService(AddressBookRepository addressBookRepository) {
+    public AddressBookService(AddressBookRepository addressBookRepository, UserRepository userRepository,
+            ApproximateCounts approximateCounts, DefaultAddressCache defaultAddressCache) {
         this.addressBookRepository = addressBookRepository;
+        this.userRepository = userRepository;
+        this.approximateCounts = approximateCounts;
+        this.defaultAddressCache = defaultAddressCache;
     }
 
     public Page<AddressBookEntity> getAllByUserId(long userId, int page, int size) {
@@ -25,56 +38,102 @@ public class AddressBookService {
         return this.addressBookRepository.findAllByUserId(userId, pageable);
     }
 
-    public Optional<AddressBookEntity> getByUserId(long userId) {
-        AddressBookEntity address = this.addressBookRepository.findByUserId(userId);
-        return Optional.ofNullable(address);
+    // Seek pagination on (default first, id); cursor is null for the first page
+    public KeysetPage<AddressBookEntity> getAllByUserIdAfter(long userId, String cursor, int size) {
+        int rank = -1;
+        long afterId = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] keys = Cursor.decode(cursor, 2);
+            rank = Integer.parseInt(keys[0]);
+            afterId = Long.parseLong(keys[1]);
+        }
+
+        List<AddressBookEntity> rows = this.addressBookRepository.findPageByUserIdAfter(userId, rank, afterId,
+                PageRequest.of(0, size + 1));
+        return KeysetPage.of(rows, size,
+                a -> Cursor.encode(Boolean.TRUE.equals(a.getIs_default()) ? 0 : 1, a.getId()));
+    }
+
+    public long getApproximateCountByUserId(long userId) {
+        return approximateCounts.get("addresses:user:" + userId,
+                () -> this.addressBookRepository.countByUserId(userId));
+    }
+
+    public Optional<DefaultAddressDTO> getDefaultByUserId(long userId) {
+        return defaultAddressCache.get(userId, () -> this.addressBookRepository.findDefaultByUserId(userId));
     }
 
     public Optional<AddressBookEntity> getById(long id) {
         return this.addressBookRepository.findById(id);
     }
 
-    public void deleteById(long id) {
+    public boolean existsById(long id) {
+        return this.addressBookRepository.existsById(id);
+    }
+
+    // False when there is no such address
+    public boolean deleteById(long id) {
+        Optional<Long> userId = this.addressBookRepository.findUserIdById(id);
+        if (userId.isEmpty()) {
+            return false;
+        }
+
+        if (this.userRepository.clearDefaultAddress(id) > 0) {
+            evictDefault(userId.get());
+        }
         this.addressBookRepository.deleteById(id);
+        return true;
     }
 
+    // A user's first address becomes their default
     public AddressBookEntity create(AddressBookEntity payload) {
-        if (Boolean.TRUE.equals(payload.getIs_default())) {
-            this.addressBookRepository.clearDefaultForUser(payload.getUser().getId());
-        } else {
-            boolean hasExistingAddresses = !addressBookRepository.findAllByUserId(payload.getUser().getId()).isEmpty();
-            if (!hasExistingAddresses) {
-                payload.setIs_default(false);
-            }
+        long userId = payload.getUser().getId();
+        boolean makeDefault = Boolean.TRUE.equals(payload.getIs_default())
+                || !this.addressBookRepository.existsByUserId(userId);
+
+        AddressBookEntity saved = this.addressBookRepository.save(payload);
+        if (makeDefault) {
+            this.userRepository.setDefaultAddress(userId, saved.getId());
+            evictDefault(userId);
         }
-
-        return this.addressBookRepository.save(payload);
+        saved.setIs_default(makeDefault);
+        return saved;
     }
 
     public AddressBookEntity update(long id, AddressBookEntity address) {
         AddressBookEntity existingAddress = this.addressBookRepository.findById(id).orElseThrow(() -> new RuntimeException("Address not found"));
-
-        if (Boolean.TRUE.equals(address.getIs_default())) {
-            this.addressBookRepository.clearDefaultForUser(existingAddress.getUser().getId());
-        }
+        long userId = existingAddress.getUser().getId();
 
         existingAddress.setName(address.getName());
         existingAddress.setPhone(address.getPhone());
         existingAddress.setAddress(address.getAddress());
-        existingAddress.setIs_default(address.getIs_default());
         existingAddress.setType(address.getType());
-
-        return this.addressBookRepository.save(existingAddress);
+        AddressBookEntity saved = this.addressBookRepository.save(existingAddress);
+
+        boolean isDefault = Boolean.TRUE.equals(address.getIs_default());
+        if (isDefault != Boolean.TRUE.equals(existingAddress.getIs_default())) {
+            if (isDefault) {
+                this.userRepository.setDefaultAddress(userId, id);
+            } else {
+                this.userRepository.clearDefaultAddress(id);
+            }
+        }
+        // The default's fields are cached too, so any edit evicts
+        evictDefault(userId);
+        saved.setIs_default(isDefault);
+        return saved;
     }
 
+    // One UPDATE of the user row; false when the address is not the user's
+    public boolean setDefaultById(long id, long userId) {
+        if (this.userRepository.setDefaultAddress(userId, id) == 0) {
+            return false;
+        }
+        evictDefault(userId);
+        return true;
+    }
 
-    public void setDefaultById(long id, long userId) {
-        this.addressBookRepository.clearDefaultForUser(userId);
-
-        AddressBookEntity updatedAddress = this.getById(id).get();
-
-        updatedAddress.setIs_default(true);
-
-        this.addressBookRepository.save(updatedAddress);
+    private void evictDefault(long userId) {
+        TransactionHooks.afterCommit(() -> defaultAddressCache.evict(userId));
     }
 }
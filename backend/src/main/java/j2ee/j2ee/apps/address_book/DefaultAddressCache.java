@@ -0,0 +1,53 @@
+package j2ee.j2ee.apps.address_book;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Default address per user for checkout. AddressBookService evicts a user's
+// entry after every commit that moves their default; the TTL bounds how long
+// a read racing such a commit can keep the old value. Users without a
+// default are cached too.
+@Component
+public class DefaultAddressCache {
+
+    private record Entry(Optional<DefaultAddressDTO> value, long expiresAt) {
+    }
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    public DefaultAddressCache(@Value("${addresses.default-cache-ttl-ms:300000}") long ttlMillis,
+            @Value("${addresses.default-cache-max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    public Optional<DefaultAddressDTO> get(long userId, Supplier<Optional<DefaultAddressDTO>> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(userId);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.value();
+        }
+
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> e.expiresAt() <= now);
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+        }
+
+        Optional<DefaultAddressDTO> value = loader.get();
+        entries.put(userId, new Entry(value, now + ttlMillis));
+        return value;
+    }
+
+    public void evict(long userId) {
+        entries.remove(userId);
+    }
+}
@@ -0,0 +1,5 @@
+package j2ee.j2ee.apps.address_book;
+
+// A user's default address, as returned by /api/addresses/users/{user_id}/default
+public record DefaultAddressDTO(long id, String name, String phone, String address, String type, long user_id) {
+}
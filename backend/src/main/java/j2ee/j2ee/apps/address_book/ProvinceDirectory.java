@@ -0,0 +1,255 @@
+package j2ee.j2ee.apps.address_book;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+
+// Province > district > ward tree for the address forms, held in memory.
+// Loaded at startup from addresses.provinces.file, else from the bundled
+// addresses.provinces.bundled resource; the JSON has the shape of
+// provinces.open-api.vn ?depth=3, which the client reads. The bundled copy
+// lists the provinces only; until the file exists it is fetched in the
+// background and written there, districts and wards included. The tree endpoints
+// serve bytes serialized and gzipped once per dataset, with a strong ETag
+// from their hash. The external API is only called by the background
+// refresh (see maybeRefresh), never while serving a request.
+@Component
+public class ProvinceDirectory {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Ward(String name, int code, String division_type, String codename, Integer district_code) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record District(String name, int code, String division_type, String codename, Integer province_code,
+            List<Ward> wards) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Province(String name, int code, String division_type, String codename, Integer phone_code,
+            List<District> districts) {
+    }
+
+    // One serialized response; etag is for the plain bytes, gzipEtag for the gzipped ones
+    public record Body(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+    }
+
+    private record Snapshot(List<Province> provinces, Map<Integer, Province> provincesByCode,
+            Map<Integer, District> districtsByCode, Body[] trees, String version, String source, Instant loadedAt) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<Province>> PROVINCES = new TypeReference<>() {
+    };
+
+    private final Path file;
+    private final Resource bundled;
+    private final String refreshUrl;
+    private final Duration refreshEvery;
+    private final boolean fetchIfMissing;
+    private final RestTemplate restTemplate;
+    private volatile Snapshot snapshot;
+
+    public ProvinceDirectory(@Value("${addresses.provinces.file:data/provinces.json}") String file,
+            @Value("${addresses.provinces.bundled:classpath:geo/provinces.json}") Resource bundled,
+            @Value("${addresses.provinces.refresh-url:https://provinces.open-api.vn/api/?depth=3}") String refreshUrl,
+            @Value("${addresses.provinces.refresh-ms:0}") long refreshMs,
+            @Value("${addresses.provinces.fetch-if-missing:true}") boolean fetchIfMissing) {
+        this.file = Path.of(file);
+        this.bundled = bundled;
+        this.refreshUrl = refreshUrl;
+        this.refreshEvery = Duration.ofMillis(refreshMs);
+        this.fetchIfMissing = fetchIfMissing;
+        SimpleClientHttpRequestFactory requests = new SimpleClientHttpRequestFactory();
+        requests.setConnectTimeout(Duration.ofSeconds(5));
+        requests.setReadTimeout(Duration.ofSeconds(60));
+        this.restTemplate = new RestTemplate(requests);
+    }
+
+    @PostConstruct
+    public void load() {
+        try {
+            if (Files.exists(file)) {
+                snapshot = build(Files.readAllBytes(file), file.toString(), Instant.now());
+            } else if (bundled.exists()) {
+                try (InputStream in = bundled.getInputStream()) {
+                    snapshot = build(in.readAllBytes(), bundled.getDescription(), Instant.now());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not load provinces: " + e.getMessage());
+        }
+        if (snapshot == null) {
+            System.err.println("No provinces dataset at " + file + " or " + bundled.getDescription()
+                    + (fetchIfMissing ? "; fetching it in the background" : ""));
+        }
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    // depth 1: provinces only, 2: with districts, 3: with wards
+    public Optional<Body> tree(int depth) {
+        Snapshot current = snapshot;
+        if (current == null || depth < 1 || depth > 3) {
+            return Optional.empty();
+        }
+        return Optional.of(current.trees()[depth - 1]);
+    }
+
+    public Optional<List<District>> districts(int provinceCode) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.provincesByCode().get(provinceCode))
+                .map(province -> province.districts().stream().map(ProvinceDirectory::withoutWards).toList());
+    }
+
+    public Optional<List<Ward>> wards(int districtCode) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.districtsByCode().get(districtCode)).map(District::wards);
+    }
+
+    // Short dataset hash, for ETags of the lookup responses
+    public Optional<String> version() {
+        Snapshot current = snapshot;
+        return current == null ? Optional.empty() : Optional.of(current.version());
+    }
+
+    // Re-fetches when the dataset is older than refresh-ms (0 turns that off),
+    // or when the file is not there yet and fetch-if-missing is on. Failed
+    // attempts are retried after check-ms; the loaded tree stays in use meanwhile.
+    @Scheduled(initialDelayString = "${addresses.provinces.initial-delay-ms:5000}",
+            fixedDelayString = "${addresses.provinces.check-ms:600000}")
+    public void maybeRefresh() {
+        Snapshot current = snapshot;
+        boolean missing = fetchIfMissing && !Files.exists(file);
+        boolean stale = current != null && !refreshEvery.isZero()
+                && current.loadedAt().plus(refreshEvery).isBefore(Instant.now());
+        if (missing || stale) {
+            refresh();
+        }
+    }
+
+    public synchronized void refresh() {
+        try {
+            byte[] body = restTemplate.getForObject(refreshUrl, byte[].class);
+            if (body == null) {
+                throw new IOException("empty response");
+            }
+            Snapshot fetched = build(body, refreshUrl, Instant.now());
+            if (snapshot != null && fetched.version().equals(snapshot.version()) && Files.exists(file)) {
+                snapshot = new Snapshot(snapshot.provinces(), snapshot.provincesByCode(), snapshot.districtsByCode(),
+                        snapshot.trees(), snapshot.version(), snapshot.source(), fetched.loadedAt());
+                return;
+            }
+            save(body);
+            snapshot = fetched;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Provinces refresh failed: " + e.getMessage());
+        }
+    }
+
+    // Written beside the target and moved over it, so a crash never leaves half a file
+    private void save(byte[] body) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "provinces-", ".json");
+        try {
+            Files.write(tmp, body);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static Snapshot build(byte[] raw, String source, Instant loadedAt) throws IOException {
+        List<Province> provinces = MAPPER.readValue(raw, PROVINCES).stream().map(ProvinceDirectory::normalized)
+                .toList();
+        if (provinces.isEmpty()) {
+            throw new IOException("no provinces in " + source);
+        }
+        Map<Integer, Province> provincesByCode = new HashMap<>();
+        Map<Integer, District> districtsByCode = new HashMap<>();
+        for (Province province : provinces) {
+            provincesByCode.put(province.code(), province);
+            province.districts().forEach(district -> districtsByCode.put(district.code(), district));
+        }
+
+        List<Province> depth1 = provinces.stream().map(p -> withDistricts(p, List.of())).toList();
+        List<Province> depth2 = provinces.stream()
+                .map(p -> withDistricts(p, p.districts().stream().map(ProvinceDirectory::withoutWards).toList()))
+                .toList();
+        Body[] trees = { body(depth1), body(depth2), body(provinces) };
+        String version = trees[2].etag().substring(1, 17);
+        return new Snapshot(provinces, Map.copyOf(provincesByCode), Map.copyOf(districtsByCode), trees, version,
+                source, loadedAt);
+    }
+
+    // Null lists become empty, so every level serializes the same way
+    private static Province normalized(Province province) {
+        List<District> districts = province.districts() == null ? List.of()
+                : province.districts().stream().map(d -> new District(d.name(), d.code(), d.division_type(),
+                        d.codename(), d.province_code(), d.wards() == null ? List.of() : List.copyOf(d.wards())))
+                        .toList();
+        return withDistricts(province, districts);
+    }
+
+    private static Province withDistricts(Province p, List<District> districts) {
+        return new Province(p.name(), p.code(), p.division_type(), p.codename(), p.phone_code(), districts);
+    }
+
+    private static District withoutWards(District d) {
+        return new District(d.name(), d.code(), d.division_type(), d.codename(), d.province_code(), List.of());
+    }
+
+    private static Body body(Object value) throws IOException {
+        byte[] json = MAPPER.writeValueAsBytes(value);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(json);
+        }
+        String hash = sha256(json);
+        return new Body(json, gzipped.toByteArray(), "\"" + hash + "\"", "\"" + hash + "-gz\"");
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new UncheckedIOException(new IOException(e));
+        }
+    }
+}
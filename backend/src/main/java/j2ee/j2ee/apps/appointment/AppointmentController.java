@@ -3,6 +3,7 @@ package j2ee.j2ee.apps.appointment;
 import java.net.URI;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,9 +18,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
 
 @RestController
 @RequestMapping("/api/appointments")
+@ExecutionLane(Lane.BOOKING)
 public class AppointmentController {
 
     @Autowired
@@ -134,6 +138,34 @@ public class AppointmentController {
         }
     }
 
+    // Cursor-paged variant: pass back nextCursor to get the following page; past
+    // the last one the list is empty and nextCursor is null.
+    // No COUNT(*) runs unless with_total is set, and that total is cached
+    @GetMapping("/customer/cursor")
+    public ResponseEntity<Object> getAllByCustomerIdAfter(@RequestParam Long customer_id,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "with_total", defaultValue = "false") boolean withTotal) {
+        try {
+            int limit = Math.min(Math.max(size, 1), 100);
+            var keysetPage = this.appointmentService.getAllByCustomerIdAfter(customer_id, cursor, limit);
+            HashMap<String, Object> response = new HashMap<>();
+            response.put("appointments", keysetPage.getContent());
+            response.put("nextCursor", keysetPage.getNextCursor());
+            response.put("hasNext", keysetPage.isHasNext());
+            if (withTotal) {
+                response.put("approximateTotal", this.appointmentService.getApproximateCountByCustomerId(customer_id));
+            }
+
+            return ResponseEntity.ok().body(response);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<AppointmentEntity> getById(@PathVariable(value = "id") Long id) {
         try {
@@ -183,7 +215,7 @@ public class AppointmentController {
     }
 
     @GetMapping("/store/{storeId}")
-    public ResponseEntity<List<AppointmentEntity>> getByStoreId(@PathVariable Long storeId) {
+    public ResponseEntity<List<AppointmentView>> getByStoreId(@PathVariable Long storeId) {
         try {
             var appointmentList = this.appointmentService.getByStoreId(storeId);
             if (appointmentList.isEmpty()) {
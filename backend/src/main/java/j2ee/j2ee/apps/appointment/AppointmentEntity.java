@@ -7,7 +7,10 @@ import java.time.LocalTime;
 import j2ee.j2ee.apps.service.ServiceEntity;
 import j2ee.j2ee.apps.store.StoreEntity;
 import j2ee.j2ee.apps.user.UserEntity;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -19,6 +22,7 @@ import lombok.Data;
 
 @Data
 @Entity(name = "appointments")
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class AppointmentEntity {
 
     @Id
@@ -35,19 +39,19 @@ public class AppointmentEntity {
 
     private LocalDateTime updated_at;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "store_id", nullable = false)
     private StoreEntity store;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "service_id", nullable = false)
     private ServiceEntity service;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private UserEntity customer;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "staff_id")
     private UserEntity staff;
 
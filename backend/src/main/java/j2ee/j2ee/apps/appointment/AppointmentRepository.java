@@ -1,6 +1,7 @@
 package j2ee.j2ee.apps.appointment;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import j2ee.j2ee.apps.user.UserEntity;
@@ -13,9 +14,38 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<AppointmentEntity, Long> {
-        List<AppointmentEntity> findByStore_Id(Long storeId);
-
-        Page<AppointmentEntity> findAllByCustomerId(Long customerId, Pageable pageable);
+        // Appointment list rows: one joined select, no entity graph (see AppointmentRow)
+        String ROW = "SELECT new j2ee.j2ee.apps.appointment.AppointmentRow(a.id, a.appointment_date, a.appointment_time, "
+                        + "a.status, a.created_at, a.updated_at, st.id, st.name, st.address, st.phone, "
+                        + "s.id, s.name, s.price, s.duration, c.id, c.name, c.email, c.phone, "
+                        + "sf.id, sf.name, sf.email, sf.phone) "
+                        + "FROM appointments a JOIN a.store st JOIN a.service s JOIN a.customer c LEFT JOIN a.staff sf ";
+
+        @Query(value = ROW + "WHERE c.id = :customerId ORDER BY a.created_at DESC, a.id DESC",
+                        countQuery = "SELECT COUNT(a) FROM appointments a WHERE a.customer.id = :customerId")
+        Page<AppointmentRow> findRowsByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+        @Query(ROW + "WHERE st.id = :storeId ORDER BY a.id")
+        List<AppointmentRow> findRowsByStoreId(@Param("storeId") Long storeId);
+
+        long countByCustomerId(Long customerId);
+
+        // Keyset pages, newest first; pass PageRequest.of(0, size + 1) so no count query runs
+        @Query(ROW + "WHERE c.id = :customerId ORDER BY a.created_at DESC, a.id DESC")
+        List<AppointmentRow> findFirstRowPageByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+        // NULL sorts lowest, so rows without created_at come last, ordered by id alone
+        @Query(ROW + "WHERE c.id = :customerId "
+                        + "AND (a.created_at < :createdAt OR (a.created_at = :createdAt AND a.id < :id) "
+                        + "OR a.created_at IS NULL) "
+                        + "ORDER BY a.created_at DESC, a.id DESC")
+        List<AppointmentRow> findRowPageByCustomerIdAfter(@Param("customerId") Long customerId,
+                        @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+        // Next page after a row without created_at
+        @Query(ROW + "WHERE c.id = :customerId AND a.created_at IS NULL AND a.id < :id ORDER BY a.id DESC")
+        List<AppointmentRow> findUndatedRowPageByCustomerIdAfter(@Param("customerId") Long customerId,
+                        @Param("id") Long id, Pageable pageable);
 
         // All time count
         long count();
@@ -75,4 +105,11 @@ public interface AppointmentRepository extends JpaRepository<AppointmentEntity,
         List<AppointmentEntity> findStaffAndAppointmentDate(
                         @Param("staff") UserEntity staff,
                         @Param("appointment_date") LocalDate appointment_date);
+
+        // staff id, start time and service duration of every booking for these staff on a date
+        @Query("SELECT a.staff.id, a.appointment_time, s.duration FROM appointments a JOIN a.service s " +
+                        "WHERE a.staff.id IN :staffIds AND a.appointment_date = :appointment_date")
+        List<Object[]> findBookedTimesByStaffAndDate(
+                        @Param("staffIds") List<Long> staffIds,
+                        @Param("appointment_date") LocalDate appointment_date);
 }
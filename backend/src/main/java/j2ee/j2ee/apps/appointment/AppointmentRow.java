@@ -0,0 +1,27 @@
+package j2ee.j2ee.apps.appointment;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import j2ee.j2ee.apps.service.ServiceSummary;
+import j2ee.j2ee.apps.store.StoreSummary;
+import j2ee.j2ee.apps.user.UserSummary;
+
+// One appointment with its store, service, customer and staff, selected by a
+// single joined JPQL constructor expression (see AppointmentRepository.ROW)
+public record AppointmentRow(Long id, LocalDate appointment_date, LocalTime appointment_time, String status,
+        LocalDateTime created_at, LocalDateTime updated_at,
+        Long store_id, String store_name, String store_address, String store_phone,
+        Long service_id, String service_name, Double service_price, Integer service_duration,
+        Long customer_id, String customer_name, String customer_email, String customer_phone,
+        Long staff_id, String staff_name, String staff_email, String staff_phone) {
+
+    public AppointmentView toView() {
+        return new AppointmentView(id, appointment_date, appointment_time, status, created_at, updated_at,
+                new StoreSummary(store_id, store_name, store_address, store_phone),
+                new ServiceSummary(service_id, service_name, service_price, service_duration),
+                new UserSummary(customer_id, customer_name, customer_email, customer_phone),
+                staff_id == null ? null : new UserSummary(staff_id, staff_name, staff_email, staff_phone));
+    }
+}
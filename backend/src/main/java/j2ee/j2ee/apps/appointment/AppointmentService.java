@@ -6,6 +6,9 @@ import j2ee.j2ee.apps.store.StoreEntity;
 import j2ee.j2ee.apps.store.StoreRepository;
 import j2ee.j2ee.apps.user.UserEntity;
 import j2ee.j2ee.apps.user.UserRepository;
+import j2ee.j2ee.utils.ApproximateCounts;
+import j2ee.j2ee.utils.Cursor;
+import j2ee.j2ee.utils.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -15,6 +18,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.WeekFields;
 import java.util.*;
@@ -30,6 +34,8 @@ public class AppointmentService {
     private ServiceRepository serviceRepository;
     @Autowired
     private StoreRepository storeRepository;
+    @Autowired
+    private ApproximateCounts approximateCounts;
 
     // Get appointment counts for all time filters
     public Map<String, Long> getAppointmentStatistics(String filter, String specificFilter) {
@@ -269,14 +275,16 @@ public class AppointmentService {
         appointmentEntity.setCustomer(customerOptional.get());
 
         // Service
-        Optional<ServiceEntity> serviceOptional = serviceRepository.findById(appointment.getService().getId());
+        Optional<ServiceEntity> serviceOptional = serviceRepository.findById(appointment.getService().getId())
+                .filter(service -> service.getDeleted_at() == null);
         if (!serviceOptional.isPresent()) {
             return Optional.empty();
         }
         appointmentEntity.setService(serviceOptional.get());
 
         // Store
-        Optional<StoreEntity> storeOptional = storeRepository.findById(appointment.getStore().getId());
+        Optional<StoreEntity> storeOptional = storeRepository.findById(appointment.getStore().getId())
+                .filter(store -> store.getDeleted_at() == null);
         if (!storeOptional.isPresent()) {
             return Optional.empty();
         }
@@ -295,17 +303,41 @@ public class AppointmentService {
         return Optional.of(savedAppointment);
     }
 
-    public Page<AppointmentEntity> getAllByCustomerId(long customerId, int page, int size) {
+    public Page<AppointmentView> getAllByCustomerId(long customerId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return this.appointmentRepository.findAllByCustomerId(customerId, pageable);
+        return this.appointmentRepository.findRowsByCustomerId(customerId, pageable).map(AppointmentRow::toView);
+    }
+
+    // Seek pagination on (created_at, id); cursor is null for the first page
+    public KeysetPage<AppointmentView> getAllByCustomerIdAfter(long customerId, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<AppointmentRow> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = this.appointmentRepository.findFirstRowPageByCustomerId(customerId, limit);
+        } else {
+            String[] keys = Cursor.decode(cursor, 2);
+            long id = Long.parseLong(keys[1]);
+            rows = keys[0] == null
+                    ? this.appointmentRepository.findUndatedRowPageByCustomerIdAfter(customerId, id, limit)
+                    : this.appointmentRepository.findRowPageByCustomerIdAfter(customerId,
+                            LocalDateTime.parse(keys[0]), id, limit);
+        }
+        return KeysetPage.of(rows, size, r -> Cursor.encode(r.created_at(), r.id())).map(AppointmentRow::toView);
+    }
+
+    public long getApproximateCountByCustomerId(long customerId) {
+        return approximateCounts.get("appointments:customer:" + customerId,
+                () -> this.appointmentRepository.countByCustomerId(customerId));
     }
 
     public Optional<AppointmentEntity> getById(long appointmentId) {
         return this.appointmentRepository.findById(appointmentId);
     }
 
-    public List<AppointmentEntity> getByStoreId(long storeId) {
-        return this.appointmentRepository.findByStore_Id(storeId);
+    public List<AppointmentView> getByStoreId(long storeId) {
+        return this.appointmentRepository.findRowsByStoreId(storeId).stream()
+                .map(AppointmentRow::toView)
+                .toList();
     }
 
     public Optional<AppointmentEntity> updateStatus(Long appointmentId, String newStatus) {
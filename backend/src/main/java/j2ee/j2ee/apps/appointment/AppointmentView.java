@@ -0,0 +1,28 @@
+package j2ee.j2ee.apps.appointment;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import j2ee.j2ee.apps.service.ServiceSummary;
+import j2ee.j2ee.apps.store.StoreSummary;
+import j2ee.j2ee.apps.user.UserSummary;
+
+// Read model for appointment lists. Same JSON shape the client already reads
+// (row.store.name, row.service.name, row.staff.name) without the owner/role graph.
+public record AppointmentView(Long id, LocalDate appointment_date, LocalTime appointment_time, String status,
+        LocalDateTime created_at, LocalDateTime updated_at, StoreSummary store, ServiceSummary service,
+        UserSummary customer, UserSummary staff) {
+
+    // For entities whose associations were fetched with them
+    public static AppointmentView of(AppointmentEntity appointment) {
+        if (appointment == null) {
+            return null;
+        }
+        return new AppointmentView(appointment.getId(), appointment.getAppointment_date(),
+                appointment.getAppointment_time(), appointment.getStatus(), appointment.getCreated_at(),
+                appointment.getUpdated_at(), StoreSummary.of(appointment.getStore()),
+                ServiceSummary.of(appointment.getService()), UserSummary.of(appointment.getCustomer()),
+                UserSummary.of(appointment.getStaff()));
+    }
+}
@@ -0,0 +1,78 @@
+package j2ee.j2ee.apps.bulk_delete;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Set-based multi-delete: per chunk of bulk-delete.chunk-size ids, one SELECT
+// finds the rows that may go, then each dependent statement and the final
+// DELETE (or deleted_at UPDATE) run once over that chunk with WHERE ... IN.
+// All chunks share one transaction, so a request deletes all or nothing, and
+// nothing is loaded into the persistence context. Entity listeners do not
+// fire; callers clean up caches and indexes from DeleteResult.deletedIds.
+@Component
+public class BulkDeleter {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${bulk-delete.chunk-size:500}")
+    private int chunkSize;
+
+    public DeleteResult delete(DeletePlan plan, Collection<? extends Number> ids, DeleteMode mode) {
+        if (mode == DeleteMode.SOFT && !plan.softDelete()) {
+            throw new IllegalArgumentException(plan.table() + " cannot be soft-deleted");
+        }
+        List<Long> requested = ids.stream().filter(Objects::nonNull).map(Number::longValue).distinct().toList();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        return transactionTemplate.execute(status -> {
+            List<Long> deleted = new ArrayList<>();
+            Map<String, Integer> dependents = new LinkedHashMap<>();
+            for (int from = 0; from < requested.size(); from += chunkSize) {
+                List<Long> chunk = requested.subList(from, Math.min(from + chunkSize, requested.size()));
+                List<Long> doomed = jdbcTemplate.queryForList(selectSql(plan, mode),
+                        new MapSqlParameterSource("ids", chunk), Long.class);
+                if (doomed.isEmpty()) {
+                    continue;
+                }
+                MapSqlParameterSource params = new MapSqlParameterSource("ids", doomed).addValue("now", now);
+                for (DeletePlan.Dependent dependent : mode == DeleteMode.SOFT ? plan.softDependents()
+                        : plan.dependents()) {
+                    dependents.merge(dependent.label(), jdbcTemplate.update(dependent.sql(), params), Integer::sum);
+                }
+                jdbcTemplate.update(mode == DeleteMode.SOFT
+                        ? "UPDATE " + plan.table() + " SET deleted_at = :now WHERE id IN (:ids)"
+                        : "DELETE FROM " + plan.table() + " WHERE id IN (:ids)", params);
+                deleted.addAll(doomed);
+            }
+            return new DeleteResult(mode.name().toLowerCase(), requested.size(), deleted.size(),
+                    requested.size() - deleted.size(), dependents, deleted);
+        });
+    }
+
+    // Ids in the chunk that exist and may go
+    private static String selectSql(DeletePlan plan, DeleteMode mode) {
+        StringBuilder sql = new StringBuilder("SELECT t.id FROM ").append(plan.table()).append(" t WHERE t.id IN (:ids)");
+        if (mode == DeleteMode.SOFT) {
+            sql.append(" AND t.deleted_at IS NULL");
+        } else {
+            plan.blockers().forEach(blocker -> sql.append(" AND NOT ").append(blocker));
+        }
+        return sql.toString();
+    }
+}
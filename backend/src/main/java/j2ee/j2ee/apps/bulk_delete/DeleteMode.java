@@ -0,0 +1,20 @@
+package j2ee.j2ee.apps.bulk_delete;
+
+public enum DeleteMode {
+    // Rows and their dependents go; rows still referenced by history are skipped
+    HARD,
+    // deleted_at is set, as for categories; dependents stay
+    SOFT;
+
+    // From the ?mode= request parameter, any case
+    public static DeleteMode of(String value) {
+        if (value == null || value.isBlank()) {
+            return HARD;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("mode must be hard or soft");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package j2ee.j2ee.apps.bulk_delete;
+
+import java.util.List;
+
+// How to delete rows of one table by id. SQL is plain and set-based:
+// blockers are conditions on the row (aliased t) that keep it from a hard
+// delete; dependents are DELETE or UPDATE statements over :ids, run in order
+// before the row itself goes; softDependents run with :ids and :now when the
+// rows are soft-deleted. softDelete says whether the table has deleted_at.
+public record DeletePlan(String table, List<String> blockers, List<Dependent> dependents, boolean softDelete,
+        List<Dependent> softDependents) {
+
+    // label is the key in DeleteResult.dependents
+    public record Dependent(String label, String sql) {
+    }
+
+    public static Dependent dependent(String label, String sql) {
+        return new Dependent(label, sql);
+    }
+}
@@ -0,0 +1,82 @@
+package j2ee.j2ee.apps.bulk_delete;
+
+import static j2ee.j2ee.apps.bulk_delete.DeletePlan.dependent;
+
+import java.util.List;
+
+// Delete plans for the tables with multi-select delete in the admin screens.
+// Orders, appointments, reviews and order lines are history: rows they point
+// at are never hard-deleted (use soft mode for those). Carts are held in
+// memory by CartStore, so a product in a cart is skipped rather than pulled
+// out from under it. Everything else that points at a row is deleted or set
+// to NULL first, in the same transaction.
+public final class DeletePlans {
+
+    private static final String STORE_PRODUCTS = "SELECT p.id FROM products p WHERE p.store_id IN (:ids)";
+    private static final String STORE_CATEGORIES = "SELECT c.id FROM categories c WHERE c.store_id IN (:ids)";
+
+    public static final DeletePlan PRODUCTS = new DeletePlan("products",
+            List.of("EXISTS (SELECT 1 FROM order_lines r WHERE r.product_id = t.id)",
+                    "EXISTS (SELECT 1 FROM cart_item r WHERE r.product_id = t.id)"),
+            List.of(dependent("product_images", "DELETE FROM product_images WHERE product_id IN (:ids)"),
+                    dependent("stock_reservations", "DELETE FROM stock_reservations WHERE product_id IN (:ids)"),
+                    dependent("flash_sales", "DELETE FROM flash_sales WHERE product_id IN (:ids)")),
+            true, List.of());
+
+    public static final DeletePlan SERVICES = new DeletePlan("services",
+            List.of("EXISTS (SELECT 1 FROM appointments r WHERE r.service_id = t.id)"),
+            List.of(dependent("stores_staff", "DELETE FROM stores_staff WHERE service_id IN (:ids)")),
+            true, List.of());
+
+    // A store takes its catalog with it, in both modes
+    public static final DeletePlan STORES = new DeletePlan("stores",
+            List.of("EXISTS (SELECT 1 FROM orders r WHERE r.store_id = t.id)",
+                    "EXISTS (SELECT 1 FROM appointments r WHERE r.store_id = t.id)",
+                    "EXISTS (SELECT 1 FROM cart_item r JOIN products p ON p.id = r.product_id WHERE p.store_id = t.id)"),
+            List.of(dependent("product_images",
+                    "DELETE FROM product_images WHERE product_id IN (" + STORE_PRODUCTS + ")"),
+                    dependent("stock_reservations",
+                            "DELETE FROM stock_reservations WHERE product_id IN (" + STORE_PRODUCTS + ")"),
+                    dependent("flash_sales", "DELETE FROM flash_sales WHERE product_id IN (" + STORE_PRODUCTS + ") "
+                            + "OR category_id IN (" + STORE_CATEGORIES + ")"),
+                    dependent("products", "DELETE FROM products WHERE store_id IN (:ids)"),
+                    // Products of other stores filed under this store's categories
+                    dependent("products_detached",
+                            "UPDATE products SET category_id = NULL WHERE category_id IN (" + STORE_CATEGORIES + ")"),
+                    dependent("categories", "DELETE FROM categories WHERE store_id IN (:ids)"),
+                    dependent("stores_staff", "DELETE FROM stores_staff WHERE store_id IN (:ids)"),
+                    dependent("services", "DELETE FROM services WHERE store_id IN (:ids)")),
+            true,
+            List.of(dependent("products",
+                    "UPDATE products SET deleted_at = :now WHERE store_id IN (:ids) AND deleted_at IS NULL"),
+                    dependent("services",
+                            "UPDATE services SET deleted_at = :now WHERE store_id IN (:ids) AND deleted_at IS NULL")));
+
+    public static final DeletePlan USERS = new DeletePlan("users",
+            List.of("EXISTS (SELECT 1 FROM orders r WHERE r.user_id = t.id)",
+                    "EXISTS (SELECT 1 FROM appointments r WHERE r.customer_id = t.id OR r.staff_id = t.id)",
+                    "EXISTS (SELECT 1 FROM reviews r WHERE r.user_id = t.id)",
+                    "EXISTS (SELECT 1 FROM stores r WHERE r.owner_id = t.id)"),
+            List.of(dependent("address_book", "DELETE FROM address_book WHERE user_id IN (:ids)"),
+                    dependent("cart_item", "DELETE FROM cart_item WHERE cart_id IN "
+                            + "(SELECT c.id FROM carts c WHERE c.user_id IN (:ids))"),
+                    dependent("carts", "DELETE FROM carts WHERE user_id IN (:ids)"),
+                    dependent("stores_staff", "DELETE FROM stores_staff WHERE staff_id IN (:ids)"),
+                    dependent("stock_reservations", "DELETE FROM stock_reservations WHERE user_id IN (:ids)"),
+                    dependent("idempotency_keys", "DELETE FROM idempotency_keys WHERE user_id IN (:ids)"),
+                    dependent("payments_detached", "UPDATE payments SET staff_id = NULL WHERE staff_id IN (:ids)")),
+            false, List.of());
+
+    public static final DeletePlan ROLES = new DeletePlan("roles",
+            List.of("EXISTS (SELECT 1 FROM users r WHERE r.role_id = t.id)"),
+            List.of(), false, List.of());
+
+    public static final DeletePlan CATEGORIES_OF_SERVICES = new DeletePlan("categories_of_services",
+            List.of(),
+            List.of(dependent("services_detached", "UPDATE services SET category_of_service_id = NULL "
+                    + "WHERE category_of_service_id IN (:ids)")),
+            false, List.of());
+
+    private DeletePlans() {
+    }
+}
@@ -0,0 +1,11 @@
+package j2ee.j2ee.apps.bulk_delete;
+
+import java.util.List;
+import java.util.Map;
+
+// Affected counts of one bulk delete. skipped counts ids that were unknown,
+// already soft-deleted or (hard mode) still referenced by history;
+// dependents counts rows deleted or detached per dependent table.
+public record DeleteResult(String mode, int requested, int deleted, int skipped, Map<String, Integer> dependents,
+        List<Long> deletedIds) {
+}
@@ -0,0 +1,73 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/imports")
+@ExecutionLane(Lane.ADMIN)
+public class BulkImportController {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    // kind: products, services, users or stores; CSV with a header row, or NDJSON with one object per line
+    @PostMapping(value = "/{kind}", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<?> startImport(@PathVariable("kind") String kind, HttpServletRequest request) {
+        try {
+            String format = request.getContentType().startsWith("text/csv") ? "csv" : "ndjson";
+            Optional<BulkImportJob> job = bulkImportService.start(kind, format, request.getInputStream());
+            if (job.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/imports/{id}")
+                    .buildAndExpand(job.get().getId())
+                    .toUri();
+            return ResponseEntity.accepted().location(location).body(job.get().progress());
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/{job_id}")
+    public ResponseEntity<BulkImportJob.Progress> getProgress(@PathVariable("job_id") String jobId) {
+        return bulkImportService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(job.progress()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // CSV of row number and reason for every rejected row
+    @GetMapping("/{job_id}/errors")
+    public ResponseEntity<Resource> getErrorReport(@PathVariable("job_id") String jobId) {
+        Optional<Path> report = bulkImportService.getErrorReport(jobId);
+        if (report.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("import-" + jobId + "-errors.csv").build().toString())
+                .body(new FileSystemResource(report.get()));
+    }
+}
@@ -0,0 +1,93 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one bulk import, polled through /api/imports/{id}. Row errors
+// are not kept in memory: each is appended to a CSV report on disk, which
+// GET /api/imports/{id}/errors downloads, so a file full of bad rows costs
+// no more heap than a clean one.
+public class BulkImportJob {
+
+    public enum State {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    public record Progress(String id, String kind, State state, long rowsRead, long inserted, long failed,
+            String errorReport, String message, LocalDateTime startedAt, LocalDateTime finishedAt) {
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String kind;
+    private final Path report;
+    private final BufferedWriter reportWriter;
+    final AtomicLong rowsRead = new AtomicLong();
+    final AtomicLong inserted = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    private volatile State state = State.QUEUED;
+    private volatile String message;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private volatile LocalDateTime finishedAt;
+
+    BulkImportJob(String kind, Path report) throws IOException {
+        this.kind = kind;
+        this.report = report;
+        this.reportWriter = Files.newBufferedWriter(report, StandardCharsets.UTF_8);
+        reportWriter.write("row,error\n");
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    Path getReport() {
+        return report;
+    }
+
+    // Called from the parse and write stages
+    synchronized void error(long row, String text) {
+        failed.incrementAndGet();
+        try {
+            reportWriter.write(row + "," + quote(text) + "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void running() {
+        state = State.RUNNING;
+    }
+
+    synchronized void finish(State end, String text) {
+        try {
+            reportWriter.close();
+        } catch (IOException e) {
+            System.err.println("Could not close import report " + report + ": " + e.getMessage());
+        }
+        message = text;
+        finishedAt = LocalDateTime.now();
+        state = end;
+    }
+
+    boolean isFinished() {
+        return state == State.DONE || state == State.FAILED;
+    }
+
+    public Progress progress() {
+        String link = isFinished() && failed.get() > 0 ? "/api/imports/" + id + "/errors" : null;
+        return new Progress(id, kind, state, rowsRead.get(), inserted.get(), failed.get(), link, message, startedAt,
+                finishedAt);
+    }
+
+    private static String quote(String text) {
+        String value = text == null ? "" : text.replace("\r", " ").replace("\n", " ");
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,87 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Starts bulk imports and keeps the latest jobs, with their error reports, for
+// polling and download. The upload is spooled to a file first, so the request
+// returns at once and BulkImporter runs in the background with constant memory.
+@Service
+public class BulkImportService {
+
+    private static final int KEPT_JOBS = 50;
+
+    @Autowired
+    private BulkImporter bulkImporter;
+    @Autowired
+    private ImportTargets importTargets;
+
+    @Value("${bulk-import.dir:${java.io.tmpdir}}")
+    private String spoolDir;
+
+    // A report goes when its job drops out of the list
+    private final Map<String, BulkImportJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BulkImportJob> eldest) {
+            boolean evict = size() > KEPT_JOBS && eldest.getValue().isFinished();
+            if (evict) {
+                try {
+                    Files.deleteIfExists(eldest.getValue().getReport());
+                } catch (IOException e) {
+                    System.err.println("Could not delete import report: " + e.getMessage());
+                }
+            }
+            return evict;
+        }
+    };
+
+    // kind is one of ImportTargets.PRODUCTS, SERVICES, USERS or STORES; the body is CSV with a header row
+    public Optional<BulkImportJob> start(String kind, InputStream body) throws IOException {
+        return start(kind, RecordReader.CSV, body);
+    }
+
+    // format is "csv" or "ndjson"
+    public Optional<BulkImportJob> start(String kind, String format, InputStream body) throws IOException {
+        Optional<ImportTarget<?>> target = importTargets.create(kind);
+        if (target.isEmpty()) {
+            return Optional.empty();
+        }
+        Path dir = Path.of(spoolDir);
+        Files.createDirectories(dir);
+        Path file = Files.createTempFile(dir, kind + "-", "." + format);
+        try {
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        BulkImportJob job = new BulkImportJob(kind, Files.createTempFile(dir, kind + "-errors-", ".csv"));
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+        }
+        bulkImporter.run(job, target.get(), file, format);
+        return Optional.of(job);
+    }
+
+    public Optional<BulkImportJob> getJob(String id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id));
+        }
+    }
+
+    // Only once the job is over, so the download is complete
+    public Optional<Path> getErrorReport(String id) {
+        return getJob(id).filter(BulkImportJob::isFinished).map(BulkImportJob::getReport).filter(Files::exists);
+    }
+}
@@ -0,0 +1,208 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import j2ee.j2ee.utils.EntityIds;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Runs a bulk import as a three-stage pipeline over a spooled CSV or NDJSON file:
+//  1. parse: the job thread reads records (RecordReader), validates them against the
+//     target's prefetched id sets and cuts chunks of bulk-import.batch-size;
+//  2. prepare: rows that need CPU work (password hashes, geocoding) fan out over a
+//     bounded pool of bulk-import.hash-threads;
+//  3. write: one JDBC batch per chunk and transaction, on a single writer
+//     thread shared by all imports, so imports hold at most one connection.
+// At most bulk-import.pipeline-depth chunks are in flight per job; parsing
+// waits beyond that, so memory stays flat whatever the file size. A failing
+// batch is retried row by row to find the bad rows.
+@Component
+public class BulkImporter {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityIds entityIds;
+
+    @Value("${bulk-import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${bulk-import.pipeline-depth:2}")
+    private int pipelineDepth;
+
+    // 0 means one per core
+    @Value("${bulk-import.hash-threads:0}")
+    private int hashThreads;
+
+    private ExecutorService hashPool;
+    private ExecutorService writer;
+
+    @PostConstruct
+    public void start() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        // Bounded queue; when it is full the parse thread hashes too, which slows parsing down
+        hashPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchSize * pipelineDepth), new ThreadPoolExecutor.CallerRunsPolicy());
+        writer = Executors.newSingleThreadExecutor();
+    }
+
+    @PreDestroy
+    public void stop() {
+        hashPool.shutdownNow();
+        writer.shutdownNow();
+    }
+
+    @Async
+    public <R> void run(BulkImportJob job, ImportTarget<R> target, Path file, String format) {
+        job.running();
+        Semaphore inFlight = new Semaphore(pipelineDepth);
+        CompletableFuture<Void> written = CompletableFuture.completedFuture(null);
+        try (InputStream in = Files.newInputStream(file);
+                RecordReader records = new RecordReader(in, format);
+                EntityIds.Block ids = target.idSource() == null ? null : entityIds.open(target.idSource())) {
+            target.prefetch();
+            Chunk<R> chunk = new Chunk<>(job);
+            while (records.hasNext()) {
+                job.rowsRead.incrementAndGet();
+                try {
+                    Map<String, String> record = records.next();
+                    chunk.add(records.row(), target.parse(record));
+                } catch (IllegalArgumentException e) {
+                    job.error(records.row(), e.getMessage());
+                }
+                if (chunk.size() >= batchSize) {
+                    written = submit(job, target, chunk, ids, inFlight, written);
+                    chunk = new Chunk<>(job);
+                }
+            }
+            written = submit(job, target, chunk, ids, inFlight, written);
+            written.join();
+            job.finish(BulkImportJob.State.DONE, null);
+        } catch (IOException | RuntimeException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            // Let chunks already handed on finish, so the counts match the table
+            try {
+                written.join();
+            } catch (CompletionException ignored) {
+                // reported below
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            job.finish(BulkImportJob.State.FAILED, cause.getMessage());
+        } finally {
+            target.finished();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("Could not delete import file " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Runs on the parse thread, so the id block is only ever used by one thread
+    private <R> CompletableFuture<Void> submit(BulkImportJob job, ImportTarget<R> target, Chunk<R> chunk,
+            EntityIds.Block ids, Semaphore inFlight, CompletableFuture<Void> written) throws InterruptedException {
+        if (written.isCompletedExceptionally()) {
+            written.join();
+        }
+        target.check(chunk);
+        if (chunk.isEmpty()) {
+            return written;
+        }
+        List<R> rows = chunk.values();
+        if (ids != null) {
+            rows.forEach(row -> target.setId(row, ids.next()));
+        }
+
+        inFlight.acquire();
+        CompletableFuture<Void> prepared = CompletableFuture.completedFuture(null);
+        if (target.needsPreparing()) {
+            prepared = CompletableFuture.allOf(rows.stream()
+                    .map(row -> CompletableFuture.runAsync(() -> target.prepare(row), hashPool))
+                    .toArray(CompletableFuture[]::new));
+        }
+        // Chained on the previous write, so chunks are written in file order
+        return written.thenCombineAsync(prepared, (previous, ready) -> {
+            write(job, target, chunk);
+            return (Void) null;
+        }, writer).whenComplete((ignored, error) -> inFlight.release());
+    }
+
+    private <R> void write(BulkImportJob job, ImportTarget<R> target, Chunk<R> chunk) {
+        List<R> rows = chunk.values();
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(target, rows));
+            committed(job, target, rows);
+        } catch (DataAccessException e) {
+            // Find the offending rows; the others still go in
+            for (Chunk.Entry<R> entry : chunk.entries()) {
+                try {
+                    insert(target, List.of(entry.value()));
+                    committed(job, target, List.of(entry.value()));
+                } catch (DataAccessException rowError) {
+                    job.error(entry.row(), rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private <R> void insert(ImportTarget<R> target, List<R> rows) {
+        BatchPreparedStatementSetter setter = new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                target.bind(ps, rows.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        };
+        if (target.idSource() != null) {
+            jdbcTemplate.batchUpdate(target.insertSql(), setter);
+            return;
+        }
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(target.insertSql(), Statement.RETURN_GENERATED_KEYS),
+                setter, keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < rows.size(); i++) {
+            target.setId(rows.get(i), ((Number) generated.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    private <R> void committed(BulkImportJob job, ImportTarget<R> target, List<R> rows) {
+        target.committed(rows);
+        job.inserted.addAndGet(rows.size());
+    }
+}
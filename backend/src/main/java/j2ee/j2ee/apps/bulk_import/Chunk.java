@@ -0,0 +1,50 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// Parsed rows on their way through the pipeline, with their line numbers
+final class Chunk<R> {
+
+    record Entry<R>(long row, R value) {
+    }
+
+    private final BulkImportJob job;
+    private final List<Entry<R>> entries = new ArrayList<>();
+
+    Chunk(BulkImportJob job) {
+        this.job = job;
+    }
+
+    void add(long row, R value) {
+        entries.add(new Entry<>(row, value));
+    }
+
+    // check returns why a row is refused, or null; refused rows are reported and dropped
+    void rejectIf(Function<R, String> check) {
+        entries.removeIf(entry -> {
+            String reason = check.apply(entry.value());
+            if (reason != null) {
+                job.error(entry.row(), reason);
+            }
+            return reason != null;
+        });
+    }
+
+    List<Entry<R>> entries() {
+        return entries;
+    }
+
+    List<R> values() {
+        return entries.stream().map(Entry::value).toList();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+}
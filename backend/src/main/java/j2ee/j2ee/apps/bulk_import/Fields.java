@@ -0,0 +1,115 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+// Reads typed values from one CSV record. Blank cells are null; anything
+// unreadable throws IllegalArgumentException naming the column.
+final class Fields {
+
+    static final int MAX_TEXT = 255;
+
+    private Fields() {
+    }
+
+    static String text(Map<String, String> record, String field) {
+        return text(record, field, MAX_TEXT);
+    }
+
+    static String text(Map<String, String> record, String field, int maxLength) {
+        String value = record.get(field);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim();
+        if (text.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
+        return text;
+    }
+
+    static String required(Map<String, String> record, String field) {
+        String text = text(record, field);
+        if (text == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return text;
+    }
+
+    static Double amount(Map<String, String> record, String field) {
+        String text = text(record, field);
+        if (text == null) {
+            return null;
+        }
+        try {
+            double value = Double.parseDouble(text);
+            if (value < 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new IllegalArgumentException(field + " must be zero or more: " + text);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + text);
+        }
+    }
+
+    // Any finite number, negative ones included (coordinates)
+    static Double number(Map<String, String> record, String field) {
+        String text = text(record, field);
+        try {
+            Double value = text == null ? null : Double.valueOf(text);
+            if (value != null && (value.isNaN() || value.isInfinite())) {
+                throw new IllegalArgumentException(field + " is not a number: " + text);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + text);
+        }
+    }
+
+    static LocalTime time(Map<String, String> record, String field) {
+        String text = text(record, field);
+        try {
+            return text == null ? null : LocalTime.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field + " is not a time (HH:mm): " + text);
+        }
+    }
+
+    static Integer count(Map<String, String> record, String field) {
+        String text = text(record, field);
+        if (text == null) {
+            return null;
+        }
+        try {
+            int value = Integer.parseInt(text);
+            if (value < 0) {
+                throw new IllegalArgumentException(field + " must be zero or more: " + text);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a whole number: " + text);
+        }
+    }
+
+    static Long id(Map<String, String> record, String field) {
+        String text = text(record, field);
+        try {
+            return text == null ? null : Long.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + text);
+        }
+    }
+
+    static boolean flag(Map<String, String> record, String field) {
+        String text = text(record, field);
+        if (text == null) {
+            return false;
+        }
+        return switch (text.toLowerCase()) {
+            case "1", "true", "yes" -> true;
+            case "0", "false", "no" -> false;
+            default -> throw new IllegalArgumentException(field + " is not true or false: " + text);
+        };
+    }
+}
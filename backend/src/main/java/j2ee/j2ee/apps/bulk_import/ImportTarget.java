@@ -0,0 +1,49 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+// One table BulkImporter can load. A target reads and validates one record,
+// knows which ids the rows may reference and binds the insert. Each job gets
+// its own instance, so the prefetched id sets live as long as the job.
+interface ImportTarget<R> {
+
+    // Entity whose Hibernate generator hands out ids, or null for an identity
+    // column, where the database assigns them and the batch returns them
+    Class<?> idSource();
+
+    // Called once before the first record: load referenced ids into hash sets
+    void prefetch();
+
+    // Throws IllegalArgumentException with a message for the error report
+    R parse(Map<String, String> record);
+
+    // Checks that need the database, one query per chunk
+    default void check(Chunk<R> chunk) {
+    }
+
+    // CPU-bound work per row (password hashing), run in parallel on the hash pool
+    default boolean needsPreparing() {
+        return false;
+    }
+
+    default void prepare(R row) {
+    }
+
+    String insertSql();
+
+    // With an idSource the id is already set and is the first parameter
+    void bind(PreparedStatement ps, R row) throws SQLException;
+
+    void setId(R row, long id);
+
+    // After each committed batch, with ids set
+    default void committed(List<R> rows) {
+    }
+
+    // After the last batch, whether the job succeeded or not
+    default void finished() {
+    }
+}
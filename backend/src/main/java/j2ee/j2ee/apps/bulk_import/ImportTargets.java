@@ -0,0 +1,67 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import j2ee.j2ee.apps.category.CategoryRepository;
+import j2ee.j2ee.apps.category_of_service.CategoryOfServiceRepository;
+import j2ee.j2ee.apps.product.ProductSearchIndex;
+import j2ee.j2ee.apps.role.RoleRepository;
+import j2ee.j2ee.apps.search.SearchIndexService;
+import j2ee.j2ee.apps.store.Gazetteer;
+import j2ee.j2ee.apps.store.StoreGeoIndex;
+import j2ee.j2ee.apps.store.StoreRepository;
+import j2ee.j2ee.apps.store.StoreScheduleIndex;
+import j2ee.j2ee.apps.user.UserRepository;
+import j2ee.j2ee.cache.CatalogCache;
+
+// A fresh ImportTarget per job, by the kind named in the URL
+@Component
+public class ImportTargets {
+
+    public static final String PRODUCTS = "products";
+    public static final String SERVICES = "services";
+    public static final String USERS = "users";
+    public static final String STORES = "stores";
+
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private CategoryOfServiceRepository categoryOfServiceRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private SearchIndexService searchIndexService;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private CatalogCache catalogCache;
+    @Autowired
+    private Gazetteer gazetteer;
+    @Autowired
+    private StoreGeoIndex storeGeoIndex;
+    @Autowired
+    private StoreScheduleIndex storeScheduleIndex;
+
+    Optional<ImportTarget<?>> create(String kind) {
+        return Optional.ofNullable(switch (kind) {
+            case PRODUCTS -> new ProductImportTarget(storeRepository, categoryRepository, searchIndexService,
+                    productSearchIndex, catalogCache);
+            case SERVICES -> new ServiceImportTarget(storeRepository, categoryOfServiceRepository, searchIndexService,
+                    catalogCache);
+            case USERS -> new UserImportTarget(userRepository, roleRepository, passwordEncoder);
+            case STORES -> new StoreImportTarget(userRepository, gazetteer, storeGeoIndex, storeScheduleIndex,
+                    searchIndexService, catalogCache);
+            default -> null;
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import j2ee.j2ee.apps.category.CategoryEntity;
+import j2ee.j2ee.apps.category.CategoryRepository;
+import j2ee.j2ee.apps.product.ProductEntity;
+import j2ee.j2ee.apps.product.ProductSearchIndex;
+import j2ee.j2ee.apps.search.SearchIndexService;
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.apps.store.StoreRepository;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
+
+// Columns: name, price, store_id (required), description, old_price, weight,
+// stock_quantity, is_sale, status, category_id
+final class ProductImportTarget implements ImportTarget<ProductEntity> {
+
+    static final String INSERT = "INSERT INTO products (id, name, description, is_sale, old_price, price, weight, "
+            + "stock_quantity, is_in_stock, status, version, store_id, category_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private final StoreRepository storeRepository;
+    private final CategoryRepository categoryRepository;
+    private final SearchIndexService searchIndexService;
+    private final ProductSearchIndex productSearchIndex;
+    private final CatalogCache catalogCache;
+    private Set<Long> storeIds;
+    private Set<Long> categoryIds;
+    private volatile boolean inserted;
+
+    ProductImportTarget(StoreRepository storeRepository, CategoryRepository categoryRepository,
+            SearchIndexService searchIndexService, ProductSearchIndex productSearchIndex, CatalogCache catalogCache) {
+        this.storeRepository = storeRepository;
+        this.categoryRepository = categoryRepository;
+        this.searchIndexService = searchIndexService;
+        this.productSearchIndex = productSearchIndex;
+        this.catalogCache = catalogCache;
+    }
+
+    @Override
+    public Class<?> idSource() {
+        return ProductEntity.class;
+    }
+
+    @Override
+    public void prefetch() {
+        storeIds = new HashSet<>(storeRepository.findAllIds());
+        categoryIds = new HashSet<>(categoryRepository.findActiveIds());
+    }
+
+    @Override
+    public ProductEntity parse(Map<String, String> record) {
+        ProductEntity product = new ProductEntity();
+        product.setName(Fields.required(record, "name"));
+        product.setDescription(Fields.text(record, "description"));
+        Double price = Fields.amount(record, "price");
+        if (price == null) {
+            throw new IllegalArgumentException("price is required");
+        }
+        product.setPrice(price);
+        product.setOld_price(Fields.amount(record, "old_price"));
+        product.setWeight(Fields.amount(record, "weight"));
+        Integer stock = Fields.count(record, "stock_quantity");
+        product.setStock_quantity(stock == null ? 0 : stock);
+        product.setIs_in_stock(product.getStock_quantity() > 0);
+        product.set_sale(Fields.flag(record, "is_sale"));
+        product.setStatus(Fields.text(record, "status"));
+
+        Long storeId = Fields.id(record, "store_id");
+        if (storeId == null) {
+            throw new IllegalArgumentException("store_id is required");
+        }
+        if (!storeIds.contains(storeId)) {
+            throw new IllegalArgumentException("Unknown store_id " + storeId);
+        }
+        StoreEntity store = new StoreEntity();
+        store.setId(storeId);
+        product.setStore(store);
+
+        Long categoryId = Fields.id(record, "category_id");
+        if (categoryId != null) {
+            if (!categoryIds.contains(categoryId)) {
+                throw new IllegalArgumentException("Unknown category_id " + categoryId);
+            }
+            CategoryEntity category = new CategoryEntity();
+            category.setId(categoryId);
+            product.setCategory(category);
+        }
+        return product;
+    }
+
+    @Override
+    public String insertSql() {
+        return INSERT;
+    }
+
+    @Override
+    public void bind(PreparedStatement ps, ProductEntity product) throws SQLException {
+        ps.setLong(1, product.getId());
+        ps.setString(2, product.getName());
+        ps.setString(3, product.getDescription());
+        ps.setBoolean(4, product.is_sale());
+        ps.setObject(5, product.getOld_price(), Types.DOUBLE);
+        ps.setDouble(6, product.getPrice());
+        ps.setObject(7, product.getWeight(), Types.DOUBLE);
+        ps.setInt(8, product.getStock_quantity());
+        ps.setBoolean(9, product.getIs_in_stock());
+        ps.setString(10, product.getStatus());
+        ps.setLong(11, product.getStore().getId());
+        ps.setObject(12, product.getCategory() == null ? null : product.getCategory().getId(), Types.BIGINT);
+    }
+
+    @Override
+    public void setId(ProductEntity product, long id) {
+        product.setId(id);
+    }
+
+    @Override
+    public void committed(List<ProductEntity> products) {
+        products.forEach(searchIndexService::indexProduct);
+        inserted = true;
+    }
+
+    // The per-store product index is rebuilt once rather than per row
+    @Override
+    public void finished() {
+        catalogCache.invalidate(Catalog.PRODUCTS);
+        if (inserted) {
+            productSearchIndex.rebuild();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+// Reads a spooled upload one record at a time: CSV with a header row, or NDJSON
+// with one object per line. NDJSON values are handed out as text, the way CSV
+// has them, so targets parse both alike. row() is the CSV record number or the
+// NDJSON line number of the last record.
+final class RecordReader implements Closeable {
+
+    static final String CSV = "csv";
+    static final String NDJSON = "ndjson";
+
+    private static final ObjectReader CSV_READER = new CsvMapper()
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .readerFor(Map.class)
+            .with(CsvSchema.emptySchema().withHeader());
+    private static final ObjectReader JSON_READER = new ObjectMapper().readerFor(Map.class);
+
+    private final MappingIterator<Map<String, String>> csv;
+    private final BufferedReader lines;
+    private String pending;
+    private long row;
+
+    RecordReader(InputStream in, String format) throws IOException {
+        if (CSV.equals(format)) {
+            csv = CSV_READER.readValues(in);
+            lines = null;
+        } else {
+            csv = null;
+            lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    boolean hasNext() throws IOException {
+        if (csv != null) {
+            return csv.hasNextValue();
+        }
+        // Blank lines are skipped but still counted, so rows match line numbers
+        while (pending == null) {
+            String line = lines.readLine();
+            if (line == null) {
+                return false;
+            }
+            row++;
+            if (!line.isBlank()) {
+                pending = line;
+            }
+        }
+        return true;
+    }
+
+    // Throws IllegalArgumentException when the record can't be read; the next one still can
+    Map<String, String> next() throws IOException {
+        if (csv != null) {
+            row++;
+            try {
+                return csv.nextValue();
+            } catch (RuntimeJsonMappingException e) {
+                throw new IllegalArgumentException(e.getMessage());
+            }
+        }
+        String line = pending;
+        pending = null;
+        Map<String, Object> record;
+        try {
+            record = JSON_READER.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+        Map<String, String> text = new HashMap<>();
+        record.forEach((field, value) -> text.put(field, value == null ? null : value.toString()));
+        return text;
+    }
+
+    long row() {
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (csv != null) {
+            csv.close();
+        } else {
+            lines.close();
+        }
+    }
+}
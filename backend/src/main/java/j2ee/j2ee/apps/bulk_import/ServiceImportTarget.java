@@ -0,0 +1,124 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import j2ee.j2ee.apps.category_of_service.CategoryOfServiceEntity;
+import j2ee.j2ee.apps.category_of_service.CategoryOfServiceRepository;
+import j2ee.j2ee.apps.search.SearchIndexService;
+import j2ee.j2ee.apps.service.ServiceEntity;
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.apps.store.StoreRepository;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
+
+// Columns: name, price, store_id (required), description, duration, status,
+// category_of_service_id. services has an identity column, so ids come back
+// from the batch instead of a generator.
+final class ServiceImportTarget implements ImportTarget<ServiceEntity> {
+
+    static final String INSERT = "INSERT INTO services (name, description, price, duration, status, store_id, "
+            + "category_of_service_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final StoreRepository storeRepository;
+    private final CategoryOfServiceRepository categoryOfServiceRepository;
+    private final SearchIndexService searchIndexService;
+    private final CatalogCache catalogCache;
+    private Set<Long> storeIds;
+    // Small table; kept whole so search documents get the category facet
+    private Map<Integer, CategoryOfServiceEntity> categories;
+
+    ServiceImportTarget(StoreRepository storeRepository, CategoryOfServiceRepository categoryOfServiceRepository,
+            SearchIndexService searchIndexService, CatalogCache catalogCache) {
+        this.storeRepository = storeRepository;
+        this.categoryOfServiceRepository = categoryOfServiceRepository;
+        this.searchIndexService = searchIndexService;
+        this.catalogCache = catalogCache;
+    }
+
+    @Override
+    public Class<?> idSource() {
+        return null;
+    }
+
+    @Override
+    public void prefetch() {
+        storeIds = new HashSet<>(storeRepository.findAllIds());
+        categories = new HashMap<>();
+        categoryOfServiceRepository.findAll().forEach(category -> categories.put(category.getId(), category));
+    }
+
+    @Override
+    public ServiceEntity parse(Map<String, String> record) {
+        ServiceEntity service = new ServiceEntity();
+        service.setName(Fields.required(record, "name"));
+        service.setDescription(Fields.text(record, "description", 500));
+        Double price = Fields.amount(record, "price");
+        if (price == null) {
+            throw new IllegalArgumentException("price is required");
+        }
+        service.setPrice(price);
+        service.setDuration(Fields.count(record, "duration"));
+        service.setStatus(Fields.text(record, "status"));
+
+        Long storeId = Fields.id(record, "store_id");
+        if (storeId == null) {
+            throw new IllegalArgumentException("store_id is required");
+        }
+        if (!storeIds.contains(storeId)) {
+            throw new IllegalArgumentException("Unknown store_id " + storeId);
+        }
+        StoreEntity store = new StoreEntity();
+        store.setId(storeId);
+        service.setStore(store);
+
+        Long categoryId = Fields.id(record, "category_of_service_id");
+        if (categoryId != null) {
+            CategoryOfServiceEntity category = categoryId > Integer.MAX_VALUE ? null
+                    : categories.get(categoryId.intValue());
+            if (category == null) {
+                throw new IllegalArgumentException("Unknown category_of_service_id " + categoryId);
+            }
+            service.setCategory_of_service(category);
+        }
+        return service;
+    }
+
+    @Override
+    public String insertSql() {
+        return INSERT;
+    }
+
+    @Override
+    public void bind(PreparedStatement ps, ServiceEntity service) throws SQLException {
+        ps.setString(1, service.getName());
+        ps.setString(2, service.getDescription());
+        ps.setDouble(3, service.getPrice());
+        ps.setObject(4, service.getDuration(), Types.INTEGER);
+        ps.setString(5, service.getStatus());
+        ps.setLong(6, service.getStore().getId());
+        ps.setObject(7, service.getCategory_of_service() == null ? null : service.getCategory_of_service().getId(),
+                Types.INTEGER);
+    }
+
+    @Override
+    public void setId(ServiceEntity service, long id) {
+        service.setId(id);
+    }
+
+    @Override
+    public void committed(List<ServiceEntity> services) {
+        services.forEach(searchIndexService::indexService);
+    }
+
+    @Override
+    public void finished() {
+        catalogCache.invalidate(Catalog.SERVICES);
+    }
+}
@@ -0,0 +1,173 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import j2ee.j2ee.apps.search.SearchIndexService;
+import j2ee.j2ee.apps.store.Gazetteer;
+import j2ee.j2ee.apps.store.GeoPoint;
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.apps.store.StoreGeoIndex;
+import j2ee.j2ee.apps.store.StoreScheduleIndex;
+import j2ee.j2ee.apps.user.UserEntity;
+import j2ee.j2ee.apps.user.UserRepository;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
+
+// Columns match the JSON of StoreEntity: name, description, address, latitude,
+// longitude, phone, image, open_time, close_time, status, owner_id. A store
+// without coordinates is placed by its address (Gazetteer). Committed rows go
+// into the geo, schedule and search indexes, since plain JDBC bypasses the
+// entity listeners.
+final class StoreImportTarget implements ImportTarget<StoreEntity> {
+
+    static final String INSERT = "INSERT INTO stores (id, name, description, address, latitude, longitude, phone, "
+            + "image, created_at, updated_at, open_time, close_time, status, owner_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final Gazetteer gazetteer;
+    private final StoreGeoIndex geoIndex;
+    private final StoreScheduleIndex scheduleIndex;
+    private final SearchIndexService searchIndexService;
+    private final CatalogCache catalogCache;
+    private final LocalDateTime importTime = LocalDateTime.now();
+    // users is too big to prefetch; owners are looked up per chunk and remembered
+    private final Set<Long> knownOwners = new HashSet<>();
+
+    StoreImportTarget(UserRepository userRepository, Gazetteer gazetteer, StoreGeoIndex geoIndex,
+            StoreScheduleIndex scheduleIndex, SearchIndexService searchIndexService, CatalogCache catalogCache) {
+        this.userRepository = userRepository;
+        this.gazetteer = gazetteer;
+        this.geoIndex = geoIndex;
+        this.scheduleIndex = scheduleIndex;
+        this.searchIndexService = searchIndexService;
+        this.catalogCache = catalogCache;
+    }
+
+    @Override
+    public Class<?> idSource() {
+        return StoreEntity.class;
+    }
+
+    @Override
+    public void prefetch() {
+    }
+
+    @Override
+    public StoreEntity parse(Map<String, String> record) {
+        StoreEntity store = new StoreEntity();
+        String name = Fields.text(record, "name");
+        // Same default as the JSON import
+        store.setName(name == null ? "Unnamed Store" : name);
+        store.setDescription(Fields.text(record, "description"));
+        store.setAddress(Fields.text(record, "address"));
+        store.setPhone(Fields.text(record, "phone"));
+        store.setImage(Fields.text(record, "image"));
+        store.setStatus(Fields.text(record, "status"));
+        store.setOpen_time(Fields.time(record, "open_time"));
+        store.setClose_time(Fields.time(record, "close_time"));
+        store.setCreated_at(importTime);
+        store.setUpdated_at(importTime);
+
+        Double latitude = Fields.number(record, "latitude");
+        Double longitude = Fields.number(record, "longitude");
+        if ((latitude == null) != (longitude == null)) {
+            throw new IllegalArgumentException("latitude and longitude go together");
+        }
+        if (latitude != null && !GeoPoint.isValid(latitude, longitude)) {
+            throw new IllegalArgumentException("coordinates out of range");
+        }
+        store.setLatitude(latitude);
+        store.setLongitude(longitude);
+
+        Long ownerId = Fields.id(record, "owner_id");
+        if (ownerId != null) {
+            UserEntity owner = new UserEntity();
+            owner.setId(ownerId);
+            store.setOwner(owner);
+        }
+        return store;
+    }
+
+    // One query per chunk for owners not seen yet
+    @Override
+    public void check(Chunk<StoreEntity> chunk) {
+        Set<Long> unknown = new HashSet<>();
+        for (StoreEntity store : chunk.values()) {
+            if (store.getOwner() != null && !knownOwners.contains(store.getOwner().getId())) {
+                unknown.add(store.getOwner().getId());
+            }
+        }
+        if (!unknown.isEmpty()) {
+            knownOwners.addAll(userRepository.findExistingIds(unknown));
+        }
+        chunk.rejectIf(store -> store.getOwner() == null || knownOwners.contains(store.getOwner().getId()) ? null
+                : "Unknown owner_id " + store.getOwner().getId());
+    }
+
+    // Geocoding scans the place list, so it runs on the pool too
+    @Override
+    public boolean needsPreparing() {
+        return true;
+    }
+
+    @Override
+    public void prepare(StoreEntity store) {
+        if (store.getLatitude() == null) {
+            gazetteer.locate(store.getAddress()).ifPresent(point -> {
+                store.setLatitude(point.latitude());
+                store.setLongitude(point.longitude());
+            });
+        }
+    }
+
+    @Override
+    public String insertSql() {
+        return INSERT;
+    }
+
+    @Override
+    public void bind(PreparedStatement ps, StoreEntity store) throws SQLException {
+        ps.setLong(1, store.getId());
+        ps.setString(2, store.getName());
+        ps.setString(3, store.getDescription());
+        ps.setString(4, store.getAddress());
+        ps.setObject(5, store.getLatitude(), Types.DOUBLE);
+        ps.setObject(6, store.getLongitude(), Types.DOUBLE);
+        ps.setString(7, store.getPhone());
+        ps.setString(8, store.getImage());
+        ps.setTimestamp(9, Timestamp.valueOf(store.getCreated_at()));
+        ps.setTimestamp(10, Timestamp.valueOf(store.getUpdated_at()));
+        ps.setObject(11, store.getOpen_time(), Types.TIME);
+        ps.setObject(12, store.getClose_time(), Types.TIME);
+        ps.setString(13, store.getStatus());
+        ps.setObject(14, store.getOwner() == null ? null : store.getOwner().getId(), Types.BIGINT);
+    }
+
+    @Override
+    public void setId(StoreEntity store, long id) {
+        store.setId(id);
+    }
+
+    @Override
+    public void committed(List<StoreEntity> stores) {
+        for (StoreEntity store : stores) {
+            geoIndex.put(store.getId(), store.getLatitude(), store.getLongitude());
+            searchIndexService.indexStore(store);
+        }
+        scheduleIndex.putAll(stores);
+    }
+
+    @Override
+    public void finished() {
+        catalogCache.invalidate(Catalog.STORES);
+    }
+}
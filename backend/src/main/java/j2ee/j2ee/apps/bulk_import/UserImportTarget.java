@@ -0,0 +1,144 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import j2ee.j2ee.apps.role.RoleEntity;
+import j2ee.j2ee.apps.role.RoleRepository;
+import j2ee.j2ee.apps.user.UserEntity;
+import j2ee.j2ee.apps.user.UserRepository;
+
+// Columns: name, email, password (required), phone, role_id (customer when
+// blank). Passwords are hashed in prepare(), which BulkImporter runs on its
+// hash pool: BCrypt is the slow part of a user import by far. Emails and
+// phones already taken are found per chunk, before any hashing is spent.
+final class UserImportTarget implements ImportTarget<UserEntity> {
+
+    static final String INSERT = "INSERT INTO users (id, name, email, phone, password, created_at, update_at, role_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Same default as UserService.create
+    private static final long CUSTOMER_ROLE_ID = 2L;
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final LocalDate today = LocalDate.now();
+    private Set<Long> roleIds;
+    // Within this file; the database is asked per chunk
+    private final Set<String> emails = new HashSet<>();
+    private final Set<String> phones = new HashSet<>();
+
+    UserImportTarget(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public Class<?> idSource() {
+        return UserEntity.class;
+    }
+
+    @Override
+    public void prefetch() {
+        roleIds = new HashSet<>(roleRepository.findAllIds());
+    }
+
+    @Override
+    public UserEntity parse(Map<String, String> record) {
+        UserEntity user = new UserEntity();
+        user.setName(Fields.text(record, "name"));
+        String email = Fields.required(record, "email").toLowerCase();
+        if (email.indexOf('@') < 1) {
+            throw new IllegalArgumentException("email is not an address: " + email);
+        }
+        user.setEmail(email);
+        user.setPhone(Fields.text(record, "phone"));
+        user.setPassword(Fields.required(record, "password"));
+
+        Long roleId = Fields.id(record, "role_id");
+        if (roleId == null) {
+            roleId = CUSTOMER_ROLE_ID;
+        }
+        if (!roleIds.contains(roleId)) {
+            throw new IllegalArgumentException("Unknown role_id " + roleId);
+        }
+        RoleEntity role = new RoleEntity();
+        role.setId(roleId);
+        user.setRole(role);
+
+        if (!emails.add(email)) {
+            throw new IllegalArgumentException("email appears earlier in the file: " + email);
+        }
+        if (user.getPhone() != null && !phones.add(user.getPhone())) {
+            throw new IllegalArgumentException("phone appears earlier in the file: " + user.getPhone());
+        }
+        user.setCreated_at(today);
+        user.setUpdate_at(today);
+        return user;
+    }
+
+    @Override
+    public void check(Chunk<UserEntity> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<UserEntity> users = chunk.values();
+        Set<String> takenEmails = new HashSet<>(userRepository.findExistingEmails(
+                users.stream().map(UserEntity::getEmail).toList()));
+        List<String> chunkPhones = users.stream().map(UserEntity::getPhone).filter(Objects::nonNull).toList();
+        Set<String> takenPhones = chunkPhones.isEmpty() ? Set.of()
+                : new HashSet<>(userRepository.findExistingPhones(chunkPhones));
+        chunk.rejectIf(user -> {
+            if (takenEmails.contains(user.getEmail())) {
+                return "email is already registered: " + user.getEmail();
+            }
+            if (user.getPhone() != null && takenPhones.contains(user.getPhone())) {
+                return "phone is already registered: " + user.getPhone();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public boolean needsPreparing() {
+        return true;
+    }
+
+    @Override
+    public void prepare(UserEntity user) {
+        user.setPassword(passwordEncoder.encode(user.getPassword()));
+    }
+
+    @Override
+    public String insertSql() {
+        return INSERT;
+    }
+
+    @Override
+    public void bind(PreparedStatement ps, UserEntity user) throws SQLException {
+        ps.setLong(1, user.getId());
+        ps.setString(2, user.getName());
+        ps.setString(3, user.getEmail());
+        ps.setString(4, user.getPhone());
+        ps.setString(5, user.getPassword());
+        ps.setDate(6, Date.valueOf(user.getCreated_at()));
+        ps.setDate(7, Date.valueOf(user.getUpdate_at()));
+        ps.setLong(8, user.getRole().getId());
+    }
+
+    @Override
+    public void setId(UserEntity user, long id) {
+        user.setId(id);
+    }
+}
@@ -1,11 +1,19 @@
 package j2ee.j2ee.apps.cart;
 
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import j2ee.j2ee.constants.ErrorMessages;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
 
 @RestController
 @RequestMapping("/api/carts")
+@ExecutionLane(Lane.BOOKING)
 public class CartController {
 
     @Autowired
@@ -25,6 +33,30 @@ public class CartController {
         }
     }
 
+    public record CartPatchRequest(Long userId, List<CartService.CartOperation> operations) {
+    }
+
+    // Many set/increment/remove operations in one request; all or nothing
+    @PatchMapping
+    public ResponseEntity<?> patchCart(@RequestBody CartPatchRequest payload) {
+        try {
+            if (payload.userId() == null || payload.operations() == null || payload.operations().isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            Optional<CartView> cart = cartService.applyOperations(payload.userId(), payload.operations());
+            if (cart.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(ErrorMessages.OUT_OF_STOCK);
+            }
+            return ResponseEntity.ok(cart.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @DeleteMapping
     public ResponseEntity<?> deleteFromCart(@RequestParam("cart_id") Long cart_id, @RequestParam("product_id") Long product_id) {
         try {
@@ -27,4 +27,7 @@ public class CartEntity {
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "cart_id")
     private List<CartItem> items;
+
+    // Bumped by every CartWriter.write; see CartRepository.claim
+    private long version;
 }
@@ -0,0 +1,149 @@
+package j2ee.j2ee.apps.cart;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+// Append-only log of cart changes that are not in MySQL yet. Each line is
+// "seq userId productId quantity" with the absolute quantity after the change,
+// so replaying is idempotent: per cart line the entry with the highest seq wins.
+// Writes go straight to the OS, which survives a process crash; they are
+// fsynced every carts.journal-fsync-ms, which bounds what a power cut can lose.
+// The log is cut into segments: CartStore rotates before a flush and deletes
+// the older segments once everything in them is committed.
+@Component
+public class CartJournal {
+
+    private static final String PREFIX = "cart-journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private long segment;
+    private FileChannel channel;
+
+    public CartJournal(@Value("${carts.journal-dir:data/cart-journal}") String dir) throws IOException {
+        this.dir = Path.of(dir).toAbsolutePath().normalize();
+        Files.createDirectories(this.dir);
+        this.segment = segments().stream().mapToLong(CartJournal::segmentNumber).max().orElse(0) + 1;
+        this.channel = open(segment);
+    }
+
+    public void append(long seq, long userId, long productId, int quantity) {
+        write(seq + " " + userId + " " + productId + " " + quantity + "\n");
+    }
+
+    // Several lines of one cart change in a single write
+    public void appendAll(long seq, long userId, long[] productIds, int[] quantities) {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < productIds.length; i++) {
+            lines.append(seq).append(' ').append(userId).append(' ').append(productIds[i]).append(' ')
+                    .append(quantities[i]).append('\n');
+        }
+        write(lines.toString());
+    }
+
+    private synchronized void write(String lines) {
+        byte[] line = lines.getBytes(StandardCharsets.US_ASCII);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Starts a new segment and returns the number of the last closed one
+    public synchronized long rotate() throws IOException {
+        channel.force(false);
+        channel.close();
+        long closed = segment;
+        segment++;
+        channel = open(segment);
+        return closed;
+    }
+
+    // Deletes every segment up to and including the given one
+    public synchronized void deleteThrough(long lastSegment) throws IOException {
+        for (Path file : segments()) {
+            if (segmentNumber(file) <= lastSegment) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Every entry still on disk, oldest segment first
+    public synchronized List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Path file : segments()) {
+            for (String line : Files.readAllLines(file, StandardCharsets.US_ASCII)) {
+                Entry entry = parse(line);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    @Scheduled(fixedDelayString = "${carts.journal-fsync-ms:200}")
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    // Null for a torn last line left by a crash
+    private static Entry parse(String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            return new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                    Integer.parseInt(parts[3]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(dir.resolve(PREFIX + number + SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(PREFIX))
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    public record Entry(long seq, long userId, long productId, int quantity) {
+    }
+}
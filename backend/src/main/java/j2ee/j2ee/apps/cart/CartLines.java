@@ -0,0 +1,80 @@
+package j2ee.j2ee.apps.cart;
+
+import java.util.Arrays;
+
+// Immutable product id -> quantity map of one cart, as two parallel primitive
+// arrays sorted by product id. Every change makes a new instance, so a cart
+// is updated with a single compare-and-set. seq orders the snapshots of a
+// cart (see CartStore); EVICTED marks a cart dropped from memory.
+final class CartLines {
+
+    static final CartLines EVICTED = new CartLines(new long[0], new int[0], -1);
+
+    private final long[] productIds;
+    private final int[] quantities;
+    private final long seq;
+
+    CartLines(long[] productIds, int[] quantities, long seq) {
+        this.productIds = productIds;
+        this.quantities = quantities;
+        this.seq = seq;
+    }
+
+    static CartLines empty(long seq) {
+        return new CartLines(new long[0], new int[0], seq);
+    }
+
+    int get(long productId) {
+        int i = Arrays.binarySearch(productIds, productId);
+        return i >= 0 ? quantities[i] : 0;
+    }
+
+    // Quantity 0 or less removes the product
+    CartLines with(long productId, int quantity, long nextSeq) {
+        int i = Arrays.binarySearch(productIds, productId);
+        if (i >= 0) {
+            if (quantity > 0) {
+                int[] q = quantities.clone();
+                q[i] = quantity;
+                return new CartLines(productIds, q, nextSeq);
+            }
+            long[] ids = new long[productIds.length - 1];
+            int[] q = new int[quantities.length - 1];
+            System.arraycopy(productIds, 0, ids, 0, i);
+            System.arraycopy(productIds, i + 1, ids, i, ids.length - i);
+            System.arraycopy(quantities, 0, q, 0, i);
+            System.arraycopy(quantities, i + 1, q, i, q.length - i);
+            return new CartLines(ids, q, nextSeq);
+        }
+        if (quantity <= 0) {
+            return new CartLines(productIds, quantities, nextSeq);
+        }
+
+        int at = -i - 1;
+        long[] ids = new long[productIds.length + 1];
+        int[] q = new int[quantities.length + 1];
+        System.arraycopy(productIds, 0, ids, 0, at);
+        System.arraycopy(quantities, 0, q, 0, at);
+        ids[at] = productId;
+        q[at] = quantity;
+        System.arraycopy(productIds, at, ids, at + 1, productIds.length - at);
+        System.arraycopy(quantities, at, q, at + 1, quantities.length - at);
+        return new CartLines(ids, q, nextSeq);
+    }
+
+    int size() {
+        return productIds.length;
+    }
+
+    long productId(int index) {
+        return productIds[index];
+    }
+
+    int quantity(int index) {
+        return quantities[index];
+    }
+
+    long seq() {
+        return seq;
+    }
+}
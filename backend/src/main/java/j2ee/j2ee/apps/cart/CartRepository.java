@@ -1,6 +1,9 @@
 package j2ee.j2ee.apps.cart;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -8,4 +11,13 @@ import java.util.Optional;
 @Repository
 public interface CartRepository extends JpaRepository<CartEntity, Long> {
     Optional<CartEntity> findByUserId(Long user_id);
+
+    // Items come with the cart, so it can be read outside a transaction (CartStore)
+    @Query("SELECT DISTINCT c FROM carts c LEFT JOIN FETCH c.items WHERE c.user.id = :userId")
+    Optional<CartEntity> findWithItemsByUserId(@Param("userId") Long userId);
+
+    // 0 when the cart was written since version was read, e.g. by another app instance
+    @Modifying
+    @Query("UPDATE carts c SET c.version = c.version + 1 WHERE c.id = :id AND c.version = :version")
+    int claim(@Param("id") long id, @Param("version") long version);
 }
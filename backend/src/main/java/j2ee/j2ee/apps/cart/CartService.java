@@ -1,91 +1,142 @@
 package j2ee.j2ee.apps.cart;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
 
+import j2ee.j2ee.apps.flash_sale.FlashSaleService;
+import j2ee.j2ee.apps.inventory.StockService;
 import j2ee.j2ee.apps.product.ProductEntity;
-import j2ee.j2ee.apps.user.UserEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import j2ee.j2ee.apps.product.ProductRepository;
-import jakarta.transaction.Transactional;
 
 @Service
 public class CartService {
 
     @Autowired
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Autowired
     private ProductRepository productRepository;
 
-    public Optional<CartEntity> getByUserId(Long user_id) {
-        return this.cartRepository.findByUserId(user_id);
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    public Optional<CartView> getByUserId(Long user_id) {
+        return cartStore.find(user_id).map(this::toView);
     }
 
-    @Transactional
+    // Applied to the in-memory cart; CartStore writes it to the database shortly after
     public void changeQuantity(Long userId, Long productId, int quantity) {
-        Optional<CartEntity> cartOptional = cartRepository.findByUserId(userId);
-        Optional<ProductEntity> productOptional = productRepository.findById(productId);
-
-        if (!productOptional.isPresent()) {
+        // Flash sale items are only sold through an admission token, and refused without a query
+        if (quantity > 0 && flashSaleService.isActive(productId)) {
             return;
         }
-
-        ProductEntity product = productOptional.get();
-        if (!product.getIs_in_stock()) {
+        int available = quantity > 0 ? stockService.available(productId) : Integer.MAX_VALUE;
+        if (available <= 0) {
             return;
         }
 
-        CartEntity cart;
-        if (cartOptional.isPresent()) {
-            cart = cartOptional.get();
-        } else {
-            cart = new CartEntity();
-            UserEntity user = new UserEntity();
-            user.setId(userId);
-            cart.setUser(user);
-            cart.setItems(new ArrayList<>());
-        }
-
-        var items = cart.getItems();
-        var existingItem = items.stream()
-                .filter(item -> item.getProduct().getId() == productId)
-                .findFirst();
-
-        int newQuantity = existingItem.map(item -> item.getQuantity() + quantity)
-                .orElse(quantity);
+        cartStore.update(userId, productId, current -> {
+            int newQuantity = current + quantity;
+            if (newQuantity <= 0) {
+                return 0;
+            }
+            return newQuantity > available ? CartStore.REFUSE : newQuantity;
+        });
+    }
 
-        if (newQuantity < 0) {
-            if (existingItem.isPresent()) {
-                items.remove(existingItem.get());
+    // Applies every operation to the cart at once; empty when any product lacks stock,
+    // in which case nothing is changed. Operations on one product run in order.
+    public Optional<CartView> applyOperations(long userId, List<CartOperation> operations) {
+        Map<Long, IntUnaryOperator> changes = new LinkedHashMap<>();
+        for (CartOperation operation : operations) {
+            if (operation.productId() == null) {
+                throw new IllegalArgumentException("productId is required");
             }
-            cartRepository.save(cart);
-            return;
+            changes.merge(operation.productId(), operation.toChange(), (a, b) -> a.andThen(b));
         }
 
-        if (newQuantity > product.getStock_quantity()) {
-            return;
+        // Flash sale items cannot be added here (0 available); they are bought with a token
+        List<Long> queried = new ArrayList<>();
+        Map<Long, Integer> onSale = new HashMap<>();
+        for (Long productId : changes.keySet()) {
+            if (flashSaleService.isActive(productId)) {
+                onSale.put(productId, 0);
+            } else {
+                queried.add(productId);
+            }
         }
-
-        if (existingItem.isPresent()) {
-            existingItem.get().setQuantity(newQuantity);
-        } else {
-            CartItem cartItem = new CartItem();
-            cartItem.setProduct(product);
-            cartItem.setQuantity(quantity);
-            items.add(cartItem);
+        Map<Long, Integer> stock = stockService.available(queried);
+        stock.putAll(onSale);
+        long[] productIds = new long[changes.size()];
+        IntUnaryOperator[] checked = new IntUnaryOperator[changes.size()];
+        int i = 0;
+        for (Map.Entry<Long, IntUnaryOperator> change : changes.entrySet()) {
+            int available = stock.getOrDefault(change.getKey(), 0);
+            IntUnaryOperator op = change.getValue();
+            productIds[i] = change.getKey();
+            // Lowering a quantity is always allowed, even below a stock that has since shrunk
+            checked[i++] = current -> {
+                int newQuantity = Math.max(op.applyAsInt(current), 0);
+                return newQuantity > current && newQuantity > available ? CartStore.REFUSE : newQuantity;
+            };
         }
 
-        cartRepository.save(cart);
+        if (!cartStore.updateAll(userId, productIds, checked)) {
+            return Optional.empty();
+        }
+        return Optional.of(getByUserId(userId).orElseThrow());
     }
 
-    @Transactional
     public void deleteFromCart(long cart_id, long product_id) {
-        var cart = this.cartRepository.findById(cart_id);
-        if (cart.isPresent()) {
-            cart.get().getItems().removeIf(item -> item.getProduct().getId() == product_id);
-            this.cartRepository.save(cart.get());
+        cartStore.findUserIdByCartId(cart_id)
+                .ifPresent(userId -> cartStore.update(userId, product_id, current -> 0));
+    }
+
+    public record CartOperation(String op, Long productId, Integer quantity) {
+
+        IntUnaryOperator toChange() {
+            if ("remove".equals(op)) {
+                return current -> 0;
+            }
+            if (quantity == null) {
+                throw new IllegalArgumentException("quantity is required for " + op);
+            }
+            int q = quantity;
+            return switch (op == null ? "" : op) {
+                case "set" -> current -> q;
+                case "increment" -> current -> current + q;
+                default -> throw new IllegalArgumentException("Unknown cart operation: " + op);
+            };
+        }
+    }
+
+    private CartView toView(CartStore.CartSnapshot cart) {
+        List<Long> ids = new ArrayList<>(cart.productIds().length);
+        for (long id : cart.productIds()) {
+            ids.add(id);
+        }
+        Map<Long, ProductEntity> products = productRepository.findAllWithStoreByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductEntity::getId, Function.identity()));
+
+        List<CartView.Item> items = new ArrayList<>();
+        for (int i = 0; i < cart.productIds().length; i++) {
+            ProductEntity product = products.get(cart.productIds()[i]);
+            if (product != null) {
+                items.add(new CartView.Item(product.getId(), product, cart.quantities()[i]));
+            }
         }
+        return new CartView(cart.cartId(), cart.userId(), items);
     }
 }
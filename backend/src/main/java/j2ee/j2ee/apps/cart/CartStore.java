@@ -0,0 +1,264 @@
+package j2ee.j2ee.apps.cart;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Write-behind cart cache keyed by user id. Quantity changes are applied in
+// memory (see HotCart), logged to CartJournal and written to MySQL by a
+// periodic flush that coalesces every change since the last one into a
+// single write per cart. Carts should be served by one app instance per user;
+// when another instance has written a cart since it was loaded here, the flush
+// leaves the row alone and drops this copy (see CartWriter).
+//
+// Every snapshot carries a seq from one counter that starts above anything in
+// the journal, so replaying the journal after a crash keeps the newest value.
+@Component
+public class CartStore {
+
+    // Returned by an update function to leave the quantity unchanged
+    public static final int REFUSE = Integer.MIN_VALUE;
+
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private CartWriter cartWriter;
+
+    private final CartJournal journal;
+    private final AtomicLong seq = new AtomicLong();
+    private final Map<Long, HotCart> carts = new ConcurrentHashMap<>();
+    private final Map<Long, Long> userByCartId = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @Value("${carts.flush-batch-size:200}")
+    private int batchSize;
+
+    @Value("${carts.idle-ms:600000}")
+    private long idleMillis;
+
+    public CartStore(CartJournal journal) {
+        this.journal = journal;
+    }
+
+    // Replays changes that never reached MySQL, before any request can touch a cart
+    @PostConstruct
+    public void recover() throws IOException {
+        List<CartJournal.Entry> entries = journal.readAll();
+        seq.set(entries.stream().mapToLong(CartJournal.Entry::seq).max().orElse(0));
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Map<Long, CartJournal.Entry>> latest = new HashMap<>();
+        for (CartJournal.Entry entry : entries) {
+            latest.computeIfAbsent(entry.userId(), id -> new HashMap<>())
+                    .merge(entry.productId(), entry, (a, b) -> a.seq() >= b.seq() ? a : b);
+        }
+        latest.forEach((userId, lines) -> {
+            try {
+                HotCart cart = cartFor(userId);
+                lines.values().forEach(entry -> cart.update(entry.productId(), current -> entry.quantity(),
+                        seq::incrementAndGet));
+                dirty.add(userId);
+            } catch (RuntimeException e) {
+                // e.g. the user was deleted meanwhile; nothing left to restore the cart into
+                System.err.println("Dropping journaled cart of user " + userId + ": " + e.getMessage());
+            }
+        });
+        flush();
+    }
+
+    // change maps the current quantity to the new one (0 removes, REFUSE keeps it)
+    public boolean update(long userId, long productId, IntUnaryOperator change) {
+        while (true) {
+            HotCart cart = cartFor(userId);
+            CartLines next = cart.update(productId, change, seq::incrementAndGet);
+            if (next == CartLines.EVICTED) {
+                carts.remove(userId, cart);
+                continue;
+            }
+            if (next == null) {
+                return false;
+            }
+            // Dirty before the journal write, so a flush that rotated past this entry also writes the cart
+            dirty.add(userId);
+            journal.append(next.seq(), userId, productId, next.get(productId));
+            return true;
+        }
+    }
+
+    // All changes land in one snapshot, or none do; product ids must be distinct
+    public boolean updateAll(long userId, long[] productIds, IntUnaryOperator[] changes) {
+        while (true) {
+            HotCart cart = cartFor(userId);
+            CartLines next = cart.updateAll(productIds, changes, seq::incrementAndGet);
+            if (next == CartLines.EVICTED) {
+                carts.remove(userId, cart);
+                continue;
+            }
+            if (next == null) {
+                return false;
+            }
+            int[] quantities = new int[productIds.length];
+            for (int i = 0; i < productIds.length; i++) {
+                quantities[i] = next.get(productIds[i]);
+            }
+            dirty.add(userId);
+            journal.appendAll(next.seq(), userId, productIds, quantities);
+            return true;
+        }
+    }
+
+    public int quantity(long userId, long productId) {
+        return cartFor(userId).lines().get(productId);
+    }
+
+    // Current cart of a user, without creating one; product id -> quantity in id order
+    public Optional<CartSnapshot> find(long userId) {
+        HotCart cart = carts.get(userId);
+        if (cart == null) {
+            Optional<CartEntity> entity = cartRepository.findWithItemsByUserId(userId);
+            if (entity.isEmpty()) {
+                return Optional.empty();
+            }
+            cart = carts.computeIfAbsent(userId, id -> fromEntity(entity.get()));
+        }
+        CartLines lines = cart.lines();
+        if (lines == CartLines.EVICTED) {
+            carts.remove(userId, cart);
+            return find(userId);
+        }
+
+        long[] productIds = new long[lines.size()];
+        int[] quantities = new int[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            productIds[i] = lines.productId(i);
+            quantities[i] = lines.quantity(i);
+        }
+        return Optional.of(new CartSnapshot(cart.cartId, userId, productIds, quantities));
+    }
+
+    public Optional<Long> findUserIdByCartId(long cartId) {
+        Long userId = userByCartId.get(cartId);
+        if (userId != null) {
+            return Optional.of(userId);
+        }
+        return cartRepository.findById(cartId).map(cart -> cart.getUser().getId());
+    }
+
+    @Scheduled(fixedDelayString = "${carts.flush-ms:1000}")
+    public synchronized void flush() throws IOException {
+        long closedSegment = journal.rotate();
+        List<Long> users = new ArrayList<>(dirty);
+        dirty.removeAll(users);
+
+        boolean complete = true;
+        for (int from = 0; from < users.size(); from += batchSize) {
+            complete &= write(users.subList(from, Math.min(from + batchSize, users.size())));
+        }
+        if (complete) {
+            journal.deleteThrough(closedSegment);
+        }
+        evictIdle();
+    }
+
+    // Writes one user's cart now, e.g. before checkout reads it from MySQL
+    public synchronized void flush(long userId) {
+        HotCart cart = carts.get(userId);
+        if (cart == null || cart.isClean()) {
+            return;
+        }
+        dirty.remove(userId);
+        if (!write(List.of(userId))) {
+            throw new IllegalStateException("Could not save cart of user " + userId);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() throws IOException {
+        flush();
+    }
+
+    private boolean write(List<Long> users) {
+        List<CartWriter.Snapshot> snapshots = new ArrayList<>();
+        List<HotCart> written = new ArrayList<>();
+        for (Long userId : users) {
+            HotCart cart = carts.get(userId);
+            if (cart == null || cart.lines() == CartLines.EVICTED) {
+                continue;
+            }
+            snapshots.add(new CartWriter.Snapshot(cart.cartId, cart.version(), cart.lines()));
+            written.add(cart);
+        }
+
+        Set<Long> conflicts;
+        try {
+            conflicts = cartWriter.write(snapshots);
+        } catch (RuntimeException e) {
+            System.err.println("Cart flush failed: " + e.getMessage());
+            dirty.addAll(users);
+            return false;
+        }
+        for (int i = 0; i < written.size(); i++) {
+            HotCart cart = written.get(i);
+            if (conflicts.contains(cart.cartId)) {
+                System.err.println("Cart " + cart.cartId + " was written by another instance; reloading it");
+                cart.evict();
+                carts.remove(cart.userId, cart);
+                userByCartId.remove(cart.cartId, cart.userId);
+            } else {
+                cart.flushed(snapshots.get(i).lines().seq());
+            }
+        }
+        return true;
+    }
+
+    private void evictIdle() {
+        long idleSince = System.currentTimeMillis() - idleMillis;
+        carts.forEach((userId, cart) -> {
+            if (cart.tryEvict(idleSince)) {
+                carts.remove(userId, cart);
+                userByCartId.remove(cart.cartId, userId);
+            }
+        });
+    }
+
+    // Loads the cart, creating the row on a user's first change so the client gets a cart id
+    private HotCart cartFor(long userId) {
+        return carts.computeIfAbsent(userId,
+                id -> fromEntity(cartRepository.findWithItemsByUserId(id).orElseGet(() -> cartWriter.create(id))));
+    }
+
+    private HotCart fromEntity(CartEntity entity) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        if (entity.getItems() != null) {
+            entity.getItems().forEach(item -> quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum));
+        }
+        long[] productIds = quantities.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        int[] values = Arrays.stream(productIds).mapToInt(id -> quantities.get(id)).toArray();
+
+        long userId = entity.getUser().getId();
+        userByCartId.put(entity.getId(), userId);
+        return new HotCart(userId, entity.getId(), entity.getVersion(),
+                new CartLines(productIds, values, seq.incrementAndGet()));
+    }
+
+    public record CartSnapshot(long cartId, long userId, long[] productIds, int[] quantities) {
+    }
+}
@@ -0,0 +1,13 @@
+package j2ee.j2ee.apps.cart;
+
+import java.util.List;
+
+import j2ee.j2ee.apps.product.ProductEntity;
+
+// Cart as the client reads it: { id, user_id, items: [{ id, product, quantity }] }.
+// Items are unique per product, so an item's id is its product id.
+public record CartView(long id, long user_id, List<Item> items) {
+
+    public record Item(long id, ProductEntity product, int quantity) {
+    }
+}
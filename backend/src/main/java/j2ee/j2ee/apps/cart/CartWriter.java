@@ -0,0 +1,89 @@
+package j2ee.j2ee.apps.cart;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import j2ee.j2ee.apps.product.ProductRepository;
+import j2ee.j2ee.apps.user.UserRepository;
+
+// Writes in-memory carts back to carts / cart_item, many carts per transaction.
+// Only lines whose quantity changed are touched. A cart is only written when its
+// row still has the version the in-memory copy was loaded or last written with,
+// so an instance never overwrites a cart another instance has written since.
+@Component
+public class CartWriter {
+
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    record Snapshot(long cartId, long version, CartLines lines) {
+    }
+
+    @Transactional
+    public CartEntity create(long userId) {
+        CartEntity cart = new CartEntity();
+        cart.setUser(userRepository.getReferenceById(userId));
+        cart.setItems(new ArrayList<>());
+        return cartRepository.save(cart);
+    }
+
+    // Returns the ids of carts not written because their version had moved on
+    @Transactional
+    public Set<Long> write(Collection<Snapshot> snapshots) {
+        Set<Long> conflicts = new HashSet<>();
+        Map<Long, CartEntity> carts = cartRepository
+                .findAllById(snapshots.stream().map(Snapshot::cartId).toList())
+                .stream()
+                .collect(Collectors.toMap(CartEntity::getId, Function.identity()));
+
+        for (Snapshot snapshot : snapshots) {
+            CartEntity cart = carts.get(snapshot.cartId());
+            if (cart == null) {
+                continue;
+            }
+            if (cartRepository.claim(cart.getId(), snapshot.version()) != 1) {
+                conflicts.add(cart.getId());
+                continue;
+            }
+
+            Map<Long, CartItem> existing = new HashMap<>();
+            List<CartItem> duplicates = new ArrayList<>();
+            for (CartItem item : cart.getItems()) {
+                if (existing.putIfAbsent(item.getProduct().getId(), item) != null) {
+                    duplicates.add(item);
+                }
+            }
+            cart.getItems().removeAll(duplicates);
+
+            CartLines lines = snapshot.lines();
+            for (int i = 0; i < lines.size(); i++) {
+                CartItem item = existing.remove(lines.productId(i));
+                if (item == null) {
+                    item = new CartItem();
+                    item.setProduct(productRepository.getReferenceById(lines.productId(i)));
+                    cart.getItems().add(item);
+                }
+                if (item.getQuantity() != lines.quantity(i)) {
+                    item.setQuantity(lines.quantity(i));
+                }
+            }
+            cart.getItems().removeAll(existing.values());
+        }
+        return conflicts;
+    }
+}
@@ -0,0 +1,102 @@
+package j2ee.j2ee.apps.cart;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+
+// One user's cart held in memory by CartStore. Changes are compare-and-set on
+// the immutable CartLines, so concurrent clicks on the same cart never lock.
+final class HotCart {
+
+    final long userId;
+    final long cartId;
+    private final AtomicReference<CartLines> lines;
+    // seq of the snapshot last written to MySQL
+    private volatile long flushedSeq;
+    // carts.version of the row as this copy last read or wrote it
+    private volatile long version;
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    HotCart(long userId, long cartId, long version, CartLines initial) {
+        this.userId = userId;
+        this.cartId = cartId;
+        this.version = version;
+        this.lines = new AtomicReference<>(initial);
+        this.flushedSeq = initial.seq();
+    }
+
+    CartLines lines() {
+        return lines.get();
+    }
+
+    // The new snapshot, null when change refused (CartStore.REFUSE), or EVICTED
+    CartLines update(long productId, IntUnaryOperator change, LongSupplier nextSeq) {
+        lastUsed = System.currentTimeMillis();
+        while (true) {
+            CartLines current = lines.get();
+            if (current == CartLines.EVICTED) {
+                return CartLines.EVICTED;
+            }
+            int quantity = change.applyAsInt(current.get(productId));
+            if (quantity == CartStore.REFUSE) {
+                return null;
+            }
+            CartLines next = current.with(productId, quantity, nextSeq.getAsLong());
+            if (lines.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    // Applies all changes to one snapshot, or none of them if any is refused
+    CartLines updateAll(long[] productIds, IntUnaryOperator[] changes, LongSupplier nextSeq) {
+        lastUsed = System.currentTimeMillis();
+        while (true) {
+            CartLines current = lines.get();
+            if (current == CartLines.EVICTED) {
+                return CartLines.EVICTED;
+            }
+            long seq = nextSeq.getAsLong();
+            CartLines next = current;
+            for (int i = 0; i < productIds.length; i++) {
+                int quantity = changes[i].applyAsInt(next.get(productIds[i]));
+                if (quantity == CartStore.REFUSE) {
+                    return null;
+                }
+                next = next.with(productIds[i], quantity, seq);
+            }
+            if (lines.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    long version() {
+        return version;
+    }
+
+    // Called by the single flushing thread once the write has committed
+    void flushed(long seq) {
+        version++;
+        if (seq > flushedSeq) {
+            flushedSeq = seq;
+        }
+    }
+
+    boolean isClean() {
+        return lines.get().seq() <= flushedSeq;
+    }
+
+    // Drops the copy whatever its state, after another instance wrote the cart;
+    // changes not yet written are lost and the next access reloads the row
+    void evict() {
+        lines.set(CartLines.EVICTED);
+    }
+
+    // Only a clean, idle cart can be dropped; a racing change sees EVICTED and reloads
+    boolean tryEvict(long idleSince) {
+        CartLines current = lines.get();
+        return current != CartLines.EVICTED && current.seq() <= flushedSeq && lastUsed < idleSince
+                && lines.compareAndSet(current, CartLines.EVICTED);
+    }
+}
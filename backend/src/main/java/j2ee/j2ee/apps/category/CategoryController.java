@@ -13,14 +13,20 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.PutMapping;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.config.ConditionalGet;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
 
 @RestController
 @RequestMapping("/api/categories")
+@ExecutionLane(Lane.CATALOG)
 public class CategoryController {
 
     @Autowired
     private CategoryService categoryService;
 
+    @ConditionalGet({ Catalog.CATEGORIES, Catalog.STORES })
     @GetMapping("/{id}")
     public ResponseEntity<CategoryEntity> getCategoryById(@PathVariable Long id) {
         return categoryService.getById(id)
@@ -28,6 +34,7 @@ public class CategoryController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @ConditionalGet({ Catalog.CATEGORIES, Catalog.STORES })
     @GetMapping("active")
     public List<CategoryEntity> getAllActiveCategories() {
         return categoryService.getAllActiveCategories();
@@ -10,4 +10,7 @@ import org.springframework.stereotype.Repository;
 public interface CategoryRepository extends JpaRepository<CategoryEntity, Long> {
     @Query("SELECT c FROM categories c WHERE c.deleted_at IS NULL")
     List<CategoryEntity> findActiveCategories();
+
+    @Query("SELECT c.id FROM categories c WHERE c.deleted_at IS NULL")
+    List<Long> findActiveIds();
 }
@@ -6,12 +6,17 @@ import java.util.List;
 import java.util.Optional;
 
 import java.time.LocalDateTime;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
 
 @Service
 public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CatalogCache catalogCache;
+
     public List<CategoryEntity> getAll() {
         return categoryRepository.findAll();
     }
@@ -21,18 +26,23 @@ public class CategoryService {
     }
 
     public List<CategoryEntity> getAllActiveCategories() {
-        return categoryRepository.findActiveCategories();
+        return catalogCache.get(Catalog.CATEGORIES, "active",
+                () -> List.copyOf(categoryRepository.findActiveCategories()));
     }
 
     public CategoryEntity createCategory(CategoryEntity category) {
-        return categoryRepository.save(category);
+        CategoryEntity saved = categoryRepository.save(category);
+        catalogCache.invalidate(Catalog.CATEGORIES);
+        return saved;
     }
 
     public Optional<CategoryEntity> updateCategory(Long id, CategoryEntity categoryDetails) {
         return categoryRepository.findById(id).map(category -> {
             category.setName(categoryDetails.getName());
             category.setStore(categoryDetails.getStore());
-            return categoryRepository.save(category);
+            CategoryEntity saved = categoryRepository.save(category);
+            catalogCache.invalidate(Catalog.CATEGORIES);
+            return saved;
         });
     }
 
@@ -42,6 +52,7 @@ public class CategoryService {
             CategoryEntity category = categoryOpt.get();
             category.setDeleted_at(LocalDateTime.now());
             categoryRepository.save(category);
+            catalogCache.invalidate(Catalog.CATEGORIES);
             return Optional.of(category);
         }
         return Optional.empty();
@@ -7,9 +7,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.config.ConditionalGet;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
 
 @RestController
 @RequestMapping("api/categoryOfServices")
+@ExecutionLane(Lane.CATALOG)
 public class CategoryOfServiceController {
 
     @Autowired
@@ -28,6 +33,7 @@ public class CategoryOfServiceController {
     }
 
     // Lấy tất cả categories
+    @ConditionalGet({ Catalog.CATEGORIES_OF_SERVICES })
     @GetMapping
     public ResponseEntity<List<CategoryOfServiceDTO>> getAllCategories() {
         try {
@@ -39,6 +45,7 @@ public class CategoryOfServiceController {
     }
 
     // Lấy category theo ID
+    @ConditionalGet({ Catalog.CATEGORIES_OF_SERVICES })
     @GetMapping("/{id}")
     public ResponseEntity<CategoryOfServiceDTO> getCategoryById(@PathVariable Integer id) {
         try {
@@ -75,13 +82,12 @@ public class CategoryOfServiceController {
     // Deletes
     @DeleteMapping("/delete-multiple")
     @Transactional
-    public ResponseEntity<String> deleteMultipleCategories(@RequestBody List<Integer> ids) {
+    public ResponseEntity<?> deleteMultipleCategories(@RequestBody List<Integer> ids) {
         try {
             if (ids == null || ids.isEmpty()) {
                 return ResponseEntity.badRequest().body("Danh sách ID không được rỗng");
             }
-            categoryService.deleteMultipleCategories(ids);
-            return ResponseEntity.ok("Xóa nhiều category thành công");
+            return ResponseEntity.ok(categoryService.deleteMultipleCategories(ids));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Lỗi khi xóa: " + e.getMessage());
         }
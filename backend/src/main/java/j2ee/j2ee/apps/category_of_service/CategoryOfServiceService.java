@@ -4,8 +4,13 @@ import java.util.List;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import java.util.stream.Collectors;
 import org.springframework.transaction.annotation.Transactional;
+import j2ee.j2ee.apps.bulk_delete.BulkDeleter;
+import j2ee.j2ee.apps.bulk_delete.DeleteMode;
+import j2ee.j2ee.apps.bulk_delete.DeletePlans;
+import j2ee.j2ee.apps.bulk_delete.DeleteResult;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
 
 @Service
 public class CategoryOfServiceService {
@@ -13,6 +18,12 @@ public class CategoryOfServiceService {
     @Autowired
     private CategoryOfServiceRepository categoryRepository;
 
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private BulkDeleter bulkDeleter;
+
     public Optional<List<CategoryOfServiceEntity>> getAll() {
         List<CategoryOfServiceEntity> categoryList = this.categoryRepository.findAll();
         return Optional.ofNullable(categoryList);
@@ -42,14 +53,15 @@ public class CategoryOfServiceService {
     public CategoryOfServiceDTO createCategory(CategoryOfServiceDTO categoryDTO) {
         CategoryOfServiceEntity entity = toEntity(categoryDTO);
         CategoryOfServiceEntity savedEntity = categoryRepository.save(entity);
+        catalogCache.invalidate(Catalog.CATEGORIES_OF_SERVICES);
         return toDTO(savedEntity);
     }
 
     // Lấy tất cả categories
     public List<CategoryOfServiceDTO> getAllCategories() {
-        return categoryRepository.findAll().stream()
+        return catalogCache.get(Catalog.CATEGORIES_OF_SERVICES, "all", () -> categoryRepository.findAll().stream()
                 .map(this::toDTO)
-                .collect(Collectors.toList());
+                .toList());
     }
 
     // Lấy category theo ID
@@ -69,6 +81,7 @@ public class CategoryOfServiceService {
         entity.setImage(categoryDTO.getImage());
         entity.setStatus(categoryDTO.getStatus());
         CategoryOfServiceEntity updatedEntity = categoryRepository.save(entity);
+        catalogCache.invalidate(Catalog.CATEGORIES_OF_SERVICES);
         return toDTO(updatedEntity);
     }
 
@@ -79,11 +92,16 @@ public class CategoryOfServiceService {
             throw new RuntimeException("Không tìm thấy category với ID: " + id);
         }
         categoryRepository.deleteById(id);
+        catalogCache.invalidate(Catalog.CATEGORIES_OF_SERVICES);
     }
 
     // Deletes
+    // Services in these categories are kept, without a category
     @Transactional
-    public void deleteMultipleCategories(List<Integer> ids) {
-        categoryRepository.deleteAllByIdIn(ids);
+    public DeleteResult deleteMultipleCategories(List<Integer> ids) {
+        DeleteResult result = bulkDeleter.delete(DeletePlans.CATEGORIES_OF_SERVICES, ids, DeleteMode.HARD);
+        catalogCache.invalidate(Catalog.CATEGORIES_OF_SERVICES);
+        catalogCache.invalidate(Catalog.SERVICES);
+        return result;
     }
 }
@@ -0,0 +1,51 @@
+package j2ee.j2ee.apps.checkout;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import j2ee.j2ee.constants.ErrorMessages;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
+
+@RestController
+@RequestMapping("/api/checkout")
+@ExecutionLane(Lane.BOOKING)
+public class CheckoutController {
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    public record CheckoutRequest(Long userId, String shippingAddress, String paymentMethod) {
+    }
+
+    // Send an Idempotency-Key header to make retries safe: the same key and body
+    // returns the first result (200) instead of placing the orders again (201)
+    @PostMapping
+    public ResponseEntity<?> checkout(@RequestBody CheckoutRequest payload,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        try {
+            if (payload.userId() == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (idempotencyKey != null && idempotencyKey.length() > 200) {
+                return ResponseEntity.badRequest().body("Idempotency-Key is too long");
+            }
+
+            CheckoutResult result = checkoutService.checkout(payload.userId(), payload.shippingAddress(),
+                    payload.paymentMethod(), idempotencyKey);
+            return ResponseEntity.status(result.replayed() ? HttpStatus.OK : HttpStatus.CREATED).body(result);
+        } catch (CheckoutException e) {
+            return switch (e.getReason()) {
+                case OUT_OF_STOCK -> ResponseEntity.status(HttpStatus.CONFLICT).body(ErrorMessages.OUT_OF_STOCK);
+                case KEY_REUSED -> ResponseEntity.unprocessableEntity().body(e.getMessage());
+                case FLASH_SALE -> ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+                default -> ResponseEntity.badRequest().body(e.getMessage());
+            };
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
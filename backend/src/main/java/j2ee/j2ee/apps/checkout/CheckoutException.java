@@ -0,0 +1,20 @@
+package j2ee.j2ee.apps.checkout;
+
+// Aborts a checkout; being unchecked, it rolls the whole pipeline back
+public class CheckoutException extends RuntimeException {
+
+    public enum Reason {
+        EMPTY_CART, UNKNOWN_PRODUCT, OUT_OF_STOCK, KEY_REUSED, FLASH_SALE
+    }
+
+    private final Reason reason;
+
+    public CheckoutException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,203 @@
+package j2ee.j2ee.apps.checkout;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import j2ee.j2ee.apps.cart.CartStore;
+import j2ee.j2ee.apps.flash_sale.FlashSaleService;
+import j2ee.j2ee.apps.inventory.FlashSaleStockException;
+import j2ee.j2ee.apps.inventory.ReservationService;
+import j2ee.j2ee.apps.inventory.StockReservationEntity;
+import j2ee.j2ee.apps.order.OrderEntity;
+import j2ee.j2ee.apps.order.OrderLineEntity;
+import j2ee.j2ee.apps.order.OrderLineRepository;
+import j2ee.j2ee.apps.order.OrderRepository;
+import j2ee.j2ee.apps.payment.PaymentEntity;
+import j2ee.j2ee.apps.payment.PaymentRepository;
+import j2ee.j2ee.apps.product.ProductEntity;
+import j2ee.j2ee.apps.product.ProductRepository;
+import j2ee.j2ee.apps.user.UserEntity;
+import j2ee.j2ee.apps.user.UserRepository;
+import j2ee.j2ee.utils.TransactionHooks;
+
+// Cart -> orders in one transaction: validate the cart, reserve stock, price
+// the lines, insert orders, lines and payments, then empty the cart once the
+// transaction commits. Any CheckoutException rolls every step back, including
+// the stock taken so far. Lines, reservations and payments use pooled ids and
+// go out as JDBC batches at flush; only the orders need one insert each.
+@Component
+public class CheckoutPipeline {
+
+    @Autowired
+    private CartStore cartStore;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Value("${checkout.idempotency-ttl-ms:86400000}")
+    private long keyTtlMillis;
+
+    // key is null when the client sent no Idempotency-Key
+    @Transactional
+    public CheckoutResult run(long userId, String shippingAddress, String paymentMethod, String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        if (key != null) {
+            // First statement, so a concurrent retry with the same key waits here for our outcome
+            idempotencyKeyRepository.claim(key, userId, requestHash, now, now.plus(Duration.ofMillis(keyTtlMillis)));
+        }
+
+        // Validate
+        CartStore.CartSnapshot cart = cartStore.find(userId)
+                .filter(c -> c.productIds().length > 0)
+                .orElseThrow(() -> new CheckoutException(CheckoutException.Reason.EMPTY_CART, "Cart is empty"));
+        List<Long> productIds = new ArrayList<>();
+        for (long id : cart.productIds()) {
+            productIds.add(id);
+        }
+        Map<Long, ProductEntity> products = productRepository.findAllById(productIds).stream()
+                .filter(product -> product.getDeleted_at() == null)
+                .collect(Collectors.toMap(ProductEntity::getId, Function.identity()));
+        cart = withoutDeleted(cart, products);
+        for (long id : cart.productIds()) {
+            ProductEntity product = products.get(id);
+            if (product.getPrice() == null || product.getStore() == null) {
+                throw new CheckoutException(CheckoutException.Reason.UNKNOWN_PRODUCT, "Product " + id + " cannot be sold");
+            }
+            // Sale stock only goes to buyers admitted by the flash sale queue
+            if (flashSaleService.isActive(id)) {
+                throw new CheckoutException(CheckoutException.Reason.FLASH_SALE,
+                        "Product " + id + " is on flash sale and must be bought through its queue");
+            }
+        }
+
+        // Reserve
+        List<Long> reservationIds = new ArrayList<>();
+        for (int i = 0; i < cart.productIds().length; i++) {
+            long productId = cart.productIds()[i];
+            StockReservationEntity reservation;
+            try {
+                reservation = reservationService.reserve(productId, userId, cart.quantities()[i])
+                        .orElseThrow(() -> new CheckoutException(CheckoutException.Reason.OUT_OF_STOCK,
+                                "Not enough stock for product " + productId));
+            } catch (FlashSaleStockException e) {
+                // The sale started after the check above
+                throw new CheckoutException(CheckoutException.Reason.FLASH_SALE, e.getMessage());
+            }
+            reservationIds.add(reservation.getId());
+        }
+
+        // Price, one order per store
+        Map<Long, List<OrderLineEntity>> linesByStore = new LinkedHashMap<>();
+        for (int i = 0; i < cart.productIds().length; i++) {
+            ProductEntity product = products.get(cart.productIds()[i]);
+            OrderLineEntity line = new OrderLineEntity();
+            line.setProduct(product);
+            line.setProduct_name(product.getName());
+            line.setUnit_price(product.getPrice());
+            line.setQuantity(cart.quantities()[i]);
+            line.setLine_total(product.getPrice() * cart.quantities()[i]);
+            linesByStore.computeIfAbsent(product.getStore().getId(), id -> new ArrayList<>()).add(line);
+        }
+
+        // Create orders, lines and payments
+        UserEntity user = userRepository.getReferenceById(userId);
+        List<Integer> orderIds = new ArrayList<>();
+        List<OrderLineEntity> allLines = new ArrayList<>();
+        List<PaymentEntity> payments = new ArrayList<>();
+        double total = 0;
+        for (List<OrderLineEntity> lines : linesByStore.values()) {
+            double amount = lines.stream().mapToDouble(OrderLineEntity::getLine_total).sum();
+            OrderEntity order = new OrderEntity();
+            order.setUser(user);
+            order.setStore(lines.get(0).getProduct().getStore());
+            order.setOrder_date(now);
+            order.setStatus("pending");
+            order.setTotal_amount(amount);
+            order.setShipping_address(shippingAddress);
+            orderRepository.save(order);
+            orderIds.add(order.getId());
+
+            lines.forEach(line -> line.setOrder(order));
+            allLines.addAll(lines);
+
+            PaymentEntity payment = new PaymentEntity();
+            payment.setOrder(order);
+            payment.setPayment_method(paymentMethod);
+            payment.setPrice(amount);
+            payment.setStatus("pending");
+            payments.add(payment);
+            total += amount;
+        }
+        orderLineRepository.saveAll(allLines);
+        paymentRepository.saveAll(payments);
+        reservationService.confirmAll(reservationIds);
+
+        CheckoutResult result = new CheckoutResult(orderIds, total, false);
+        if (key != null) {
+            idempotencyKeyRepository.complete(key, result.orderIdsText(), total);
+        }
+
+        // Empty the cart; only what was bought, in case the user added more meanwhile
+        long[] bought = cart.productIds().clone();
+        IntUnaryOperator[] changes = new IntUnaryOperator[bought.length];
+        for (int i = 0; i < bought.length; i++) {
+            int quantity = cart.quantities()[i];
+            changes[i] = current -> Math.max(current - quantity, 0);
+        }
+        TransactionHooks.afterCommit(() -> cartStore.updateAll(userId, bought, changes));
+        return result;
+    }
+
+    // Products deleted (or soft-deleted) since they were added are dropped from the
+    // cart here, and the rest is checked out
+    private CartStore.CartSnapshot withoutDeleted(CartStore.CartSnapshot cart, Map<Long, ProductEntity> products) {
+        long[] ids = cart.productIds();
+        if (products.size() == ids.length) {
+            return cart;
+        }
+        List<Long> gone = new ArrayList<>();
+        long[] keptIds = new long[products.size()];
+        int[] keptQuantities = new int[products.size()];
+        int kept = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (products.containsKey(ids[i])) {
+                keptIds[kept] = ids[i];
+                keptQuantities[kept++] = cart.quantities()[i];
+            } else {
+                gone.add(ids[i]);
+            }
+        }
+        for (long id : gone) {
+            cartStore.update(cart.userId(), id, current -> 0);
+        }
+        if (kept == 0) {
+            throw new CheckoutException(CheckoutException.Reason.EMPTY_CART, "Cart is empty");
+        }
+        return new CartStore.CartSnapshot(cart.cartId(), cart.userId(), keptIds, keptQuantities);
+    }
+}
@@ -0,0 +1,20 @@
+package j2ee.j2ee.apps.checkout;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Orders created by one checkout, one per store in the cart. replayed is true
+// when the result was stored under the Idempotency-Key by an earlier attempt.
+public record CheckoutResult(List<Integer> orderIds, double totalAmount, boolean replayed) {
+
+    String orderIdsText() {
+        return orderIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    static CheckoutResult replay(IdempotencyKeyEntity key) {
+        List<Integer> ids = key.getOrder_ids() == null || key.getOrder_ids().isEmpty() ? List.of()
+                : Arrays.stream(key.getOrder_ids().split(",")).map(Integer::valueOf).toList();
+        return new CheckoutResult(ids, key.getTotal_amount() == null ? 0 : key.getTotal_amount(), true);
+    }
+}
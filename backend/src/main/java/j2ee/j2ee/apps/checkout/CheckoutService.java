@@ -0,0 +1,71 @@
+package j2ee.j2ee.apps.checkout;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CheckoutService {
+
+    @Autowired
+    private CheckoutPipeline checkoutPipeline;
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    // A retry with an idempotency key that already went through gets the stored
+    // result back instead of a second order and payment
+    public CheckoutResult checkout(long userId, String shippingAddress, String paymentMethod, String idempotencyKey) {
+        String method = paymentMethod == null || paymentMethod.isBlank() ? "cash" : paymentMethod;
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return checkoutPipeline.run(userId, shippingAddress, method, null, null);
+        }
+
+        String key = userId + ":" + idempotencyKey;
+        String hash = hash(shippingAddress + "\n" + method);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                return checkoutPipeline.run(userId, shippingAddress, method, key, hash);
+            } catch (DataIntegrityViolationException e) {
+                Optional<IdempotencyKeyEntity> existing = idempotencyKeyRepository.findById(key);
+                if (existing.isEmpty()) {
+                    // Not the key that clashed, or it was purged meanwhile
+                    if (attempt == 0) {
+                        continue;
+                    }
+                    throw e;
+                }
+                if (idempotencyKeyRepository.deleteIfExpired(key, LocalDateTime.now()) == 1) {
+                    continue;
+                }
+                if (!existing.get().getRequest_hash().equals(hash)) {
+                    throw new CheckoutException(CheckoutException.Reason.KEY_REUSED,
+                            "Idempotency-Key was used for a different request");
+                }
+                return CheckoutResult.replay(existing.get());
+            }
+        }
+        throw new IllegalStateException("Checkout retry limit reached");
+    }
+
+    @Scheduled(fixedDelayString = "${checkout.idempotency-sweep-ms:600000}")
+    public int purgeExpiredKeys() {
+        return idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
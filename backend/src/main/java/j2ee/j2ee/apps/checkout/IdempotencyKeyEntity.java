@@ -0,0 +1,31 @@
+package j2ee.j2ee.apps.checkout;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+// Outcome of a checkout stored under the client's Idempotency-Key (prefixed
+// with the user id) until expires_at. The row is inserted by the checkout
+// transaction itself, so a concurrent retry blocks on it and then sees either
+// the committed result or, after a rollback, no row at all.
+@Entity(name = "idempotency_keys")
+@Data
+public class IdempotencyKeyEntity {
+    @Id
+    private String idempotency_key;
+
+    private Long user_id;
+
+    // Hash of the request body; the same key with another body is refused
+    private String request_hash;
+
+    private String order_ids;
+
+    private Double total_amount;
+
+    private LocalDateTime created_at;
+
+    private LocalDateTime expires_at;
+}
@@ -0,0 +1,36 @@
+package j2ee.j2ee.apps.checkout;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+    // A plain INSERT (save() would merge into an existing row); fails on a duplicate key
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, user_id, request_hash, created_at, expires_at) "
+            + "VALUES (:key, :userId, :hash, :now, :expiresAt)", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("userId") long userId, @Param("hash") String hash,
+            @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE idempotency_keys k SET k.order_ids = :orderIds, k.total_amount = :total WHERE k.idempotency_key = :key")
+    int complete(@Param("key") String key, @Param("orderIds") String orderIds, @Param("total") double total);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM idempotency_keys k WHERE k.expires_at < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM idempotency_keys k WHERE k.idempotency_key = :key AND k.expires_at < :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+}
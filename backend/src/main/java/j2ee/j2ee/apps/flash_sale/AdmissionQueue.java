@@ -0,0 +1,134 @@
+package j2ee.j2ee.apps.flash_sale;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+// Waiting room of one flash sale product. Buyers join once and are admitted
+// in arrival order; admission hands out a purchase token worth one unit that
+// must be used before it expires. Never more tokens are outstanding than
+// units left, so admitted buyers can all be served and the rest keep waiting
+// instead of racing for rows. Everything is in memory behind one monitor.
+final class AdmissionQueue {
+
+    enum State {
+        WAITING, ADMITTED, USED, EXPIRED, SOLD_OUT
+    }
+
+    static final class Ticket {
+        final String id = UUID.randomUUID().toString();
+        final long userId;
+        final long number;
+        State state = State.WAITING;
+        long expiresAt;
+
+        Ticket(long userId, long number) {
+            this.userId = userId;
+            this.number = number;
+        }
+    }
+
+    // What a buyer polling the queue sees; position counts the buyers ahead
+    record Status(String ticket, State state, long position, long expiresAt) {
+    }
+
+    private final int maxWaiting;
+    private final ArrayDeque<Ticket> waiting = new ArrayDeque<>();
+    private final Map<String, Ticket> tickets = new HashMap<>();
+    private final Map<Long, Ticket> ticketByUser = new HashMap<>();
+    private long joined;
+    private long admittedThrough;
+    private int outstanding;
+
+    AdmissionQueue(int maxWaiting) {
+        this.maxWaiting = maxWaiting;
+    }
+
+    // Null when the waiting room is full; a buyer already in it gets their ticket back
+    synchronized Status join(long userId) {
+        Ticket ticket = ticketByUser.get(userId);
+        if (ticket != null && ticket.state != State.EXPIRED) {
+            return status(ticket);
+        }
+        if (waiting.size() >= maxWaiting) {
+            return null;
+        }
+        ticket = new Ticket(userId, ++joined);
+        waiting.add(ticket);
+        tickets.put(ticket.id, ticket);
+        ticketByUser.put(userId, ticket);
+        return status(ticket);
+    }
+
+    synchronized Status status(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        return ticket == null ? null : status(ticket);
+    }
+
+    // Admits up to budget buyers, but never beyond the units not yet promised
+    synchronized int admit(int budget, int unitsLeft, long now, long tokenTtlMillis) {
+        int admitted = 0;
+        while (admitted < budget && outstanding < unitsLeft && !waiting.isEmpty()) {
+            Ticket ticket = waiting.poll();
+            ticket.state = State.ADMITTED;
+            ticket.expiresAt = now + tokenTtlMillis;
+            admittedThrough = ticket.number;
+            outstanding++;
+            admitted++;
+        }
+        return admitted;
+    }
+
+    // Spends the buyer's token; false when it is not theirs, not admitted or expired
+    synchronized boolean use(String ticketId, long userId, long now) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || ticket.userId != userId || ticket.state != State.ADMITTED || ticket.expiresAt < now) {
+            return false;
+        }
+        ticket.state = State.USED;
+        outstanding--;
+        return true;
+    }
+
+    // A used token whose purchase failed after all; the unit goes to the next buyer
+    synchronized void refund(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket != null && ticket.state == State.USED) {
+            ticket.state = State.EXPIRED;
+        }
+    }
+
+    synchronized void expire(long now) {
+        Iterator<Ticket> it = tickets.values().iterator();
+        while (it.hasNext()) {
+            Ticket ticket = it.next();
+            if (ticket.state == State.ADMITTED && ticket.expiresAt < now) {
+                ticket.state = State.EXPIRED;
+                outstanding--;
+            }
+        }
+    }
+
+    // Everyone still waiting is told the product is gone
+    synchronized void soldOut() {
+        for (Ticket ticket : waiting) {
+            ticket.state = State.SOLD_OUT;
+        }
+        waiting.clear();
+    }
+
+    synchronized int outstanding() {
+        return outstanding;
+    }
+
+    synchronized int waitingCount() {
+        return waiting.size();
+    }
+
+    private Status status(Ticket ticket) {
+        long position = ticket.state == State.WAITING ? ticket.number - admittedThrough - 1 : 0;
+        return new Status(ticket.id, ticket.state, position, ticket.expiresAt);
+    }
+}
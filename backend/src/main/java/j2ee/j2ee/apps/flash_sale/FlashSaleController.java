@@ -0,0 +1,110 @@
+package j2ee.j2ee.apps.flash_sale;
+
+import java.util.HashMap;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import j2ee.j2ee.constants.ErrorMessages;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
+
+@RestController
+@RequestMapping("/api/flash-sales")
+@ExecutionLane(Lane.FLASH_SALE)
+public class FlashSaleController {
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    public record JoinRequest(Long userId) {
+    }
+
+    public record PurchaseRequest(Long userId, String ticket) {
+    }
+
+    @ExecutionLane(Lane.ADMIN)
+    @GetMapping
+    public ResponseEntity<?> getAll() {
+        try {
+            return ResponseEntity.ok(flashSaleService.getAll());
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @ExecutionLane(Lane.ADMIN)
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody FlashSaleEntity sale) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(flashSaleService.create(sale));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @ExecutionLane(Lane.ADMIN)
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable("id") long id) {
+        try {
+            flashSaleService.delete(id);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Joins the waiting room; poll the ticket until it is ADMITTED, then purchase
+    @PostMapping("/products/{product_id}/queue")
+    public ResponseEntity<?> join(@PathVariable("product_id") long productId, @RequestBody JoinRequest payload) {
+        if (payload.userId() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!flashSaleService.isActive(productId)) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<AdmissionQueue.Status> status = flashSaleService.join(productId, payload.userId());
+        if (status.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        return ResponseEntity.ok(status.get());
+    }
+
+    @GetMapping("/products/{product_id}/queue/{ticket}")
+    public ResponseEntity<?> status(@PathVariable("product_id") long productId, @PathVariable("ticket") String ticket) {
+        return flashSaleService.status(productId, ticket)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/products/{product_id}/purchase")
+    public ResponseEntity<?> purchase(@PathVariable("product_id") long productId, @RequestBody PurchaseRequest payload) {
+        try {
+            if (payload.userId() == null || payload.ticket() == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            return switch (flashSaleService.purchase(productId, payload.userId(), payload.ticket())) {
+                case OK -> {
+                    HashMap<String, Object> response = new HashMap<>();
+                    response.put("productId", productId);
+                    response.put("quantity", 1);
+                    yield ResponseEntity.accepted().body(response);
+                }
+                case INVALID_TOKEN -> ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+                case SOLD_OUT -> ResponseEntity.status(HttpStatus.CONFLICT).body(ErrorMessages.OUT_OF_STOCK);
+            };
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package j2ee.j2ee.apps.flash_sale;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+// A flash sale window for one product, or for every product of a category
+// when product_id is null. Buyers are admitted admit_per_second at most.
+@Entity(name = "flash_sales")
+@Data
+public class FlashSaleEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    private Long product_id;
+
+    private Long category_id;
+
+    private LocalDateTime starts_at;
+
+    private LocalDateTime ends_at;
+
+    private int admit_per_second;
+
+    private LocalDateTime created_at;
+}
@@ -0,0 +1,29 @@
+package j2ee.j2ee.apps.flash_sale;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import j2ee.j2ee.apps.product.ProductEntity;
+
+// In-memory state of one product while its flash sale runs: the product as
+// served by /api/products/details, the units left and the admission queue.
+final class FlashSaleProduct {
+
+    final long productId;
+    final AdmissionQueue queue;
+    final int admitPerSecond;
+    // Units neither sold nor held, as of the last sync minus sales since
+    final AtomicInteger unitsLeft = new AtomicInteger();
+    volatile ProductEntity product;
+    // Admissions owed from fractions of a second between ticks
+    double admitCredit;
+
+    FlashSaleProduct(long productId, int admitPerSecond, int maxWaiting) {
+        this.productId = productId;
+        this.admitPerSecond = Math.max(1, admitPerSecond);
+        this.queue = new AdmissionQueue(maxWaiting);
+    }
+
+    boolean isSoldOut() {
+        return unitsLeft.get() <= 0 && queue.outstanding() == 0;
+    }
+}
@@ -0,0 +1,15 @@
+package j2ee.j2ee.apps.flash_sale;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FlashSaleRepository extends JpaRepository<FlashSaleEntity, Long> {
+    @Query("FROM flash_sales f WHERE f.starts_at <= :now AND f.ends_at > :now ORDER BY f.id")
+    List<FlashSaleEntity> findActive(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,196 @@
+package j2ee.j2ee.apps.flash_sale;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import j2ee.j2ee.apps.inventory.StockService;
+import j2ee.j2ee.apps.product.ProductEntity;
+import j2ee.j2ee.apps.product.ProductRepository;
+
+// Flash sale mode. While a sale is active its products are served from memory:
+// - details come from a copy loaded when the sale starts and refreshed every sync
+// - buyers queue in an AdmissionQueue and get purchase tokens at the rate of the
+//   sale, never more than the units left
+// - stock is sold from HotStockCounters and the reservation rows are written
+//   behind by ReservationWriter
+// - carts and checkout refuse them: a token is the only way to buy
+// - once sold out, details and the queue answer without the database
+// Active sales are picked up from flash_sales by a periodic sync, so starting
+// and ending sales needs no restart.
+@Service
+public class FlashSaleService {
+
+    public enum Purchase {
+        OK, INVALID_TOKEN, SOLD_OUT
+    }
+
+    @Autowired
+    private FlashSaleRepository flashSaleRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private ReservationWriter reservationWriter;
+
+    @Value("${flash-sale.token-ttl-ms:60000}")
+    private long tokenTtlMillis;
+
+    @Value("${flash-sale.max-waiting:100000}")
+    private int maxWaiting;
+
+    @Value("${flash-sale.admit-ms:100}")
+    private long admitMillis;
+
+    private final Map<Long, FlashSaleProduct> active = new ConcurrentHashMap<>();
+
+    public FlashSaleEntity create(FlashSaleEntity sale) {
+        if ((sale.getProduct_id() == null) == (sale.getCategory_id() == null)) {
+            throw new IllegalArgumentException("A flash sale needs either a product_id or a category_id");
+        }
+        if (sale.getStarts_at() == null || sale.getEnds_at() == null || !sale.getEnds_at().isAfter(sale.getStarts_at())) {
+            throw new IllegalArgumentException("A flash sale needs starts_at before ends_at");
+        }
+        if (sale.getAdmit_per_second() <= 0) {
+            throw new IllegalArgumentException("admit_per_second must be positive");
+        }
+        sale.setId(null);
+        sale.setCreated_at(LocalDateTime.now());
+        FlashSaleEntity saved = flashSaleRepository.save(sale);
+        sync();
+        return saved;
+    }
+
+    public List<FlashSaleEntity> getAll() {
+        return flashSaleRepository.findAll();
+    }
+
+    public void delete(long id) {
+        flashSaleRepository.deleteById(id);
+        sync();
+    }
+
+    public boolean isActive(long productId) {
+        return active.containsKey(productId);
+    }
+
+    public Optional<ProductEntity> getProduct(long productId) {
+        FlashSaleProduct sale = active.get(productId);
+        return sale == null ? Optional.empty() : Optional.ofNullable(sale.product);
+    }
+
+    public boolean isSoldOut(long productId) {
+        FlashSaleProduct sale = active.get(productId);
+        return sale != null && sale.isSoldOut();
+    }
+
+    // Empty when the product is not on sale; a null status when the waiting room is full
+    public Optional<AdmissionQueue.Status> join(long productId, long userId) {
+        FlashSaleProduct sale = active.get(productId);
+        if (sale == null) {
+            return Optional.empty();
+        }
+        if (sale.isSoldOut()) {
+            return Optional.of(new AdmissionQueue.Status(null, AdmissionQueue.State.SOLD_OUT, 0, 0));
+        }
+        return Optional.ofNullable(sale.queue.join(userId));
+    }
+
+    public Optional<AdmissionQueue.Status> status(long productId, String ticket) {
+        FlashSaleProduct sale = active.get(productId);
+        return sale == null ? Optional.empty() : Optional.ofNullable(sale.queue.status(ticket));
+    }
+
+    // One unit per admitted buyer; the reservation is saved asynchronously
+    public Purchase purchase(long productId, long userId, String ticket) {
+        FlashSaleProduct sale = active.get(productId);
+        if (sale == null || sale.isSoldOut()) {
+            return Purchase.SOLD_OUT;
+        }
+        if (!sale.queue.use(ticket, userId, System.currentTimeMillis())) {
+            return Purchase.INVALID_TOKEN;
+        }
+        // Counted down first, so a sync racing this purchase can only overestimate what is left
+        sale.unitsLeft.decrementAndGet();
+        if (!stockService.take(productId, 1)) {
+            // Nothing left after all: stock changed under the sale (e.g. an owner edit) or a sync
+            // counted a lease twice. Stop admitting; the next sync corrects unitsLeft.
+            sale.unitsLeft.set(0);
+            sale.queue.refund(ticket);
+            return Purchase.SOLD_OUT;
+        }
+        reservationWriter.submit(productId, userId, 1);
+        return Purchase.OK;
+    }
+
+    // Hands out tokens: admit_per_second spread over the ticks, capped by the units left
+    @Scheduled(fixedRateString = "${flash-sale.admit-ms:100}")
+    public void admit() {
+        long now = System.currentTimeMillis();
+        for (FlashSaleProduct sale : active.values()) {
+            sale.queue.expire(now);
+            sale.admitCredit = Math.min(sale.admitCredit + sale.admitPerSecond * admitMillis / 1000.0,
+                    sale.admitPerSecond);
+            int budget = (int) sale.admitCredit;
+            int admitted = sale.queue.admit(budget, sale.unitsLeft.get(), now, tokenTtlMillis);
+            sale.admitCredit -= admitted;
+            if (sale.isSoldOut()) {
+                sale.queue.soldOut();
+            }
+        }
+    }
+
+    // Starts and ends sales and refreshes product copies and units left
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${flash-sale.sync-ms:2000}")
+    public synchronized void sync() {
+        Map<Long, Integer> wanted = new HashMap<>();
+        for (FlashSaleEntity sale : flashSaleRepository.findActive(LocalDateTime.now())) {
+            List<Long> productIds = sale.getProduct_id() != null ? List.of(sale.getProduct_id())
+                    : productRepository.findIdsByCategoryId(sale.getCategory_id());
+            productIds.forEach(id -> wanted.merge(id, sale.getAdmit_per_second(), Math::max));
+        }
+        // Soft-deleted products are not sold, even when the sale names them
+        Map<Long, ProductEntity> products = new HashMap<>();
+        if (!wanted.isEmpty()) {
+            for (ProductEntity product : productRepository.findAllById(wanted.keySet())) {
+                if (product.getDeleted_at() == null) {
+                    products.put(product.getId(), product);
+                }
+            }
+        }
+        wanted.keySet().retainAll(products.keySet());
+
+        active.keySet().removeIf(productId -> {
+            if (wanted.containsKey(productId)) {
+                return false;
+            }
+            stockService.setHot(productId, false);
+            return true;
+        });
+        if (wanted.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> stock = stockService.available(wanted.keySet());
+        for (ProductEntity product : products.values()) {
+            FlashSaleProduct sale = active.computeIfAbsent(product.getId(), id -> {
+                stockService.setHot(id, true);
+                return new FlashSaleProduct(id, wanted.get(id), maxWaiting);
+            });
+            sale.product = product;
+            sale.unitsLeft.set(stock.getOrDefault(product.getId(), 0));
+        }
+    }
+}
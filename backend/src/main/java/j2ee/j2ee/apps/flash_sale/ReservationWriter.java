@@ -0,0 +1,62 @@
+package j2ee.j2ee.apps.flash_sale;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import j2ee.j2ee.apps.inventory.ReservationService;
+import j2ee.j2ee.apps.inventory.StockReservationEntity;
+import jakarta.annotation.PreDestroy;
+
+// Writes flash sale reservations behind the purchase. The stock is already
+// taken in memory (HotStockCounters), so the buyer gets an answer right away
+// and the rows go to MySQL in batches a moment later.
+@Component
+public class ReservationWriter {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Value("${flash-sale.write-batch-size:500}")
+    private int batchSize;
+
+    private final LinkedBlockingQueue<StockReservationEntity> pending = new LinkedBlockingQueue<>();
+
+    public void submit(long productId, long userId, int quantity) {
+        StockReservationEntity reservation = new StockReservationEntity();
+        reservation.setProduct_id(productId);
+        reservation.setUser_id(userId);
+        reservation.setQuantity(quantity);
+        pending.add(reservation);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${flash-sale.write-ms:200}")
+    public void drain() {
+        List<StockReservationEntity> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            try {
+                reservationService.recordAll(batch);
+            } catch (RuntimeException e) {
+                // Keep them for the next run; the stock stays taken meanwhile
+                System.err.println("Flash sale reservations not saved: " + e.getMessage());
+                pending.addAll(batch);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() {
+        drain();
+    }
+}
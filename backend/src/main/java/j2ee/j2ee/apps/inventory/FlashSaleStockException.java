@@ -0,0 +1,9 @@
+package j2ee.j2ee.apps.inventory;
+
+// Stock of a product in a running flash sale only goes to buyers admitted by its queue
+public class FlashSaleStockException extends RuntimeException {
+
+    public FlashSaleStockException(long productId) {
+        super("Product " + productId + " is on flash sale and must be bought through its queue");
+    }
+}
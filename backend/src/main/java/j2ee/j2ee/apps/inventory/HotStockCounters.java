@@ -0,0 +1,174 @@
+package j2ee.j2ee.apps.inventory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+// In-memory stock for very hot SKUs (products on sale). Instead of one UPDATE
+// per unit sold, stock is leased from the database in blocks with the same
+// conditional decrement and spread over a few shards, so concurrent buyers
+// mostly CAS different counters. The database never holds less than what was
+// sold, so there is no oversell even with several app instances. Leases a
+// product has not touched for inventory.hot.idle-ms are returned by a
+// periodic flush, and all of them on shutdown.
+@Component
+public class HotStockCounters {
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    private final int shardCount;
+    private final int leaseSize;
+    private final long idleMillis;
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    public HotStockCounters(@Value("${inventory.hot.shards:8}") int shardCount,
+            @Value("${inventory.hot.lease-size:20}") int leaseSize,
+            @Value("${inventory.hot.idle-ms:10000}") long idleMillis) {
+        this.shardCount = Math.max(1, shardCount);
+        this.leaseSize = Math.max(1, leaseSize);
+        this.idleMillis = idleMillis;
+    }
+
+    public boolean tryTake(long productId, int quantity) {
+        Counter counter = counters.computeIfAbsent(productId, id -> new Counter(shardCount));
+        counter.lastUsed = System.currentTimeMillis();
+
+        int start = ThreadLocalRandom.current().nextInt(shardCount);
+        if (counter.take(start, quantity)) {
+            return true;
+        }
+        return refill(productId, counter, start, quantity);
+    }
+
+    // Returns units taken by a buyer whose transaction rolled back
+    public void putBack(long productId, int quantity) {
+        Counter counter = counters.computeIfAbsent(productId, id -> new Counter(shardCount));
+        counter.shards[ThreadLocalRandom.current().nextInt(shardCount)].addAndGet(quantity);
+    }
+
+    // Drops the unsold leased units of a product whose stock is being set outright,
+    // so a later flush does not add them on top. Returns how many were dropped.
+    public int discard(long productId) {
+        Counter counter = counters.get(productId);
+        if (counter == null) {
+            return 0;
+        }
+        synchronized (counter) {
+            return counter.drain();
+        }
+    }
+
+    // Units leased out of the database but not sold yet
+    public int leased(long productId) {
+        Counter counter = counters.get(productId);
+        return counter == null ? 0 : counter.total();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.hot.flush-ms:5000}")
+    public void flushIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        counters.forEach((productId, counter) -> {
+            if (counter.lastUsed < cutoff) {
+                giveBack(productId, counter);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        counters.forEach(this::giveBack);
+    }
+
+    private void giveBack(long productId, Counter counter) {
+        int drained = counter.drain();
+        if (drained > 0) {
+            stockRepository.increment(productId, drained);
+        }
+    }
+
+    // One buyer at a time goes to the database per product; the others retry the shards it filled
+    private boolean refill(long productId, Counter counter, int start, int quantity) {
+        synchronized (counter) {
+            // Units may be spread thinner than the request over several shards
+            counter.shards[start].addAndGet(counter.drain());
+            if (counter.take(start, quantity)) {
+                return true;
+            }
+
+            int leased = lease(productId, Math.max(quantity, leaseSize));
+            if (leased >= quantity) {
+                counter.shards[start].addAndGet(leased - quantity);
+                return true;
+            }
+            if (leased > 0) {
+                // Too little left for this request; keep it for smaller ones
+                counter.shards[start].addAndGet(leased);
+            }
+            return counter.take(start, quantity);
+        }
+    }
+
+    // Takes up to wanted units from the database, fewer if that is all that is left.
+    // The lease commits on its own: a buyer's rollback must not undo units other buyers got.
+    private int lease(long productId, int wanted) {
+        int amount = wanted;
+        for (int attempt = 0; attempt < 5 && amount > 0; attempt++) {
+            if (stockRepository.decrementNowIfAvailable(productId, amount) == 1) {
+                return amount;
+            }
+            amount = Math.min(wanted, stockRepository.findStock(productId).orElse(0));
+        }
+        return 0;
+    }
+
+    private static final class Counter {
+
+        private final AtomicInteger[] shards;
+        private volatile long lastUsed;
+
+        Counter(int shardCount) {
+            shards = new AtomicInteger[shardCount];
+            for (int i = 0; i < shardCount; i++) {
+                shards[i] = new AtomicInteger();
+            }
+        }
+
+        boolean take(int start, int quantity) {
+            for (int i = 0; i < shards.length; i++) {
+                AtomicInteger shard = shards[(start + i) % shards.length];
+                int current;
+                while ((current = shard.get()) >= quantity) {
+                    if (shard.compareAndSet(current, current - quantity)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        int total() {
+            int sum = 0;
+            for (AtomicInteger shard : shards) {
+                sum += shard.get();
+            }
+            return sum;
+        }
+
+        int drain() {
+            int sum = 0;
+            for (AtomicInteger shard : shards) {
+                sum += shard.getAndSet(0);
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package j2ee.j2ee.apps.inventory;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import j2ee.j2ee.constants.ErrorMessages;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
+
+@RestController
+@RequestMapping("/api/inventory")
+@ExecutionLane(Lane.BOOKING)
+public class InventoryController {
+
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private StockService stockService;
+
+    public record ReservationRequest(Long productId, Long userId, int quantity) {
+    }
+
+    @PostMapping("/reservations")
+    public ResponseEntity<?> reserve(@RequestBody ReservationRequest payload) {
+        try {
+            if (payload.productId() == null || payload.quantity() <= 0) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            Optional<StockReservationEntity> reservation = reservationService.reserve(payload.productId(),
+                    payload.userId(), payload.quantity());
+            if (reservation.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(ErrorMessages.OUT_OF_STOCK);
+            }
+
+            URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .path("/{id}")
+                    .buildAndExpand(reservation.get().getId())
+                    .toUri();
+            return ResponseEntity.created(location).body(reservation.get());
+        } catch (FlashSaleStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/reservations/{id}")
+    public ResponseEntity<StockReservationEntity> getReservation(@PathVariable("id") long id) {
+        return reservationService.getById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/reservations/{id}/confirm")
+    public ResponseEntity<?> confirm(@PathVariable("id") long id) {
+        try {
+            if (!reservationService.confirm(id)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @DeleteMapping("/reservations/{id}")
+    public ResponseEntity<?> release(@PathVariable("id") long id) {
+        try {
+            if (!reservationService.release(id)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/products/{product_id}/stock")
+    public ResponseEntity<Object> getStock(@PathVariable("product_id") long productId) {
+        try {
+            HashMap<String, Object> response = new HashMap<>();
+            response.put("product_id", productId);
+            response.put("available", stockService.available(productId));
+            return ResponseEntity.ok().body(response);
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package j2ee.j2ee.apps.inventory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import j2ee.j2ee.apps.flash_sale.FlashSaleService;
+
+@Service
+public class ReservationService {
+
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private StockReservationRepository reservationRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    // Looked up lazily: FlashSaleService records its purchases through this service
+    @Autowired
+    private ObjectProvider<FlashSaleService> flashSaleService;
+
+    @Value("${inventory.reservation-ttl-ms:900000}")
+    private long ttlMillis;
+
+    @Value("${inventory.expiry-batch-size:500}")
+    private int expiryBatchSize;
+
+    // Empty when the product does not have quantity units left. Throws
+    // FlashSaleStockException while the product is in a running flash sale.
+    public Optional<StockReservationEntity> reserve(long productId, Long userId, int quantity) {
+        if (flashSaleService.getObject().isActive(productId)) {
+            throw new FlashSaleStockException(productId);
+        }
+        if (!stockService.take(productId, quantity)) {
+            return Optional.empty();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        StockReservationEntity reservation = new StockReservationEntity();
+        reservation.setProduct_id(productId);
+        reservation.setUser_id(userId);
+        reservation.setQuantity(quantity);
+        reservation.setStatus(StockReservationEntity.HELD);
+        reservation.setCreated_at(now);
+        reservation.setExpires_at(now.plus(Duration.ofMillis(ttlMillis)));
+        try {
+            return Optional.of(reservationRepository.save(reservation));
+        } catch (RuntimeException e) {
+            stockService.giveBack(productId, quantity);
+            throw e;
+        }
+    }
+
+    // Saves purchases whose stock was already taken, as one batch. They are
+    // CONFIRMED straight away: nothing would confirm a HELD row later, and the
+    // expiry sweep would give the units back and sell them twice.
+    public List<StockReservationEntity> recordAll(List<StockReservationEntity> reservations) {
+        LocalDateTime now = LocalDateTime.now();
+        for (StockReservationEntity reservation : reservations) {
+            reservation.setStatus(StockReservationEntity.CONFIRMED);
+            reservation.setCreated_at(now);
+        }
+        return reservationRepository.saveAll(reservations);
+    }
+
+    public Optional<StockReservationEntity> getById(long id) {
+        return reservationRepository.findById(id);
+    }
+
+    // The stock stays taken; false when the reservation was not HELD any more
+    public boolean confirm(long id) {
+        return reservationRepository.transition(id, StockReservationEntity.CONFIRMED) == 1;
+    }
+
+    // Confirms several reservations with one update; returns how many were still HELD
+    public int confirmAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return reservationRepository.transitionAll(ids, StockReservationEntity.CONFIRMED);
+    }
+
+    public boolean release(long id) {
+        return end(id, StockReservationEntity.RELEASED);
+    }
+
+    // Returns the stock of reservations whose time ran out, a batch per run
+    @Scheduled(fixedDelayString = "${inventory.expiry-sweep-ms:30000}")
+    public int expire() {
+        List<StockReservationEntity> expired = reservationRepository.findExpired(LocalDateTime.now(),
+                PageRequest.of(0, expiryBatchSize));
+        int count = 0;
+        for (StockReservationEntity reservation : expired) {
+            if (end(reservation, StockReservationEntity.EXPIRED)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean end(long id, String status) {
+        return reservationRepository.findById(id).map(reservation -> end(reservation, status)).orElse(false);
+    }
+
+    // Only the caller that wins the HELD transition gives the stock back. Both
+    // updates commit together, so a failed give-back leaves the reservation HELD.
+    private boolean end(StockReservationEntity reservation, String status) {
+        return transactionTemplate.execute(tx -> {
+            if (reservationRepository.transition(reservation.getId(), status) != 1) {
+                return false;
+            }
+            stockService.giveBack(reservation.getProduct_id(), reservation.getQuantity());
+            return true;
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package j2ee.j2ee.apps.inventory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import j2ee.j2ee.apps.product.ProductEntity;
+
+// Stock changes as single conditional UPDATEs, so two buyers can never both
+// take the last unit. is_in_stock is assigned first: MySQL applies SET items
+// left to right, and this way both MySQL and H2 compare against the old stock.
+// Each change bumps the product's @Version, so a stale product edit fails
+// instead of writing an old stock_quantity back.
+public interface StockRepository extends Repository<ProductEntity, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE products p SET p.is_in_stock = CASE WHEN p.stock_quantity > :quantity THEN true ELSE false END, "
+            + "p.stock_quantity = p.stock_quantity - :quantity, p.version = p.version + 1 "
+            + "WHERE p.id = :id AND p.stock_quantity >= :quantity")
+    int decrementIfAvailable(@Param("id") long id, @Param("quantity") int quantity);
+
+    // Same, committed on its own connection even inside a caller's transaction
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE products p SET p.is_in_stock = CASE WHEN p.stock_quantity > :quantity THEN true ELSE false END, "
+            + "p.stock_quantity = p.stock_quantity - :quantity, p.version = p.version + 1 "
+            + "WHERE p.id = :id AND p.stock_quantity >= :quantity")
+    int decrementNowIfAvailable(@Param("id") long id, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE products p SET p.is_in_stock = true, p.stock_quantity = p.stock_quantity + :quantity, "
+            + "p.version = p.version + 1 WHERE p.id = :id")
+    int increment(@Param("id") long id, @Param("quantity") int quantity);
+
+    @Query("SELECT p.stock_quantity FROM products p WHERE p.id = :id")
+    Optional<Integer> findStock(@Param("id") long id);
+
+    // [id, stock_quantity] pairs
+    @Query("SELECT p.id, p.stock_quantity FROM products p WHERE p.id IN :ids")
+    List<Object[]> findStocks(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.is_sale FROM products p WHERE p.id = :id")
+    Optional<Boolean> findIsSale(@Param("id") long id);
+}
@@ -0,0 +1,37 @@
+package j2ee.j2ee.apps.inventory;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+// Stock held for a buyer until it is confirmed, released or it expires.
+// Status only moves away from HELD, and only once (see StockReservationRepository.transition).
+@Entity(name = "stock_reservations")
+@Data
+public class StockReservationEntity {
+
+    public static final String HELD = "HELD";
+    public static final String CONFIRMED = "CONFIRMED";
+    public static final String RELEASED = "RELEASED";
+    public static final String EXPIRED = "EXPIRED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    private Long product_id;
+
+    private Long user_id;
+
+    private int quantity;
+
+    private String status;
+
+    private LocalDateTime expires_at;
+
+    private LocalDateTime created_at;
+}
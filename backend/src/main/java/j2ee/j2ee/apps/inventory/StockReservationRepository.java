@@ -0,0 +1,31 @@
+package j2ee.j2ee.apps.inventory;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservationEntity, Long> {
+
+    // Moves a HELD reservation to another status; 0 when someone else got there first
+    @Transactional
+    @Modifying
+    @Query("UPDATE stock_reservations r SET r.status = :status WHERE r.id = :id AND r.status = 'HELD'")
+    int transition(@Param("id") Long id, @Param("status") String status);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE stock_reservations r SET r.status = :status WHERE r.id IN :ids AND r.status = 'HELD'")
+    int transitionAll(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    @Query("FROM stock_reservations r WHERE r.status = 'HELD' AND r.expires_at < :now ORDER BY r.expires_at")
+    List<StockReservationEntity> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,98 @@
+package j2ee.j2ee.apps.inventory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import j2ee.j2ee.utils.TransactionHooks;
+
+@Service
+public class StockService {
+
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Value("${inventory.hot.enabled:true}")
+    private boolean hotCountersEnabled;
+
+    // Sale items are the hot SKUs; the flag is read once per product and
+    // dropped again when the product is edited (forgetSaleFlag)
+    private final Map<Long, Boolean> saleFlags = new ConcurrentHashMap<>();
+    // Products put on the counters by a flash sale, whatever their flag
+    private final Set<Long> forcedHot = ConcurrentHashMap.newKeySet();
+
+    // Takes quantity units if they are all available, in one atomic step
+    public boolean take(long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (isHot(productId)) {
+            if (!hotStockCounters.tryTake(productId, quantity)) {
+                return false;
+            }
+            // Database stock comes back with the rollback; in-memory units do not
+            TransactionHooks.afterRollback(() -> hotStockCounters.putBack(productId, quantity));
+            return true;
+        }
+        return stockRepository.decrementIfAvailable(productId, quantity) == 1;
+    }
+
+    public void giveBack(long productId, int quantity) {
+        if (quantity > 0) {
+            stockRepository.increment(productId, quantity);
+        }
+    }
+
+    // Before an absolute stock edit; give the result back if the edit fails
+    public int discardLeased(long productId) {
+        return hotStockCounters.discard(productId);
+    }
+
+    public int available(long productId) {
+        return stockRepository.findStock(productId).orElse(0) + hotStockCounters.leased(productId);
+    }
+
+    // Stock of many products in one query; unknown products are missing from the map
+    public Map<Long, Integer> available(Collection<Long> productIds) {
+        Map<Long, Integer> stock = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return stock;
+        }
+        for (Object[] row : stockRepository.findStocks(productIds)) {
+            long id = (Long) row[0];
+            int quantity = row[1] == null ? 0 : (Integer) row[1];
+            stock.put(id, quantity + hotStockCounters.leased(id));
+        }
+        return stock;
+    }
+
+    // Forces a product onto (or back off) the in-memory counters, e.g. for a flash sale
+    public void setHot(long productId, boolean hot) {
+        if (hot) {
+            forcedHot.add(productId);
+        } else {
+            forcedHot.remove(productId);
+        }
+    }
+
+    // Re-reads is_sale on the next take, after it may have changed
+    public void forgetSaleFlag(long productId) {
+        saleFlags.remove(productId);
+    }
+
+    private boolean isHot(long productId) {
+        if (!hotCountersEnabled) {
+            return false;
+        }
+        return forcedHot.contains(productId)
+                || saleFlags.computeIfAbsent(productId, id -> stockRepository.findIsSale(id).orElse(false));
+    }
+}
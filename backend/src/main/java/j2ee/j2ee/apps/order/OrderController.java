@@ -5,6 +5,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.Optional;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,9 +13,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import java.util.Map;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
 
 @RequestMapping("/api/orders")
 @RestController
+@ExecutionLane(Lane.BOOKING)
 public class OrderController {
 
     @Autowired
@@ -25,7 +29,7 @@ public class OrderController {
     public ResponseEntity<Object> getAllByUserId(@PathVariable("user_id") long userId, @RequestParam("page") int page,
             @RequestParam("size") int size) {
         try {
-            Page<OrderEntity> pageOrders = this.orderService.getAllByUserId(userId, page, size);
+            Page<OrderView> pageOrders = this.orderService.getAllByUserId(userId, page, size);
             if (pageOrders.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
@@ -43,6 +47,34 @@ public class OrderController {
         }
     }
 
+    // Cursor-paged variant: pass back nextCursor to get the following page; past
+    // the last one the list is empty and nextCursor is null.
+    // No COUNT(*) runs unless with_total is set, and that total is cached
+    @GetMapping("/users/{user_id}/cursor")
+    public ResponseEntity<Object> getAllByUserIdAfter(@PathVariable("user_id") long userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "with_total", defaultValue = "false") boolean withTotal) {
+        try {
+            int limit = Math.min(Math.max(size, 1), 100);
+            var keysetPage = this.orderService.getAllByUserIdAfter(userId, cursor, limit);
+            HashMap<String, Object> response = new HashMap<>();
+            response.put("orders", keysetPage.getContent());
+            response.put("nextCursor", keysetPage.getNextCursor());
+            response.put("hasNext", keysetPage.isHasNext());
+            if (withTotal) {
+                response.put("approximateTotal", this.orderService.getApproximateCountByUserId(userId));
+            }
+
+            return ResponseEntity.ok().body(response);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.out.println("Internal Server Errors:" + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     // Get order details
     @GetMapping("/{order_id}")
     public ResponseEntity<OrderEntity> getByOrderId(@PathVariable("order_id") long orderId) {
@@ -55,6 +87,16 @@ public class OrderController {
         }
     }
 
+    @GetMapping("/{order_id}/lines")
+    public ResponseEntity<Object> getLines(@PathVariable("order_id") int orderId) {
+        try {
+            return ResponseEntity.ok().body(this.orderService.getLines(orderId));
+        } catch (Exception e) {
+            System.out.println("Internal Server Errors:" + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/filter_orders")
     public Map<String, Long> getOrderStats(
             @RequestParam("filter") String filter,
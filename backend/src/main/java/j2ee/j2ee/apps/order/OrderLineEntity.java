@@ -0,0 +1,48 @@
+package j2ee.j2ee.apps.order;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import j2ee.j2ee.apps.product.ProductEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import lombok.Data;
+
+// One product of an order, priced when the order was placed. Ids come from a
+// pooled sequence (50 per round trip), so the lines of a checkout are inserted
+// in one JDBC batch; orders themselves still use the auto-increment column.
+@Entity(name = "order_lines")
+@Data
+public class OrderLineEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_lines_seq")
+    @SequenceGenerator(name = "order_lines_seq", sequenceName = "order_lines_seq", allocationSize = 50)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", referencedColumnName = "id", nullable = false)
+    private OrderEntity order;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", referencedColumnName = "id", nullable = false)
+    private ProductEntity product;
+
+    @Column(name = "product_id", insertable = false, updatable = false)
+    private Long product_id;
+
+    private String product_name;
+
+    private double unit_price;
+
+    private int quantity;
+
+    private double line_total;
+}
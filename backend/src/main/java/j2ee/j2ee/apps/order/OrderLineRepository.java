@@ -0,0 +1,14 @@
+package j2ee.j2ee.apps.order;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderLineRepository extends JpaRepository<OrderLineEntity, Long> {
+    @Query("FROM order_lines l WHERE l.order.id = :orderId ORDER BY l.id")
+    List<OrderLineEntity> findAllByOrderId(@Param("orderId") Integer orderId);
+}
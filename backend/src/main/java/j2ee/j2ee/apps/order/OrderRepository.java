@@ -5,11 +5,38 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
-    Page<OrderEntity> findAllByUserId(long userId, Pageable pageable);
+    // Order list rows: one joined select, no entity graph (see OrderRow)
+    String ROW = "SELECT new j2ee.j2ee.apps.order.OrderRow(o.id, o.order_date, o.status, o.total_amount, "
+            + "o.shipping_address, o.created_at, u.id, u.name, u.email, u.phone, st.id, st.name, st.address, st.phone) "
+            + "FROM orders o JOIN o.user u JOIN o.store st ";
+
+    @Query(value = ROW + "WHERE u.id = :userId ORDER BY o.created_at DESC, o.id DESC",
+            countQuery = "SELECT COUNT(o) FROM orders o WHERE o.user.id = :userId")
+    Page<OrderRow> findRowsByUserId(@Param("userId") long userId, Pageable pageable);
+
+    long countByUserId(long userId);
+
+    // Keyset pages, newest first; pass PageRequest.of(0, size + 1) so no count query runs
+    @Query(ROW + "WHERE u.id = :userId ORDER BY o.created_at DESC, o.id DESC")
+    List<OrderRow> findFirstRowPageByUserId(@Param("userId") long userId, Pageable pageable);
+
+    // NULL sorts lowest, so rows without created_at come last, ordered by id alone
+    @Query(ROW + "WHERE u.id = :userId "
+            + "AND (o.created_at < :createdAt OR (o.created_at = :createdAt AND o.id < :id) OR o.created_at IS NULL) "
+            + "ORDER BY o.created_at DESC, o.id DESC")
+    List<OrderRow> findRowPageByUserIdAfter(@Param("userId") long userId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Integer id, Pageable pageable);
+
+    // Next page after a row without created_at
+    @Query(ROW + "WHERE u.id = :userId AND o.created_at IS NULL AND o.id < :id ORDER BY o.id DESC")
+    List<OrderRow> findUndatedRowPageByUserIdAfter(@Param("userId") long userId, @Param("id") Integer id,
+            Pageable pageable);
 
     // All time count
     long count();
@@ -0,0 +1,20 @@
+package j2ee.j2ee.apps.order;
+
+import java.time.LocalDateTime;
+
+import j2ee.j2ee.apps.store.StoreSummary;
+import j2ee.j2ee.apps.user.UserSummary;
+
+// One order with its store and user, selected by a single joined JPQL
+// constructor expression (see OrderRepository.ROW)
+public record OrderRow(Integer id, LocalDateTime order_date, String status, Double total_amount,
+        String shipping_address, LocalDateTime created_at,
+        Long user_id, String user_name, String user_email, String user_phone,
+        Long store_id, String store_name, String store_address, String store_phone) {
+
+    public OrderView toView() {
+        return new OrderView(id, order_date, status, total_amount, shipping_address, created_at,
+                new UserSummary(user_id, user_name, user_email, user_phone),
+                new StoreSummary(store_id, store_name, store_address, store_phone));
+    }
+}
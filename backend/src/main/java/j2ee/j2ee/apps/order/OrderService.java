@@ -6,7 +6,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -16,6 +15,9 @@ import java.time.temporal.WeekFields;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import j2ee.j2ee.utils.ApproximateCounts;
+import j2ee.j2ee.utils.Cursor;
+import j2ee.j2ee.utils.KeysetPage;
 
 @Service
 public class OrderService {
@@ -23,15 +25,46 @@ public class OrderService {
     @Autowired
     private OrderRepository orderRepository;
 
-    public Page<OrderEntity> getAllByUserId(long userId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "created_at"));
-        return this.orderRepository.findAllByUserId(userId, pageable);
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private ApproximateCounts approximateCounts;
+
+    // Newest first; the order is part of the row query
+    public Page<OrderView> getAllByUserId(long userId, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return this.orderRepository.findRowsByUserId(userId, pageable).map(OrderRow::toView);
+    }
+
+    // Seek pagination on (created_at, id), newest first; cursor is null for the first page
+    public KeysetPage<OrderView> getAllByUserIdAfter(long userId, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<OrderRow> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = this.orderRepository.findFirstRowPageByUserId(userId, limit);
+        } else {
+            String[] keys = Cursor.decode(cursor, 2);
+            int id = Integer.parseInt(keys[1]);
+            rows = keys[0] == null
+                    ? this.orderRepository.findUndatedRowPageByUserIdAfter(userId, id, limit)
+                    : this.orderRepository.findRowPageByUserIdAfter(userId, LocalDateTime.parse(keys[0]), id, limit);
+        }
+        return KeysetPage.of(rows, size, r -> Cursor.encode(r.created_at(), r.id())).map(OrderRow::toView);
+    }
+
+    public long getApproximateCountByUserId(long userId) {
+        return approximateCounts.get("orders:user:" + userId, () -> this.orderRepository.countByUserId(userId));
     }
 
     public Optional<OrderEntity> getByOrderId(long orderId) {
         return this.orderRepository.findById(orderId);
     }
 
+    public List<OrderLineEntity> getLines(int orderId) {
+        return this.orderLineRepository.findAllByOrderId(orderId);
+    }
+
     // all time
     public Map<String, Long> getOrderStatistics(String filter, String specificFilter) {
         Map<String, Long> stats = new HashMap<>();
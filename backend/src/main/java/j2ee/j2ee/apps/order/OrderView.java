@@ -0,0 +1,11 @@
+package j2ee.j2ee.apps.order;
+
+import java.time.LocalDateTime;
+
+import j2ee.j2ee.apps.store.StoreSummary;
+import j2ee.j2ee.apps.user.UserSummary;
+
+// Read model for order lists: the order columns plus a summary of its user and store
+public record OrderView(Integer id, LocalDateTime order_date, String status, Double total_amount,
+        String shipping_address, LocalDateTime created_at, UserSummary user, StoreSummary store) {
+}
@@ -7,8 +7,8 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
-import j2ee.j2ee.apps.appointment.AppointmentEntity;
-import j2ee.j2ee.apps.user.UserDTO;
+import j2ee.j2ee.apps.appointment.AppointmentView;
+import j2ee.j2ee.apps.user.UserSummary;
 
 @Builder
 @Data
@@ -17,10 +17,10 @@ import j2ee.j2ee.apps.user.UserDTO;
 
 public class PaymentDTO {
     private Long id;
-    private AppointmentEntity appointment;
+    private AppointmentView appointment;
     private String paymentMethod;
     private double price;
     private String status;
     private LocalDateTime paymentDate;
-    private UserDTO staff;
+    private UserSummary staff;
 }
@@ -1,6 +1,7 @@
 package j2ee.j2ee.apps.payment;
 
 import j2ee.j2ee.apps.appointment.AppointmentEntity;
+import j2ee.j2ee.apps.order.OrderEntity;
 import j2ee.j2ee.apps.store.StoreEntity;
 import j2ee.j2ee.apps.user.UserDTO;
 import j2ee.j2ee.apps.user.UserEntity;
@@ -19,10 +20,15 @@ public class PaymentEntity {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
 
-    @OneToOne
-    @JoinColumn(name = "appointment_id", referencedColumnName = "id", nullable = false, unique = true)
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "appointment_id", referencedColumnName = "id", unique = true)
     private AppointmentEntity appointment;
 
+    // Set instead of appointment for product orders placed through checkout
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", referencedColumnName = "id")
+    private OrderEntity order;
+
     private String payment_method;
 
     private double price;
@@ -31,7 +37,7 @@ public class PaymentEntity {
 
     private LocalDateTime payment_date;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "staff_id")
     private UserEntity staff;
 
@@ -1,8 +1,27 @@
 package j2ee.j2ee.apps.payment;
 
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
+    // Payment list rows: one joined select, no entity graph (see PaymentRow)
+    String ROW = "SELECT new j2ee.j2ee.apps.payment.PaymentRow(p.id, p.payment_method, p.price, p.status, "
+            + "p.payment_date, ps.id, ps.name, ps.email, ps.phone, "
+            + "a.id, a.appointment_date, a.appointment_time, a.status, a.created_at, a.updated_at, "
+            + "st.id, st.name, st.address, st.phone, s.id, s.name, s.price, s.duration, "
+            + "c.id, c.name, c.email, c.phone, sf.id, sf.name, sf.email, sf.phone) "
+            + "FROM payments p JOIN p.appointment a JOIN a.store st JOIN a.service s JOIN a.customer c "
+            + "LEFT JOIN a.staff sf LEFT JOIN p.staff ps ";
+
+    @Query(ROW + "ORDER BY p.id")
+    List<PaymentRow> findAllRows();
+
+    @Query(ROW + "WHERE p.id = :id")
+    Optional<PaymentRow> findRowById(@Param("id") Long id);
 }
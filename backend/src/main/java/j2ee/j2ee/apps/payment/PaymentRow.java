@@ -0,0 +1,41 @@
+package j2ee.j2ee.apps.payment;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import j2ee.j2ee.apps.appointment.AppointmentRow;
+import j2ee.j2ee.apps.user.UserSummary;
+
+// One payment with its staff and appointment (plus the appointment's store,
+// service, customer and staff), selected by a single joined JPQL constructor
+// expression (see PaymentRepository.ROW)
+public record PaymentRow(Long id, String payment_method, double price, String status, LocalDateTime payment_date,
+        Long staff_id, String staff_name, String staff_email, String staff_phone,
+        Long appointment_id, LocalDate appointment_date, LocalTime appointment_time, String appointment_status,
+        LocalDateTime appointment_created_at, LocalDateTime appointment_updated_at,
+        Long store_id, String store_name, String store_address, String store_phone,
+        Long service_id, String service_name, Double service_price, Integer service_duration,
+        Long customer_id, String customer_name, String customer_email, String customer_phone,
+        Long appointment_staff_id, String appointment_staff_name, String appointment_staff_email,
+        String appointment_staff_phone) {
+
+    public PaymentDTO toDTO() {
+        AppointmentRow appointment = new AppointmentRow(appointment_id, appointment_date, appointment_time,
+                appointment_status, appointment_created_at, appointment_updated_at,
+                store_id, store_name, store_address, store_phone,
+                service_id, service_name, service_price, service_duration,
+                customer_id, customer_name, customer_email, customer_phone,
+                appointment_staff_id, appointment_staff_name, appointment_staff_email, appointment_staff_phone);
+
+        return PaymentDTO.builder()
+                .id(id)
+                .appointment(appointment.toView())
+                .paymentMethod(payment_method)
+                .price(price)
+                .status(status)
+                .paymentDate(payment_date)
+                .staff(staff_id == null ? null : new UserSummary(staff_id, staff_name, staff_email, staff_phone))
+                .build();
+    }
+}
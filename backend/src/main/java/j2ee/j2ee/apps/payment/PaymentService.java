@@ -6,41 +6,38 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import j2ee.j2ee.apps.user.UserDTO;
-import j2ee.j2ee.apps.user.UserEntity;
-import j2ee.j2ee.apps.user.UserService;
+import j2ee.j2ee.apps.appointment.AppointmentView;
+import j2ee.j2ee.apps.user.UserSummary;
 
 @Service
 public class PaymentService {
 
     @Autowired
     private PaymentRepository paymentRepository;
-    @Autowired
-    private UserService userService;
 
     public PaymentDTO toPaymentDTO(PaymentEntity payment) {
         PaymentDTO dto = new PaymentDTO();
         dto.setId(payment.getId());
-        dto.setAppointment(payment.getAppointment());
+        dto.setAppointment(AppointmentView.of(payment.getAppointment()));
         dto.setPaymentMethod(payment.getPayment_method());
         dto.setPrice(payment.getPrice());
         dto.setStatus(payment.getStatus());
         dto.setPaymentDate(payment.getPayment_date());
-        dto.setStaff(userService.toUserDTO(payment.getStaff()));
+        dto.setStaff(UserSummary.of(payment.getStaff()));
 
         return dto;
     }
 
     public List<PaymentDTO> getAllPayments() {
-        return paymentRepository.findAll()
+        return paymentRepository.findAllRows()
                 .stream()
-                .map(this::toPaymentDTO)
+                .map(PaymentRow::toDTO)
                 .toList();
     }
 
     public Optional<PaymentDTO> getPaymentById(Long id) {
-        return paymentRepository.findById(id)
-                .map(this::toPaymentDTO);
+        return paymentRepository.findRowById(id)
+                .map(PaymentRow::toDTO);
     }
 
     public PaymentDTO createPayment(PaymentEntity payment) {
@@ -0,0 +1,26 @@
+package j2ee.j2ee.apps.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Read model for product grids: the product fields a card shows plus its
+// first two image urls, so listing a page needs no per-product image query.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductCardDTO {
+    private Long id;
+    private String name;
+    private Double price;
+    private Double old_price;
+    private Boolean is_sale;
+    private Boolean is_in_stock;
+    private String status;
+    private Long category_id;
+    private String category_name;
+    private String primary_image;
+    private String secondary_image;
+}
@@ -4,7 +4,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,11 +17,18 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.security.core.Authentication;
+import j2ee.j2ee.apps.bulk_delete.DeleteMode;
+import j2ee.j2ee.apps.bulk_delete.DeleteResult;
 import j2ee.j2ee.apps.user.UserEntity;
 import j2ee.j2ee.apps.user.UserRepository;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.config.ConditionalGet;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
 
 @RestController
 @RequestMapping("/api/products")
+@ExecutionLane(Lane.CATALOG)
 public class ProductController {
 
     @Autowired
@@ -27,6 +36,7 @@ public class ProductController {
     @Autowired
     private UserRepository userRepository;
 
+    @ConditionalGet(value = { Catalog.PRODUCTS, Catalog.STORES, Catalog.CATEGORIES }, tag = ProductStockTag.class)
     @GetMapping
     public ResponseEntity<List<ProductEntity>> getAll() {
         try {
@@ -39,6 +49,7 @@ public class ProductController {
     }
 
     // Get product pagination by store id
+    @ConditionalGet(value = { Catalog.PRODUCTS, Catalog.STORES, Catalog.CATEGORIES }, tag = ProductStockTag.class)
     @GetMapping("/stores")
     public ResponseEntity<Object> getAllByStoreId(
             @RequestParam(value = "store_id") long store_id,
@@ -65,6 +76,67 @@ public class ProductController {
         }
     }
 
+    // Cursor-paged variant: pass back nextCursor to get the following page; past
+    // the last one the list is empty and nextCursor is null.
+    // No COUNT(*) runs unless with_total is set, and that total is cached
+    @ConditionalGet(value = { Catalog.PRODUCTS, Catalog.STORES, Catalog.CATEGORIES }, tag = ProductStockTag.class)
+    @GetMapping("/stores/cursor")
+    public ResponseEntity<Object> getAllByStoreIdAfter(
+            @RequestParam(value = "store_id") long store_id,
+            @RequestParam(required = false, value = "name") String name,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "with_total", defaultValue = "false") boolean withTotal) {
+        try {
+            int limit = Math.min(Math.max(size, 1), 100);
+            var keysetPage = this.productService.getAllByStoreIdAfter(store_id, name, cursor, limit);
+            HashMap<String, Object> response = new HashMap<>();
+            response.put("products", keysetPage.getContent());
+            response.put("nextCursor", keysetPage.getNextCursor());
+            response.put("hasNext", keysetPage.isHasNext());
+            if (withTotal) {
+                response.put("approximateTotal", this.productService.getApproximateCountByStoreId(store_id, name));
+            }
+
+            return ResponseEntity.ok().body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Product grid: same paging as /stores, each product with its first two image urls
+    @ConditionalGet(value = { Catalog.PRODUCTS, Catalog.STORES, Catalog.CATEGORIES }, tag = ProductStockTag.class)
+    @GetMapping("/stores/cards")
+    public ResponseEntity<Object> getCardsByStoreId(
+            @RequestParam(value = "store_id") long store_id,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "8") int size,
+            @RequestParam(required = false, value = "name") String name,
+            @RequestParam(required = false, value = "category") String category) {
+        try {
+            var pageCards = this.productService.getCardsByStoreId(store_id, page, Math.min(Math.max(size, 1), 48),
+                    name, category);
+            if (pageCards.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            HashMap<String, Object> response = new HashMap<>();
+            response.put("products", pageCards.getContent());
+            response.put("currentPage", pageCards.getNumber());
+            response.put("totalPages", pageCards.getTotalPages());
+            response.put("totalElements", pageCards.getTotalElements());
+
+            return ResponseEntity.ok().body(response);
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @ConditionalGet(value = { Catalog.PRODUCTS, Catalog.STORES, Catalog.CATEGORIES }, tag = ProductStockTag.class)
     @GetMapping("/details")
     public ResponseEntity<ProductEntity> getById(@RequestParam("product_id") Long product_id) {
         try {
@@ -133,6 +205,9 @@ public class ProductController {
 
             ProductEntity updatedProduct = productService.updateProduct(productId, productDetails);
             return ResponseEntity.ok(updatedProduct);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Stock or the product changed while this edit was being applied
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             System.err.println("Error updating product: " + e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -155,11 +230,14 @@ public class ProductController {
         }
     }
 
+    // ?mode=soft keeps the rows with deleted_at set
     @DeleteMapping
-    public ResponseEntity<Void> deleteMultipleProducts(@RequestBody List<Long> productIds) {
+    public ResponseEntity<DeleteResult> deleteMultipleProducts(@RequestBody List<Long> productIds,
+            @RequestParam(name = "mode", required = false) String mode) {
         try {
-            productService.deleteMultipleProducts(productIds);
-            return ResponseEntity.noContent().build();
+            return ResponseEntity.ok(productService.deleteMultipleProducts(productIds, DeleteMode.of(mode)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             System.err.println("Error deleting multiple products: " + e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -1,18 +1,26 @@
 package j2ee.j2ee.apps.product;
 
 import j2ee.j2ee.apps.category.CategoryEntity;
+import j2ee.j2ee.apps.search.SearchIndexListener;
 import j2ee.j2ee.apps.store.StoreEntity;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Version;
 import jakarta.persistence.CascadeType;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
+// Soft-deleted rows (deleted_at set, see apps/bulk_delete) stay loadable for the orders and
+// appointments that point at them; catalog queries filter on deleted_at themselves
 @Entity(name = "products")
 @Data
+@EntityListeners({ ProductIndexListener.class, SearchIndexListener.class })
 public class ProductEntity {
 
     @Id
@@ -37,6 +45,12 @@ public class ProductEntity {
 
     private String status;
 
+    private LocalDateTime deleted_at;
+
+    // Bumped by every stock change as well (apps/inventory/StockRepository)
+    @Version
+    private long version;
+
     @ManyToOne
     @JoinColumn(name = "store_id", referencedColumnName = "id")
     private StoreEntity store;
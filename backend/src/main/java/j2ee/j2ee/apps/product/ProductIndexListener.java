@@ -0,0 +1,33 @@
+package j2ee.j2ee.apps.product;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import j2ee.j2ee.utils.TransactionHooks;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Keeps ProductSearchIndex in step with every product write, including ones
+// that go straight through the repository. Changes are applied after commit.
+@Component
+public class ProductIndexListener {
+
+    private final ObjectProvider<ProductSearchIndex> searchIndex;
+
+    public ProductIndexListener(ObjectProvider<ProductSearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(ProductEntity product) {
+        TransactionHooks.afterCommit(() -> searchIndex.getObject().put(product));
+    }
+
+    @PostRemove
+    public void onRemove(ProductEntity product) {
+        long id = product.getId();
+        TransactionHooks.afterCommit(() -> searchIndex.getObject().remove(id));
+    }
+}
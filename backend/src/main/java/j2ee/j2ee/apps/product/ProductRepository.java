@@ -1,5 +1,6 @@
 package j2ee.j2ee.apps.product;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -11,18 +12,56 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
-    Page<ProductEntity> findAllByStoreId(Long store_id, Pageable pageable);
+    // Catalog queries leave out soft-deleted products; orders and carts still load them by id
+    @Query("FROM products p WHERE p.deleted_at IS NULL")
+    List<ProductEntity> findAllActive();
 
-    Page<ProductEntity> findAllByStoreIdAndNameContainingIgnoreCase(Long store_id, String name, Pageable pageable);
+    @Query("FROM products p WHERE p.deleted_at IS NULL")
+    Page<ProductEntity> findAllActive(Pageable pageable);
 
-    Page<ProductEntity> findAllByStoreIdAndCategoryContainingIgnoreCase(Long store_id, String category, Pageable pageable);
+    // Store listing, optionally narrowed by name and category name; null means no filter
+    @Query(value = "FROM products p LEFT JOIN p.category c WHERE p.store.id = :store_id AND p.deleted_at IS NULL " +
+            "AND (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) " +
+            "AND (:category IS NULL OR LOWER(c.name) LIKE LOWER(CONCAT('%', :category, '%')))",
+            countQuery = "SELECT COUNT(p) FROM products p LEFT JOIN p.category c " +
+                    "WHERE p.store.id = :store_id AND p.deleted_at IS NULL " +
+                    "AND (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) " +
+                    "AND (:category IS NULL OR LOWER(c.name) LIKE LOWER(CONCAT('%', :category, '%')))")
+    Page<ProductEntity> findActiveByStoreId(@Param("store_id") long store_id, @Param("name") String name,
+            @Param("category") String category, Pageable pageable);
 
-    Page<ProductEntity> findAllByStoreIdAndNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(Long store_id, String name, String category, Pageable pageable);
+    @Query("SELECT COUNT(p) FROM products p WHERE p.store.id = :store_id AND p.deleted_at IS NULL " +
+            "AND (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')))")
+    long countActiveByStoreId(@Param("store_id") long store_id, @Param("name") String name);
 
-    @Query("SELECT p FROM products p " + "JOIN p.store s " + "JOIN s.owner u " + "WHERE u.id = :userId")
+    // Keyset page by id; afterId = 0 gives the first page
+    @Query("FROM products p WHERE p.store.id = :store_id AND p.id > :afterId AND p.deleted_at IS NULL " +
+            "AND (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) ORDER BY p.id")
+    List<ProductEntity> findPageByStoreIdAfter(@Param("store_id") long store_id, @Param("name") String name,
+            @Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT p FROM products p " + "JOIN p.store s " + "JOIN s.owner u " + "WHERE u.id = :userId AND p.deleted_at IS NULL")
     List<ProductEntity> findAllByLoggedInUser(@Param("userId") long userId);
 
-    @Query("FROM products p WHERE p.store.id = :store_id AND p.name LIKE CONCAT('%', :query, '%') and p.category.id = :category_id")
+    @Query("FROM products p WHERE p.store.id = :store_id AND p.name LIKE CONCAT('%', :query, '%') and p.category.id = :category_id AND p.deleted_at IS NULL")
     List<ProductEntity> findWithConditions(@Param(value = "store_id") long store_id, @Param(value = "query") String query, @Param(value = "category_id") String category_id);
 
+
+    @Query("SELECT p.id FROM products p WHERE p.category.id = :categoryId AND p.deleted_at IS NULL")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Products with every eager association in one statement, for cart views; soft-deleted ones included
+    @Query("SELECT p FROM products p LEFT JOIN FETCH p.store s LEFT JOIN FETCH s.owner o LEFT JOIN FETCH o.role " +
+            "LEFT JOIN FETCH p.category c LEFT JOIN FETCH c.store WHERE p.id IN :ids")
+    List<ProductEntity> findAllWithStoreByIdIn(@Param("ids") Collection<Long> ids);
+
+    // [id, store id, name, description] of every live product with a store, for ProductSearchIndex
+    @Query("SELECT p.id, p.store.id, p.name, p.description FROM products p WHERE p.store IS NOT NULL " +
+            "AND p.deleted_at IS NULL")
+    List<Object[]> findSearchFields();
+
+    // [count, sum of @Version] of live products; every stock change bumps the version
+    @Query("SELECT COUNT(p), COALESCE(SUM(p.version), 0) FROM products p " +
+            "WHERE p.deleted_at IS NULL AND (:storeId IS NULL OR p.store.id = :storeId) AND (:productId IS NULL OR p.id = :productId)")
+    List<Object[]> findStockFingerprint(@Param("storeId") Long storeId, @Param("productId") Long productId);
 }
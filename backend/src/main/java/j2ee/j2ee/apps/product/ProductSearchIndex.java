@@ -0,0 +1,279 @@
+package j2ee.j2ee.apps.product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import j2ee.j2ee.utils.TextNormalizer;
+
+// Per-store trigram index over product name and description.
+// Each store has an immutable snapshot that is swapped whole on every change,
+// so searches never lock. Postings are sorted int[] of positions in the
+// store's id array (ordered by id), and candidates from the posting
+// intersection are confirmed with a substring check on the folded text.
+// Only ids and folded text are kept: stock and flags change through bulk
+// UPDATEs that never reach here, so a result page is loaded fresh by id.
+@Component
+public class ProductSearchIndex {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final Map<Long, StoreIndex> stores = new ConcurrentHashMap<>();
+    private final Map<Long, Long> storeOfProduct = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // What the index keeps of a product, text already folded
+    private record Doc(long id, String name, String description) {
+
+        static Doc of(long id, String name, String description) {
+            return new Doc(id, TextNormalizer.fold(name), TextNormalizer.fold(description));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Map<Long, List<Doc>> byStore = new HashMap<>();
+        // [id, store id, name, description]
+        for (Object[] row : productRepository.findSearchFields()) {
+            byStore.computeIfAbsent((Long) row[1], id -> new ArrayList<>())
+                    .add(Doc.of((Long) row[0], (String) row[2], (String) row[3]));
+        }
+
+        stores.clear();
+        storeOfProduct.clear();
+        byStore.forEach((storeId, docs) -> {
+            stores.put(storeId, StoreIndex.build(docs));
+            docs.forEach(doc -> storeOfProduct.put(doc.id(), storeId));
+        });
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized void put(ProductEntity product) {
+        remove(product.getId());
+        if (product.getStore() == null) {
+            return;
+        }
+
+        long storeId = product.getStore().getId();
+        StoreIndex current = stores.get(storeId);
+        List<Doc> docs = current != null ? current.docs() : new ArrayList<>();
+        docs.add(Doc.of(product.getId(), product.getName(), product.getDescription()));
+        stores.put(storeId, StoreIndex.build(docs));
+        storeOfProduct.put(product.getId(), storeId);
+    }
+
+    public synchronized void removeStore(long storeId) {
+        StoreIndex removed = stores.remove(storeId);
+        if (removed != null) {
+            for (long id : removed.ids) {
+                storeOfProduct.remove(id);
+            }
+        }
+    }
+
+    public synchronized void remove(long productId) {
+        Long storeId = storeOfProduct.remove(productId);
+        if (storeId == null) {
+            return;
+        }
+
+        StoreIndex current = stores.get(storeId);
+        if (current == null) {
+            return;
+        }
+        List<Doc> docs = current.docs();
+        docs.removeIf(doc -> doc.id() == productId);
+        stores.put(storeId, StoreIndex.build(docs));
+    }
+
+    // Empty until the startup build has finished; callers fall back to the database
+    public Optional<Page<ProductEntity>> search(long storeId, String query, int page, int size) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        PageRequest pageable = PageRequest.of(page, size);
+        StoreIndex index = stores.get(storeId);
+        if (index == null) {
+            return Optional.of(Page.empty(pageable));
+        }
+
+        int[] matches = index.search(TextNormalizer.fold(query).trim());
+        int from = Math.min((int) pageable.getOffset(), matches.length);
+        int to = Math.min(from + size, matches.length);
+
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(index.ids[matches[i]]);
+        }
+        Map<Long, ProductEntity> loaded = new HashMap<>();
+        if (!ids.isEmpty()) {
+            productRepository.findAllWithStoreByIdIn(ids).forEach(product -> loaded.put(product.getId(), product));
+        }
+        // In index order; a product deleted or soft-deleted since it was indexed is left out
+        List<ProductEntity> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductEntity product = loaded.get(id);
+            if (product != null && product.getDeleted_at() == null) {
+                content.add(product);
+            }
+        }
+        return Optional.of(new PageImpl<>(content, pageable, matches.length));
+    }
+
+    private static final class StoreIndex {
+
+        private static final int[] NONE = new int[0];
+
+        final long[] ids;
+        final String[] names;
+        final String[] descriptions;
+        final Map<Long, int[]> postings;
+
+        private StoreIndex(long[] ids, String[] names, String[] descriptions, Map<Long, int[]> postings) {
+            this.ids = ids;
+            this.names = names;
+            this.descriptions = descriptions;
+            this.postings = postings;
+        }
+
+        static StoreIndex build(List<Doc> unsorted) {
+            Doc[] sorted = unsorted.toArray(new Doc[0]);
+            Arrays.sort(sorted, Comparator.comparingLong(Doc::id));
+
+            long[] ids = new long[sorted.length];
+            String[] names = new String[sorted.length];
+            String[] descriptions = new String[sorted.length];
+            Map<Long, IntList> lists = new HashMap<>();
+
+            for (int doc = 0; doc < sorted.length; doc++) {
+                ids[doc] = sorted[doc].id();
+                names[doc] = sorted[doc].name();
+                descriptions[doc] = sorted[doc].description();
+
+                Set<Long> grams = new LinkedHashSet<>();
+                trigrams(names[doc], grams);
+                trigrams(descriptions[doc], grams);
+                for (Long gram : grams) {
+                    lists.computeIfAbsent(gram, g -> new IntList()).add(doc);
+                }
+            }
+
+            Map<Long, int[]> postings = new HashMap<>(lists.size() * 2);
+            lists.forEach((gram, list) -> postings.put(gram, list.toArray()));
+            return new StoreIndex(ids, names, descriptions, postings);
+        }
+
+        // Mutable copy, for building the next snapshot
+        List<Doc> docs() {
+            List<Doc> docs = new ArrayList<>(ids.length + 1);
+            for (int i = 0; i < ids.length; i++) {
+                docs.add(new Doc(ids[i], names[i], descriptions[i]));
+            }
+            return docs;
+        }
+
+        int[] search(String query) {
+            if (query.isEmpty()) {
+                int[] all = new int[ids.length];
+                for (int i = 0; i < all.length; i++) {
+                    all[i] = i;
+                }
+                return all;
+            }
+
+            Set<Long> grams = new LinkedHashSet<>();
+            trigrams(query, grams);
+
+            int[] candidates;
+            if (grams.isEmpty()) {
+                // Queries shorter than three characters: check every product
+                candidates = search("");
+            } else {
+                List<int[]> lists = new ArrayList<>(grams.size());
+                for (Long gram : grams) {
+                    int[] list = postings.get(gram);
+                    if (list == null) {
+                        return NONE;
+                    }
+                    lists.add(list);
+                }
+                lists.sort(Comparator.comparingInt(list -> list.length));
+
+                candidates = lists.get(0);
+                for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+                    candidates = intersect(candidates, lists.get(i));
+                }
+            }
+
+            int[] matches = new int[candidates.length];
+            int count = 0;
+            for (int doc : candidates) {
+                if (names[doc].contains(query) || descriptions[doc].contains(query)) {
+                    matches[count++] = doc;
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] out = new int[Math.min(a.length, b.length)];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+
+        // Three UTF-16 chars packed into one long key
+        private static void trigrams(String text, Set<Long> out) {
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                out.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+            }
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
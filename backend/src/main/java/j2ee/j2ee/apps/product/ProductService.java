@@ -1,15 +1,30 @@
 package j2ee.j2ee.apps.product;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import j2ee.j2ee.apps.bulk_delete.BulkDeleter;
+import j2ee.j2ee.apps.bulk_delete.DeleteMode;
+import j2ee.j2ee.apps.bulk_delete.DeletePlans;
+import j2ee.j2ee.apps.bulk_delete.DeleteResult;
 import j2ee.j2ee.apps.category.CategoryRepository;
 import j2ee.j2ee.apps.category.CategoryEntity;
+import j2ee.j2ee.apps.flash_sale.FlashSaleService;
+import j2ee.j2ee.apps.inventory.StockService;
+import j2ee.j2ee.apps.product_image.ProductImageService;
+import j2ee.j2ee.apps.search.SearchIndexService;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
+import j2ee.j2ee.utils.ApproximateCounts;
+import j2ee.j2ee.utils.Cursor;
+import j2ee.j2ee.utils.KeysetPage;
 
 @Service
 public class ProductService {
@@ -19,27 +34,106 @@ public class ProductService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ApproximateCounts approximateCounts;
+
+    @Autowired
+    private ProductImageService productImageService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private BulkDeleter bulkDeleter;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private StockService stockService;
+
     public Optional<List<ProductEntity>> getAll() {
-        List<ProductEntity> productList = this.productRepository.findAll();
+        List<ProductEntity> productList = this.productRepository.findAllActive();
         return Optional.of(productList);
     }
 
     public Page<ProductEntity> getAllByStoreId(long storeId, int page, int size, String name, String category) {
         Pageable pageable = PageRequest.of(page, size);
+        String nameFilter = name == null || name.isEmpty() ? null : name;
+        String categoryFilter = category == null || category.isEmpty() ? null : category;
+
+        if (nameFilter != null && categoryFilter == null) {
+            // Served from the in-memory trigram index once it has been built
+            Optional<Page<ProductEntity>> indexed = productSearchIndex.search(storeId, name, page, size);
+            if (indexed.isPresent()) {
+                return indexed.get();
+            }
+        }
+
+        return this.productRepository.findActiveByStoreId(storeId, nameFilter, categoryFilter, pageable);
+    }
+
+    // Seek pagination on id, optionally filtered by name; cursor is null for the first page
+    public KeysetPage<ProductEntity> getAllByStoreIdAfter(long storeId, String name, String cursor, int size) {
+        long afterId = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            afterId = Long.parseLong(Cursor.decode(cursor, 1)[0]);
+        }
+        String filter = name == null || name.isEmpty() ? null : name;
 
-        if (name != null && !name.isEmpty() && category != null && !category.isEmpty()) {
-            return productRepository.findAllByStoreIdAndNameContainingIgnoreCaseAndCategoryContainingIgnoreCase(storeId, name, category, pageable);
-        } else if (name != null && !name.isEmpty()) {
-            return productRepository.findAllByStoreIdAndNameContainingIgnoreCase(storeId, name, pageable);
-        } else if (category != null && !category.isEmpty()) {
-            return productRepository.findAllByStoreIdAndCategoryContainingIgnoreCase(storeId, category, pageable);
+        List<ProductEntity> rows = productRepository.findPageByStoreIdAfter(storeId, filter, afterId,
+                PageRequest.of(0, size + 1));
+        return KeysetPage.of(rows, size, p -> Cursor.encode(p.getId()));
+    }
+
+    public long getApproximateCountByStoreId(long storeId, String name) {
+        if (name == null || name.isEmpty()) {
+            return approximateCounts.get("products:store:" + storeId,
+                    () -> productRepository.countActiveByStoreId(storeId, null));
         }
+        return approximateCounts.get("products:store:" + storeId + ":" + name.toLowerCase(),
+                () -> productRepository.countActiveByStoreId(storeId, name));
+    }
 
-        return this.productRepository.findAllByStoreId(storeId, pageable);
+    // Same page as getAllByStoreId, as cards with their first two images.
+    // Images for the whole page come from one batched lookup
+    public Page<ProductCardDTO> getCardsByStoreId(long storeId, int page, int size, String name, String category) {
+        Page<ProductEntity> products = getAllByStoreId(storeId, page, size, name, category);
+        Map<Long, List<String>> images = productImageService
+                .getUrlsByProductIds(products.getContent().stream().map(ProductEntity::getId).toList());
+
+        return products.map(product -> {
+            List<String> urls = images.getOrDefault(product.getId(), List.of());
+            CategoryEntity productCategory = product.getCategory();
+            return ProductCardDTO.builder()
+                    .id(product.getId())
+                    .name(product.getName())
+                    .price(product.getPrice())
+                    .old_price(product.getOld_price())
+                    .is_sale(product.is_sale())
+                    .is_in_stock(product.getIs_in_stock())
+                    .status(product.getStatus())
+                    .category_id(productCategory != null ? productCategory.getId() : null)
+                    .category_name(productCategory != null ? productCategory.getName() : null)
+                    .primary_image(urls.size() > 0 ? urls.get(0) : null)
+                    .secondary_image(urls.size() > 1 ? urls.get(1) : null)
+                    .build();
+        });
     }
 
+    // Products in a running flash sale are served from memory
     public Optional<ProductEntity> getById(Long id) {
-        return productRepository.findById(id);
+        Optional<ProductEntity> onSale = flashSaleService.getProduct(id);
+        if (onSale.isPresent()) {
+            return onSale;
+        }
+        return productRepository.findById(id).filter(product -> product.getDeleted_at() == null);
     }
 
     public List<ProductEntity> getAllByLoggedInUser(long userId) {
@@ -52,12 +146,20 @@ public class ProductService {
 
     // Gán CategoryEntity đã tồn tại vào ProductEntity
     product.setCategory(category);
-        return productRepository.save(product);
+        ProductEntity saved = productRepository.save(product);
+        catalogCache.invalidate(Catalog.PRODUCTS);
+        return saved;
     }
 
     public ProductEntity updateProduct(long productId, ProductEntity productDetails) {
         ProductEntity existingProduct = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+        // stock_quantity is absolute, so the edit must be based on the current
+        // version: every stock change bumps it, and a stale form gets a conflict
+        // instead of overwriting units sold since. No version means version 0.
+        if (productDetails.getVersion() != existingProduct.getVersion()) {
+            throw new ObjectOptimisticLockingFailureException(ProductEntity.class, productId);
+        }
 
         existingProduct.setName(productDetails.getName());
         existingProduct.setDescription(productDetails.getDescription());
@@ -65,16 +167,38 @@ public class ProductService {
         existingProduct.setOld_price(productDetails.getOld_price());
         existingProduct.setWeight(productDetails.getWeight());
         existingProduct.setStock_quantity(productDetails.getStock_quantity());
+        existingProduct.setIs_in_stock(productDetails.getStock_quantity() != null
+                && productDetails.getStock_quantity() > 0);
         existingProduct.setStatus(productDetails.getStatus());
         existingProduct.setCategory(productDetails.getCategory());
-        return productRepository.save(existingProduct);
+        // Units leased to the hot counters are not in stock_quantity; the new
+        // value replaces them rather than having them flushed on top of it
+        int discarded = stockService.discardLeased(productId);
+        ProductEntity saved;
+        try {
+            saved = productRepository.save(existingProduct);
+        } catch (RuntimeException e) {
+            stockService.giveBack(productId, discarded);
+            throw e;
+        }
+        stockService.forgetSaleFlag(productId);
+        catalogCache.invalidate(Catalog.PRODUCTS);
+        return saved;
     }
 
     public void deleteProduct(long productId) {
         productRepository.deleteById(productId);
+        catalogCache.invalidate(Catalog.PRODUCTS);
     }
 
-    public void deleteMultipleProducts(List<Long> productIds) {
-        productRepository.deleteAllById(productIds);
+    // Products on an order or in a cart are skipped in hard mode
+    public DeleteResult deleteMultipleProducts(List<Long> productIds, DeleteMode mode) {
+        DeleteResult result = bulkDeleter.delete(DeletePlans.PRODUCTS, productIds, mode);
+        for (long id : result.deletedIds()) {
+            productSearchIndex.remove(id);
+            searchIndexService.delete(SearchIndexService.TYPE_PRODUCT, id);
+        }
+        catalogCache.invalidate(Catalog.PRODUCTS);
+        return result;
     }
 }
@@ -0,0 +1,48 @@
+package j2ee.j2ee.apps.product;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import j2ee.j2ee.apps.flash_sale.FlashSaleService;
+import j2ee.j2ee.config.ConditionalGetTag;
+import jakarta.servlet.http.HttpServletRequest;
+
+// Stock part of the product ETags. Stock moves through StockRepository's
+// UPDATEs, not through the catalog, but each of them bumps the product's
+// @Version, so the count and version sum of the products a route shows change
+// with it. Scoped by the store_id or product_id parameter when there is one.
+// A product on flash sale is served from memory and gets no ETag, so polling
+// it does not cost a query.
+@Component
+public class ProductStockTag implements ConditionalGetTag {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Override
+    public Optional<String> tag(HttpServletRequest request) {
+        Long storeId = parameter(request, "store_id");
+        Long productId = parameter(request, "product_id");
+        if (productId != null && flashSaleService.isActive(productId)) {
+            return Optional.empty();
+        }
+        List<Object[]> rows = productRepository.findStockFingerprint(storeId, productId);
+        Object[] row = rows.get(0);
+        return Optional.of("stock." + row[0] + "." + row[1]);
+    }
+
+    private static Long parameter(HttpServletRequest request, String name) {
+        try {
+            String value = request.getParameter(name);
+            return value == null ? null : Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            // the handler answers 400 for it
+            return null;
+        }
+    }
+}
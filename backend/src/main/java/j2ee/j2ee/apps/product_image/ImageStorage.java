@@ -0,0 +1,125 @@
+package j2ee.j2ee.apps.product_image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Content-addressed image files on local disk. A file is stored once under
+// the SHA-256 of its bytes (<dir>/originals/ab/<hash>.<ext>), so identical
+// uploads share a file and a stored file never changes.
+@Component
+public class ImageStorage {
+
+    public static final String FILES_PATH = "/api/product-images/files/";
+
+    private static final Pattern NAME = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|gif|webp)");
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "png", "image/png",
+            "gif", "image/gif",
+            "webp", "image/webp");
+
+    private final Path root;
+
+    public ImageStorage(@Value("${images.dir:data/images}") String dir) throws IOException {
+        this.root = Path.of(dir).toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve("tmp"));
+    }
+
+    // Streams the upload to a temp file while hashing it, then moves it into place.
+    // Returns the stored file name (<hash>.<ext>)
+    public String store(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(root.resolve("tmp"), "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            String extension = detectExtension(temp)
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported image type"));
+            String name = HexFormat.of().formatHex(digest.digest()) + "." + extension;
+
+            Path target = original(name);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target);
+                } catch (FileAlreadyExistsException e) {
+                    // stored concurrently by an identical upload
+                }
+            }
+            return name;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public boolean isValidName(String name) {
+        return NAME.matcher(name).matches();
+    }
+
+    public Path original(String name) {
+        return root.resolve("originals").resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    public Path thumbnail(String name, int width) {
+        return root.resolve("thumbs").resolve(String.valueOf(width)).resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    public String contentType(String name) {
+        return CONTENT_TYPES.get(name.substring(name.lastIndexOf('.') + 1));
+    }
+
+    public String url(String name) {
+        return FILES_PATH + name;
+    }
+
+    // Decides the type from the file's magic bytes rather than the client's Content-Type
+    private Optional<String> detectExtension(Path file) throws IOException {
+        byte[] head = new byte[12];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+
+        if (read >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return Optional.of("jpg");
+        }
+        if (read >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return Optional.of("png");
+        }
+        if (read >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return Optional.of("gif");
+        }
+        if (read >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return Optional.of("webp");
+        }
+        return Optional.empty();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package j2ee.j2ee.apps.product_image;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+// Builds downscaled copies of stored images off the request thread. Until a
+// thumbnail exists the original is served in its place.
+@Component
+public class ImageThumbnailer {
+
+    private final ImageStorage imageStorage;
+    private final List<Integer> widths;
+
+    public ImageThumbnailer(ImageStorage imageStorage,
+            @Value("${images.thumbnail-widths:200,480}") String widths) {
+        this.imageStorage = imageStorage;
+        this.widths = Arrays.stream(widths.split(",")).map(String::trim).map(Integer::valueOf).sorted().toList();
+    }
+
+    public List<Integer> getWidths() {
+        return widths;
+    }
+
+    public boolean isSupportedWidth(int width) {
+        return widths.contains(width);
+    }
+
+    @Async
+    public void generate(String name) {
+        String format = name.substring(name.lastIndexOf('.') + 1);
+        // ImageIO has no webp writer and would flatten animated gifs
+        if (!format.equals("jpg") && !format.equals("png")) {
+            return;
+        }
+
+        try {
+            BufferedImage source = ImageIO.read(imageStorage.original(name).toFile());
+            if (source == null) {
+                return;
+            }
+
+            for (int width : widths) {
+                Path target = imageStorage.thumbnail(name, width);
+                if (Files.exists(target) || source.getWidth() <= width) {
+                    continue;
+                }
+                int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+                write(scale(source, width, height, format), format, target);
+            }
+        } catch (IOException e) {
+            System.err.println("Thumbnail generation failed for " + name + ": " + e.getMessage());
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source, int width, int height, String format) {
+        int type = format.equals("png") ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    // Written next to the target and moved in, so readers never see a partial file
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "thumb-", ".part");
+        try {
+            ImageIO.write(image, format.equals("jpg") ? "jpeg" : format, temp.toFile());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package j2ee.j2ee.apps.product_image;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Small LRU of product id -> image urls (in display order). Entries are
+// dropped by ProductImageListener whenever an image of the product changes.
+@Component
+public class ProductImageCache {
+
+    private final Map<Long, List<String>> entries;
+    // bumped by every evict, so a load that overlapped one is not cached
+    private long generation;
+
+    public ProductImageCache(@Value("${product-images.cache-size:2000}") int capacity) {
+        this.entries = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<String>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // Returns the cached entries among the given ids; misses are simply absent
+    public synchronized Map<Long, List<String>> getAll(Collection<Long> productIds) {
+        Map<Long, List<String>> found = new HashMap<>();
+        for (Long id : productIds) {
+            List<String> urls = entries.get(id);
+            if (urls != null) {
+                found.put(id, urls);
+            }
+        }
+        return found;
+    }
+
+    // Read before loading and pass to putAll
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // Caches the loaded lists unless an evict happened since generation was read;
+    // that evict may be for an image the load did not see yet
+    public synchronized void putAll(Map<Long, List<String>> urlsByProduct, long loadedAt) {
+        if (generation != loadedAt) {
+            return;
+        }
+        urlsByProduct.forEach((id, urls) -> entries.put(id, List.copyOf(urls)));
+    }
+
+    public synchronized void evict(long productId) {
+        generation++;
+        entries.remove(productId);
+    }
+}
@@ -1,5 +1,131 @@
 package j2ee.j2ee.apps.product_image;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
+
+@RestController
+@RequestMapping("/api/product-images")
+@ExecutionLane(Lane.CATALOG)
 public class ProductImageController {
 
+    private static final int MAX_PRODUCT_IDS = 100;
+
+    @Autowired
+    private ProductImageService productImageService;
+    @Autowired
+    private ImageStorage imageStorage;
+    @Autowired
+    private ImageThumbnailer imageThumbnailer;
+    @Autowired
+    private ImageFileSender imageFileSender;
+
+    // Image urls of several products in one call: { productId: [url, ...] }
+    @GetMapping
+    public ResponseEntity<Map<Long, List<String>>> getByProductIds(@RequestParam("productIds") List<Long> productIds) {
+        try {
+            if (productIds.isEmpty() || productIds.size() > MAX_PRODUCT_IDS) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            return ResponseEntity.ok(productImageService.getUrlsByProductIds(productIds));
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Upload an image; the returned url can be stored on a product, store or category.
+    // With product_id the image is also added to that product
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Object> upload(@RequestParam("file") MultipartFile file,
+            @RequestParam(value = "product_id", required = false) Long productId) {
+        try {
+            if (file.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            String name = imageStorage.store(file.getInputStream());
+            imageThumbnailer.generate(name);
+
+            String url = imageStorage.url(name);
+            Map<Integer, String> thumbnails = new LinkedHashMap<>();
+            imageThumbnailer.getWidths().forEach(width -> thumbnails.put(width, url + "?w=" + width));
+
+            HashMap<String, Object> response = new HashMap<>();
+            response.put("url", url);
+            response.put("thumbnails", thumbnails);
+            if (productId != null) {
+                response.put("image", productImageService.addToProduct(productId, url));
+            }
+
+            return ResponseEntity.ok().body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Stored files never change, so they are cached for a year and validated by
+    // their hash. ?w= picks a thumbnail; until it is generated the original is sent
+    @GetMapping("/files/{name}")
+    public void serve(@PathVariable("name") String name, @RequestParam(value = "w", required = false) Integer width,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!imageStorage.isValidName(name) || (width != null && !imageThumbnailer.isSupportedWidth(width))) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Path file = imageStorage.original(name);
+        if (!Files.exists(file)) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String hash = name.substring(0, name.indexOf('.'));
+        String etag = "\"" + hash + "\"";
+        boolean immutable = true;
+        if (width != null) {
+            Path thumbnail = imageStorage.thumbnail(name, width);
+            if (Files.exists(thumbnail)) {
+                file = thumbnail;
+                etag = "\"" + hash + "-w" + width + "\"";
+            } else {
+                // the url will serve the thumbnail later, so don't let this response stick
+                immutable = false;
+            }
+        }
+
+        try {
+            imageFileSender.send(request, response, file, etag, imageStorage.contentType(name), immutable);
+        } catch (IOException e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
 }
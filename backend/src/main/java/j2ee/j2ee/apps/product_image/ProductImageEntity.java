@@ -2,6 +2,7 @@ package j2ee.j2ee.apps.product_image;
 
 import j2ee.j2ee.apps.product.ProductEntity;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -11,6 +12,7 @@ import lombok.Data;
 
 @Entity(name = "product_images")
 @Data
+@EntityListeners(ProductImageListener.class)
 public class ProductImageEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,32 @@
+package j2ee.j2ee.apps.product_image;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import j2ee.j2ee.utils.TransactionHooks;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Drops the cached image list of a product whenever one of its images is
+// added, changed or removed. Eviction happens after commit.
+@Component
+public class ProductImageListener {
+
+    private final ObjectProvider<ProductImageCache> imageCache;
+
+    public ProductImageListener(ObjectProvider<ProductImageCache> imageCache) {
+        this.imageCache = imageCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(ProductImageEntity image) {
+        if (image.getProduct() == null) {
+            return;
+        }
+        long productId = image.getProduct().getId();
+        TransactionHooks.afterCommit(() -> imageCache.getObject().evict(productId));
+    }
+}
@@ -1,12 +1,18 @@
 package j2ee.j2ee.apps.product_image;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Collection;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProductImageRepository extends JpaRepository<ProductImageEntity, Long> {
     List<ProductImageEntity> findAllByProductId(long productId);
+
+    // product id, url for every image of the given products, first image first
+    @Query("SELECT i.product.id, i.url FROM product_images i WHERE i.product.id IN :productIds ORDER BY i.product.id, i.id")
+    List<Object[]> findUrlsByProductIds(@Param("productIds") Collection<Long> productIds);
 }
@@ -1,22 +1,75 @@
 package j2ee.j2ee.apps.product_image;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import j2ee.j2ee.apps.product.ProductEntity;
+import j2ee.j2ee.apps.product.ProductRepository;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
+
 @Service
 public class ProductImageService {
     private final ProductImageRepository productImageRepository;
+    private final ProductImageCache productImageCache;
+    private final ProductRepository productRepository;
+    private final CatalogCache catalogCache;
 
     @Autowired
-    public ProductImageService(ProductImageRepository productImageRepository) {
+    public ProductImageService(ProductImageRepository productImageRepository, ProductImageCache productImageCache,
+            ProductRepository productRepository, CatalogCache catalogCache) {
         this.productImageRepository = productImageRepository;
+        this.productImageCache = productImageCache;
+        this.productRepository = productRepository;
+        this.catalogCache = catalogCache;
     }
 
     public Optional<List<ProductImageEntity>> getAllByProductId(long productId) {
         List<ProductImageEntity> imageList = this.productImageRepository.findAllByProductId(productId);
         return Optional.ofNullable(imageList);
     }
+
+    public ProductImageEntity addToProduct(long productId, String url) {
+        ProductEntity product = this.productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+
+        ProductImageEntity image = new ProductImageEntity();
+        image.setProduct(product);
+        image.setUrl(url);
+        ProductImageEntity saved = this.productImageRepository.save(image);
+        // product cards carry image urls, so their ETags have to move too
+        catalogCache.invalidate(Catalog.PRODUCTS);
+        return saved;
+    }
+
+    // Image urls of many products at once: cached lists are reused and all
+    // misses are loaded with a single IN query. Products without images map to an empty list.
+    public Map<Long, List<String>> getUrlsByProductIds(Collection<Long> productIds) {
+        Set<Long> ids = new LinkedHashSet<>(productIds);
+        Map<Long, List<String>> result = new HashMap<>(productImageCache.getAll(ids));
+        ids.removeAll(result.keySet());
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        long generation = productImageCache.generation();
+        Map<Long, List<String>> loaded = new HashMap<>();
+        ids.forEach(id -> loaded.put(id, new ArrayList<>()));
+        for (Object[] row : this.productImageRepository.findUrlsByProductIds(ids)) {
+            loaded.get((Long) row[0]).add((String) row[1]);
+        }
+
+        productImageCache.putAll(loaded, generation);
+        result.putAll(loaded);
+        return result;
+    }
 }
@@ -6,9 +6,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
 
 @RestController
 @RequestMapping("/api/roles")
+@ExecutionLane(Lane.ADMIN)
 public class RoleController {
 
     @Autowired
@@ -56,13 +59,12 @@ public class RoleController {
     // Delete multiple
     @DeleteMapping("/delete-multiple")
     @Transactional
-    public ResponseEntity<String> deleteMultipleRoles(@RequestBody List<Long> ids) {
+    public ResponseEntity<?> deleteMultipleRoles(@RequestBody List<Long> ids) {
         try {
             if (ids == null || ids.isEmpty()) {
                 return ResponseEntity.badRequest().body("Danh sách ID không được rỗng");
             }
-            roleService.deleteMultipleRoles(ids);
-            return ResponseEntity.ok("Xóa nhiều role thành công");
+            return ResponseEntity.ok(roleService.deleteMultipleRoles(ids));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Lỗi khi xóa: " + e.getMessage());
         }
@@ -1,7 +1,13 @@
 package j2ee.j2ee.apps.role;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface RoleRepository extends JpaRepository<RoleEntity, Long> {
     void deleteAllByIdIn(Iterable<Long> ids);
+
+    @Query("SELECT r.id FROM roles r")
+    List<Long> findAllIds();
 }
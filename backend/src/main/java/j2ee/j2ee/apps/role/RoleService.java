@@ -3,9 +3,14 @@ package j2ee.j2ee.apps.role;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import j2ee.j2ee.apps.bulk_delete.BulkDeleter;
+import j2ee.j2ee.apps.bulk_delete.DeleteMode;
+import j2ee.j2ee.apps.bulk_delete.DeletePlans;
+import j2ee.j2ee.apps.bulk_delete.DeleteResult;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class RoleService {
@@ -13,20 +18,27 @@ public class RoleService {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private BulkDeleter bulkDeleter;
+
     // Create
     public RoleDTO createRole(RoleDTO roleDTO) {
         RoleEntity roleEntity = RoleEntity.builder()
                 .name(roleDTO.getName())
                 .build();
         RoleEntity savedEntity = roleRepository.save(roleEntity);
+        catalogCache.invalidate(Catalog.ROLES);
         return mapToDTO(savedEntity);
     }
 
     // lấy tất cả
     public List<RoleDTO> getAllRoles() {
-        return roleRepository.findAll().stream()
+        return catalogCache.get(Catalog.ROLES, "all", () -> roleRepository.findAll().stream()
                 .map(this::mapToDTO)
-                .collect(Collectors.toList());
+                .toList());
     }
 
     // lấy theo ID
@@ -42,6 +54,7 @@ public class RoleService {
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy role với ID: " + id));
         roleEntity.setName(roleDTO.getName());
         RoleEntity updatedEntity = roleRepository.save(roleEntity);
+        catalogCache.invalidate(Catalog.ROLES);
         return mapToDTO(updatedEntity);
     }
 
@@ -51,15 +64,18 @@ public class RoleService {
             throw new RuntimeException("Không tìm thấy role với ID: " + id);
         }
         roleRepository.deleteById(id);
+        catalogCache.invalidate(Catalog.ROLES);
     }
 
-    // Delete multiple
+    // Delete multiple; roles still assigned to users are skipped
     @Transactional
-    public void deleteMultipleRoles(List<Long> ids) {
+    public DeleteResult deleteMultipleRoles(List<Long> ids) {
         if (ids == null || ids.isEmpty()) {
             throw new IllegalArgumentException("Danh sách ID không được rỗng");
         }
-        roleRepository.deleteAllByIdIn(ids);
+        DeleteResult result = bulkDeleter.delete(DeletePlans.ROLES, ids, DeleteMode.HARD);
+        catalogCache.invalidate(Catalog.ROLES);
+        return result;
     }
 
     //  Chuyển từ Entity sang DTO
@@ -0,0 +1,72 @@
+package j2ee.j2ee.apps.search;
+
+import java.util.HashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
+
+@RestController
+@RequestMapping("/api/search")
+@ExecutionLane(Lane.CATALOG)
+public class SearchController {
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    // Ranked search across stores, services and products
+    @GetMapping
+    public ResponseEntity<Object> search(
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "category_of_service", required = false) String categoryOfService,
+            @RequestParam(value = "store_id", required = false) Long storeId,
+            @RequestParam(value = "min_price", required = false) Double minPrice,
+            @RequestParam(value = "max_price", required = false) Double maxPrice,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
+        try {
+            SearchRequest request = new SearchRequest();
+            request.setQ(q);
+            request.setType(type);
+            request.setCategoryOfService(categoryOfService);
+            request.setStoreId(storeId);
+            request.setMinPrice(minPrice);
+            request.setMaxPrice(maxPrice);
+            request.setPage(page);
+            request.setSize(Math.min(size, 100));
+
+            SearchResult result = searchIndexService.search(request);
+
+            HashMap<String, Object> response = new HashMap<>();
+            response.put("results", result.getHits());
+            response.put("facets", result.getFacets());
+            response.put("currentPage", result.getPage());
+            response.put("totalElements", result.getTotalElements());
+            response.put("totalPages", (result.getTotalElements() + result.getSize() - 1) / result.getSize());
+            response.put("rebuilding", searchIndexService.isRebuilding());
+
+            return ResponseEntity.ok().body(response);
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Rebuild the whole index in the background; admins only (SecurityConfig)
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        if (!searchIndexService.rebuildAsync()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,52 @@
+package j2ee.j2ee.apps.search;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import j2ee.j2ee.apps.product.ProductEntity;
+import j2ee.j2ee.apps.service.ServiceEntity;
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.utils.TransactionHooks;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Mirrors store, service and product writes into the Lucene index after commit
+@Component
+public class SearchIndexListener {
+
+    private final ObjectProvider<SearchIndexService> searchIndexService;
+
+    public SearchIndexListener(ObjectProvider<SearchIndexService> searchIndexService) {
+        this.searchIndexService = searchIndexService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        TransactionHooks.afterCommit(() -> {
+            SearchIndexService index = searchIndexService.getObject();
+            if (entity instanceof StoreEntity) {
+                index.indexStore((StoreEntity) entity);
+            } else if (entity instanceof ServiceEntity) {
+                index.indexService((ServiceEntity) entity);
+            } else if (entity instanceof ProductEntity) {
+                index.indexProduct((ProductEntity) entity);
+            }
+        });
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof StoreEntity) {
+            Long id = ((StoreEntity) entity).getId();
+            TransactionHooks.afterCommit(() -> searchIndexService.getObject().delete(SearchIndexService.TYPE_STORE, id));
+        } else if (entity instanceof ServiceEntity) {
+            Long id = ((ServiceEntity) entity).getId();
+            TransactionHooks.afterCommit(() -> searchIndexService.getObject().delete(SearchIndexService.TYPE_SERVICE, id));
+        } else if (entity instanceof ProductEntity) {
+            long id = ((ProductEntity) entity).getId();
+            TransactionHooks.afterCommit(() -> searchIndexService.getObject().delete(SearchIndexService.TYPE_PRODUCT, id));
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package j2ee.j2ee.apps.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.DrillDownQuery;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.Facets;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import j2ee.j2ee.apps.product.ProductEntity;
+import j2ee.j2ee.apps.product.ProductRepository;
+import j2ee.j2ee.apps.service.ServiceEntity;
+import j2ee.j2ee.apps.service.ServiceRepository;
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.apps.store.StoreRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Embedded Lucene index over stores, services and products, kept on local disk.
+// Writes come from SearchIndexListener after each commit. Readers are reopened
+// by a scheduled refresh (near-real-time), and a full rebuild runs in the
+// background while searches keep using the last snapshot: one coordinator
+// thread pages through the tables and hands the pages to the rebuild pool.
+// The directory is locked by its writer, so each application needs its own.
+@Service
+public class SearchIndexService {
+
+    public static final String TYPE_STORE = "store";
+    public static final String TYPE_SERVICE = "service";
+    public static final String TYPE_PRODUCT = "product";
+
+    static final String FACET_CATEGORY = "category_of_service";
+    static final String FACET_STORE = "store";
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of("name", 3f, "description", 1f, "address", 1f);
+
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${search.index-dir:data/search-index}")
+    private String indexDir;
+
+    @Value("${search.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private Analyzer analyzer;
+    private FSDirectory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ExecutorService rebuildCoordinator;
+    private ExecutorService rebuildPool;
+    private volatile ReaderFacets readerFacets;
+
+    @PostConstruct
+    public void open() throws IOException {
+        // Vietnamese text is folded to ASCII so "goi dau" finds "Gội đầu"
+        analyzer = new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                StandardTokenizer tokenizer = new StandardTokenizer();
+                TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+                return new TokenStreamComponents(tokenizer, stream);
+            }
+        };
+
+        Path path = Path.of(indexDir);
+        Files.createDirectories(path);
+        directory = FSDirectory.open(path);
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+        rebuildCoordinator = Executors.newSingleThreadExecutor();
+        rebuildPool = Executors.newFixedThreadPool(Math.max(rebuildThreads, 1));
+    }
+
+    // Stops a running rebuild first, so the writer is not closed under it
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        rebuildCoordinator.shutdownNow();
+        rebuildPool.shutdownNow();
+        rebuildCoordinator.awaitTermination(10, TimeUnit.SECONDS);
+        rebuildPool.awaitTermination(10, TimeUnit.SECONDS);
+        try {
+            searcherManager.close();
+            writer.close();
+        } finally {
+            directory.close();
+        }
+    }
+
+    // Build the index on first start, when the directory is still empty
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (writer.getDocStats().numDocs == 0) {
+            rebuildAsync();
+        }
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    // Returns false when a rebuild is already running
+    public boolean rebuildAsync() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            CompletableFuture.runAsync(() -> {
+                reindexAll(TYPE_STORE, storeRepository::findAllActive, this::storeDocument);
+                reindexAll(TYPE_SERVICE, serviceRepository::findAllActive, this::serviceDocument);
+                reindexAll(TYPE_PRODUCT, productRepository::findAllActive, this::productDocument);
+            }, rebuildCoordinator).whenComplete((ignored, error) -> {
+                try {
+                    if (error != null) {
+                        System.err.println("Search index rebuild failed: " + error.getMessage());
+                    }
+                    writer.commit();
+                } catch (IOException e) {
+                    System.err.println("Search index commit failed: " + e.getMessage());
+                } finally {
+                    rebuilding.set(false);
+                    refresh();
+                }
+            });
+        } catch (RuntimeException e) {
+            rebuilding.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    // Drops every document of the type, then pages through its live rows on the
+    // calling thread and indexes each page on the rebuild pool. Pages are only
+    // waited for here, never from a pool thread, so any pool size works.
+    private <T> void reindexAll(String type, Function<Pageable, Page<T>> pages, Function<T, Document> toDocument) {
+        try {
+            writer.deleteDocuments(new Term("type", type));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<CompletableFuture<Void>> indexed = new ArrayList<>();
+        Pageable pageable = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id"));
+        Page<T> page;
+        do {
+            page = pages.apply(pageable);
+            List<T> content = page.getContent();
+            indexed.add(CompletableFuture.runAsync(() -> content.forEach(entity -> index(toDocument.apply(entity))),
+                    rebuildPool));
+            pageable = pageable.next();
+        } while (page.hasNext());
+
+        CompletableFuture.allOf(indexed.toArray(new CompletableFuture[0])).join();
+    }
+
+    public void indexStore(StoreEntity store) {
+        index(storeDocument(store));
+    }
+
+    public void indexService(ServiceEntity service) {
+        index(serviceDocument(service));
+    }
+
+    public void indexProduct(ProductEntity product) {
+        index(productDocument(product));
+    }
+
+    public void delete(String type, Object id) {
+        try {
+            writer.deleteDocuments(new Term("uid", type + ":" + id));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The store and every product and service filed under it
+    public void deleteStore(long storeId) {
+        try {
+            writer.deleteDocuments(new Term("uid", TYPE_STORE + ":" + storeId));
+            writer.deleteDocuments(LongPoint.newExactQuery("store_id", storeId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void index(Document document) {
+        try {
+            writer.updateDocument(new Term("uid", document.get("uid")), facetsConfig.build(document));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Near-real-time reopen. Skipped during a rebuild so searches keep seeing
+    // the complete previous snapshot instead of a half-filled index.
+    @Scheduled(fixedDelayString = "${search.refresh-ms:1000}")
+    public void refresh() {
+        if (rebuilding.get()) {
+            return;
+        }
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            System.err.println("Search index refresh failed: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.commit-ms:30000}")
+    public void commit() {
+        if (rebuilding.get() || !writer.hasUncommittedChanges()) {
+            return;
+        }
+        try {
+            writer.commit();
+        } catch (IOException e) {
+            System.err.println("Search index commit failed: " + e.getMessage());
+        }
+    }
+
+    public SearchResult search(SearchRequest request) throws IOException {
+        Query query = buildQuery(request);
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            int page = Math.max(request.getPage(), 0);
+            int size = Math.max(request.getSize(), 1);
+            FacetsCollectorManager.FacetsResult result = FacetsCollectorManager.search(searcher, query,
+                    (page + 1) * size, new FacetsCollectorManager());
+            TopDocs topDocs = result.topDocs();
+            FacetsCollector facetsCollector = result.facetsCollector();
+
+            List<Map<String, Object>> hits = new ArrayList<>();
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            for (int i = page * size; i < scoreDocs.length; i++) {
+                hits.add(toHit(searcher.storedFields().document(scoreDocs[i].doc), scoreDocs[i].score));
+            }
+
+            Map<String, List<Map<String, Object>>> facets = new HashMap<>();
+            Facets counts = facetCounts(searcher.getIndexReader(), facetsCollector);
+            facets.put(FACET_CATEGORY, topChildren(counts, FACET_CATEGORY));
+            facets.put(FACET_STORE, topChildren(counts, FACET_STORE));
+
+            // Store names for hits and store facets, from the store documents
+            Set<Long> storeIds = new HashSet<>();
+            hits.forEach(hit -> {
+                if (hit.get("store_id") != null) {
+                    storeIds.add((Long) hit.get("store_id"));
+                }
+            });
+            facets.get(FACET_STORE).forEach(value -> storeIds.add(Long.parseLong((String) value.get("value"))));
+            Map<Long, String> names = storeNames(searcher, storeIds);
+            hits.forEach(hit -> {
+                if (hit.get("store_id") != null) {
+                    hit.put("store_name", names.get(hit.get("store_id")));
+                }
+            });
+            facets.get(FACET_STORE).forEach(value -> value.put("name", names.get(Long.parseLong((String) value.get("value")))));
+
+            return new SearchResult(hits, facets, topDocs.totalHits.value, page, size);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private Query buildQuery(SearchRequest request) {
+        Query text;
+        if (request.getQ() == null || request.getQ().isBlank()) {
+            text = new MatchAllDocsQuery();
+        } else {
+            SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_WEIGHTS);
+            parser.setDefaultOperator(BooleanClause.Occur.MUST);
+            text = parser.parse(request.getQ());
+        }
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder().add(text, BooleanClause.Occur.MUST);
+        if (request.getType() != null) {
+            builder.add(new TermQuery(new Term("type", request.getType())), BooleanClause.Occur.FILTER);
+        }
+        if (request.getStoreId() != null) {
+            builder.add(LongPoint.newExactQuery("store_id", request.getStoreId()), BooleanClause.Occur.FILTER);
+        }
+        if (request.getMinPrice() != null || request.getMaxPrice() != null) {
+            double min = request.getMinPrice() != null ? request.getMinPrice() : Double.NEGATIVE_INFINITY;
+            double max = request.getMaxPrice() != null ? request.getMaxPrice() : Double.POSITIVE_INFINITY;
+            builder.add(DoublePoint.newRangeQuery("price", min, max), BooleanClause.Occur.FILTER);
+        }
+
+        Query query = builder.build();
+        if (request.getCategoryOfService() != null) {
+            DrillDownQuery drillDown = new DrillDownQuery(facetsConfig, query);
+            drillDown.add(FACET_CATEGORY, request.getCategoryOfService());
+            query = drillDown;
+        }
+        return query;
+    }
+
+    private Facets facetCounts(IndexReader reader, FacetsCollector collector) throws IOException {
+        ReaderFacets current = readerFacets;
+        if (current == null || current.reader != reader) {
+            try {
+                current = new ReaderFacets(reader, new DefaultSortedSetDocValuesReaderState(reader, facetsConfig));
+            } catch (IllegalArgumentException e) {
+                // Nothing with facet fields has been indexed yet
+                return null;
+            }
+            readerFacets = current;
+        }
+        return new SortedSetDocValuesFacetCounts(current.state, collector);
+    }
+
+    // The index is the only source, so names are there after a restart as well
+    private Map<Long, String> storeNames(IndexSearcher searcher, Set<Long> storeIds) throws IOException {
+        Map<Long, String> names = new HashMap<>();
+        if (storeIds.isEmpty()) {
+            return names;
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (long storeId : storeIds) {
+            builder.add(new TermQuery(new Term("uid", TYPE_STORE + ":" + storeId)), BooleanClause.Occur.SHOULD);
+        }
+        for (ScoreDoc scoreDoc : searcher.search(builder.build(), storeIds.size()).scoreDocs) {
+            Document document = searcher.storedFields().document(scoreDoc.doc);
+            names.put(Long.parseLong(document.get("id")), document.get("name"));
+        }
+        return names;
+    }
+
+    private List<Map<String, Object>> topChildren(Facets facets, String dim) throws IOException {
+        List<Map<String, Object>> values = new ArrayList<>();
+        if (facets == null) {
+            return values;
+        }
+
+        FacetResult result;
+        try {
+            result = facets.getTopChildren(10, dim);
+        } catch (IllegalArgumentException e) {
+            return values;
+        }
+        if (result == null) {
+            return values;
+        }
+
+        for (LabelAndValue entry : result.labelValues) {
+            Map<String, Object> value = new HashMap<>();
+            value.put("value", entry.label);
+            value.put("count", entry.value);
+            values.add(value);
+        }
+        return values;
+    }
+
+    private Map<String, Object> toHit(Document document, float score) {
+        Map<String, Object> hit = new HashMap<>();
+        hit.put("type", document.get("type"));
+        hit.put("id", Long.parseLong(document.get("id")));
+        hit.put("name", document.get("name"));
+        hit.put("score", score);
+        if (document.getField("price_value") != null) {
+            hit.put("price", document.getField("price_value").numericValue());
+        }
+        if (document.get("store_id_value") != null) {
+            long storeId = Long.parseLong(document.get("store_id_value"));
+            hit.put("store_id", storeId);
+        }
+        if (document.get("image") != null) {
+            hit.put("image", document.get("image"));
+        }
+        return hit;
+    }
+
+    private Document storeDocument(StoreEntity store) {
+        Document document = baseDocument(TYPE_STORE, store.getId(), store.getName(), store.getDescription());
+        addText(document, "address", store.getAddress());
+        addStore(document, store);
+        if (store.getImage() != null) {
+            document.add(new StoredField("image", store.getImage()));
+        }
+        return document;
+    }
+
+    private Document serviceDocument(ServiceEntity service) {
+        Document document = baseDocument(TYPE_SERVICE, service.getId(), service.getName(), service.getDescription());
+        addStore(document, service.getStore());
+        addPrice(document, service.getPrice());
+        if (service.getCategory_of_service() != null && service.getCategory_of_service().getName() != null) {
+            document.add(new SortedSetDocValuesFacetField(FACET_CATEGORY, service.getCategory_of_service().getName()));
+        }
+        return document;
+    }
+
+    private Document productDocument(ProductEntity product) {
+        Document document = baseDocument(TYPE_PRODUCT, product.getId(), product.getName(), product.getDescription());
+        addStore(document, product.getStore());
+        addPrice(document, product.getPrice());
+        return document;
+    }
+
+    private Document baseDocument(String type, Object id, String name, String description) {
+        Document document = new Document();
+        document.add(new StringField("uid", type + ":" + id, Field.Store.YES));
+        document.add(new StringField("type", type, Field.Store.YES));
+        document.add(new StoredField("id", String.valueOf(id)));
+        addText(document, "name", name);
+        addText(document, "description", description);
+        return document;
+    }
+
+    private void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, field.equals("name") ? Field.Store.YES : Field.Store.NO));
+        }
+    }
+
+    private void addStore(Document document, StoreEntity store) {
+        if (store == null || store.getId() == null) {
+            return;
+        }
+        document.add(new LongPoint("store_id", store.getId()));
+        document.add(new StoredField("store_id_value", String.valueOf(store.getId())));
+        document.add(new SortedSetDocValuesFacetField(FACET_STORE, String.valueOf(store.getId())));
+    }
+
+    private void addPrice(Document document, Double price) {
+        if (price != null) {
+            document.add(new DoublePoint("price", price));
+            document.add(new StoredField("price_value", price));
+        }
+    }
+
+    // Facet reader state is costly to build, so it is reused until the reader changes
+    private static final class ReaderFacets {
+        final IndexReader reader;
+        final SortedSetDocValuesReaderState state;
+
+        ReaderFacets(IndexReader reader, SortedSetDocValuesReaderState state) {
+            this.reader = reader;
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package j2ee.j2ee.apps.search;
+
+import lombok.Data;
+
+@Data
+public class SearchRequest {
+    private String q;
+    // store, service or product; null searches all three
+    private String type;
+    private String categoryOfService;
+    private Long storeId;
+    private Double minPrice;
+    private Double maxPrice;
+    private int page;
+    private int size = 10;
+}
@@ -0,0 +1,17 @@
+package j2ee.j2ee.apps.search;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SearchResult {
+    private List<Map<String, Object>> hits;
+    private Map<String, List<Map<String, Object>>> facets;
+    private long totalElements;
+    private int page;
+    private int size;
+}
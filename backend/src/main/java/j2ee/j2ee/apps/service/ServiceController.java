@@ -3,6 +3,8 @@ package j2ee.j2ee.apps.service;
 import java.util.HashMap;
 import java.util.Optional;
 import java.util.List;
+import j2ee.j2ee.apps.bulk_delete.DeleteMode;
+import j2ee.j2ee.apps.bulk_delete.DeleteResult;
 import j2ee.j2ee.apps.user.UserEntity;
 import j2ee.j2ee.apps.user.UserRepository;
 import org.springframework.security.core.Authentication;
@@ -10,9 +12,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.config.ConditionalGet;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
 
 @RestController
 @RequestMapping("/api/services")
+@ExecutionLane(Lane.CATALOG)
 public class ServiceController {
 
     @Autowired
@@ -21,6 +28,7 @@ public class ServiceController {
     private ServiceService serviceSerivce;
 
     // Get service pagination by store id
+    @ConditionalGet({ Catalog.SERVICES, Catalog.STORES, Catalog.CATEGORIES_OF_SERVICES })
     @GetMapping("/stores/{store_id}")
 
     public ResponseEntity<Object> getByStoreId(
@@ -47,6 +55,36 @@ public class ServiceController {
         }
     }
 
+    // Cursor-paged variant: pass back nextCursor to get the following page; past
+    // the last one the list is empty and nextCursor is null.
+    // No COUNT(*) runs unless with_total is set, and that total is cached
+    @ConditionalGet({ Catalog.SERVICES, Catalog.STORES, Catalog.CATEGORIES_OF_SERVICES })
+    @GetMapping("/stores/{store_id}/cursor")
+    public ResponseEntity<Object> getByStoreIdAfter(
+            @PathVariable(name = "store_id") long store_id,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "with_total", defaultValue = "false") boolean withTotal) {
+        try {
+            int limit = Math.min(Math.max(size, 1), 100);
+            var keysetPage = serviceSerivce.getByStoreIdAfter(store_id, cursor, limit);
+            HashMap<String, Object> response = new HashMap<>();
+            response.put("services", keysetPage.getContent());
+            response.put("nextCursor", keysetPage.getNextCursor());
+            response.put("hasNext", keysetPage.isHasNext());
+            if (withTotal) {
+                response.put("approximateTotal", serviceSerivce.getApproximateCountByStoreId(store_id));
+            }
+
+            return ResponseEntity.ok().body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/ListServices")
     public ResponseEntity<List<ServiceEntity>> getAllByLoggedInUser(Authentication authentication) {
         try {
@@ -122,11 +160,14 @@ public class ServiceController {
         }
     }
 
+    // ?mode=soft keeps the rows with deleted_at set
     @DeleteMapping
-    public ResponseEntity<Void> deleteMultipleProducts(@RequestBody List<Long> serviceIds) {
+    public ResponseEntity<DeleteResult> deleteMultipleProducts(@RequestBody List<Long> serviceIds,
+            @RequestParam(name = "mode", required = false) String mode) {
         try {
-            serviceSerivce.deleteMultipleServices(serviceIds);
-            return ResponseEntity.noContent().build();
+            return ResponseEntity.ok(serviceSerivce.deleteMultipleServices(serviceIds, DeleteMode.of(mode)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             System.err.println("Error deleting multiple products: " + e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -1,12 +1,20 @@
 package j2ee.j2ee.apps.service;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import j2ee.j2ee.apps.category_of_service.CategoryOfServiceEntity;
+import j2ee.j2ee.apps.search.SearchIndexListener;
 import j2ee.j2ee.apps.store.StoreEntity;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
+// Soft-deleted rows (deleted_at set, see apps/bulk_delete) stay loadable for the orders and
+// appointments that point at them; catalog queries filter on deleted_at themselves
 @Entity(name = "services")
 @Data
+@EntityListeners(SearchIndexListener.class)
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class ServiceEntity {
 
     @Id
@@ -24,6 +32,8 @@ public class ServiceEntity {
 
     private String status;
 
+    private LocalDateTime deleted_at;
+
     @ManyToOne
     @JoinColumn(name = "store_id", referencedColumnName = "id")
     private StoreEntity store;
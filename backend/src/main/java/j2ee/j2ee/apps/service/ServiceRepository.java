@@ -10,14 +10,37 @@ import java.util.List;
 
 @Repository
 public interface ServiceRepository extends JpaRepository<ServiceEntity, Long> {
-    Page<ServiceEntity> findAllByStoreId(long storeId, Pageable pageable);
+    // Catalog queries leave out soft-deleted services; appointments still load them by id
+    @Query("FROM services s WHERE s.deleted_at IS NULL")
+    Page<ServiceEntity> findAllActive(Pageable pageable);
 
-    public Page<ServiceEntity> findAllByStoreId(int storeId, Pageable pageable);
+    @Query(value = "FROM services s WHERE s.store.id = :storeId AND s.deleted_at IS NULL",
+            countQuery = "SELECT COUNT(s) FROM services s WHERE s.store.id = :storeId AND s.deleted_at IS NULL")
+    Page<ServiceEntity> findActiveByStoreId(@Param("storeId") long storeId, Pageable pageable);
+
+    @Query("SELECT COUNT(s) FROM services s WHERE s.store.id = :storeId AND s.deleted_at IS NULL")
+    long countActiveByStoreId(@Param("storeId") long storeId);
+
+    // Keyset pages ordered by name, id as tie-breaker
+    @Query("FROM services s WHERE s.store.id = :storeId AND s.deleted_at IS NULL ORDER BY s.name, s.id")
+    List<ServiceEntity> findFirstPageByStoreId(@Param("storeId") long storeId, Pageable pageable);
+
+    @Query("FROM services s WHERE s.store.id = :storeId AND s.deleted_at IS NULL " +
+            "AND (s.name > :name OR (s.name = :name AND s.id > :id)) ORDER BY s.name, s.id")
+    List<ServiceEntity> findPageByStoreIdAfter(@Param("storeId") long storeId, @Param("name") String name,
+            @Param("id") Long id, Pageable pageable);
+
+    // Next page after a service without a name: NULL sorts first, so the rest of
+    // the unnamed ones by id, then every named one
+    @Query("FROM services s WHERE s.store.id = :storeId AND s.deleted_at IS NULL " +
+            "AND ((s.name IS NULL AND s.id > :id) OR s.name IS NOT NULL) ORDER BY s.name, s.id")
+    List<ServiceEntity> findPageByStoreIdAfterUnnamed(@Param("storeId") long storeId, @Param("id") Long id,
+            Pageable pageable);
 
     @Query("SELECT s FROM services s " +
             "JOIN s.store st " +
             "JOIN st.owner u " +
-            "WHERE u.id = :userId")
+            "WHERE u.id = :userId AND s.deleted_at IS NULL")
     List<ServiceEntity> findAllByOwnerId(@Param("userId") Long userId);
 
 }
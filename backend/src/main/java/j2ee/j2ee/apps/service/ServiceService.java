@@ -7,17 +7,55 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import j2ee.j2ee.apps.bulk_delete.BulkDeleter;
+import j2ee.j2ee.apps.bulk_delete.DeleteMode;
+import j2ee.j2ee.apps.bulk_delete.DeletePlans;
+import j2ee.j2ee.apps.bulk_delete.DeleteResult;
 import j2ee.j2ee.apps.product.ProductEntity;
+import j2ee.j2ee.apps.search.SearchIndexService;
 import java.util.List;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
+import j2ee.j2ee.utils.ApproximateCounts;
+import j2ee.j2ee.utils.Cursor;
+import j2ee.j2ee.utils.KeysetPage;
 
 @Service
 public class ServiceService {
     @Autowired
     private ServiceRepository serviceRepository;
+    @Autowired
+    private ApproximateCounts approximateCounts;
+    @Autowired
+    private CatalogCache catalogCache;
+    @Autowired
+    private BulkDeleter bulkDeleter;
+    @Autowired
+    private SearchIndexService searchIndexService;
 
     public Page<ServiceEntity> getByStoreId(long storeId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("name"));
-        return serviceRepository.findAllByStoreId(storeId, pageable);
+        return serviceRepository.findActiveByStoreId(storeId, pageable);
+    }
+
+    // Seek pagination on (name, id); cursor is null for the first page
+    public KeysetPage<ServiceEntity> getByStoreIdAfter(long storeId, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<ServiceEntity> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = serviceRepository.findFirstPageByStoreId(storeId, limit);
+        } else {
+            String[] keys = Cursor.decode(cursor, 2);
+            long id = Long.parseLong(keys[1]);
+            rows = keys[0] == null
+                    ? serviceRepository.findPageByStoreIdAfterUnnamed(storeId, id, limit)
+                    : serviceRepository.findPageByStoreIdAfter(storeId, keys[0], id, limit);
+        }
+        return KeysetPage.of(rows, size, s -> Cursor.encode(s.getName(), s.getId()));
+    }
+
+    public long getApproximateCountByStoreId(long storeId) {
+        return approximateCounts.get("services:store:" + storeId, () -> serviceRepository.countActiveByStoreId(storeId));
     }
 
     public List<ServiceEntity> getAllServicesByUserId(long userId) {
@@ -25,7 +63,9 @@ public class ServiceService {
     }
 
     public ServiceEntity createService(ServiceEntity serviceEntity) {
-        return serviceRepository.save(serviceEntity);
+        ServiceEntity saved = serviceRepository.save(serviceEntity);
+        catalogCache.invalidate(Catalog.SERVICES);
+        return saved;
     }
 
     public ServiceEntity updateService(Long serviceId, ServiceEntity serviceEntity) {
@@ -38,20 +78,27 @@ public class ServiceService {
             serviceToUpdate.setDuration(serviceEntity.getDuration());
             serviceToUpdate.setStatus(serviceEntity.getStatus());
             serviceToUpdate.setCategory_of_service(serviceEntity.getCategory_of_service());
-            return serviceRepository.save(serviceToUpdate);
+            ServiceEntity saved = serviceRepository.save(serviceToUpdate);
+            catalogCache.invalidate(Catalog.SERVICES);
+            return saved;
         }
         return null;
     }
 
     public Optional<ServiceEntity> getById(long id) {
-        return this.serviceRepository.findById(id);
+        return this.serviceRepository.findById(id).filter(service -> service.getDeleted_at() == null);
     }
 
     public void deleteService(long serviceId) {
         serviceRepository.deleteById(serviceId);
+        catalogCache.invalidate(Catalog.SERVICES);
     }
 
-    public void deleteMultipleServices(List<Long> serviceIds) {
-        serviceRepository.deleteAllById(serviceIds);
+    // Services with appointments are skipped in hard mode
+    public DeleteResult deleteMultipleServices(List<Long> serviceIds, DeleteMode mode) {
+        DeleteResult result = bulkDeleter.delete(DeletePlans.SERVICES, serviceIds, mode);
+        result.deletedIds().forEach(id -> searchIndexService.delete(SearchIndexService.TYPE_SERVICE, id));
+        catalogCache.invalidate(Catalog.SERVICES);
+        return result;
     }
 }
@@ -0,0 +1,10 @@
+package j2ee.j2ee.apps.service;
+
+// The service fields list responses embed instead of the whole ServiceEntity graph
+public record ServiceSummary(Long id, String name, Double price, Integer duration) {
+
+    public static ServiceSummary of(ServiceEntity service) {
+        return service == null ? null
+                : new ServiceSummary(service.getId(), service.getName(), service.getPrice(), service.getDuration());
+    }
+}
@@ -7,9 +7,12 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
 
 @RestController
 @RequestMapping("/api/availability")
+@ExecutionLane(Lane.BOOKING)
 public class AvailabilityController {
     @Autowired
     private AvailabilityService availabilityService;
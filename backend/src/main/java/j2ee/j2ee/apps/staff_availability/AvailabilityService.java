@@ -1,6 +1,5 @@
 package j2ee.j2ee.apps.staff_availability;
 
-import j2ee.j2ee.apps.appointment.AppointmentEntity;
 import j2ee.j2ee.apps.appointment.AppointmentRepository;
 import j2ee.j2ee.apps.service.ServiceEntity;
 import j2ee.j2ee.apps.service.ServiceRepository;
@@ -14,7 +13,9 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -31,8 +32,10 @@ public class AvailabilityService {
 
     // Step 1: Get available time slots for a date, service, and store
     public List<TimeSlotDTO> getAvailableTimeSlotsForDate(long service_id, long store_id, LocalDate appointment_date) {
-        Optional<ServiceEntity> serviceOptional = serviceRepository.findById(service_id);
-        Optional<StoreEntity> storeOptional = storeRepository.findById(store_id);
+        Optional<ServiceEntity> serviceOptional = serviceRepository.findById(service_id)
+                .filter(service -> service.getDeleted_at() == null);
+        Optional<StoreEntity> storeOptional = storeRepository.findById(store_id)
+                .filter(store -> store.getDeleted_at() == null);
 
         if (!serviceOptional.isPresent() || !storeOptional.isPresent()) {
             return new ArrayList<>();
@@ -59,14 +62,13 @@ public class AvailabilityService {
 
         List<TimeSlotDTO> allTimeSlots = generateTimeSlots(openTime, closeTime, serviceDurationMinutes);
         List<TimeSlotDTO> availableTimeSlots = new ArrayList<>();
+        Map<Long, List<TimeSlotDTO>> bookedSlots = getBookedSlots(staffList, appointment_date);
 
         // Check each time slot: it's available if at least one staff member is free
         for (TimeSlotDTO slot : allTimeSlots) {
             boolean isSlotAvailable = false;
             for (UserEntity staff : staffList) {
-                List<AppointmentEntity> staffAppointments = appointmentRepository.findStaffAndAppointmentDate(staff,
-                        appointment_date);
-                System.out.println("Staff appointments: " + staffAppointments);
+                List<TimeSlotDTO> staffAppointments = bookedSlots.getOrDefault(staff.getId(), List.of());
                 if (isTimeSlotAvailableForStaff(slot, staffAppointments)) {
                     isSlotAvailable = true;
                     break; // At least one staff is available, so the slot is available
@@ -84,8 +86,10 @@ public class AvailabilityService {
     // store
     public List<StaffAvailabilityDTO> getAvailableStaffForTimeSlot(long service_id, long store_id,
             LocalDate appointment_date, LocalTime appointment_start_time, LocalTime appointment_end_time) {
-        Optional<ServiceEntity> serviceOptional = serviceRepository.findById(service_id);
-        Optional<StoreEntity> storeOptional = storeRepository.findById(store_id);
+        Optional<ServiceEntity> serviceOptional = serviceRepository.findById(service_id)
+                .filter(service -> service.getDeleted_at() == null);
+        Optional<StoreEntity> storeOptional = storeRepository.findById(store_id)
+                .filter(store -> store.getDeleted_at() == null);
 
         if (!serviceOptional.isPresent() || !storeOptional.isPresent()) {
             return new ArrayList<>();
@@ -101,10 +105,10 @@ public class AvailabilityService {
         }
 
         List<StaffAvailabilityDTO> availableStaff = new ArrayList<>();
+        Map<Long, List<TimeSlotDTO>> bookedSlots = getBookedSlots(staffList, appointment_date);
 
         for (UserEntity staff : staffList) {
-            List<AppointmentEntity> staffAppointments = appointmentRepository.findStaffAndAppointmentDate(staff,
-                    appointment_date);
+            List<TimeSlotDTO> staffAppointments = bookedSlots.getOrDefault(staff.getId(), List.of());
 
             TimeSlotDTO selectedSlot = new TimeSlotDTO(appointment_start_time, appointment_end_time);
             if (isTimeSlotAvailableForStaff(selectedSlot, staffAppointments)) {
@@ -131,13 +135,28 @@ public class AvailabilityService {
         return timeSlots;
     }
 
-    private boolean isTimeSlotAvailableForStaff(TimeSlotDTO slot, List<AppointmentEntity> appointments) {
+    // Load the bookings of every staff member in one query, grouped by staff id
+    private Map<Long, List<TimeSlotDTO>> getBookedSlots(List<UserEntity> staffList, LocalDate appointment_date) {
+        List<Long> staffIds = staffList.stream().map(UserEntity::getId).collect(Collectors.toList());
+        Map<Long, List<TimeSlotDTO>> bookedSlots = new HashMap<>();
+
+        for (Object[] row : appointmentRepository.findBookedTimesByStaffAndDate(staffIds, appointment_date)) {
+            LocalTime start = (LocalTime) row[1];
+            int duration = row[2] != null ? (Integer) row[2] : 0;
+            bookedSlots.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(new TimeSlotDTO(start, start.plusMinutes(duration)));
+        }
+
+        return bookedSlots;
+    }
+
+    private boolean isTimeSlotAvailableForStaff(TimeSlotDTO slot, List<TimeSlotDTO> appointments) {
         LocalTime slotStartTime = slot.getStartTime();
         LocalTime slotEndTime = slot.getEndTime();
 
-        for (AppointmentEntity appointment : appointments) {
-            LocalTime appointmentStart = appointment.getAppointment_time();
-            LocalTime appointmentEnd = appointmentStart.plusMinutes(appointment.getService().getDuration());
+        for (TimeSlotDTO appointment : appointments) {
+            LocalTime appointmentStart = appointment.getStartTime();
+            LocalTime appointmentEnd = appointment.getEndTime();
 
             if (slotEndTime.isAfter(appointmentStart) && slotStartTime.isBefore(appointmentEnd)) {
                 return false; // Staff is booked during this time slot
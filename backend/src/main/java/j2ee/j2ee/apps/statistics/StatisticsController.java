@@ -11,10 +11,13 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
 import java.util.Map;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
 
 @RestController
 @RequestMapping("/api/statistics")
 @PermitAll()
+@ExecutionLane(Lane.ANALYTICS)
 public class StatisticsController {
 
     @Autowired
@@ -0,0 +1,87 @@
+package j2ee.j2ee.apps.store;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import j2ee.j2ee.utils.TextNormalizer;
+
+// Offline geocoder for store addresses. Reads a small place list
+// (name,parent,latitude,longitude) and returns the coordinate of the most
+// specific place named in an address: a district whose city is also named
+// wins over the city alone. Matching is on folded text and whole words, so
+// "Quận 1" does not match "Quận 10".
+@Component
+public class Gazetteer {
+
+    private final List<Place> places;
+
+    public Gazetteer(@Value("${stores.gazetteer:classpath:geo/gazetteer.csv}") Resource file) throws IOException {
+        List<Place> loaded = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] cols = line.split(",", -1);
+                if (cols.length != 4) {
+                    throw new IOException("Bad gazetteer line: " + line);
+                }
+                loaded.add(new Place(TextNormalizer.fold(cols[0].trim()), TextNormalizer.fold(cols[1].trim()),
+                        new GeoPoint(Double.parseDouble(cols[2].trim()), Double.parseDouble(cols[3].trim()))));
+            }
+        }
+        // Places with a parent first, then longer names first
+        loaded.sort(Comparator.comparing((Place p) -> p.parent().isEmpty())
+                .thenComparing(p -> -p.name().length()));
+        this.places = List.copyOf(loaded);
+    }
+
+    public Optional<GeoPoint> locate(String address) {
+        String text = TextNormalizer.fold(address);
+        if (text.isEmpty()) {
+            return Optional.empty();
+        }
+
+        for (Place place : places) {
+            if (containsWord(text, place.name()) && (place.parent().isEmpty() || containsWord(text, place.parent()))) {
+                return Optional.of(place.point());
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int size() {
+        return places.size();
+    }
+
+    private static boolean containsWord(String text, String word) {
+        int from = 0;
+        int at;
+        while ((at = text.indexOf(word, from)) >= 0) {
+            int end = at + word.length();
+            boolean startOk = at == 0 || !Character.isLetterOrDigit(text.charAt(at - 1));
+            boolean endOk = end == text.length() || !Character.isLetterOrDigit(text.charAt(end));
+            if (startOk && endOk) {
+                return true;
+            }
+            from = at + 1;
+        }
+        return false;
+    }
+
+    private record Place(String name, String parent, GeoPoint point) {
+    }
+}
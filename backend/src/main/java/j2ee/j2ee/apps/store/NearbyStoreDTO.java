@@ -0,0 +1,15 @@
+package j2ee.j2ee.apps.store;
+
+import java.time.LocalTime;
+
+// A store returned by /api/stores/nearby, with its distance from the search center
+public record NearbyStoreDTO(Long id, String name, String address, String phone, String image,
+        LocalTime open_time, LocalTime close_time, String status, Double latitude, Double longitude,
+        double distance_km) {
+
+    public static NearbyStoreDTO of(StoreEntity store, double distanceKm) {
+        return new NearbyStoreDTO(store.getId(), store.getName(), store.getAddress(), store.getPhone(),
+                store.getImage(), store.getOpen_time(), store.getClose_time(), store.getStatus(),
+                store.getLatitude(), store.getLongitude(), Math.round(distanceKm * 1000) / 1000.0);
+    }
+}
@@ -5,10 +5,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import j2ee.j2ee.apps.bulk_delete.DeleteMode;
+import j2ee.j2ee.apps.bulk_import.BulkImportJob;
+import j2ee.j2ee.apps.bulk_import.BulkImportService;
+import j2ee.j2ee.apps.bulk_import.ImportTargets;
 import j2ee.j2ee.apps.user.UserEntity;
 
 import org.springframework.http.ResponseEntity;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,17 +25,27 @@ import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import j2ee.j2ee.apps.user.UserRepository;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.config.ConditionalGet;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/stores")
+@ExecutionLane(Lane.CATALOG)
 public class StoreController {
 
     @Autowired
     private UserRepository userRepository;
     @Autowired
     private StoreService storeService;
+    @Autowired
+    private BulkImportService bulkImportService;
 
+    @ConditionalGet({ Catalog.STORES, Catalog.SERVICES, Catalog.CATEGORIES_OF_SERVICES })
     @GetMapping
     public ResponseEntity<Object> getAll(@RequestParam(name = "page") int page, @RequestParam(name = "size") int size, @RequestParam(name = "categoryOfServiceId", required = false) Long categoryOfServiceId) {
         try {
@@ -59,6 +78,7 @@ public class StoreController {
         }
     }
 
+    @ConditionalGet({ Catalog.STORES })
     @GetMapping("/close_time")
     public ResponseEntity<Object> getStoreCloseTime(@RequestParam("store_id") Long store_id) {
         try {
@@ -73,6 +93,60 @@ public class StoreController {
         }
     }
 
+    // at: "2025-05-01T21:30" or a time of day ("21:30", today); defaults to now
+    @GetMapping("/open")
+    public ResponseEntity<Object> getOpen(@RequestParam(name = "at", required = false) String at) {
+        try {
+            LocalDateTime time;
+            if (at == null || at.isBlank()) {
+                time = LocalDateTime.now();
+            } else if (at.contains("T")) {
+                time = LocalDateTime.parse(at);
+            } else {
+                time = LocalDate.now().atTime(LocalTime.parse(at));
+            }
+
+            List<StoreEntity> stores = storeService.getOpenAt(time);
+
+            HashMap<String, Object> response = new HashMap<>();
+            response.put("stores", stores);
+            response.put("totalElements", stores.size());
+            response.put("at", time);
+            return ResponseEntity.ok().body(response);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Invalid time: " + at);
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Nearest stores first; radius in km (at most 50), limit at most 100
+    @ConditionalGet({ Catalog.STORES, Catalog.SERVICES })
+    @GetMapping("/nearby")
+    public ResponseEntity<Object> getNearby(@RequestParam("lat") double lat, @RequestParam("lng") double lng,
+            @RequestParam(name = "radius", defaultValue = "5") double radius,
+            @RequestParam(name = "category_of_service_id", required = false) Long category_of_service_id,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        try {
+            if (!GeoPoint.isValid(lat, lng) || !(radius > 0)) {
+                return ResponseEntity.badRequest().body("Invalid coordinates or radius");
+            }
+
+            List<NearbyStoreDTO> stores = storeService.findNearby(lat, lng, Math.min(radius, 50),
+                    category_of_service_id, Math.max(1, Math.min(limit, 100)));
+
+            HashMap<String, Object> response = new HashMap<>();
+            response.put("stores", stores);
+            response.put("totalElements", stores.size());
+            response.put("radius", Math.min(radius, 50));
+            return ResponseEntity.ok().body(response);
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/mystore")
     public ResponseEntity<StoreEntity> getStoreByLoggedInUser(Authentication authentication) {
         try {
@@ -117,6 +191,53 @@ public class StoreController {
         }
     }
 
+    // Multi-select delete from the admin store list; ?mode=soft keeps the rows with deleted_at set
+    @ExecutionLane(Lane.ADMIN)
+    @DeleteMapping("/delete-multiple")
+    public ResponseEntity<?> deleteMultipleStores(@RequestBody List<Long> ids,
+            @RequestParam(name = "mode", required = false) String mode) {
+        try {
+            if (ids == null || ids.isEmpty()) {
+                return ResponseEntity.badRequest().body("Danh sách ID không được rỗng");
+            }
+            return ResponseEntity.ok(storeService.deleteMultipleStores(ids, DeleteMode.of(mode)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Streaming import of a CSV file (with a header row) or NDJSON, one store per line;
+    // the same job as POST /api/imports/stores. Answers 202 right away; poll the
+    // Location for progress and the row error report
+    @ExecutionLane(Lane.ADMIN)
+    @PostMapping(value = "/import/stream", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<?> importStoresStream(HttpServletRequest request) {
+        try {
+            String format = request.getContentType().startsWith("text/csv") ? "csv" : "ndjson";
+            BulkImportJob job = bulkImportService.start(ImportTargets.STORES, format, request.getInputStream())
+                    .orElseThrow();
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/imports/{id}")
+                    .buildAndExpand(job.getId())
+                    .toUri();
+            return ResponseEntity.accepted().location(location).body(job.progress());
+        } catch (Exception e) {
+            System.err.println("Internal Server Error: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @ExecutionLane(Lane.ADMIN)
+    @GetMapping("/import/{job_id}")
+    public ResponseEntity<BulkImportJob.Progress> getImportProgress(@PathVariable("job_id") String jobId) {
+        return bulkImportService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(job.progress()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     // import
     @PostMapping("/import")
     public ResponseEntity<String> importStores(@RequestBody List<StoreEntity> stores) {
@@ -15,6 +15,8 @@ public class StoreDTO {
     private String name;
     private String description;
     private String address;
+    private Double latitude;
+    private Double longitude;
     private String phone;
     private String image;
     private String createdAt;
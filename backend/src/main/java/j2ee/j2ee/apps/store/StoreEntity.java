@@ -1,9 +1,13 @@
 package j2ee.j2ee.apps.store;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import j2ee.j2ee.apps.search.SearchIndexListener;
 import j2ee.j2ee.apps.user.UserEntity;
+
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -11,8 +15,12 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import lombok.Data;
 
+// Soft-deleted rows (deleted_at set, see apps/bulk_delete) stay loadable for the orders and
+// appointments that point at them; catalog queries filter on deleted_at themselves
 @Entity(name = "stores")
 @Data
+@EntityListeners({ SearchIndexListener.class, StoreIndexListener.class })
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class StoreEntity {
 
     @Id
@@ -25,6 +33,11 @@ public class StoreEntity {
 
     private String address;
 
+    // Geocoded from address on save unless given (see StoreIndexListener)
+    private Double latitude;
+
+    private Double longitude;
+
     private String phone;
 
     private String image;
@@ -39,6 +52,8 @@ public class StoreEntity {
 
     private String status;
 
+    private LocalDateTime deleted_at;
+
     @ManyToOne
     @JoinColumn(name = "owner_id", referencedColumnName = "id")
     private UserEntity owner;
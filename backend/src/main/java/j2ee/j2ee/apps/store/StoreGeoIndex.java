@@ -0,0 +1,170 @@
+package j2ee.j2ee.apps.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// In-memory uniform grid over store coordinates. Each cell holds an immutable
+// array of stores that is replaced whole on change, so lookups never lock.
+// A nearest-k search walks rings of cells outward from the center and stops
+// once the k-th best distance is closer than anything an outer ring could hold.
+@Component
+public class StoreGeoIndex {
+
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final Entry[] EMPTY = new Entry[0];
+
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private Gazetteer gazetteer;
+
+    private final double cellDegrees;
+    private final Map<Long, Entry[]> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> byStore = new ConcurrentHashMap<>();
+
+    public StoreGeoIndex(@Value("${stores.geo.cell-degrees:0.02}") double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    // Geocodes stores saved before coordinates existed, then loads every store
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        cells.clear();
+        byStore.clear();
+        for (Object[] row : storeRepository.findAllLocations()) {
+            long id = (Long) row[0];
+            Double latitude = (Double) row[2];
+            Double longitude = (Double) row[3];
+            if (latitude == null || longitude == null) {
+                GeoPoint point = gazetteer.locate((String) row[1]).orElse(null);
+                if (point == null) {
+                    continue;
+                }
+                latitude = point.latitude();
+                longitude = point.longitude();
+                storeRepository.updateLocation(id, latitude, longitude);
+            }
+            put(id, latitude, longitude);
+        }
+    }
+
+    public synchronized void put(long storeId, Double latitude, Double longitude) {
+        remove(storeId);
+        if (latitude == null || longitude == null || !GeoPoint.isValid(latitude, longitude)) {
+            return;
+        }
+
+        Entry entry = new Entry(storeId, latitude, longitude);
+        long key = cellKey(row(latitude), column(longitude));
+        Entry[] current = cells.getOrDefault(key, EMPTY);
+        Entry[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = entry;
+        cells.put(key, next);
+        byStore.put(storeId, entry);
+    }
+
+    public synchronized void remove(long storeId) {
+        Entry entry = byStore.remove(storeId);
+        if (entry == null) {
+            return;
+        }
+
+        long key = cellKey(row(entry.latitude()), column(entry.longitude()));
+        Entry[] next = Arrays.stream(cells.getOrDefault(key, EMPTY))
+                .filter(e -> e.storeId() != storeId)
+                .toArray(Entry[]::new);
+        if (next.length == 0) {
+            cells.remove(key);
+        } else {
+            cells.put(key, next);
+        }
+    }
+
+    public int size() {
+        return byStore.size();
+    }
+
+    // Up to k stores within radiusKm of center that pass the filter, nearest first
+    public List<Hit> nearest(GeoPoint center, double radiusKm, int k, LongPredicate filter) {
+        if (k <= 0 || radiusKm <= 0) {
+            return List.of();
+        }
+
+        // Cell width shrinks towards the poles; use the narrowest width the search area can have
+        double radiusDegrees = radiusKm / KM_PER_DEGREE;
+        double widestLatitude = Math.min(89, Math.abs(center.latitude()) + radiusDegrees);
+        double cellKm = cellDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(widestLatitude));
+        int maxRing = (int) Math.ceil(radiusKm / cellKm) + 1;
+
+        int centerRow = row(center.latitude());
+        int centerColumn = column(center.longitude());
+        PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::distanceKm).reversed());
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+                boolean edgeRow = r == centerRow - ring || r == centerRow + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int c = centerColumn - ring; c <= centerColumn + ring; c += step) {
+                    Entry[] entries = cells.get(cellKey(r, c));
+                    if (entries != null) {
+                        collect(entries, center, radiusKm, k, filter, best);
+                    }
+                }
+            }
+            // Anything in the next ring is at least ring * cellKm away
+            if (best.size() == k && best.peek().distanceKm() <= ring * cellKm) {
+                break;
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm).thenComparingLong(Hit::storeId));
+        return hits;
+    }
+
+    private static void collect(Entry[] entries, GeoPoint center, double radiusKm, int k, LongPredicate filter,
+            PriorityQueue<Hit> best) {
+        for (Entry entry : entries) {
+            double distance = center.distanceKm(entry.latitude(), entry.longitude());
+            if (distance > radiusKm || !filter.test(entry.storeId())) {
+                continue;
+            }
+            if (best.size() < k) {
+                best.add(new Hit(entry.storeId(), distance));
+            } else if (distance < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new Hit(entry.storeId(), distance));
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    public record Hit(long storeId, double distanceKm) {
+    }
+
+    private record Entry(long storeId, double latitude, double longitude) {
+    }
+}
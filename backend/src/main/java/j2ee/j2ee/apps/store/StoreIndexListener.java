@@ -0,0 +1,65 @@
+package j2ee.j2ee.apps.store;
+
+import java.time.LocalTime;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import j2ee.j2ee.utils.TransactionHooks;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+// Geocodes a store from its address when it is saved without coordinates,
+// and keeps StoreGeoIndex and StoreScheduleIndex in step with the committed rows
+@Component
+public class StoreIndexListener {
+
+    private final ObjectProvider<Gazetteer> gazetteer;
+    private final ObjectProvider<StoreGeoIndex> geoIndex;
+    private final ObjectProvider<StoreScheduleIndex> scheduleIndex;
+
+    public StoreIndexListener(ObjectProvider<Gazetteer> gazetteer, ObjectProvider<StoreGeoIndex> geoIndex,
+            ObjectProvider<StoreScheduleIndex> scheduleIndex) {
+        this.gazetteer = gazetteer;
+        this.geoIndex = geoIndex;
+        this.scheduleIndex = scheduleIndex;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void geocode(StoreEntity store) {
+        if (store.getLatitude() != null && store.getLongitude() != null) {
+            return;
+        }
+        gazetteer.getObject().locate(store.getAddress()).ifPresent(point -> {
+            store.setLatitude(point.latitude());
+            store.setLongitude(point.longitude());
+        });
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(StoreEntity store) {
+        long id = store.getId();
+        Double latitude = store.getLatitude();
+        Double longitude = store.getLongitude();
+        LocalTime openTime = store.getOpen_time();
+        LocalTime closeTime = store.getClose_time();
+        TransactionHooks.afterCommit(() -> {
+            geoIndex.getObject().put(id, latitude, longitude);
+            scheduleIndex.getObject().put(id, openTime, closeTime);
+        });
+    }
+
+    @PostRemove
+    public void onRemove(StoreEntity store) {
+        long id = store.getId();
+        TransactionHooks.afterCommit(() -> {
+            geoIndex.getObject().remove(id);
+            scheduleIndex.getObject().remove(id);
+        });
+    }
+}
@@ -3,23 +3,54 @@ package j2ee.j2ee.apps.store;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 import java.util.List;
 
 @Repository
 public interface StoreRepository extends JpaRepository<StoreEntity, Long> {
-    @Query("FROM stores s ORDER BY s.name ASC")
+    // Catalog queries leave out soft-deleted stores; orders and appointments still load them by id
+    @Query("FROM stores s WHERE s.deleted_at IS NULL")
+    List<StoreEntity> findAllActive();
+
+    @Query("FROM stores s WHERE s.deleted_at IS NULL")
+    Page<StoreEntity> findAllActive(Pageable pageable);
+
+    @Query(value = "FROM stores s WHERE s.deleted_at IS NULL ORDER BY s.name ASC",
+            countQuery = "SELECT COUNT(s) FROM stores s WHERE s.deleted_at IS NULL")
     Page<StoreEntity> findAllPage(Pageable pageable);
 
     Optional<StoreEntity> findById(long id);
 
-    @Query("FROM stores s JOIN services se ON s.id = se.store.id WHERE se.category_of_service.id = :category_of_service_id")
+    @Query("FROM stores s JOIN services se ON s.id = se.store.id WHERE se.category_of_service.id = :category_of_service_id " +
+            "AND s.deleted_at IS NULL AND se.deleted_at IS NULL")
     List<StoreEntity> filterByCategoryOfServiceId(@Param("category_of_service_id") Long category_of_service_id);
 
-    @Query("SELECT s FROM stores s WHERE s.owner.id = :userId")
+    @Query("SELECT DISTINCT se.store.id FROM services se WHERE se.category_of_service.id = :category_of_service_id " +
+            "AND se.deleted_at IS NULL AND se.store.deleted_at IS NULL")
+    List<Long> findIdsByCategoryOfServiceId(@Param("category_of_service_id") Long category_of_service_id);
+
+    @Query("SELECT s.id FROM stores s WHERE s.deleted_at IS NULL")
+    List<Long> findAllIds();
+
+    // id, address, latitude, longitude of every live store, for StoreGeoIndex
+    @Query("SELECT s.id, s.address, s.latitude, s.longitude FROM stores s WHERE s.deleted_at IS NULL")
+    List<Object[]> findAllLocations();
+
+    // id, open_time, close_time of every live store, for StoreScheduleIndex
+    @Query("SELECT s.id, s.open_time, s.close_time FROM stores s WHERE s.deleted_at IS NULL")
+    List<Object[]> findAllOpeningHours();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE stores s SET s.latitude = :latitude, s.longitude = :longitude WHERE s.id = :id")
+    int updateLocation(@Param("id") Long id, @Param("latitude") Double latitude, @Param("longitude") Double longitude);
+
+    @Query("SELECT s FROM stores s WHERE s.owner.id = :userId AND s.deleted_at IS NULL")
     Optional<StoreEntity> findStoreByUserId(@Param("userId") Long userId);
 
     void deleteAllByIdIn(List<Long> ids);
@@ -0,0 +1,276 @@
+package j2ee.j2ee.apps.store;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Which stores are open at a given minute of the day. Opening hours are cut
+// into minute-of-day segments where the set of open stores does not change;
+// a lookup is a binary search over the segment starts. The segments are an
+// immutable snapshot, so lookups never lock. A store change copies only the
+// segments its old and new hours cover; the rest are shared with the old snapshot.
+//
+// Hours that pass midnight (22:00-02:00) are split in two; the part after
+// midnight belongs to the previous day's opening, which matters for closures.
+// Closures are whole dates (stores.schedule.holidays, every store) and
+// weekly days off per store (stores.schedule.days-off, "12:SUNDAY;15:MONDAY,TUESDAY").
+@Component
+public class StoreScheduleIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    private final Set<LocalDate> holidays;
+    private final Map<Long, Set<DayOfWeek>> daysOff;
+    private final Map<Long, int[]> hours = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = Snapshot.build(Map.of());
+
+    public StoreScheduleIndex(@Value("${stores.schedule.holidays:}") String holidays,
+            @Value("${stores.schedule.days-off:}") String daysOff) {
+        this.holidays = parseHolidays(holidays);
+        this.daysOff = parseDaysOff(daysOff);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        hours.clear();
+        for (Object[] row : storeRepository.findAllOpeningHours()) {
+            int[] interval = interval((LocalTime) row[1], (LocalTime) row[2]);
+            if (interval != null) {
+                hours.put((Long) row[0], interval);
+            }
+        }
+        snapshot = Snapshot.build(hours);
+    }
+
+    public synchronized void put(long storeId, LocalTime openTime, LocalTime closeTime) {
+        int[] interval = interval(openTime, closeTime);
+        int[] previous = interval == null ? hours.remove(storeId) : hours.put(storeId, interval);
+        if (!Arrays.equals(previous, interval)) {
+            snapshot = snapshot.with(storeId, interval);
+        }
+    }
+
+    // For batches (store imports): one full build instead of a snapshot per store
+    public synchronized void putAll(Collection<StoreEntity> stores) {
+        if (stores.isEmpty()) {
+            return;
+        }
+        for (StoreEntity store : stores) {
+            int[] interval = interval(store.getOpen_time(), store.getClose_time());
+            if (interval == null) {
+                hours.remove(store.getId());
+            } else {
+                hours.put(store.getId(), interval);
+            }
+        }
+        snapshot = Snapshot.build(hours);
+    }
+
+    public synchronized void remove(long storeId) {
+        int[] previous = hours.remove(storeId);
+        if (previous != null) {
+            snapshot = snapshot.with(storeId, null);
+        }
+    }
+
+    // Ids of stores open at the given local date and time, ascending
+    public List<Long> openAt(LocalDateTime at) {
+        Snapshot current = snapshot;
+        int segment = segmentOf(current.starts, at.getHour() * 60 + at.getMinute());
+
+        LocalDate today = at.toLocalDate();
+        LocalDate yesterday = today.minusDays(1);
+        List<Long> open = new ArrayList<>();
+        for (long id : current.sameDay[segment]) {
+            if (!isClosed(id, today)) {
+                open.add(id);
+            }
+        }
+        for (long id : current.fromPreviousDay[segment]) {
+            if (!isClosed(id, yesterday)) {
+                open.add(id);
+            }
+        }
+        open.sort(null);
+        return open;
+    }
+
+    public boolean isClosed(long storeId, LocalDate date) {
+        return holidays.contains(date) || daysOff.getOrDefault(storeId, Set.of()).contains(date.getDayOfWeek());
+    }
+
+    private static int segmentOf(int[] starts, int minute) {
+        int segment = Arrays.binarySearch(starts, minute);
+        return segment < 0 ? -segment - 2 : segment;
+    }
+
+    // Open at minute by this day's opening
+    private static boolean openSameDay(int[] interval, int minute) {
+        if (interval == null) {
+            return false;
+        }
+        int open = interval[0];
+        int close = interval[1];
+        return open < close ? minute >= open && minute < close : minute >= open;
+    }
+
+    // Open at minute by the previous day's opening, past midnight
+    private static boolean openFromPreviousDay(int[] interval, int minute) {
+        return interval != null && interval[0] >= interval[1] && minute < interval[1];
+    }
+
+    // [open, close) in minutes; close may pass midnight (close <= open). Equal times mean open all day.
+    private static int[] interval(LocalTime openTime, LocalTime closeTime) {
+        if (openTime == null || closeTime == null) {
+            return null;
+        }
+        int open = openTime.getHour() * 60 + openTime.getMinute();
+        int close = closeTime.getHour() * 60 + closeTime.getMinute();
+        if (open == close) {
+            return new int[] { 0, MINUTES_PER_DAY };
+        }
+        return new int[] { open, close };
+    }
+
+    private static Set<LocalDate> parseHolidays(String value) {
+        Set<LocalDate> dates = new HashSet<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                dates.add(LocalDate.parse(part.trim()));
+            }
+        }
+        return Set.copyOf(dates);
+    }
+
+    private static Map<Long, Set<DayOfWeek>> parseDaysOff(String value) {
+        Map<Long, Set<DayOfWeek>> result = new HashMap<>();
+        for (String entry : value.split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Bad stores.schedule.days-off entry: " + entry);
+            }
+            Set<DayOfWeek> days = new HashSet<>();
+            for (String day : parts[1].split(",")) {
+                days.add(DayOfWeek.valueOf(day.trim().toUpperCase()));
+            }
+            result.put(Long.parseLong(parts[0].trim()), Set.copyOf(days));
+        }
+        return Map.copyOf(result);
+    }
+
+    // starts[i] is the first minute of segment i; the segment runs to starts[i + 1] or midnight
+    private record Snapshot(int[] starts, long[][] sameDay, long[][] fromPreviousDay) {
+
+        static Snapshot build(Map<Long, int[]> hours) {
+            TreeSet<Integer> boundaries = new TreeSet<>();
+            boundaries.add(0);
+            hours.values().forEach(interval -> {
+                boundaries.add(interval[0]);
+                boundaries.add(interval[1] % MINUTES_PER_DAY);
+            });
+
+            int[] starts = boundaries.stream().mapToInt(Integer::intValue).toArray();
+            List<List<Long>> sameDay = new ArrayList<>();
+            List<List<Long>> fromPreviousDay = new ArrayList<>();
+            for (int i = 0; i < starts.length; i++) {
+                sameDay.add(new ArrayList<>());
+                fromPreviousDay.add(new ArrayList<>());
+            }
+
+            hours.forEach((id, interval) -> {
+                for (int i = 0; i < starts.length; i++) {
+                    if (openSameDay(interval, starts[i])) {
+                        sameDay.get(i).add(id);
+                    } else if (openFromPreviousDay(interval, starts[i])) {
+                        fromPreviousDay.get(i).add(id);
+                    }
+                }
+            });
+
+            return new Snapshot(starts, toArrays(sameDay), toArrays(fromPreviousDay));
+        }
+
+        // This snapshot with one store's hours set to after (null for closed). Boundaries
+        // of its old hours are kept: they only split a segment in two, there is at most
+        // one per minute of the day, and rebuild() drops them.
+        Snapshot with(long id, int[] after) {
+            int[] newStarts = starts;
+            if (after != null) {
+                newStarts = withBoundary(withBoundary(newStarts, after[0]), after[1] % MINUTES_PER_DAY);
+            }
+
+            long[][] newSameDay = new long[newStarts.length][];
+            long[][] newFromPreviousDay = new long[newStarts.length][];
+            for (int i = 0; i < newStarts.length; i++) {
+                int minute = newStarts[i];
+                int from = segmentOf(starts, minute);
+                newSameDay[i] = withId(sameDay[from], id, openSameDay(after, minute));
+                newFromPreviousDay[i] = withId(fromPreviousDay[from], id, openFromPreviousDay(after, minute));
+            }
+            return new Snapshot(newStarts, newSameDay, newFromPreviousDay);
+        }
+
+        private static int[] withBoundary(int[] starts, int minute) {
+            int at = Arrays.binarySearch(starts, minute);
+            if (at >= 0) {
+                return starts;
+            }
+            at = -at - 1;
+            int[] result = new int[starts.length + 1];
+            System.arraycopy(starts, 0, result, 0, at);
+            result[at] = minute;
+            System.arraycopy(starts, at, result, at + 1, starts.length - at);
+            return result;
+        }
+
+        // The sorted ids with id in or out; the same array when nothing changes
+        private static long[] withId(long[] ids, long id, boolean present) {
+            int at = Arrays.binarySearch(ids, id);
+            if (at >= 0 == present) {
+                return ids;
+            }
+            long[] result = new long[present ? ids.length + 1 : ids.length - 1];
+            if (present) {
+                at = -at - 1;
+                System.arraycopy(ids, 0, result, 0, at);
+                result[at] = id;
+                System.arraycopy(ids, at, result, at + 1, ids.length - at);
+            } else {
+                System.arraycopy(ids, 0, result, 0, at);
+                System.arraycopy(ids, at + 1, result, at, ids.length - at - 1);
+            }
+            return result;
+        }
+
+        private static long[][] toArrays(List<List<Long>> lists) {
+            long[][] arrays = new long[lists.size()][];
+            for (int i = 0; i < arrays.length; i++) {
+                arrays[i] = lists.get(i).stream().mapToLong(Long::longValue).sorted().toArray();
+            }
+            return arrays;
+        }
+    }
+}
@@ -1,8 +1,17 @@
 package j2ee.j2ee.apps.store;
 
+import j2ee.j2ee.apps.bulk_delete.BulkDeleter;
+import j2ee.j2ee.apps.bulk_delete.DeleteMode;
+import j2ee.j2ee.apps.bulk_delete.DeletePlans;
+import j2ee.j2ee.apps.bulk_delete.DeleteResult;
+import j2ee.j2ee.apps.product.ProductSearchIndex;
+import j2ee.j2ee.apps.search.SearchIndexService;
 import j2ee.j2ee.apps.user.UserDTO;
 import j2ee.j2ee.apps.user.UserEntity;
 import j2ee.j2ee.apps.user.UserRepository;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
+import j2ee.j2ee.utils.TransactionHooks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -14,8 +23,14 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +40,18 @@ public class StoreService {
     private StoreRepository storeRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private CatalogCache catalogCache;
+    @Autowired
+    private StoreGeoIndex storeGeoIndex;
+    @Autowired
+    private StoreScheduleIndex storeScheduleIndex;
+    @Autowired
+    private BulkDeleter bulkDeleter;
+    @Autowired
+    private SearchIndexService searchIndexService;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
 
     private final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
@@ -32,13 +59,54 @@ public class StoreService {
         return this.storeRepository.filterByCategoryOfServiceId(category_of_service_id);
     }
 
+    // k nearest stores within radiusKm, optionally only those offering a category of service.
+    // The category narrows the grid search through its store ids rather than loading every store.
+    public List<NearbyStoreDTO> findNearby(double latitude, double longitude, double radiusKm,
+            Long category_of_service_id, int limit) {
+        LongPredicate filter = id -> true;
+        if (category_of_service_id != null) {
+            Set<Long> ids = new HashSet<>(this.storeRepository.findIdsByCategoryOfServiceId(category_of_service_id));
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            filter = ids::contains;
+        }
+
+        List<StoreGeoIndex.Hit> hits = storeGeoIndex.nearest(new GeoPoint(latitude, longitude), radiusKm, limit, filter);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, StoreEntity> stores = this.storeRepository
+                .findAllById(hits.stream().map(StoreGeoIndex.Hit::storeId).toList())
+                .stream()
+                .filter(store -> store.getDeleted_at() == null)
+                .collect(Collectors.toMap(StoreEntity::getId, Function.identity()));
+        return hits.stream()
+                .filter(hit -> stores.containsKey(hit.storeId()))
+                .map(hit -> NearbyStoreDTO.of(stores.get(hit.storeId()), hit.distanceKm()))
+                .toList();
+    }
+
+    // Stores open at the given time, ordered by id
+    public List<StoreEntity> getOpenAt(LocalDateTime at) {
+        List<Long> ids = storeScheduleIndex.openAt(at);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return this.storeRepository.findAllById(ids).stream()
+                .filter(store -> store.getDeleted_at() == null)
+                .sorted(Comparator.comparing(StoreEntity::getId))
+                .toList();
+    }
+
     public Page<StoreEntity> getAllStorePage(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "name"));
         return this.storeRepository.findAllPage(pageable);
     }
 
     public Optional<StoreEntity> getById(long id) {
-        return this.storeRepository.findById(id);
+        return this.storeRepository.findById(id).filter(store -> store.getDeleted_at() == null);
     }
 
     public Optional<StoreEntity> getStoreByUserId(Long userId) {
@@ -54,6 +122,7 @@ public class StoreService {
 
         // Lấy store hiện tại và cập nhật thông tin
         StoreEntity existingStore = existingStoreOptional.get();
+        updateLocation(existingStore, updatedStore.getAddress(), updatedStore.getLatitude(), updatedStore.getLongitude());
         existingStore.setName(updatedStore.getName());
         existingStore.setDescription(updatedStore.getDescription());
         existingStore.setAddress(updatedStore.getAddress());
@@ -64,11 +133,24 @@ public class StoreService {
         existingStore.setStatus(updatedStore.getStatus());
 
         // Lưu store đã cập nhật
-        return storeRepository.save(existingStore);
+        StoreEntity saved = storeRepository.save(existingStore);
+        catalogCache.invalidate(Catalog.STORES);
+        return saved;
+    }
+
+    // Coordinates given by the caller win; otherwise a new address is geocoded again on save
+    private void updateLocation(StoreEntity store, String address, Double latitude, Double longitude) {
+        if (latitude != null && longitude != null) {
+            store.setLatitude(latitude);
+            store.setLongitude(longitude);
+        } else if (address != null && !address.equals(store.getAddress())) {
+            store.setLatitude(null);
+            store.setLongitude(null);
+        }
     }
 
     private StoreDTO toDTO(StoreEntity entity) {
-        StoreDTO dto = StoreDTO.builder().id(entity.getId()).name(entity.getName()).description(entity.getDescription()).address(entity.getAddress()).phone(entity.getPhone()).image(entity.getImage()).createdAt(formatDateTime(entity.getCreated_at())).updatedAt(formatDateTime(entity.getUpdated_at())).openTime(formatTime(entity.getOpen_time())).closeTime(formatTime(entity.getClose_time())).status(entity.getStatus()).build();
+        StoreDTO dto = StoreDTO.builder().id(entity.getId()).name(entity.getName()).description(entity.getDescription()).address(entity.getAddress()).latitude(entity.getLatitude()).longitude(entity.getLongitude()).phone(entity.getPhone()).image(entity.getImage()).createdAt(formatDateTime(entity.getCreated_at())).updatedAt(formatDateTime(entity.getUpdated_at())).openTime(formatTime(entity.getOpen_time())).closeTime(formatTime(entity.getClose_time())).status(entity.getStatus()).build();
 
         if (entity.getOwner() != null) {
             UserDTO ownerDTO = new UserDTO();
@@ -89,6 +171,8 @@ public class StoreService {
         entity.setName(dto.getName());
         entity.setDescription(dto.getDescription());
         entity.setAddress(dto.getAddress());
+        entity.setLatitude(dto.getLatitude());
+        entity.setLongitude(dto.getLongitude());
         entity.setPhone(dto.getPhone());
         entity.setImage(dto.getImage());
         entity.setCreated_at(parseDateTime(dto.getCreatedAt(), LocalDateTime.now()));
@@ -138,21 +222,24 @@ public class StoreService {
         entity.setCreated_at(LocalDateTime.now());
         entity.setUpdated_at(LocalDateTime.now());
         StoreEntity saved = storeRepository.save(entity);
+        catalogCache.invalidate(Catalog.STORES);
         return toDTO(saved);
     }
 
     public List<StoreDTO> getAllStores() {
-        return storeRepository.findAll().stream().map(this::toDTO).collect(Collectors.toList());
+        return catalogCache.get(Catalog.STORES, "all",
+                () -> storeRepository.findAllActive().stream().map(this::toDTO).toList());
     }
 
     public StoreDTO getStoreById(Long id) {
-        return storeRepository.findById(id).map(this::toDTO).orElseThrow(() -> new RuntimeException("Không tìm thấy store với ID: " + id));
+        return storeRepository.findById(id).filter(store -> store.getDeleted_at() == null).map(this::toDTO).orElseThrow(() -> new RuntimeException("Không tìm thấy store với ID: " + id));
     }
 
     @Transactional
     public StoreDTO updateStore(Long id, StoreDTO storeDTO) {
         StoreEntity entity = storeRepository.findById(id).orElseThrow(() -> new RuntimeException("Không tìm thấy store với ID: " + id));
 
+        updateLocation(entity, storeDTO.getAddress(), storeDTO.getLatitude(), storeDTO.getLongitude());
         entity.setName(storeDTO.getName());
         entity.setDescription(storeDTO.getDescription());
         entity.setAddress(storeDTO.getAddress());
@@ -169,6 +256,7 @@ public class StoreService {
 
         entity.setUpdated_at(LocalDateTime.now());
         StoreEntity updated = storeRepository.save(entity);
+        catalogCache.invalidate(Catalog.STORES);
         return toDTO(updated);
     }
 
@@ -178,11 +266,25 @@ public class StoreService {
             throw new RuntimeException("Không tìm thấy store với ID: " + id);
         }
         storeRepository.deleteById(id);
+        catalogCache.invalidate(Catalog.STORES);
     }
 
+    // Stores with orders or appointments are skipped in hard mode; either
+    // mode takes the store's products and services along
     @Transactional
-    public void deleteMultipleStores(List<Long> ids) {
-        storeRepository.deleteAllByIdIn(ids);
+    public DeleteResult deleteMultipleStores(List<Long> ids, DeleteMode mode) {
+        DeleteResult result = bulkDeleter.delete(DeletePlans.STORES, ids, mode);
+        TransactionHooks.afterCommit(() -> result.deletedIds().forEach(id -> {
+            storeGeoIndex.remove(id);
+            storeScheduleIndex.remove(id);
+            productSearchIndex.removeStore(id);
+            searchIndexService.deleteStore(id);
+        }));
+        catalogCache.invalidate(Catalog.STORES);
+        catalogCache.invalidate(Catalog.PRODUCTS);
+        catalogCache.invalidate(Catalog.SERVICES);
+        catalogCache.invalidate(Catalog.CATEGORIES);
+        return result;
     }
 
     // -------import---------
@@ -198,5 +300,6 @@ public class StoreService {
         });
 
         storeRepository.saveAll(stores);
+        catalogCache.invalidate(Catalog.STORES);
     }
 }
@@ -0,0 +1,10 @@
+package j2ee.j2ee.apps.store;
+
+// The store fields list responses embed instead of the whole StoreEntity graph
+public record StoreSummary(Long id, String name, String address, String phone) {
+
+    public static StoreSummary of(StoreEntity store) {
+        return store == null ? null
+                : new StoreSummary(store.getId(), store.getName(), store.getAddress(), store.getPhone());
+    }
+}
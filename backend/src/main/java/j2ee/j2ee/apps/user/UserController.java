@@ -21,9 +21,12 @@ import j2ee.j2ee.constants.ErrorMessages;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import j2ee.j2ee.config.ExecutionLane;
+import j2ee.j2ee.config.Lane;
 
 @RestController
 @RequestMapping("/api/users")
+@ExecutionLane(Lane.ADMIN)
 public class UserController {
 
     @Autowired
@@ -167,13 +170,12 @@ public class UserController {
     // Delete (Xóa nhiều stores)
     @DeleteMapping("/delete-multiple")
     @Transactional
-    public ResponseEntity<String> deleteMultipleUsers(@RequestBody List<Long> ids) {
+    public ResponseEntity<?> deleteMultipleUsers(@RequestBody List<Long> ids) {
         try {
             if (ids == null || ids.isEmpty()) {
                 return ResponseEntity.badRequest().body("Danh sách ID không được rỗng");
             }
-            userService.deleteMultipleUsers(ids);
-            return ResponseEntity.ok("Xóa nhiều user thành công");
+            return ResponseEntity.ok(userService.deleteMultipleUsers(ids));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body("Lỗi khi xóa: " + e.getMessage());
         }
@@ -1,5 +1,7 @@
 package j2ee.j2ee.apps.user;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -18,6 +20,7 @@ import lombok.Data;
 @Entity(name = "users")
 @Data
 @EntityListeners(AuditingEntityListener.class)
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class UserEntity {
 
     @Id
@@ -43,6 +46,11 @@ public class UserEntity {
     @LastModifiedDate
     private LocalDate update_at;
 
+    // Id of the user's default address_book row, null when there is none.
+    // Only moved through AddressBookService, never from a request body
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long default_address_id;
+
     @ManyToOne
     @JoinColumn(name = "role_id", referencedColumnName = "id", nullable = false)
     private RoleEntity role;
@@ -1,10 +1,12 @@
 package j2ee.j2ee.apps.user;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import j2ee.j2ee.apps.store.StoreEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,4 +25,23 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     @Query(value = "SELECT * FROM users WHERE role_id = :roleId", nativeQuery = true)
     List<UserEntity> getListByRoleID(@Param("roleId") Long roleId);
+
+    @Query("SELECT u.id FROM users u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.email FROM users u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.phone FROM users u WHERE u.phone IN :phones")
+    List<String> findExistingPhones(@Param("phones") Collection<String> phones);
+
+    // Points the user at one of their own addresses; 0 rows when the address is not theirs
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE users u SET u.default_address_id = :addressId WHERE u.id = :userId " +
+            "AND EXISTS (SELECT 1 FROM address_book a WHERE a.id = :addressId AND a.user.id = :userId)")
+    int setDefaultAddress(@Param("userId") long userId, @Param("addressId") long addressId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE users u SET u.default_address_id = NULL WHERE u.default_address_id = :addressId")
+    int clearDefaultAddress(@Param("addressId") long addressId);
 }
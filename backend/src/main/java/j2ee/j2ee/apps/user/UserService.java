@@ -5,8 +5,14 @@ import java.util.Optional;
 import j2ee.j2ee.constants.ErrorMessages;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import j2ee.j2ee.apps.bulk_delete.BulkDeleter;
+import j2ee.j2ee.apps.bulk_delete.DeleteMode;
+import j2ee.j2ee.apps.bulk_delete.DeletePlans;
+import j2ee.j2ee.apps.bulk_delete.DeleteResult;
 import j2ee.j2ee.apps.role.RoleEntity;
 import j2ee.j2ee.apps.role.RoleRepository;
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +24,10 @@ public class UserService {
     private RoleRepository roleRepository;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private CatalogCache catalogCache;
+    @Autowired
+    private BulkDeleter bulkDeleter;
 
     public UserDTO toUserDTO(UserEntity user) {
         UserDTO dto = new UserDTO();
@@ -66,11 +76,11 @@ public class UserService {
         RoleEntity role;
         if (user.getRole() == null) {
 
-            role = roleRepository.findById(2L) // Role: customer
+            role = findRole(2L) // Role: customer
                     .orElseThrow(() -> new RuntimeException("Customer role not found"));
         } else {
 
-            role = roleRepository.findById(user.getRole().getId())
+            role = findRole(user.getRole().getId())
                     .orElseThrow(() -> new RuntimeException("Selected role not found"));
         }
         user.setRole(role);
@@ -78,6 +88,10 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    private Optional<RoleEntity> findRole(long roleId) {
+        return catalogCache.get(Catalog.ROLES, "id:" + roleId, () -> roleRepository.findById(roleId));
+    }
+
     public List<UserEntity> getUsersByRoleId(Long roleId) {
         return userRepository.getListByRoleID(roleId);
     }
@@ -114,9 +128,10 @@ public class UserService {
         userRepository.deleteById(id);
     }
 
+    // Users with orders, appointments, reviews or stores are skipped
     @Transactional
-    public void deleteMultipleUsers(List<Long> ids) {
-        userRepository.deleteAllByIdIn(ids);
+    public DeleteResult deleteMultipleUsers(List<Long> ids) {
+        return bulkDeleter.delete(DeletePlans.USERS, ids, DeleteMode.HARD);
     }
 
     // Mã hóa mật khẩu
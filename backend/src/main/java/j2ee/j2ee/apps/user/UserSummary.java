@@ -0,0 +1,9 @@
+package j2ee.j2ee.apps.user;
+
+// The user fields list responses embed instead of the whole UserEntity (no password, no role)
+public record UserSummary(Long id, String name, String email, String phone) {
+
+    public static UserSummary of(UserEntity user) {
+        return user == null ? null : new UserSummary(user.getId(), user.getName(), user.getEmail(), user.getPhone());
+    }
+}
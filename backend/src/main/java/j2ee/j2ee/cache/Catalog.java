@@ -0,0 +1,31 @@
+package j2ee.j2ee.cache;
+
+import java.time.Duration;
+
+// Read-mostly tables. Each has its own row in catalog_versions, which also
+// drives the catalog ETags (config/ConditionalGet), and its own TTL in
+// CatalogCache (overridable with catalog-cache.<key>.ttl-ms).
+public enum Catalog {
+    ROLES("roles", Duration.ofHours(1)),
+    CATEGORIES("categories", Duration.ofMinutes(10)),
+    CATEGORIES_OF_SERVICES("categories_of_services", Duration.ofMinutes(10)),
+    STORES("stores", Duration.ofMinutes(2)),
+    SERVICES("services", Duration.ofMinutes(2)),
+    PRODUCTS("products", Duration.ofMinutes(2));
+
+    private final String key;
+    private final Duration defaultTtl;
+
+    Catalog(String key, Duration defaultTtl) {
+        this.key = key;
+        this.defaultTtl = defaultTtl;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public Duration defaultTtl() {
+        return defaultTtl;
+    }
+}
@@ -0,0 +1,172 @@
+package j2ee.j2ee.cache;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import j2ee.j2ee.utils.TransactionHooks;
+
+// In-process cache for read-mostly catalog tables.
+// - entries expire after the catalog's TTL
+// - concurrent misses on one key share a single loader call
+// - writers call invalidate(), which bumps the catalog's row in catalog_versions;
+//   every node compares that version at most once per version-check-ms and drops
+//   its copy when it has moved, so a write on one node reaches the others
+// Metrics: catalog.cache.requests{cache,result} and catalog.cache.hit.ratio{cache}
+@Component
+public class CatalogCache {
+
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    private static final class Region {
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+        final AtomicLong generation = new AtomicLong();
+        final AtomicLong versionCheckedAt = new AtomicLong();
+        volatile long knownVersion = -1;
+        volatile LocalDateTime knownUpdatedAt;
+        long ttlMillis;
+        Counter hits;
+        Counter misses;
+
+        double hitRatio() {
+            double total = hits.count() + misses.count();
+            return total == 0 ? 0 : hits.count() / total;
+        }
+    }
+
+    private final Map<Catalog, Region> regions = new EnumMap<>(Catalog.class);
+    private final CatalogVersions catalogVersions;
+    private final long versionCheckMillis;
+
+    public CatalogCache(CatalogVersions catalogVersions, MeterRegistry meterRegistry, Environment env,
+            @Value("${catalog-cache.version-check-ms:5000}") long versionCheckMillis) {
+        this.catalogVersions = catalogVersions;
+        this.versionCheckMillis = versionCheckMillis;
+
+        for (Catalog catalog : Catalog.values()) {
+            Region region = new Region();
+            region.ttlMillis = env.getProperty("catalog-cache." + catalog.key() + ".ttl-ms", Long.class,
+                    catalog.defaultTtl().toMillis());
+            region.hits = Counter.builder("catalog.cache.requests")
+                    .tag("cache", catalog.key()).tag("result", "hit").register(meterRegistry);
+            region.misses = Counter.builder("catalog.cache.requests")
+                    .tag("cache", catalog.key()).tag("result", "miss").register(meterRegistry);
+            Gauge.builder("catalog.cache.hit.ratio", region, Region::hitRatio)
+                    .tag("cache", catalog.key()).register(meterRegistry);
+            Gauge.builder("catalog.cache.size", region, r -> r.entries.size())
+                    .tag("cache", catalog.key()).register(meterRegistry);
+            regions.put(catalog, region);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Catalog catalog, String key, Supplier<T> loader) {
+        Region region = regions.get(catalog);
+        checkVersion(catalog, region);
+
+        Entry entry = region.entries.get(key);
+        if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+            region.hits.increment();
+            return (T) entry.value();
+        }
+        region.misses.increment();
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = region.loading.putIfAbsent(key, mine);
+        if (running != null) {
+            return (T) await(running);
+        }
+
+        try {
+            long generation = region.generation.get();
+            T value = loader.get();
+            // an invalidation while we were loading means the value may already be stale
+            if (region.generation.get() == generation) {
+                region.entries.put(key, new Entry(value, System.currentTimeMillis() + region.ttlMillis));
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            region.loading.remove(key, mine);
+        }
+    }
+
+    // Call from every write to the catalog's tables. Inside a transaction the
+    // version bump commits with the write and the local copy is dropped after commit
+    public void invalidate(Catalog catalog) {
+        catalogVersions.bump(catalog);
+        Region region = regions.get(catalog);
+        TransactionHooks.afterCommit(() -> {
+            clear(region);
+            // re-read the version on next use so this node's ETags move right away
+            region.versionCheckedAt.set(0);
+        });
+    }
+
+    // Version this node last saw for the catalog, re-read at most once per version-check-ms
+    public long version(Catalog catalog) {
+        Region region = regions.get(catalog);
+        checkVersion(catalog, region);
+        return region.knownVersion;
+    }
+
+    // Time of the catalog's last write as of the version above; null when unknown
+    public LocalDateTime lastModified(Catalog catalog) {
+        Region region = regions.get(catalog);
+        checkVersion(catalog, region);
+        return region.knownUpdatedAt;
+    }
+
+    private void clear(Region region) {
+        region.generation.incrementAndGet();
+        region.entries.clear();
+    }
+
+    private void checkVersion(Catalog catalog, Region region) {
+        long now = System.currentTimeMillis();
+        long checkedAt = region.versionCheckedAt.get();
+        if (now - checkedAt < versionCheckMillis || !region.versionCheckedAt.compareAndSet(checkedAt, now)) {
+            return;
+        }
+
+        try {
+            CatalogVersions.Current current = catalogVersions.current(catalog);
+            if (current.version() != region.knownVersion) {
+                clear(region);
+                region.knownUpdatedAt = current.updatedAt();
+                region.knownVersion = current.version();
+            }
+        } catch (RuntimeException e) {
+            // keep serving what we have; the next check will try again
+            System.err.println("Catalog version check failed for " + catalog.key() + ": " + e.getMessage());
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> loading) {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package j2ee.j2ee.cache;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+// One row per Catalog. Bumped on every write so other app nodes notice that
+// their cached copy is stale.
+@Entity(name = "catalog_versions")
+@Data
+public class CatalogVersionEntity {
+    @Id
+    private String name;
+
+    private Long version;
+
+    private LocalDateTime updated_at;
+}
@@ -0,0 +1,21 @@
+package j2ee.j2ee.cache;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersionEntity, String> {
+    // [version, updated_at]
+    @Query("SELECT v.version, v.updated_at FROM catalog_versions v WHERE v.name = :name")
+    List<Object[]> findVersionAndUpdatedAt(@Param("name") String name);
+
+    @Modifying
+    @Query("UPDATE catalog_versions v SET v.version = v.version + 1, v.updated_at = :now WHERE v.name = :name")
+    int increment(@Param("name") String name, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,56 @@
+package j2ee.j2ee.cache;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class CatalogVersions {
+
+    @Autowired
+    private CatalogVersionRepository catalogVersionRepository;
+
+    // Every catalog needs its row before bump() can increment it
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureRows() {
+        for (Catalog catalog : Catalog.values()) {
+            if (catalogVersionRepository.existsById(catalog.key())) {
+                continue;
+            }
+            try {
+                CatalogVersionEntity row = new CatalogVersionEntity();
+                row.setName(catalog.key());
+                row.setVersion(0L);
+                row.setUpdated_at(LocalDateTime.now());
+                catalogVersionRepository.saveAndFlush(row);
+            } catch (DataIntegrityViolationException e) {
+                // created by another node starting at the same time
+            }
+        }
+    }
+
+    // Version and time of the last bump; version 0 and no time before the row exists
+    public Current current(Catalog catalog) {
+        List<Object[]> rows = catalogVersionRepository.findVersionAndUpdatedAt(catalog.key());
+        if (rows.isEmpty()) {
+            return new Current(0L, null);
+        }
+        return new Current((Long) rows.get(0)[0], (LocalDateTime) rows.get(0)[1]);
+    }
+
+    public record Current(long version, LocalDateTime updatedAt) {
+    }
+
+    // Joins the writer's transaction, so the new version becomes visible to
+    // other nodes together with the data it describes
+    @Transactional
+    public void bump(Catalog catalog) {
+        catalogVersionRepository.increment(catalog.key(), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,15 @@
+package j2ee.j2ee.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// @Async and @Scheduled use Boot's auto-configured executors, which switch to
+// virtual threads when spring.threads.virtual.enabled=true (vthreads profile).
+// The scheduler pool size is spring.task.scheduling.pool.size.
+@EnableAsync
+@EnableScheduling
+@Configuration
+public class AsyncConfig {
+
+}
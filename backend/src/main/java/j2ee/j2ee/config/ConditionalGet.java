@@ -0,0 +1,26 @@
+package j2ee.j2ee.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import j2ee.j2ee.cache.Catalog;
+
+// Marks a GET handler whose response only depends on the given catalogs, plus
+// whatever tag() covers. ConditionalGetInterceptor derives a weak ETag from their
+// versions and a Last-Modified from their last write, and answers a matching
+// If-None-Match (or If-Modified-Since) with 304 before the handler loads anything.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+    Catalog[] value();
+
+    // Responses need a bearer token, so they are private; no-cache makes clients
+    // revalidate every time, which is cheap once they hold an ETag
+    String cacheControl() default "private, no-cache";
+
+    // Bean adding to the ETag for data outside the catalogs. Such routes get no
+    // Last-Modified, since that data carries no timestamp of its own.
+    Class<? extends ConditionalGetTag> tag() default ConditionalGetTag.class;
+}
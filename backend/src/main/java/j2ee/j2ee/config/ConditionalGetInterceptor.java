@@ -0,0 +1,120 @@
+package j2ee.j2ee.config;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// See ConditionalGet. The ETag is built from catalog_versions, so any write
+// through the services (on any node) changes it, plus the route's tag() bean if
+// it has one. Last-Modified is the latest bump of the route's catalogs; as in
+// HTTP, If-Modified-Since is only looked at when there is no If-None-Match.
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private CatalogCache catalogCache;
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)
+                || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))) {
+            return true;
+        }
+
+        ConditionalGet conditional = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+        if (conditional == null) {
+            return true;
+        }
+
+        boolean catalogsOnly = conditional.tag() == ConditionalGetTag.class;
+        String extra = null;
+        if (!catalogsOnly) {
+            Optional<String> tag = applicationContext.getBean(conditional.tag()).tag(request);
+            if (tag.isEmpty()) {
+                return true;
+            }
+            extra = tag.get();
+        }
+
+        String etag = etag(conditional.value(), extra);
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", conditional.cacheControl());
+        long lastModified = catalogsOnly ? lastModified(conditional.value()) : -1;
+        if (lastModified >= 0) {
+            response.setDateHeader("Last-Modified", lastModified);
+        }
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        boolean notModified = ifNoneMatch != null ? matches(ifNoneMatch, etag)
+                : lastModified >= 0 && lastModified <= ifModifiedSince(request);
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    private String etag(Catalog[] catalogs, String extra) {
+        StringBuilder tag = new StringBuilder("W/\"");
+        for (int i = 0; i < catalogs.length; i++) {
+            if (i > 0) {
+                tag.append('-');
+            }
+            tag.append(catalogs[i].key()).append('.').append(catalogCache.version(catalogs[i]));
+        }
+        if (extra != null) {
+            tag.append('-').append(extra);
+        }
+        return tag.append('"').toString();
+    }
+
+    // Latest write to the catalogs in whole seconds, as HTTP dates have no more; -1 when unknown
+    private long lastModified(Catalog[] catalogs) {
+        long latest = -1;
+        for (Catalog catalog : catalogs) {
+            LocalDateTime updatedAt = catalogCache.lastModified(catalog);
+            if (updatedAt == null) {
+                return -1;
+            }
+            latest = Math.max(latest, updatedAt.atZone(ZoneId.systemDefault()).toEpochSecond() * 1000);
+        }
+        return latest;
+    }
+
+    private long ifModifiedSince(HttpServletRequest request) {
+        try {
+            return request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            // not a date; treat as absent
+            return -1;
+        }
+    }
+
+    // Weak comparison: W/ prefixes are ignored on both sides
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
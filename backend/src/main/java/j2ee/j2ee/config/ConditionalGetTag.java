@@ -0,0 +1,14 @@
+package j2ee.j2ee.config;
+
+import java.util.Optional;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Extra ETag input for a ConditionalGet route whose response also depends on
+// data that changes without a catalog write (e.g. stock). Implementations are
+// beans, looked up by class.
+public interface ConditionalGetTag {
+
+    // Appended to the catalog versions; empty when the response cannot be validated cheaply
+    Optional<String> tag(HttpServletRequest request);
+}
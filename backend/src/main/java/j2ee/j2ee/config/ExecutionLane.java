@@ -0,0 +1,14 @@
+package j2ee.j2ee.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Maps a controller (or a single handler method) to an execution lane.
+// Handlers without a lane run in the shared Tomcat pool with no quota.
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ExecutionLane {
+    Lane value();
+}
@@ -0,0 +1,18 @@
+package j2ee.j2ee.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class InstrumentationConfig {
+
+    // Hook statement counting and JDBC timing into every Hibernate session
+    @Bean
+    public HibernatePropertiesCustomizer requestMetricsCustomizer() {
+        return properties -> {
+            properties.put("hibernate.session_factory.statement_inspector", new QueryCountInspector());
+            properties.put("hibernate.session.events.auto", JdbcTimingListener.class.getName());
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package j2ee.j2ee.config;
+
+import org.hibernate.SessionEventListener;
+
+// Adds time spent in JDBC execute calls to the current request.
+// Hibernate creates one instance per session (hibernate.session.events.auto).
+public class JdbcTimingListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private void record(long start) {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null && start != 0) {
+            metrics.jdbcTime(System.nanoTime() - start);
+        }
+    }
+}
@@ -14,10 +14,15 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.regex.Pattern;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
+    // Province/district/ward lists for address forms, permitted in SecurityConfig
+    private static final Pattern ADDRESS_TREE = Pattern
+            .compile("/api/addresses/(provinces|provinces/[^/]+/districts|districts/[^/]+/wards)");
+
     private final JwtUtil jwtUtil;
 
     @Autowired
@@ -37,6 +42,19 @@ public class JwtFilter extends OncePerRequestFilter {
             return;
         }
 
+        // Skip for the public address lists
+        if (ADDRESS_TREE.matcher(uri).matches()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Skip for image files, which are public
+        if (uri.startsWith("/api/product-images/files/")
+                && ("GET".equalsIgnoreCase(request.getMethod()) || "HEAD".equalsIgnoreCase(request.getMethod()))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         // Skip for OPTIONS requests (CORS preflight)
         if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
             filterChain.doFilter(request, response);
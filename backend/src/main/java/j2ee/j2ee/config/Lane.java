@@ -0,0 +1,14 @@
+package j2ee.j2ee.config;
+
+// Execution lanes used to isolate traffic classes from each other
+public enum Lane {
+    BOOKING,
+    CATALOG,
+    ANALYTICS,
+    ADMIN,
+    FLASH_SALE;
+
+    public String key() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,78 @@
+package j2ee.j2ee.config;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// Per-lane limits. Each lane gets:
+// - a request semaphore bounding how many requests run at once
+// - a connection semaphore bounding how many pooled DB connections it may hold
+// Limits are read from lanes.<lane>.max-concurrent / connections / max-wait-ms.
+@Component
+public class LaneBulkheads {
+
+    private static final ThreadLocal<Lane> CURRENT_LANE = new ThreadLocal<>();
+
+    private final Map<Lane, Semaphore> requestPermits = new EnumMap<>(Lane.class);
+    private final Map<Lane, Semaphore> connectionPermits = new EnumMap<>(Lane.class);
+    private final Map<Lane, Long> maxWaitMillis = new EnumMap<>(Lane.class);
+
+    @Autowired
+    public LaneBulkheads(Environment env) {
+        for (Lane lane : Lane.values()) {
+            String prefix = "lanes." + lane.key() + ".";
+            int maxConcurrent = env.getProperty(prefix + "max-concurrent", Integer.class, 50);
+            int connections = env.getProperty(prefix + "connections", Integer.class, 5);
+            long maxWait = env.getProperty(prefix + "max-wait-ms", Long.class, 1000L);
+
+            requestPermits.put(lane, new Semaphore(maxConcurrent, true));
+            connectionPermits.put(lane, new Semaphore(connections, true));
+            maxWaitMillis.put(lane, maxWait);
+        }
+    }
+
+    public boolean enter(Lane lane) throws InterruptedException {
+        boolean acquired = requestPermits.get(lane).tryAcquire(maxWaitMillis.get(lane), TimeUnit.MILLISECONDS);
+        if (acquired) {
+            CURRENT_LANE.set(lane);
+        }
+        return acquired;
+    }
+
+    public void exit(Lane lane) {
+        CURRENT_LANE.remove();
+        requestPermits.get(lane).release();
+    }
+
+    public Lane currentLane() {
+        return CURRENT_LANE.get();
+    }
+
+    // Returns the semaphore to release when the connection is closed,
+    // or null when the calling thread is not running inside a lane
+    public Semaphore acquireConnection() throws InterruptedException {
+        Lane lane = CURRENT_LANE.get();
+        if (lane == null) {
+            return null;
+        }
+
+        Semaphore permits = connectionPermits.get(lane);
+        if (!permits.tryAcquire(maxWaitMillis.get(lane), TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        return permits;
+    }
+
+    public int availableRequests(Lane lane) {
+        return requestPermits.get(lane).availablePermits();
+    }
+
+    public int availableConnections(Lane lane) {
+        return connectionPermits.get(lane).availablePermits();
+    }
+}
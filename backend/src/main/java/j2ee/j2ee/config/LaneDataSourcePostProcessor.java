@@ -0,0 +1,128 @@
+package j2ee.j2ee.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+// Wraps the pooled DataSource so every connection borrowed on a lane thread
+// counts against that lane's connection quota. The permit is returned on close().
+// Only the first connection a thread holds takes a permit: a nested one (e.g. a
+// REQUIRES_NEW lease while the request transaction is open) would otherwise wait
+// on permits held by requests that are themselves waiting for it.
+@Component
+public class LaneDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<LaneBulkheads> bulkheads;
+
+    public LaneDataSourcePostProcessor(ObjectProvider<LaneBulkheads> bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof LaneDataSource)) {
+            return new LaneDataSource((DataSource) bean, bulkheads);
+        }
+        return bean;
+    }
+
+    static class LaneDataSource extends DelegatingDataSource {
+
+        // Permitted connections open on this thread
+        private static final ThreadLocal<int[]> HELD = ThreadLocal.withInitial(() -> new int[1]);
+
+        private final ObjectProvider<LaneBulkheads> bulkheads;
+
+        LaneDataSource(DataSource target, ObjectProvider<LaneBulkheads> bulkheads) {
+            super(target);
+            this.bulkheads = bulkheads;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Semaphore permit = acquire();
+            try {
+                return track(super.getConnection(), permit);
+            } catch (SQLException | RuntimeException e) {
+                release(permit);
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            Semaphore permit = acquire();
+            try {
+                return track(super.getConnection(username, password), permit);
+            } catch (SQLException | RuntimeException e) {
+                release(permit);
+                throw e;
+            }
+        }
+
+        private Semaphore acquire() throws SQLException {
+            LaneBulkheads lanes = bulkheads.getIfAvailable();
+            if (lanes == null || lanes.currentLane() == null || HELD.get()[0] > 0) {
+                return null;
+            }
+
+            try {
+                Semaphore permit = lanes.acquireConnection();
+                if (permit == null) {
+                    throw new SQLTransientConnectionException(
+                            "Connection quota exhausted for lane " + lanes.currentLane().key());
+                }
+                return permit;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted waiting for lane connection", e);
+            }
+        }
+
+        private void release(Semaphore permit) {
+            if (permit != null) {
+                permit.release();
+            }
+        }
+
+        private Connection track(Connection connection, Semaphore permit) {
+            if (permit == null) {
+                return connection;
+            }
+
+            int[] held = HELD.get();
+            held[0]++;
+            AtomicBoolean released = new AtomicBoolean(false);
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            try {
+                                connection.close();
+                            } finally {
+                                held[0]--;
+                                permit.release();
+                            }
+                            return null;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
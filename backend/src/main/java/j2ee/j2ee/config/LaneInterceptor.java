@@ -0,0 +1,63 @@
+package j2ee.j2ee.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Admits a request into its lane, or rejects it with 503 when the lane is full
+// so a saturated lane (e.g. analytics) can't starve the others of threads.
+@Component
+public class LaneInterceptor implements HandlerInterceptor {
+
+    private static final String LANE_ATTRIBUTE = LaneInterceptor.class.getName() + ".lane";
+
+    @Autowired
+    private LaneBulkheads bulkheads;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        Lane lane = resolveLane(handler);
+        if (lane == null) {
+            return true;
+        }
+
+        if (!bulkheads.enter(lane)) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            return false;
+        }
+
+        request.setAttribute(LANE_ATTRIBUTE, lane);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        Object lane = request.getAttribute(LANE_ATTRIBUTE);
+        if (lane instanceof Lane) {
+            request.removeAttribute(LANE_ATTRIBUTE);
+            bulkheads.exit((Lane) lane);
+        }
+    }
+
+    private Lane resolveLane(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return null;
+        }
+
+        HandlerMethod method = (HandlerMethod) handler;
+        ExecutionLane annotation = AnnotatedElementUtils.findMergedAnnotation(method.getMethod(), ExecutionLane.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), ExecutionLane.class);
+        }
+        return annotation != null ? annotation.value() : null;
+    }
+}
@@ -0,0 +1,16 @@
+package j2ee.j2ee.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts every SQL statement Hibernate prepares for the current request
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            metrics.statementPrepared();
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,46 @@
+package j2ee.j2ee.config;
+
+// Per-request counters filled in by the Hibernate hooks and read by ServerTimingFilter.
+// Work done outside a request (scheduled jobs, @Async) is not tracked.
+public class RequestMetrics {
+
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private int statementCount;
+    private long jdbcNanos;
+
+    public static RequestMetrics begin() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static RequestMetrics current() {
+        return CURRENT.get();
+    }
+
+    public void statementPrepared() {
+        statementCount++;
+    }
+
+    public void jdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+}
@@ -3,6 +3,7 @@ package j2ee.j2ee.config;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -39,7 +40,13 @@ public class SecurityConfig {
                 // Define authorization rules
                 .authorizeHttpRequests(auth -> auth
                         // Public endpoints: no authentication required
-                        .requestMatchers("/api/auth/**", "/api/addresses/provinces").permitAll()
+                        .requestMatchers("/api/auth/**", "/api/addresses/provinces", "/api/addresses/provinces/*/districts",
+                                "/api/addresses/districts/*/wards").permitAll()
+                        // Image files are loaded by <img> tags, which send no token
+                        .requestMatchers(HttpMethod.GET, "/api/product-images/files/**").permitAll()
+                        .requestMatchers(HttpMethod.HEAD, "/api/product-images/files/**").permitAll()
+                        // Full search index rebuild is an admin operation
+                        .requestMatchers(HttpMethod.POST, "/api/search/rebuild").hasRole("admin")
                         // All other requests require authentication
                         .anyRequest().authenticated())
                 // Add JWT filter before the default authentication filter
@@ -59,7 +66,7 @@ public class SecurityConfig {
         // Allow requests from your frontend origin (adjust as needed)
         configuration.setAllowedOrigins(List.of("http://localhost:3000"));
         // Allow common HTTP methods
-        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         // Allow all headers
         configuration.setAllowedHeaders(List.of("*"));
         // Allow credentials (e.g., Authorization header) if needed
@@ -0,0 +1,138 @@
+package j2ee.j2ee.config;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// Adds a Server-Timing header to every response:
+//   db;dur=<jdbc ms>, db-count;desc="<statements>", app;dur=<ms until the handler returned>
+// Controller bodies get it from ServerTimingAdvice; this filter covers the rest. Also records the statement count per endpoint in http.server.requests.queries.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+
+    private final MeterRegistry registry;
+    private final int nPlusOneThreshold;
+
+    public ServerTimingFilter(MeterRegistry registry,
+            @Value("${instrumentation.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        this.registry = registry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        RequestMetrics metrics = RequestMetrics.begin();
+        TimingResponse timingResponse = new TimingResponse(response, metrics);
+        try {
+            filterChain.doFilter(request, timingResponse);
+        } finally {
+            timingResponse.writeServerTiming();
+            RequestMetrics.end();
+            record(request, response, metrics);
+        }
+    }
+
+    static String serverTiming(RequestMetrics metrics) {
+        return String.format(Locale.ROOT, "db;dur=%.1f, db-count;desc=\"%d\", app;dur=%.1f",
+                metrics.getJdbcNanos() / 1_000_000.0,
+                metrics.getStatementCount(),
+                metrics.getElapsedNanos() / 1_000_000.0);
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestMetrics metrics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        int statements = metrics.getStatementCount();
+
+        DistributionSummary.builder("http.server.requests.queries")
+                .description("SQL statements issued per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(statements);
+
+        if (statements > nPlusOneThreshold) {
+            System.err.println("N+1 suspect: " + request.getMethod() + " " + uri + " issued " + statements
+                    + " SQL statements (" + TimeUnit.NANOSECONDS.toMillis(metrics.getJdbcNanos()) + "ms in JDBC)");
+        }
+    }
+
+    // Headers can't be added once the body starts streaming, so for responses
+    // ServerTimingAdvice didn't see the timing is written just before the first output
+    private static class TimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestMetrics metrics;
+        private boolean written;
+
+        TimingResponse(HttpServletResponse response, RequestMetrics metrics) {
+            super(response);
+            this.metrics = metrics;
+        }
+
+        void writeServerTiming() {
+            if (written || isCommitted() || containsHeader(HEADER)) {
+                return;
+            }
+            written = true;
+            setHeader(HEADER, serverTiming(metrics));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeServerTiming();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package j2ee.j2ee.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+// Streams JFR jdk.VirtualThreadPinned events (a virtual thread blocked while
+// holding a monitor, e.g. inside a synchronized block in a JDBC driver) into
+// the vthreads.pinned counter and timer, tagged by the frame that pinned.
+// The log gets at most one line per site per vthreads.pinning.log-interval-ms,
+// with the number of events since the previous line; the metrics see them all.
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private final MeterRegistry registry;
+    private final Duration threshold;
+    private final long logIntervalMillis;
+    // Only touched by the JFR stream thread
+    private final Map<String, LogWindow> logWindows = new HashMap<>();
+    private RecordingStream stream;
+
+    private static final class LogWindow {
+        long loggedAt;
+        int suppressed;
+    }
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry,
+            @Value("${vthreads.pinning.threshold-ms:20}") long thresholdMs,
+            @Value("${vthreads.pinning.log-interval-ms:60000}") long logIntervalMillis) {
+        this.registry = registry;
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.logIntervalMillis = logIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::record);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        String site = pinningSite(event.getStackTrace());
+
+        Counter.builder("vthreads.pinned")
+                .description("Virtual thread pinned events")
+                .tag("site", site)
+                .register(registry)
+                .increment();
+        Timer.builder("vthreads.pinned.duration")
+                .description("Time virtual threads spent pinned to their carrier")
+                .tag("site", site)
+                .register(registry)
+                .record(event.getDuration());
+
+        log(site, event.getDuration());
+    }
+
+    private void log(String site, Duration pinned) {
+        long now = System.currentTimeMillis();
+        LogWindow window = logWindows.get(site);
+        if (window == null) {
+            window = new LogWindow();
+            logWindows.put(site, window);
+        } else if (now - window.loggedAt < logIntervalMillis) {
+            window.suppressed++;
+            return;
+        }
+        String since = window.suppressed > 0 ? " (" + window.suppressed + " more since the last report)" : "";
+        System.err.println("Virtual thread pinned for " + pinned.toMillis() + "ms at " + site + since);
+        window.loggedAt = now;
+        window.suppressed = 0;
+    }
+
+    // First application or driver frame, skipping JDK internals
+    private String pinningSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "jdk";
+    }
+}
@@ -4,6 +4,7 @@ public final class ErrorMessages {
     public static final String PHONE_CONFLICT = "Phone number already in user";
     public static final String EMAIL_CONFLICT = "Email already in user";
     public static final String ADDRESS_CONFLICT = "Duplicated address";
+    public static final String OUT_OF_STOCK = "Not enough stock";
 
     private ErrorMessages() {
 
@@ -0,0 +1,47 @@
+package j2ee.j2ee.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Totals for cursor endpoints. A COUNT(*) per page is what keyset paging is
+// meant to avoid, so totals are only computed on request and then reused
+// until they expire. They can lag behind inserts by up to the TTL.
+@Component
+public class ApproximateCounts {
+
+    private record Entry(long value, long expiresAt) {
+    }
+
+    private final Map<String, Entry> counts = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    public ApproximateCounts(@Value("${pagination.count-ttl-ms:60000}") long ttlMillis,
+            @Value("${pagination.count-max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    public long get(String key, LongSupplier counter) {
+        long now = System.currentTimeMillis();
+        Entry entry = counts.get(key);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.value();
+        }
+
+        if (counts.size() >= maxEntries) {
+            counts.values().removeIf(e -> e.expiresAt() <= now);
+            if (counts.size() >= maxEntries) {
+                counts.clear();
+            }
+        }
+
+        long value = counter.getAsLong();
+        counts.put(key, new Entry(value, now + ttlMillis));
+        return value;
+    }
+}
@@ -0,0 +1,46 @@
+package j2ee.j2ee.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.StringJoiner;
+
+// Opaque continuation token for keyset pagination. Holds the sort key of the
+// last row of a page; clients only pass it back, never build it themselves.
+// A null key comes back from decode as null, distinct from an empty string.
+public final class Cursor {
+
+    private static final String SEPARATOR = "\u001F";
+    private static final String NULL = "\u0000";
+
+    private Cursor() {
+    }
+
+    public static String encode(Object... keys) {
+        StringJoiner joiner = new StringJoiner(SEPARATOR);
+        for (Object key : keys) {
+            joiner.add(key == null ? NULL : key.toString());
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String token, int expectedKeys) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        String[] keys = raw.split(SEPARATOR, -1);
+        if (keys.length != expectedKeys) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (NULL.equals(keys[i])) {
+                keys[i] = null;
+            }
+        }
+        return keys;
+    }
+}
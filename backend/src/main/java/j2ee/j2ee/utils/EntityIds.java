@@ -0,0 +1,52 @@
+package j2ee.j2ee.utils;
+
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.Generator;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Ids for rows inserted with plain JDBC, taken from the entity's own Hibernate
+// generator. With the pooled-lo optimizer one sequence call yields a block of
+// allocationSize ids held in memory, and entity saves draw from the same
+// blocks, so both ways of inserting can share a table.
+@Component
+public class EntityIds {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Keep a Block open for a whole import; it owns a stateless session for block fetches
+    public Block open(Class<?> entityClass) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Generator generator = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityClass).getGenerator();
+        if (!(generator instanceof IdentifierGenerator identifierGenerator)) {
+            throw new IllegalArgumentException(entityClass.getSimpleName() + " ids are generated by the database");
+        }
+        return new Block(sessionFactory.openStatelessSession(), identifierGenerator);
+    }
+
+    public static final class Block implements AutoCloseable {
+
+        private final StatelessSession session;
+        private final IdentifierGenerator generator;
+
+        private Block(StatelessSession session, IdentifierGenerator generator) {
+            this.session = session;
+            this.generator = generator;
+        }
+
+        public long next() {
+            return ((Number) generator.generate((SharedSessionContractImplementor) session, null)).longValue();
+        }
+
+        @Override
+        public void close() {
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package j2ee.j2ee.utils;
+
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.Getter;
+
+// One page of a keyset query. Repositories are asked for size + 1 rows so the
+// extra row tells us whether another page exists without running a COUNT(*).
+@Getter
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    private KeysetPage(List<T> content, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null, false);
+        }
+
+        List<T> content = rows.subList(0, size);
+        return new KeysetPage<>(content, cursorOf.apply(content.get(size - 1)), true);
+    }
+
+    // Same cursor and hasNext over converted rows, e.g. projection rows to views
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> converter) {
+        List<R> mapped = content.stream().<R>map(converter).toList();
+        return new KeysetPage<>(mapped, nextCursor, hasNext);
+    }
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+}
@@ -0,0 +1,24 @@
+package j2ee.j2ee.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Lowercases and strips Vietnamese diacritics so "Sữa rửa mặt" matches "sua rua mat"
+public final class TextNormalizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private TextNormalizer() {
+    }
+
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        // đ has no decomposition, map it by hand
+        return MARKS.matcher(decomposed).replaceAll("").replace('đ', 'd');
+    }
+}
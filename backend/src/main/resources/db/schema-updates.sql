@@ -0,0 +1,120 @@
+-- Schema changes that go with application releases. ddl-auto is off, so run
+-- these by hand against the MySQL database, in order.
+
+-- Keyset pagination: every cursor query seeks on an index that matches its ORDER BY
+CREATE INDEX idx_appointments_customer_created ON appointments (customer_id, created_at, id);
+CREATE INDEX idx_orders_user_created ON orders (user_id, created_at, id);
+CREATE INDEX idx_services_store_name ON services (store_id, name, id);
+CREATE INDEX idx_address_book_user_default ON address_book (user_id, is_default, id);
+
+-- Catalog cache: one version row per cached catalog, bumped on every write
+CREATE TABLE IF NOT EXISTS catalog_versions (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME(6)
+);
+INSERT IGNORE INTO catalog_versions (name, version, updated_at) VALUES
+    ('roles', 0, NOW(6)),
+    ('categories', 0, NOW(6)),
+    ('categories_of_services', 0, NOW(6)),
+    ('stores', 0, NOW(6));
+
+-- Catalog ETags: services and products are versioned as well
+INSERT IGNORE INTO catalog_versions (name, version, updated_at) VALUES
+    ('services', 0, NOW(6)),
+    ('products', 0, NOW(6));
+
+-- Store coordinates for /api/stores/nearby; filled from the gazetteer at startup
+ALTER TABLE stores ADD COLUMN latitude DOUBLE NULL;
+ALTER TABLE stores ADD COLUMN longitude DOUBLE NULL;
+CREATE INDEX idx_services_category_store ON services (category_of_service_id, store_id);
+
+-- Inventory: optimistic locking on products and expiring stock reservations
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id BIGINT NOT NULL PRIMARY KEY,
+    product_id BIGINT,
+    user_id BIGINT,
+    quantity INT NOT NULL,
+    status VARCHAR(16),
+    expires_at DATETIME(6),
+    created_at DATETIME(6)
+);
+CREATE TABLE IF NOT EXISTS stock_reservations_seq (next_val BIGINT);
+INSERT INTO stock_reservations_seq VALUES (1);
+CREATE INDEX idx_stock_reservations_status_expires ON stock_reservations (status, expires_at);
+
+-- Checkout: priced order lines, payments for product orders and idempotency keys
+CREATE TABLE IF NOT EXISTS order_lines (
+    id BIGINT NOT NULL PRIMARY KEY,
+    order_id INT NOT NULL,
+    product_id BIGINT NOT NULL,
+    product_name VARCHAR(255),
+    unit_price DOUBLE NOT NULL,
+    quantity INT NOT NULL,
+    line_total DOUBLE NOT NULL,
+    CONSTRAINT fk_order_lines_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_lines_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+CREATE TABLE IF NOT EXISTS order_lines_seq (next_val BIGINT);
+INSERT INTO order_lines_seq VALUES (1);
+CREATE INDEX idx_order_lines_order ON order_lines (order_id, id);
+ALTER TABLE payments MODIFY appointment_id BIGINT NULL;
+ALTER TABLE payments ADD COLUMN order_id INT NULL;
+ALTER TABLE payments ADD CONSTRAINT fk_payments_order FOREIGN KEY (order_id) REFERENCES orders (id);
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(255) NOT NULL PRIMARY KEY,
+    user_id BIGINT,
+    request_hash VARCHAR(64),
+    order_ids VARCHAR(1000),
+    total_amount DOUBLE,
+    created_at DATETIME(6),
+    expires_at DATETIME(6)
+);
+CREATE INDEX idx_idempotency_keys_expires ON idempotency_keys (expires_at);
+
+-- Flash sales: one product, or a whole category when product_id is NULL
+CREATE TABLE IF NOT EXISTS flash_sales (
+    id BIGINT NOT NULL PRIMARY KEY,
+    product_id BIGINT NULL,
+    category_id BIGINT NULL,
+    starts_at DATETIME(6) NOT NULL,
+    ends_at DATETIME(6) NOT NULL,
+    admit_per_second INT NOT NULL,
+    created_at DATETIME(6)
+);
+CREATE TABLE IF NOT EXISTS flash_sales_seq (next_val BIGINT);
+INSERT INTO flash_sales_seq VALUES (1);
+CREATE INDEX idx_flash_sales_window ON flash_sales (starts_at, ends_at);
+
+-- Soft delete for stores, products and services (apps/bulk_delete). Every query
+-- on these tables filters on deleted_at IS NULL. MySQL has no partial indexes,
+-- so deleted_at goes right after the equality columns: IS NULL is an equality
+-- lookup for the optimizer, and the keyset orderings still come off the index.
+ALTER TABLE stores ADD COLUMN deleted_at DATETIME(6) NULL;
+ALTER TABLE products ADD COLUMN deleted_at DATETIME(6) NULL;
+ALTER TABLE services ADD COLUMN deleted_at DATETIME(6) NULL;
+CREATE INDEX idx_stores_deleted_name ON stores (deleted_at, name);
+CREATE INDEX idx_products_store_deleted ON products (store_id, deleted_at, id);
+DROP INDEX idx_services_store_name ON services;
+CREATE INDEX idx_services_store_deleted_name ON services (store_id, deleted_at, name, id);
+
+-- Default address as a pointer on the user row (apps/address_book). Carries over
+-- the lowest-id flagged address per user, then drops the flag; address_book.is_default
+-- is now derived from the pointer. A user's addresses are few, so listing them
+-- default-first sorts in memory after the (user_id, id) range scan.
+ALTER TABLE users ADD COLUMN default_address_id BIGINT NULL;
+UPDATE users u
+    JOIN (SELECT user_id, MIN(id) AS id FROM address_book WHERE is_default = 1 GROUP BY user_id) d
+    ON d.user_id = u.id
+    SET u.default_address_id = d.id;
+ALTER TABLE users ADD CONSTRAINT fk_users_default_address
+    FOREIGN KEY (default_address_id) REFERENCES address_book (id) ON DELETE SET NULL;
+CREATE INDEX idx_address_book_user ON address_book (user_id, id);
+DROP INDEX idx_address_book_user_default ON address_book;
+ALTER TABLE address_book DROP COLUMN is_default;
+
+-- Cart write version (apps/cart). CartWriter only writes a cart whose row still has
+-- the version the in-memory copy holds, so two app instances never overwrite each
+-- other's cart; the losing instance drops its copy and reloads.
+ALTER TABLE carts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,53 @@
+package j2ee.j2ee.apps.address_book;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.support.FixtureSeeder;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class AddressBookServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private AddressBookService addressBookService;
+
+    @Test
+    void addressesPage() {
+        long userId = fixture.getCustomer(0).getId();
+
+        assertQueries(5, () -> addressBookService.getAllByUserId(userId, 0, 10));
+    }
+
+    @Test
+    void setDefault() {
+        AddressBookEntity address = fixture.getAddresses().get(4);
+
+        assertQueries(1, () -> addressBookService.setDefaultById(address.getId(), address.getUser().getId()));
+        assertEquals(address.getId(), addressBookService.getDefaultByUserId(address.getUser().getId())
+                .orElseThrow().id());
+        assertTrue(addressBookService.getById(address.getId()).orElseThrow().getIs_default());
+    }
+
+    @Test
+    void defaultAddressIsOneCachedLookup() {
+        AddressBookEntity first = fixture.getAddresses().get(2 * FixtureSeeder.ADDRESSES_PER_CUSTOMER);
+        long userId = first.getUser().getId();
+
+        assertQueries(1, () -> addressBookService.getDefaultByUserId(userId));
+        assertQueries(0, () -> addressBookService.getDefaultByUserId(userId));
+        assertEquals(first.getId(), addressBookService.getDefaultByUserId(userId).orElseThrow().id());
+    }
+
+    @Test
+    void setDefaultRejectsAnotherUsersAddress() {
+        AddressBookEntity address = fixture.getAddresses().get(7);
+        long otherUserId = fixture.getAddresses().get(10).getUser().getId();
+
+        assertFalse(addressBookService.setDefaultById(address.getId(), otherUserId));
+    }
+}
@@ -0,0 +1,65 @@
+package j2ee.j2ee.apps.address_book;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class ProvinceDirectoryTest extends QueryBudgetTest {
+
+    @Autowired
+    private ProvinceDirectory provinceDirectory;
+
+    @Test
+    void lookupsByLevel() {
+        assertTrue(provinceDirectory.isLoaded());
+
+        List<ProvinceDirectory.District> districts = provinceDirectory.districts(1).orElseThrow();
+        assertEquals(List.of(1, 2), districts.stream().map(ProvinceDirectory.District::code).toList());
+        assertTrue(districts.get(0).wards().isEmpty());
+
+        assertEquals(2, provinceDirectory.wards(760).orElseThrow().size());
+        assertTrue(provinceDirectory.districts(999).isEmpty());
+        assertTrue(provinceDirectory.tree(4).isEmpty());
+    }
+
+    @Test
+    void treesAreGzippedWithStableEtags() throws Exception {
+        ProvinceDirectory.Body full = provinceDirectory.tree(3).orElseThrow();
+        ProvinceDirectory.Body shallow = provinceDirectory.tree(1).orElseThrow();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(full.gzip()))) {
+            assertArrayEquals(full.json(), in.readAllBytes());
+        }
+        assertTrue(new String(full.json(), "UTF-8").contains("Phường Đa Kao"));
+        assertTrue(new String(shallow.json(), "UTF-8").contains("\"districts\":[]"));
+        assertNotEquals(full.etag(), shallow.etag());
+        assertNotEquals(full.etag(), full.gzipEtag());
+        assertEquals(full.etag(), provinceDirectory.tree(3).orElseThrow().etag());
+    }
+
+    @Test
+    void bundledDatasetListsEveryProvince() throws Exception {
+        // Test resources shadow the bundled file on the classpath, so read it from the source tree
+        ProvinceDirectory bundled = new ProvinceDirectory("target/no-provinces.json",
+                new FileSystemResource("src/main/resources/geo/provinces.json"), "", 0, false);
+        bundled.load();
+
+        JsonNode provinces = new ObjectMapper().readTree(bundled.tree(1).orElseThrow().json());
+        assertEquals(63, provinces.size());
+        assertEquals(List.of(), bundled.districts(79).orElseThrow());
+    }
+}
@@ -0,0 +1,63 @@
+package j2ee.j2ee.apps.appointment;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+
+import java.time.LocalTime;
+import java.time.temporal.IsoFields;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.support.FixtureSeeder;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class AppointmentServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Test
+    void customerAppointmentsPage() {
+        long customerId = fixture.getCustomer(3).getId();
+
+        // joined row select plus its count
+        assertQueries(2, () -> appointmentService.getAllByCustomerId(customerId, 0, 20));
+    }
+
+    @Test
+    void storeAppointments() {
+        long storeId = fixture.getStore(2).getId();
+
+        assertQueries(1, () -> appointmentService.getByStoreId(storeId));
+    }
+
+    @Test
+    void appointmentStatistics() {
+        assertQueries(2, () -> appointmentService.getAppointmentStatistics("all", null));
+    }
+
+    @Test
+    void busiestDaysAndTimeSlots() {
+        int year = FixtureSeeder.BOOKING_DATE.getYear();
+        int week = FixtureSeeder.BOOKING_DATE.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+
+        assertQueries(15, () -> appointmentService.getBusiestDays(year, week));
+        assertQueries(15, () -> appointmentService.getPopularTimeSlots(year, week));
+    }
+
+    @Test
+    void createAppointment() {
+        StoreEntity store = fixture.getStore(4);
+        AppointmentEntity appointment = new AppointmentEntity();
+        appointment.setAppointment_date(FixtureSeeder.BOOKING_DATE.plusDays(1));
+        appointment.setAppointment_time(LocalTime.of(10, 0));
+        appointment.setStatus("pending");
+        appointment.setStore(store);
+        appointment.setService(fixture.getServices(store).get(1));
+        appointment.setStaff(fixture.getStaff(store).get(2));
+        appointment.setCustomer(fixture.getCustomer(9));
+
+        assertQueries(10, () -> appointmentService.create(appointment));
+    }
+}
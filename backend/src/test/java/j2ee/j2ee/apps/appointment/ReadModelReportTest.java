@@ -0,0 +1,83 @@
+package j2ee.j2ee.apps.appointment;
+
+import static j2ee.j2ee.support.QueryAssertions.countQueries;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import j2ee.j2ee.apps.order.OrderService;
+import j2ee.j2ee.support.QueryBudgetTest;
+import jakarta.persistence.EntityManager;
+
+// Queries and response bytes for the same lists served as entity graphs (the
+// old way: entities serialized while the session can still load associations)
+// and as the joined read models the services return now.
+class ReadModelReportTest extends QueryBudgetTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void readModelsUseFewerQueriesAndBytes() {
+        long storeId = fixture.getStore(2).getId();
+        long userId = fixture.getCustomer(5).getId();
+
+        Measure storeEntities = entityGraph(
+                "SELECT a FROM appointments a WHERE a.store.id = :id ORDER BY a.id", storeId);
+        Measure storeViews = readModel(() -> appointmentService.getByStoreId(storeId));
+        Measure orderEntities = entityGraph(
+                "SELECT o FROM orders o WHERE o.user.id = :id ORDER BY o.created_at DESC, o.id DESC", userId);
+        Measure orderViews = readModel(() -> orderService.getAllByUserId(userId, 0, 1000).getContent());
+
+        assertTrue(storeViews.queries() < storeEntities.queries());
+        assertTrue(storeViews.bytes() < storeEntities.bytes());
+        assertTrue(orderViews.queries() <= orderEntities.queries());
+        assertTrue(orderViews.bytes() < orderEntities.bytes());
+    }
+
+    private Measure entityGraph(String jpql, long id) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        AtomicInteger bytes = new AtomicInteger();
+        int queries = countQueries(() -> tx.executeWithoutResult(status -> {
+            List<?> rows = entityManager.createQuery(jpql).setParameter("id", id).getResultList();
+            bytes.set(serialize(rows).length);
+        }));
+        return new Measure(queries, bytes.get());
+    }
+
+    private Measure readModel(Supplier<List<?>> load) {
+        AtomicInteger bytes = new AtomicInteger();
+        int queries = countQueries(() -> bytes.set(serialize(load.get()).length));
+        return new Measure(queries, bytes.get());
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Measure(int queries, int bytes) {
+    }
+}
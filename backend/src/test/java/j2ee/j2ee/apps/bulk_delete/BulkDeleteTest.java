@@ -0,0 +1,165 @@
+package j2ee.j2ee.apps.bulk_delete;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import j2ee.j2ee.apps.appointment.AppointmentEntity;
+import j2ee.j2ee.apps.appointment.AppointmentService;
+import j2ee.j2ee.apps.order.OrderEntity;
+import j2ee.j2ee.apps.order.OrderService;
+import j2ee.j2ee.apps.product.ProductEntity;
+import j2ee.j2ee.apps.product.ProductRepository;
+import j2ee.j2ee.apps.product.ProductService;
+import j2ee.j2ee.apps.service.ServiceEntity;
+import j2ee.j2ee.apps.service.ServiceRepository;
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.apps.store.StoreRepository;
+import j2ee.j2ee.apps.store.StoreService;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class BulkDeleteTest extends QueryBudgetTest {
+
+    @Autowired
+    private BulkDeleter bulkDeleter;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void hardDeleteSkipsProductsInCartsAndUnknownIds() {
+        StoreEntity store = fixture.getStore(0);
+        long first = newProduct(store).getId();
+        long second = newProduct(store).getId();
+        long inCart = jdbcTemplate.queryForObject("SELECT MIN(product_id) FROM cart_item", Long.class);
+
+        DeleteResult result = productService.deleteMultipleProducts(List.of(first, second, inCart, 999999999L),
+                DeleteMode.HARD);
+
+        assertEquals(4, result.requested());
+        assertEquals(2, result.deleted());
+        assertEquals(2, result.skipped());
+        assertEquals(List.of(first, second), result.deletedIds());
+        assertFalse(productRepository.existsById(first));
+        assertEquals(1, (int) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE id = ?",
+                Integer.class, inCart));
+    }
+
+    @Test
+    void softDeleteHidesStoreAndItsCatalog() {
+        StoreEntity store = new StoreEntity();
+        store.setName("Soft delete");
+        store = storeRepository.save(store);
+        newProduct(store);
+        ServiceEntity service = new ServiceEntity();
+        service.setName("Soft service");
+        service.setPrice(100000.0);
+        service.setStore(store);
+        serviceRepository.save(service);
+        long storeId = store.getId();
+
+        DeleteResult result = storeService.deleteMultipleStores(List.of(storeId), DeleteMode.SOFT);
+
+        assertEquals(1, result.deleted());
+        assertEquals(1, result.dependents().get("products"));
+        assertEquals(1, result.dependents().get("services"));
+        assertFalse(storeRepository.findAllIds().contains(storeId));
+        assertEquals(0, productRepository.countActiveByStoreId(storeId, null));
+        assertEquals(0, serviceRepository.countActiveByStoreId(storeId));
+        assertTrue(storeService.getById(storeId).isEmpty());
+        assertNotNull(jdbcTemplate.queryForObject("SELECT deleted_at FROM stores WHERE id = ?", Object.class,
+                storeId));
+
+        // Already soft-deleted
+        assertEquals(1, storeService.deleteMultipleStores(List.of(storeId), DeleteMode.SOFT).skipped());
+    }
+
+    @Test
+    void softDeletedStoreKeepsOrderAndAppointmentHistory() {
+        StoreEntity store = fixture.getStore(2);
+        long storeId = store.getId();
+        OrderEntity order = fixture.getOrders().stream()
+                .filter(o -> o.getStore().getId() == storeId).findFirst().orElseThrow();
+        AppointmentEntity appointment = fixture.getAppointments().stream()
+                .filter(a -> a.getStore().getId() == storeId).findFirst().orElseThrow();
+        long userId = order.getUser().getId();
+        long customerId = appointment.getCustomer().getId();
+        long orders = orderService.getAllByUserId(userId, 0, 100).getTotalElements();
+        long appointments = appointmentService.getAllByCustomerId(customerId, 0, 100).getTotalElements();
+        int storeAppointments = appointmentService.getByStoreId(storeId).size();
+
+        // Straight through the deleter so the in-memory store indexes are left alone
+        bulkDeleter.delete(DeletePlans.STORES, List.of(storeId), DeleteMode.SOFT);
+        try {
+            assertTrue(storeService.getById(storeId).isEmpty());
+            assertEquals(orders, orderService.getAllByUserId(userId, 0, 100).getTotalElements());
+            assertEquals(appointments, appointmentService.getAllByCustomerId(customerId, 0, 100).getTotalElements());
+            assertEquals(storeAppointments, appointmentService.getByStoreId(storeId).size());
+
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            tx.executeWithoutResult(status -> {
+                assertEquals(store.getName(),
+                        orderService.getByOrderId(order.getId()).orElseThrow().getStore().getName());
+                AppointmentEntity loaded = appointmentService.getById(appointment.getId()).orElseThrow();
+                assertEquals(store.getName(), loaded.getStore().getName());
+                assertNotNull(loaded.getService().getName());
+            });
+        } finally {
+            jdbcTemplate.update("UPDATE products SET deleted_at = NULL WHERE store_id = ?", storeId);
+            jdbcTemplate.update("UPDATE services SET deleted_at = NULL WHERE store_id = ?", storeId);
+            jdbcTemplate.update("UPDATE stores SET deleted_at = NULL WHERE id = ?", storeId);
+        }
+    }
+
+    @Test
+    void storesWithHistoryAreNotHardDeleted() {
+        long storeId = fixture.getStore(0).getId();
+
+        DeleteResult result = storeService.deleteMultipleStores(List.of(storeId), DeleteMode.HARD);
+
+        assertEquals(0, result.deleted());
+        assertEquals(1, result.skipped());
+        assertEquals(0, result.dependents().size());
+    }
+
+    @Test
+    void usersCannotBeSoftDeleted() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkDeleter.delete(DeletePlans.USERS, List.of(1L), DeleteMode.SOFT));
+    }
+
+    private ProductEntity newProduct(StoreEntity store) {
+        ProductEntity product = new ProductEntity();
+        product.setName("Bulk delete");
+        product.setPrice(50000.0);
+        product.setStock_quantity(1);
+        product.setStore(store);
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,99 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import j2ee.j2ee.apps.product.ProductRepository;
+import j2ee.j2ee.apps.user.UserEntity;
+import j2ee.j2ee.apps.user.UserRepository;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class BulkImportTest extends QueryBudgetTest {
+
+    private static final int USERS = 30;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void userImportHashesPasswordsAndReportsBadRows() throws Exception {
+        long roleId = fixture.getCustomer(0).getRole().getId();
+        StringBuilder csv = new StringBuilder("name,email,phone,password,role_id\n");
+        for (int i = 1; i <= USERS; i++) {
+            String email = switch (i) {
+                case 5 -> "bulk1@example.com";
+                case 10 -> fixture.getCustomer(0).getEmail();
+                default -> "bulk" + i + "@example.com";
+            };
+            String role = i == 15 ? "999999" : String.valueOf(roleId);
+            String password = i == 20 ? "" : "secret" + i;
+            csv.append("Bulk ").append(i).append(',').append(email).append(",0812").append(String.format("%06d", i))
+                    .append(',').append(password).append(',').append(role).append('\n');
+        }
+
+        BulkImportJob.Progress progress = await(bulkImportService.start(ImportTargets.USERS,
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8))).orElseThrow());
+
+        assertEquals(BulkImportJob.State.DONE, progress.state(), progress.message());
+        assertEquals(USERS, progress.rowsRead());
+        assertEquals(USERS - 4, progress.inserted());
+        assertEquals(4, progress.failed());
+
+        UserEntity imported = userRepository.findByEmail("bulk2@example.com").orElseThrow();
+        assertTrue(passwordEncoder.matches("secret2", imported.getPassword()));
+
+        assertNotNull(progress.errorReport());
+        List<String> report = Files.readAllLines(bulkImportService.getErrorReport(progress.id()).orElseThrow());
+        assertEquals("row,error", report.get(0));
+        assertEquals(List.of(5L, 10L, 15L, 20L), report.stream().skip(1)
+                .map(line -> Long.valueOf(line.substring(0, line.indexOf(',')))).sorted().toList());
+    }
+
+    @Test
+    void productImportChecksStoresAndCategories() throws Exception {
+        long storeId = fixture.getStore(0).getId();
+        long categoryId = fixture.getProducts(fixture.getStore(0)).get(0).getCategory().getId();
+        String csv = "name,price,stock_quantity,store_id,category_id\n"
+                + "Bulk product 1,120000,5," + storeId + "," + categoryId + "\n"
+                + "Bulk product 2,80000,,999999999,\n"
+                + "Bulk product 3,abc,1," + storeId + ",\n"
+                + "Bulk product 4,50000,0," + storeId + ",\n";
+        long before = productRepository.count();
+
+        BulkImportJob.Progress progress = await(bulkImportService.start(ImportTargets.PRODUCTS,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))).orElseThrow());
+
+        assertEquals(BulkImportJob.State.DONE, progress.state(), progress.message());
+        assertEquals(2, progress.inserted());
+        assertEquals(2, progress.failed());
+        assertEquals(before + 2, productRepository.count());
+    }
+
+    @Test
+    void unknownKindIsRefused() throws Exception {
+        assertTrue(bulkImportService.start("orders", new ByteArrayInputStream(new byte[0])).isEmpty());
+    }
+
+    private static BulkImportJob.Progress await(BulkImportJob job) throws InterruptedException {
+        for (int i = 0; i < 600 && !job.isFinished(); i++) {
+            Thread.sleep(50);
+        }
+        return job.progress();
+    }
+}
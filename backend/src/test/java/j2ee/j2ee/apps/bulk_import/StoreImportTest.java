@@ -0,0 +1,89 @@
+package j2ee.j2ee.apps.bulk_import;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.apps.store.StoreRepository;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class StoreImportTest extends QueryBudgetTest {
+
+    private static final int ROWS = 2500;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Test
+    void csvImportInsertsValidRowsAndReportsTheRest() throws Exception {
+        long ownerId = fixture.getOwner(0).getId();
+        StringBuilder csv = new StringBuilder("name,address,phone,open_time,close_time,status,owner_id,latitude,longitude\n");
+        for (int i = 1; i <= ROWS; i++) {
+            String open = i == 10 ? "nine" : "08:00";
+            String owner = i == 20 ? "999999999" : String.valueOf(ownerId);
+            String latitude = i == 30 ? "91" : "";
+            String longitude = i == 30 ? "106.7" : "";
+            csv.append("Imported ").append(i).append(",Quận 1,0900000").append(i).append(',').append(open)
+                    .append(",20:00,1,").append(owner).append(',').append(latitude).append(',').append(longitude)
+                    .append('\n');
+        }
+        long before = storeRepository.count();
+
+        BulkImportJob.Progress progress = await(bulkImportService.start(ImportTargets.STORES, RecordReader.CSV,
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8))).orElseThrow());
+
+        assertEquals(BulkImportJob.State.DONE, progress.state(), progress.message());
+        assertEquals(ROWS, progress.rowsRead());
+        assertEquals(ROWS - 3, progress.inserted());
+        assertEquals(3, progress.failed());
+        assertEquals(List.of(10L, 20L, 30L), errorRows(progress).stream().sorted().toList());
+        assertEquals(before + ROWS - 3, storeRepository.count());
+
+        // Entity saves draw ids from the same pooled-lo blocks as the import
+        StoreEntity saved = new StoreEntity();
+        saved.setName("After import");
+        assertTrue(storeRepository.save(saved).getId() > 0);
+        assertEquals(before + ROWS - 2, storeRepository.count());
+    }
+
+    @Test
+    void ndjsonImportSkipsMalformedLines() throws Exception {
+        String ndjson = """
+                {"name": "Line one", "address": "Quận 3", "open_time": "09:00", "close_time": "21:00"}
+                {"name": "Line two", "latitude": 10.77
+                {"name": "Line three", "latitude": 10.77, "longitude": 106.69}
+
+                {"name": "Line five", "open_time": "25:00"}
+                """;
+
+        BulkImportJob.Progress progress = await(bulkImportService.start(ImportTargets.STORES, RecordReader.NDJSON,
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))).orElseThrow());
+
+        assertEquals(BulkImportJob.State.DONE, progress.state(), progress.message());
+        assertEquals(4, progress.rowsRead());
+        assertEquals(2, progress.inserted());
+        assertEquals(List.of(2L, 5L), errorRows(progress));
+    }
+
+    private List<Long> errorRows(BulkImportJob.Progress progress) throws Exception {
+        return Files.readAllLines(bulkImportService.getErrorReport(progress.id()).orElseThrow()).stream().skip(1)
+                .map(line -> Long.valueOf(line.substring(0, line.indexOf(',')))).toList();
+    }
+
+    private static BulkImportJob.Progress await(BulkImportJob job) throws InterruptedException {
+        for (int i = 0; i < 600 && !job.isFinished(); i++) {
+            Thread.sleep(50);
+        }
+        return job.progress();
+    }
+}
@@ -0,0 +1,111 @@
+package j2ee.j2ee.apps.cart;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import j2ee.j2ee.apps.product.ProductEntity;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class CartServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private CartStore cartStore;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cartForUser() {
+        long userId = fixture.getCustomer(0).getId();
+
+        assertQueries(8, () -> cartService.getByUserId(userId));
+    }
+
+    @Test
+    void changeQuantity() {
+        long userId = fixture.getCustomer(1).getId();
+        ProductEntity product = fixture.getProducts(fixture.getStore(1)).get(0);
+
+        assertQueries(10, () -> cartService.changeQuantity(userId, product.getId(), 1));
+        // cart already in memory: only the stock check
+        assertQueries(1, () -> cartService.changeQuantity(userId, product.getId(), 1));
+    }
+
+    @Test
+    void changesAreCoalescedIntoOneWrite() {
+        long userId = fixture.getCustomer(2).getId();
+        ProductEntity product = fixture.getProducts(fixture.getStore(2)).get(5);
+        int before = cartStore.quantity(userId, product.getId());
+
+        for (int i = 0; i < 5; i++) {
+            cartService.changeQuantity(userId, product.getId(), 1);
+        }
+        cartService.changeQuantity(userId, product.getId(), -2);
+        cartStore.flush(userId);
+
+        int saved = cartRepository.findWithItemsByUserId(userId).orElseThrow().getItems().stream()
+                .filter(item -> item.getProduct().getId() == product.getId())
+                .mapToInt(CartItem::getQuantity)
+                .sum();
+        assertEquals(before + 3, saved);
+    }
+
+    @Test
+    void patchAppliesAllOperationsWithOneStockQuery() {
+        long userId = fixture.getCustomer(3).getId();
+        List<ProductEntity> products = fixture.getProducts(fixture.getStore(3));
+        cartService.changeQuantity(userId, products.get(0).getId(), 1);
+        List<CartService.CartOperation> operations = List.of(
+                new CartService.CartOperation("set", products.get(1).getId(), 4),
+                new CartService.CartOperation("increment", products.get(2).getId(), 2),
+                new CartService.CartOperation("increment", products.get(2).getId(), 1),
+                new CartService.CartOperation("remove", products.get(0).getId(), null));
+
+        // stock IN query and the products of the returned cart
+        assertQueries(2, () -> cartService.applyOperations(userId, operations));
+        assertEquals(4, cartStore.quantity(userId, products.get(1).getId()));
+        assertEquals(3, cartStore.quantity(userId, products.get(2).getId()));
+        assertEquals(0, cartStore.quantity(userId, products.get(0).getId()));
+    }
+
+    @Test
+    void patchOverStockChangesNothing() {
+        long userId = fixture.getCustomer(4).getId();
+        List<ProductEntity> products = fixture.getProducts(fixture.getStore(4));
+        int before = cartStore.quantity(userId, products.get(3).getId());
+
+        var result = cartService.applyOperations(userId, List.of(
+                new CartService.CartOperation("increment", products.get(3).getId(), 1),
+                new CartService.CartOperation("set", products.get(4).getId(), 1_000_000)));
+
+        assertTrue(result.isEmpty());
+        assertEquals(before, cartStore.quantity(userId, products.get(3).getId()));
+    }
+
+    @Test
+    void cartWrittenElsewhereIsReloadedNotOverwritten() {
+        long userId = fixture.getCustomer(6).getId();
+        ProductEntity product = fixture.getProducts(fixture.getStore(6)).get(0);
+        cartService.changeQuantity(userId, product.getId(), 1);
+        cartStore.flush(userId);
+        int saved = cartStore.quantity(userId, product.getId());
+
+        // another instance writes the cart
+        long cartId = cartRepository.findByUserId(userId).orElseThrow().getId();
+        jdbcTemplate.update("UPDATE carts SET version = version + 1 WHERE id = ?", cartId);
+        cartService.changeQuantity(userId, product.getId(), 1);
+        cartStore.flush(userId);
+
+        assertEquals(saved, cartStore.quantity(userId, product.getId()));
+    }
+}
@@ -0,0 +1,32 @@
+package j2ee.j2ee.apps.category;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class CategoryServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Test
+    void activeCategories() {
+        catalogCache.invalidate(Catalog.CATEGORIES);
+
+        // cold: the load plus at most one catalog version check
+        assertQueries(6, () -> categoryService.getAllActiveCategories());
+        assertQueries(0, () -> categoryService.getAllActiveCategories());
+    }
+
+    @Test
+    void allCategories() {
+        assertQueries(5, () -> categoryService.getAll());
+    }
+}
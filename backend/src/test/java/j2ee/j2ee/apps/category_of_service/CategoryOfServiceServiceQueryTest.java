@@ -0,0 +1,27 @@
+package j2ee.j2ee.apps.category_of_service;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class CategoryOfServiceServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private CategoryOfServiceService categoryOfServiceService;
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Test
+    void allCategories() {
+        catalogCache.invalidate(Catalog.CATEGORIES_OF_SERVICES);
+
+        // cold: the load plus at most one catalog version check
+        assertQueries(2, () -> categoryOfServiceService.getAllCategories());
+        assertQueries(0, () -> categoryOfServiceService.getAllCategories());
+    }
+}
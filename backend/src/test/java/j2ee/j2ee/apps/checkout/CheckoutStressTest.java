@@ -0,0 +1,165 @@
+package j2ee.j2ee.apps.checkout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.apps.bulk_delete.DeleteMode;
+import j2ee.j2ee.apps.cart.CartStore;
+import j2ee.j2ee.apps.inventory.StockRepository;
+import j2ee.j2ee.apps.order.OrderLineRepository;
+import j2ee.j2ee.apps.product.ProductService;
+import j2ee.j2ee.config.Lane;
+import j2ee.j2ee.config.LaneBulkheads;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+// Many buyers checking out at once: every checkout commits whole or not at all,
+// stock adds up, and a retried Idempotency-Key never places a second order
+class CheckoutStressTest extends QueryBudgetTest {
+
+    private static final int THREADS = 8;
+    private static final int BUYERS = 64;
+
+    @Autowired
+    private CheckoutService checkoutService;
+    @Autowired
+    private CartStore cartStore;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+    @Autowired
+    private LaneBulkheads laneBulkheads;
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void concurrentCheckouts() throws Exception {
+        long regular = fixture.newProduct(fixture.getStore(8), 1000, false);
+        long sale = fixture.newProduct(fixture.getStore(8), 1000, true);
+        long other = fixture.newProduct(fixture.getStore(9), 1000, false);
+        List<Long> buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            long userId = fixture.getCustomer(120 + i).getId();
+            cartStore.updateAll(userId, new long[] { regular, sale, other },
+                    new IntUnaryOperator[] { q -> 2, q -> 1, q -> 3 });
+            buyers.add(userId);
+        }
+
+        List<Callable<CheckoutResult>> tasks = new ArrayList<>();
+        for (long userId : buyers) {
+            tasks.add(() -> checkoutService.checkout(userId, "1 Test street", "cash", null));
+        }
+        List<CheckoutResult> results = runAll(tasks);
+
+        Set<Integer> orderIds = new HashSet<>();
+        results.forEach(r -> orderIds.addAll(r.orderIds()));
+        // two stores per cart
+        assertEquals(BUYERS * 2, orderIds.size());
+        assertEquals(1000 - BUYERS * 2, stockRepository.findStock(regular).orElseThrow());
+        assertEquals(1000 - BUYERS * 3, stockRepository.findStock(other).orElseThrow());
+        int firstOrder = results.get(0).orderIds().get(0);
+        assertFalse(orderLineRepository.findAllByOrderId(firstOrder).isEmpty());
+        assertEquals(0, cartStore.quantity(buyers.get(0), regular));
+    }
+
+    @Test
+    void retriedKeyPlacesOneOrder() throws Exception {
+        long userId = fixture.getCustomer(190).getId();
+        long productId = fixture.newProduct(fixture.getStore(8), 10, false);
+        cartStore.update(userId, productId, q -> 2);
+
+        List<Callable<CheckoutResult>> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tasks.add(() -> checkoutService.checkout(userId, "1 Test street", "cash", "retry-1"));
+        }
+        List<CheckoutResult> results = runAll(tasks);
+
+        assertEquals(1, results.stream().filter(r -> !r.replayed()).count());
+        results.forEach(r -> assertEquals(results.get(0).orderIds(), r.orderIds()));
+        assertEquals(8, stockRepository.findStock(productId).orElseThrow());
+
+        CheckoutException reused = assertThrows(CheckoutException.class,
+                () -> checkoutService.checkout(userId, "2 Other street", "cash", "retry-1"));
+        assertEquals(CheckoutException.Reason.KEY_REUSED, reused.getReason());
+    }
+
+    @Test
+    void outOfStockRollsEverythingBack() {
+        long userId = fixture.getCustomer(191).getId();
+        long plenty = fixture.newProduct(fixture.getStore(8), 10, false);
+        long scarce = fixture.newProduct(fixture.getStore(8), 1, false);
+        cartStore.updateAll(userId, new long[] { plenty, scarce },
+                new IntUnaryOperator[] { q -> 3, q -> 2 });
+
+        CheckoutException failed = assertThrows(CheckoutException.class,
+                () -> checkoutService.checkout(userId, "1 Test street", "cash", "oos-1"));
+
+        assertEquals(CheckoutException.Reason.OUT_OF_STOCK, failed.getReason());
+        assertEquals(10, stockRepository.findStock(plenty).orElseThrow());
+        assertEquals(3, cartStore.quantity(userId, plenty));
+        // the key was rolled back with the rest, so the retry runs again
+        assertThrows(CheckoutException.class, () -> checkoutService.checkout(userId, "1 Test street", "cash", "oos-1"));
+        assertEquals(1, stockRepository.findStock(scarce).orElseThrow());
+    }
+
+    @Test
+    void softDeletedProductLeavesTheCart() {
+        long userId = fixture.getCustomer(192).getId();
+        long kept = fixture.newProduct(fixture.getStore(9), 10, false);
+        long deleted = fixture.newProduct(fixture.getStore(9), 10, false);
+        cartStore.updateAll(userId, new long[] { kept, deleted }, new IntUnaryOperator[] { q -> 1, q -> 1 });
+        productService.deleteMultipleProducts(List.of(deleted), DeleteMode.SOFT);
+
+        CheckoutResult result = checkoutService.checkout(userId, "1 Test street", "cash", null);
+
+        assertEquals(1, orderLineRepository.findAllByOrderId(result.orderIds().get(0)).size());
+        assertEquals(9, stockRepository.findStock(kept).orElseThrow());
+        assertEquals(0, cartStore.quantity(userId, deleted));
+    }
+
+    private <T> List<T> runAll(List<Callable<T>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try {
+            for (Callable<T> task : tasks) {
+                // In the BOOKING lane like CheckoutController, so its connection quota applies
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    if (!laneBulkheads.enter(Lane.BOOKING)) {
+                        throw new IllegalStateException("Booking lane is full");
+                    }
+                    try {
+                        return task.call();
+                    } finally {
+                        laneBulkheads.exit(Lane.BOOKING);
+                    }
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
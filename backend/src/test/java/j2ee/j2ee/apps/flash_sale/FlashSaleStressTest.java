@@ -0,0 +1,112 @@
+package j2ee.j2ee.apps.flash_sale;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.apps.cart.CartService;
+import j2ee.j2ee.apps.inventory.FlashSaleStockException;
+import j2ee.j2ee.apps.inventory.HotStockCounters;
+import j2ee.j2ee.apps.inventory.ReservationService;
+import j2ee.j2ee.apps.inventory.StockRepository;
+import j2ee.j2ee.apps.inventory.StockReservationEntity;
+import j2ee.j2ee.apps.inventory.StockReservationRepository;
+import j2ee.j2ee.apps.product.ProductService;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+// Far more buyers than units: tokens never exceed the stock, every admitted
+// buyer can buy, and once sold out the hot paths stop touching the database
+class FlashSaleStressTest extends QueryBudgetTest {
+
+    private static final int STOCK = 50;
+    private static final int BUYERS = 150;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+    @Autowired
+    private ReservationWriter reservationWriter;
+    @Autowired
+    private HotStockCounters hotStockCounters;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private StockReservationRepository reservationRepository;
+    @Autowired
+    private ReservationService reservationService;
+
+    @Test
+    void admissionNeverOversells() {
+        long productId = fixture.newProduct(fixture.getStore(6), STOCK, false);
+        FlashSaleEntity sale = new FlashSaleEntity();
+        sale.setProduct_id(productId);
+        sale.setStarts_at(LocalDateTime.now().minusMinutes(1));
+        sale.setEnds_at(LocalDateTime.now().plusHours(1));
+        sale.setAdmit_per_second(10_000);
+        sale = flashSaleService.create(sale);
+        try {
+            // No way around the queue
+            long outsider = fixture.getCustomer(BUYERS + 1).getId();
+            assertTrue(cartService.applyOperations(outsider,
+                    List.of(new CartService.CartOperation("increment", productId, 1))).isEmpty());
+            assertThrows(FlashSaleStockException.class, () -> reservationService.reserve(productId, outsider, 1));
+
+            List<Long> buyers = new ArrayList<>();
+            List<String> tickets = new ArrayList<>();
+            for (int i = 0; i < BUYERS; i++) {
+                long userId = fixture.getCustomer(i).getId();
+                buyers.add(userId);
+                tickets.add(flashSaleService.join(productId, userId).orElseThrow().ticket());
+            }
+
+            AtomicInteger sold = new AtomicInteger();
+            for (int round = 0; round < 50 && !flashSaleService.isSoldOut(productId); round++) {
+                flashSaleService.admit();
+                for (int i = 0; i < BUYERS; i++) {
+                    AdmissionQueue.Status status = flashSaleService.status(productId, tickets.get(i)).orElseThrow();
+                    if (status.state() == AdmissionQueue.State.ADMITTED
+                            && flashSaleService.purchase(productId, buyers.get(i), tickets.get(i)) == FlashSaleService.Purchase.OK) {
+                        sold.incrementAndGet();
+                    }
+                }
+            }
+            flashSaleService.admit();
+
+            assertEquals(STOCK, sold.get());
+            assertTrue(flashSaleService.isSoldOut(productId));
+            AdmissionQueue.Status last = flashSaleService.status(productId, tickets.get(BUYERS - 1)).orElseThrow();
+            assertEquals(AdmissionQueue.State.SOLD_OUT, last.state());
+
+            // Sold-out fast path
+            long userId = fixture.getCustomer(BUYERS).getId();
+            assertQueries(0, () -> productService.getById(productId));
+            assertQueries(0, () -> cartService.changeQuantity(userId, productId, 1));
+
+            reservationWriter.drain();
+            hotStockCounters.flushAll();
+            assertEquals(0, reservationWriter.pendingCount());
+            assertEquals(0, stockRepository.findStock(productId).orElseThrow());
+
+            // Purchases are final: the expiry sweep gives nothing back
+            assertTrue(reservationRepository.findAll().stream()
+                    .filter(r -> r.getProduct_id() == productId)
+                    .allMatch(r -> StockReservationEntity.CONFIRMED.equals(r.getStatus())));
+            reservationService.expire();
+            assertEquals(0, stockRepository.findStock(productId).orElseThrow());
+        } finally {
+            flashSaleService.delete(sale.getId());
+        }
+    }
+}
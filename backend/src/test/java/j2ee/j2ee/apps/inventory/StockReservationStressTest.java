@@ -0,0 +1,108 @@
+package j2ee.j2ee.apps.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.apps.product.ProductRepository;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+// Thousands of buyers racing for the same product must never take more than its stock
+class StockReservationStressTest extends QueryBudgetTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private HotStockCounters hotStockCounters;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private StockReservationRepository reservationRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void regularProductDoesNotOversell() throws Exception {
+        long productId = fixture.newProduct(fixture.getStore(7), 100, false);
+
+        int sold = race(productId, 2000, () -> 1);
+
+        assertEquals(100, sold);
+        assertEquals(0, stockRepository.findStock(productId).orElseThrow());
+        assertFalse(productRepository.findById(productId).orElseThrow().getIs_in_stock());
+    }
+
+    @Test
+    void hotSaleProductDoesNotOversell() throws Exception {
+        long productId = fixture.newProduct(fixture.getStore(7), 150, true);
+
+        int sold = race(productId, 3000, () -> ThreadLocalRandom.current().nextInt(1, 4));
+        hotStockCounters.flushAll();
+
+        int left = stockRepository.findStock(productId).orElseThrow();
+        assertTrue(sold <= 150, () -> "sold " + sold);
+        assertTrue(left >= 0 && left < 3, () -> "left " + left);
+        assertEquals(150, sold + left);
+    }
+
+    @Test
+    void expiredReservationsGiveStockBack() {
+        long productId = fixture.newProduct(fixture.getStore(7), 5, false);
+        StockReservationEntity reservation = reservationService.reserve(productId, null, 3).orElseThrow();
+        assertEquals(2, stockService.available(productId));
+
+        reservation.setExpires_at(LocalDateTime.now().minusMinutes(1));
+        reservationRepository.save(reservation);
+        reservationService.expire();
+
+        assertEquals(5, stockService.available(productId));
+        assertEquals(StockReservationEntity.EXPIRED, reservationRepository.findById(reservation.getId()).orElseThrow().getStatus());
+        // Already expired: a late release must not give the stock back twice
+        assertFalse(reservationService.release(reservation.getId()));
+        assertEquals(5, stockService.available(productId));
+    }
+
+    // Fires requests from THREADS threads at once and returns the units reserved
+    private int race(long productId, int requests, IntSupplier quantity) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < requests; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    int wanted = quantity.getAsInt();
+                    reservationService.reserve(productId, null, wanted).ifPresent(r -> sold.addAndGet(wanted));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return sold.get();
+    }
+}
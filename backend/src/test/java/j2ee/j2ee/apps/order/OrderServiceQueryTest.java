@@ -0,0 +1,76 @@
+package j2ee.j2ee.apps.order;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import j2ee.j2ee.support.QueryBudgetTest;
+import j2ee.j2ee.utils.KeysetPage;
+
+class OrderServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void ordersPage() {
+        long userId = fixture.getCustomer(5).getId();
+
+        assertQueries(2, () -> orderService.getAllByUserId(userId, 0, 10));
+    }
+
+    // The page is ordered by the query itself; a Sort on the snake_case property would not resolve
+    @Test
+    void ordersPageIsNewestFirst() {
+        long userId = fixture.getCustomer(5).getId();
+
+        List<OrderView> orders = orderService.getAllByUserId(userId, 0, 10).getContent();
+        assertFalse(orders.isEmpty());
+        for (int i = 1; i < orders.size(); i++) {
+            assertTrue(!orders.get(i).created_at().isAfter(orders.get(i - 1).created_at()));
+        }
+    }
+
+    @Test
+    void orderStatistics() {
+        assertQueries(1, () -> orderService.getOrderStatistics("all", null));
+    }
+
+    // Rows without created_at come last and are paged by id; the walk ends on an empty page
+    @Test
+    void cursorWalkReachesUndatedOrders() {
+        long userId = fixture.getCustomer(5).getId();
+        List<Integer> ids = orderService.getAllByUserId(userId, 0, 1000).getContent().stream()
+                .map(OrderView::id).toList();
+        Integer undated = ids.get(0);
+        Timestamp createdAt = jdbcTemplate.queryForObject("SELECT created_at FROM orders WHERE id = ?",
+                Timestamp.class, undated);
+        jdbcTemplate.update("UPDATE orders SET created_at = NULL WHERE id = ?", undated);
+        try {
+            List<Integer> seen = new ArrayList<>();
+            String cursor = null;
+            KeysetPage<OrderView> page;
+            do {
+                page = orderService.getAllByUserIdAfter(userId, cursor, 1);
+                page.getContent().forEach(order -> seen.add(order.id()));
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            assertEquals(ids.size(), seen.size());
+            assertEquals(undated, seen.get(seen.size() - 1));
+        } finally {
+            jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?", createdAt, undated);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package j2ee.j2ee.apps.payment;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class PaymentServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Test
+    void allPaymentsDoNotLoadAppointmentsOneByOne() {
+        assertQueries(1, () -> assertFalse(paymentService.getAllPayments().isEmpty()));
+    }
+
+    @Test
+    void singlePayment() {
+        long id = paymentService.getAllPayments().get(0).getId();
+
+        assertQueries(1, () -> paymentService.getPaymentById(id));
+    }
+}
@@ -0,0 +1,111 @@
+package j2ee.j2ee.apps.product;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import j2ee.j2ee.apps.inventory.HotStockCounters;
+import j2ee.j2ee.apps.inventory.StockService;
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class ProductServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private HotStockCounters hotStockCounters;
+    @Autowired
+    private ProductStockTag productStockTag;
+
+    @Test
+    void storeProductsPage() {
+        long storeId = fixture.getStore(0).getId();
+
+        assertQueries(6, () -> productService.getAllByStoreId(storeId, 0, 20, null, null));
+        assertQueries(6, () -> productService.getAllByStoreId(storeId, 0, 20, "serum", null));
+    }
+
+    @Test
+    void ownerProducts() {
+        long ownerId = fixture.getOwner(0).getId();
+
+        assertQueries(6, () -> productService.getAllByLoggedInUser(ownerId));
+    }
+
+    @Test
+    void singleProduct() {
+        StoreEntity store = fixture.getStore(3);
+        long productId = fixture.getProducts(store).get(0).getId();
+
+        assertQueries(3, () -> productService.getById(productId));
+    }
+
+    @Test
+    void nameSearchShowsCurrentStock() {
+        StoreEntity store = fixture.getStore(5);
+        long productId = fixture.newProduct(store, 10, false);
+        String name = productRepository.findById(productId).orElseThrow().getName();
+        stockService.take(productId, 4);
+
+        ProductEntity found = productService.getAllByStoreId(store.getId(), 0, 20, name, null).getContent().get(0);
+        assertEquals(productId, found.getId());
+        assertEquals(6, found.getStock_quantity());
+    }
+
+    @Test
+    void stockChangeMovesTheEtag() {
+        long productId = fixture.newProduct(fixture.getStore(5), 10, false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/details");
+        request.setParameter("product_id", String.valueOf(productId));
+
+        assertQueries(1, () -> productStockTag.tag(request));
+        String before = productStockTag.tag(request).orElseThrow();
+        stockService.take(productId, 1);
+        assertNotEquals(before, productStockTag.tag(request).orElseThrow());
+    }
+
+    @Test
+    void staleEditCannotOverwriteStock() {
+        long productId = fixture.newProduct(fixture.getStore(5), 10, false);
+        ProductEntity form = productRepository.findById(productId).orElseThrow();
+        stockService.take(productId, 3);
+
+        form.setStock_quantity(10);
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> productService.updateProduct(productId, form));
+        assertEquals(7, productRepository.findById(productId).orElseThrow().getStock_quantity());
+
+        ProductEntity fresh = productRepository.findById(productId).orElseThrow();
+        fresh.setStock_quantity(0);
+        productService.updateProduct(productId, fresh);
+        assertFalse(productRepository.findById(productId).orElseThrow().getIs_in_stock());
+    }
+
+    @Test
+    void absoluteEditReplacesLeasedUnits() {
+        long productId = fixture.newProduct(fixture.getStore(5), 50, true);
+        // Leases a block to the hot counters
+        stockService.take(productId, 1);
+        assertEquals(49, stockService.available(productId));
+
+        ProductEntity form = productRepository.findById(productId).orElseThrow();
+        form.setStock_quantity(5);
+        productService.updateProduct(productId, form);
+        hotStockCounters.flushAll();
+
+        assertEquals(5, stockService.available(productId));
+        assertEquals(5, productRepository.findById(productId).orElseThrow().getStock_quantity());
+    }
+}
@@ -0,0 +1,52 @@
+package j2ee.j2ee.apps.product_image;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.apps.product.ProductEntity;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class ProductImageServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private ProductImageService productImageService;
+    @Autowired
+    private ProductImageCache productImageCache;
+
+    @Test
+    void imagesForProduct() {
+        long productId = fixture.getProducts(fixture.getStore(0)).get(0).getId();
+
+        assertQueries(6, () -> productImageService.getAllByProductId(productId));
+    }
+
+    @Test
+    void imagesForProductGrid() {
+        List<Long> productIds = fixture.getProducts(fixture.getStore(0)).stream()
+                .limit(24).map(ProductEntity::getId).toList();
+        productIds.forEach(productImageCache::evict);
+
+        assertQueries(1, () -> productImageService.getUrlsByProductIds(productIds));
+        // served from the LRU the second time
+        assertQueries(0, () -> productImageService.getUrlsByProductIds(productIds));
+    }
+
+    @Test
+    void loadOverlappingAnEvictIsNotCached() {
+        long productId = fixture.getProducts(fixture.getStore(1)).get(0).getId();
+        productImageCache.evict(productId);
+
+        long generation = productImageCache.generation();
+        // an image is added and evicted after commit while the stale list is in flight
+        productImageCache.evict(productId);
+        productImageCache.putAll(Map.of(productId, List.of("stale.png")), generation);
+
+        assertTrue(productImageCache.getAll(List.of(productId)).isEmpty());
+    }
+}
@@ -0,0 +1,21 @@
+package j2ee.j2ee.apps.review;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class ReviewServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Test
+    void reviewsForAppointment() {
+        long appointmentId = fixture.getAppointments().get(1).getId();
+
+        assertQueries(10, () -> reviewService.getAllByAppointmentId(appointmentId));
+    }
+}
@@ -0,0 +1,27 @@
+package j2ee.j2ee.apps.role;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.cache.Catalog;
+import j2ee.j2ee.cache.CatalogCache;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class RoleServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private RoleService roleService;
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Test
+    void allRoles() {
+        catalogCache.invalidate(Catalog.ROLES);
+
+        // cold: the load plus at most one catalog version check
+        assertQueries(2, () -> roleService.getAllRoles());
+        assertQueries(0, () -> roleService.getAllRoles());
+    }
+}
@@ -0,0 +1,70 @@
+package j2ee.j2ee.apps.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+
+import j2ee.j2ee.apps.product.ProductEntity;
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class SearchIndexServiceTest extends QueryBudgetTest {
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+    @Autowired
+    private SearchController searchController;
+
+    // A full rebuild over the seeded fixture, then a reopen so searches see it
+    @BeforeEach
+    void rebuild() throws InterruptedException {
+        while (!searchIndexService.rebuildAsync()) {
+            Thread.sleep(50);
+        }
+        while (searchIndexService.isRebuilding()) {
+            Thread.sleep(50);
+        }
+        searchIndexService.refresh();
+    }
+
+    @Test
+    void hitsAndStoreFacetsCarryStoreNames() throws Exception {
+        StoreEntity store = fixture.getStore(3);
+        SearchRequest request = new SearchRequest();
+        request.setType(SearchIndexService.TYPE_PRODUCT);
+        request.setStoreId(store.getId());
+
+        SearchResult result = searchIndexService.search(request);
+
+        assertFalse(result.getHits().isEmpty());
+        assertTrue(result.getHits().stream().allMatch(hit -> store.getName().equals(hit.get("store_name"))));
+        Map<String, Object> facet = result.getFacets().get(SearchIndexService.FACET_STORE).get(0);
+        assertEquals(String.valueOf(store.getId()), facet.get("value"));
+        assertEquals(store.getName(), facet.get("name"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchEndpointFindsFoldedText() {
+        StoreEntity store = fixture.getStore(4);
+        ProductEntity product = fixture.getProducts(store).get(0);
+
+        // "Sản phẩm" without diacritics
+        ResponseEntity<Object> response = searchController.search("san pham", SearchIndexService.TYPE_PRODUCT, null,
+                store.getId(), null, null, 0, 100);
+
+        assertEquals(200, response.getStatusCode().value());
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        List<Map<String, Object>> results = (List<Map<String, Object>>) body.get("results");
+        assertTrue(results.stream().anyMatch(hit -> product.getId() == (Long) hit.get("id")
+                && store.getName().equals(hit.get("store_name"))));
+    }
+}
@@ -0,0 +1,89 @@
+package j2ee.j2ee.apps.service;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.support.QueryBudgetTest;
+import j2ee.j2ee.utils.KeysetPage;
+
+class ServiceServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private ServiceService serviceService;
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Test
+    void storeServicesPage() {
+        long storeId = fixture.getStore(0).getId();
+
+        assertQueries(8, () -> serviceService.getByStoreId(storeId, 0, 10));
+    }
+
+    @Test
+    void storeServicesCursorPage() {
+        long storeId = fixture.getStore(0).getId();
+
+        // one seek query plus batched to-one loads, and no count
+        assertQueries(3, () -> serviceService.getByStoreIdAfter(storeId, null, 3));
+    }
+
+    @Test
+    void storeServicesCursorWalk() {
+        long storeId = fixture.getStore(0).getId();
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPage<ServiceEntity> page = serviceService.getByStoreIdAfter(storeId, cursor, 3);
+            page.getContent().forEach(s -> seen.add(s.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<Long> expected = serviceService.getByStoreId(storeId, 0, 100).getContent().stream()
+                .map(ServiceEntity::getId).toList();
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void ownerServices() {
+        long ownerId = fixture.getOwner(1).getId();
+
+        assertQueries(8, () -> serviceService.getAllServicesByUserId(ownerId));
+    }
+
+    @Test
+    void cursorWalkPastUnnamedServices() {
+        List<ServiceEntity> unnamed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ServiceEntity service = new ServiceEntity();
+            service.setStore(fixture.getStore(7));
+            service.setPrice(1.0);
+            unnamed.add(serviceRepository.save(service));
+        }
+        try {
+            long storeId = fixture.getStore(7).getId();
+            List<Long> seen = new ArrayList<>();
+            String cursor = null;
+            do {
+                KeysetPage<ServiceEntity> page = serviceService.getByStoreIdAfter(storeId, cursor, 2);
+                page.getContent().forEach(s -> seen.add(s.getId()));
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            List<ServiceEntity> all = serviceService.getByStoreId(storeId, 0, 100).getContent();
+            assertEquals(all.size(), seen.size());
+            assertEquals(new HashSet<>(all.stream().map(ServiceEntity::getId).toList()), new HashSet<>(seen));
+            // NULL sorts first
+            assertEquals(unnamed.stream().map(ServiceEntity::getId).toList(), seen.subList(0, 3));
+        } finally {
+            serviceRepository.deleteAll(unnamed);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package j2ee.j2ee.apps.staff_availability;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.apps.service.ServiceEntity;
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.support.FixtureSeeder;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class AvailabilityServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Test
+    void timeSlotsLoadBookingsOnceForAllStaff() {
+        StoreEntity store = fixture.getStore(0);
+        ServiceEntity service = fixture.getServices(store).get(0);
+
+        assertQueries(6, () -> {
+            List<TimeSlotDTO> slots = availabilityService.getAvailableTimeSlotsForDate(service.getId(), store.getId(),
+                    FixtureSeeder.BOOKING_DATE);
+            assertFalse(slots.isEmpty());
+        });
+    }
+
+    @Test
+    void staffForSlotLoadsBookingsOnce() {
+        StoreEntity store = fixture.getStore(1);
+        ServiceEntity service = fixture.getServices(store).get(0);
+
+        assertQueries(6, () -> availabilityService.getAvailableStaffForTimeSlot(service.getId(), store.getId(),
+                FixtureSeeder.BOOKING_DATE, LocalTime.of(19, 0), LocalTime.of(19, 30)));
+    }
+}
@@ -0,0 +1,26 @@
+package j2ee.j2ee.apps.statistics;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class StatisticsServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Test
+    void storeStats() {
+        assertQueries(8, () -> statisticsService.getStoreAppointmentStats("all", null));
+        assertQueries(8, () -> statisticsService.getStoreRevenueStats("all", null));
+    }
+
+    @Test
+    void userStats() {
+        assertQueries(16, () -> statisticsService.getCustomerAppointmentStats("all", null));
+        assertQueries(8, () -> statisticsService.getStaffAppointmentStats("all", null));
+    }
+}
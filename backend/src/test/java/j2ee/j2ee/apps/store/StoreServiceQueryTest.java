@@ -0,0 +1,100 @@
+package j2ee.j2ee.apps.store;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.support.FixtureSeeder;
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class StoreServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private StoreService storeService;
+
+    @Test
+    void storesPage() {
+        assertQueries(4, () -> storeService.getAllStorePage(0, 10));
+    }
+
+    @Test
+    void storesByCategoryOfService() {
+        long categoryId = fixture.getCategoriesOfServices().get(0).getId();
+
+        assertQueries(4, () -> storeService.filterByCategoryOfServiceId(categoryId));
+    }
+
+    @Test
+    void nearbyStores() {
+        // Fixture stores are all in Quận 5, TP. Hồ Chí Minh
+        StoreEntity store = storeService.getById(fixture.getStore(0).getId()).orElseThrow();
+        long categoryId = fixture.getCategoriesOfServices().get(0).getId();
+
+        List<NearbyStoreDTO> nearby = storeService.findNearby(store.getLatitude(), store.getLongitude(), 2, null, 5);
+        assertEquals(5, nearby.size());
+        assertTrue(nearby.stream().allMatch(s -> s.distance_km() <= 2));
+
+        // category store ids, then the stores themselves with their owners
+        assertQueries(3, () -> storeService.findNearby(store.getLatitude(), store.getLongitude(), 2, categoryId, 5));
+        assertTrue(storeService.findNearby(store.getLatitude() + 1, store.getLongitude(), 2, null, 5).isEmpty());
+    }
+
+    @Test
+    void openStores() {
+        // Fixture stores open 08:00-20:00
+        long storeId = fixture.getStore(0).getId();
+        LocalDateTime morning = FixtureSeeder.BOOKING_DATE.atTime(10, 0);
+        LocalDateTime night = FixtureSeeder.BOOKING_DATE.atTime(21, 0);
+
+        assertTrue(storeService.getOpenAt(morning).stream().anyMatch(s -> s.getId() == storeId));
+        assertTrue(storeService.getOpenAt(night).stream().noneMatch(s -> s.getId() == storeId));
+        assertQueries(2, () -> storeService.getOpenAt(morning));
+    }
+
+    @Test
+    void scheduleIndexUpdates() {
+        StoreScheduleIndex index = new StoreScheduleIndex("", "");
+        LocalDate day = FixtureSeeder.BOOKING_DATE;
+        index.put(1, LocalTime.of(8, 0), LocalTime.of(20, 0));
+        index.put(2, LocalTime.of(22, 0), LocalTime.of(2, 0));
+        index.put(3, LocalTime.of(9, 0), LocalTime.of(9, 0));
+
+        assertEquals(List.of(1L, 3L), index.openAt(day.atTime(10, 0)));
+        assertEquals(List.of(2L, 3L), index.openAt(day.atTime(1, 30)));
+        assertEquals(List.of(2L, 3L), index.openAt(day.atTime(23, 0)));
+
+        // Moved hours leave no trace of the old ones
+        index.put(1, LocalTime.of(12, 0), LocalTime.of(23, 30));
+        assertEquals(List.of(3L), index.openAt(day.atTime(10, 0)));
+        assertEquals(List.of(1L, 2L, 3L), index.openAt(day.atTime(23, 0)));
+
+        index.remove(2);
+        index.put(3, null, null);
+        assertEquals(List.of(), index.openAt(day.atTime(1, 30)));
+        assertEquals(List.of(1L), index.openAt(day.atTime(23, 0)));
+
+        StoreEntity late = new StoreEntity();
+        late.setId(4L);
+        late.setOpen_time(LocalTime.of(18, 0));
+        late.setClose_time(LocalTime.of(1, 0));
+        StoreEntity closed = new StoreEntity();
+        closed.setId(1L);
+        index.putAll(List.of(late, closed));
+        assertEquals(List.of(4L), index.openAt(day.atTime(23, 0)));
+    }
+
+    @Test
+    void storeByOwner() {
+        long ownerId = fixture.getOwner(2).getId();
+
+        assertQueries(3, () -> storeService.getStoreByUserId(ownerId));
+    }
+}
@@ -0,0 +1,26 @@
+package j2ee.j2ee.apps.user;
+
+import static j2ee.j2ee.support.QueryAssertions.assertQueries;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import j2ee.j2ee.support.QueryBudgetTest;
+
+class UserServiceQueryTest extends QueryBudgetTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void allUsers() {
+        assertQueries(3, () -> userService.getAll());
+    }
+
+    @Test
+    void usersByRole() {
+        long roleId = fixture.getStaffRole().getId();
+
+        assertQueries(3, () -> userService.getUsersByRoleId(roleId));
+    }
+}
@@ -0,0 +1,429 @@
+package j2ee.j2ee.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+
+import j2ee.j2ee.apps.address_book.AddressBookEntity;
+import j2ee.j2ee.apps.address_book.AddressBookRepository;
+import j2ee.j2ee.apps.appointment.AppointmentEntity;
+import j2ee.j2ee.apps.appointment.AppointmentRepository;
+import j2ee.j2ee.apps.cart.CartService;
+import j2ee.j2ee.apps.cart.CartStore;
+import j2ee.j2ee.apps.category.CategoryEntity;
+import j2ee.j2ee.apps.category.CategoryRepository;
+import j2ee.j2ee.apps.category_of_service.CategoryOfServiceEntity;
+import j2ee.j2ee.apps.category_of_service.CategoryOfServiceRepository;
+import j2ee.j2ee.apps.order.OrderEntity;
+import j2ee.j2ee.apps.order.OrderRepository;
+import j2ee.j2ee.apps.payment.PaymentEntity;
+import j2ee.j2ee.apps.payment.PaymentRepository;
+import j2ee.j2ee.apps.product.ProductEntity;
+import j2ee.j2ee.apps.product.ProductRepository;
+import j2ee.j2ee.apps.product_image.ProductImageEntity;
+import j2ee.j2ee.apps.product_image.ProductImageRepository;
+import j2ee.j2ee.apps.review.ReviewEntity;
+import j2ee.j2ee.apps.review.ReviewRepository;
+import j2ee.j2ee.apps.role.RoleEntity;
+import j2ee.j2ee.apps.role.RoleRepository;
+import j2ee.j2ee.apps.service.ServiceEntity;
+import j2ee.j2ee.apps.service.ServiceRepository;
+import j2ee.j2ee.apps.store.StoreEntity;
+import j2ee.j2ee.apps.store.StoreRepository;
+import j2ee.j2ee.apps.stores_staff.StoreStaffEntity;
+import j2ee.j2ee.apps.stores_staff.StoreStaffRepository;
+import j2ee.j2ee.apps.user.UserEntity;
+import j2ee.j2ee.apps.user.UserRepository;
+
+// Seeds the embedded database once per Spring context with enough rows that a
+// per-row query shows up as hundreds of statements instead of a handful.
+@TestComponent
+public class FixtureSeeder {
+
+    public static final int STORES = 10;
+    public static final int STAFF_PER_STORE = 5;
+    public static final int SERVICES_PER_STORE = 8;
+    public static final int CATEGORIES_PER_STORE = 4;
+    public static final int PRODUCTS_PER_STORE = 40;
+    public static final int IMAGES_PER_PRODUCT = 2;
+    public static final int CUSTOMERS = 200;
+    public static final int APPOINTMENTS_PER_STORE = 200;
+    public static final int ORDERS = 400;
+    public static final int CUSTOMERS_WITH_ADDRESSES = 100;
+    public static final int ADDRESSES_PER_CUSTOMER = 3;
+    public static final int CUSTOMERS_WITH_CARTS = 30;
+    public static final int ITEMS_PER_CART = 4;
+
+    // Day on which a fifth of every store's appointments are booked
+    public static final LocalDate BOOKING_DATE = LocalDate.now().withDayOfMonth(1).plusMonths(1);
+
+    private static final String[] SERVICE_NAMES = { "Cắt tóc nam", "Cắt tóc nữ", "Gội đầu dưỡng sinh", "Nhuộm tóc",
+            "Uốn tóc", "Chăm sóc da mặt", "Làm móng tay", "Massage body" };
+    private static final int[] SERVICE_DURATIONS = { 30, 45, 30, 90, 120, 60, 45, 60 };
+    private static final String[] PRODUCT_NAMES = { "Sữa rửa mặt", "Dầu gội thảo dược", "Dầu xả phục hồi",
+            "Kem dưỡng ẩm", "Serum vitamin C", "Mặt nạ ngủ", "Nước tẩy trang", "Sơn móng tay" };
+
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private StoreStaffRepository storeStaffRepository;
+    @Autowired
+    private CategoryOfServiceRepository categoryOfServiceRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductImageRepository productImageRepository;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private ReviewRepository reviewRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private AddressBookRepository addressBookRepository;
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private CartStore cartStore;
+
+    private boolean seeded;
+    private int phoneSequence;
+
+    private final List<StoreEntity> stores = new ArrayList<>();
+    private final List<UserEntity> customers = new ArrayList<>();
+    private final List<UserEntity> owners = new ArrayList<>();
+    private final Map<Long, List<UserEntity>> staffByStore = new HashMap<>();
+    private final Map<Long, List<ServiceEntity>> servicesByStore = new HashMap<>();
+    private final Map<Long, List<ProductEntity>> productsByStore = new HashMap<>();
+    private final List<CategoryOfServiceEntity> categoriesOfServices = new ArrayList<>();
+    private final List<AppointmentEntity> appointments = new ArrayList<>();
+    private final List<OrderEntity> orders = new ArrayList<>();
+    private final List<AddressBookEntity> addresses = new ArrayList<>();
+    private RoleEntity staffRole;
+
+    public synchronized void seed() {
+        if (seeded) {
+            return;
+        }
+
+        List<RoleEntity> roles = roleRepository.saveAll(List.of(
+                RoleEntity.builder().name("admin").build(),
+                RoleEntity.builder().name("customer").build(),
+                RoleEntity.builder().name("owner").build(),
+                RoleEntity.builder().name("staff").build()));
+        RoleEntity customerRole = roles.get(1);
+        RoleEntity ownerRole = roles.get(2);
+        staffRole = roles.get(3);
+
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(user("Khách hàng " + i, "customer" + i, customerRole));
+        }
+        userRepository.saveAll(customers);
+
+        for (String name : new String[] { "Tóc", "Da", "Móng", "Spa" }) {
+            CategoryOfServiceEntity category = new CategoryOfServiceEntity();
+            category.setName(name);
+            category.setStatus("1");
+            categoriesOfServices.add(category);
+        }
+        categoryOfServiceRepository.saveAll(categoriesOfServices);
+
+        for (int s = 0; s < STORES; s++) {
+            seedStore(s, ownerRole);
+        }
+
+        seedAppointments();
+        seedOrders();
+        seedAddresses();
+        seedCarts();
+
+        seeded = true;
+    }
+
+    private void seedStore(int index, RoleEntity ownerRole) {
+        UserEntity owner = userRepository.save(user("Chủ cửa hàng " + index, "owner" + index, ownerRole));
+        owners.add(owner);
+
+        StoreEntity store = new StoreEntity();
+        store.setName("Beauty Salon " + index);
+        store.setDescription("Salon số " + index);
+        store.setAddress(index + " Nguyễn Trãi, Quận 5, TP. Hồ Chí Minh");
+        store.setPhone("0280000" + String.format("%03d", index));
+        store.setOpen_time(LocalTime.of(8, 0));
+        store.setClose_time(LocalTime.of(20, 0));
+        store.setStatus("1");
+        store.setCreated_at(LocalDateTime.now());
+        store.setOwner(owner);
+        store = storeRepository.save(store);
+        stores.add(store);
+
+        List<ServiceEntity> services = new ArrayList<>();
+        for (int i = 0; i < SERVICES_PER_STORE; i++) {
+            ServiceEntity service = new ServiceEntity();
+            service.setName(SERVICE_NAMES[i % SERVICE_NAMES.length]);
+            service.setDescription(SERVICE_NAMES[i % SERVICE_NAMES.length] + " tại " + store.getName());
+            service.setPrice(100000.0 + i * 50000);
+            service.setDuration(SERVICE_DURATIONS[i % SERVICE_DURATIONS.length]);
+            service.setStatus("1");
+            service.setStore(store);
+            service.setCategory_of_service(categoriesOfServices.get(i % categoriesOfServices.size()));
+            services.add(service);
+        }
+        servicesByStore.put(store.getId(), serviceRepository.saveAll(services));
+
+        List<UserEntity> staff = new ArrayList<>();
+        for (int i = 0; i < STAFF_PER_STORE; i++) {
+            staff.add(user("Nhân viên " + index + "-" + i, "staff" + index + "-" + i, staffRole));
+        }
+        staff = userRepository.saveAll(staff);
+        staffByStore.put(store.getId(), staff);
+
+        List<StoreStaffEntity> assignments = new ArrayList<>();
+        for (UserEntity member : staff) {
+            StoreStaffEntity assignment = new StoreStaffEntity();
+            assignment.setStore_id(store.getId());
+            assignment.setStaff_id(member.getId());
+            assignment.setService_id(services.get(0).getId());
+            assignment.setStatus("1");
+            assignments.add(assignment);
+        }
+        storeStaffRepository.saveAll(assignments);
+
+        List<CategoryEntity> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES_PER_STORE; i++) {
+            CategoryEntity category = new CategoryEntity();
+            category.setName("Danh mục " + i);
+            category.setStore(store);
+            categories.add(category);
+        }
+        categories = categoryRepository.saveAll(categories);
+
+        List<ProductEntity> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS_PER_STORE; i++) {
+            ProductEntity product = new ProductEntity();
+            product.setName(PRODUCT_NAMES[i % PRODUCT_NAMES.length] + " " + i);
+            product.setDescription("Sản phẩm chăm sóc sắc đẹp");
+            product.setPrice(50000.0 + i * 1000);
+            product.setOld_price(60000.0 + i * 1000);
+            product.setWeight(0.25);
+            product.setStock_quantity(100);
+            product.setIs_in_stock(true);
+            product.setStatus("1");
+            product.setStore(store);
+            product.setCategory(categories.get(i % categories.size()));
+            products.add(product);
+        }
+        products = productRepository.saveAll(products);
+        productsByStore.put(store.getId(), products);
+
+        List<ProductImageEntity> images = new ArrayList<>();
+        for (ProductEntity product : products) {
+            for (int i = 0; i < IMAGES_PER_PRODUCT; i++) {
+                ProductImageEntity image = new ProductImageEntity();
+                image.setUrl("/images/products/" + product.getId() + "-" + i + ".jpg");
+                image.setProduct(product);
+                images.add(image);
+            }
+        }
+        productImageRepository.saveAll(images);
+    }
+
+    private void seedAppointments() {
+        List<PaymentEntity> payments = new ArrayList<>();
+        List<ReviewEntity> reviews = new ArrayList<>();
+
+        for (int s = 0; s < stores.size(); s++) {
+            StoreEntity store = stores.get(s);
+            List<UserEntity> staff = staffByStore.get(store.getId());
+            List<ServiceEntity> services = servicesByStore.get(store.getId());
+
+            List<AppointmentEntity> storeAppointments = new ArrayList<>();
+            for (int i = 0; i < APPOINTMENTS_PER_STORE; i++) {
+                AppointmentEntity appointment = new AppointmentEntity();
+                appointment.setAppointment_date(i % 5 == 0 ? BOOKING_DATE : BOOKING_DATE.minusDays(i % 90));
+                appointment.setAppointment_time(LocalTime.of(8, 0).plusMinutes((i % 20) * 30L));
+                appointment.setStatus(i % 7 == 0 ? "cancelled" : "completed");
+                appointment.setStore(store);
+                appointment.setService(services.get(i % services.size()));
+                appointment.setStaff(staff.get(i % staff.size()));
+                appointment.setCustomer(customers.get((s * 37 + i) % customers.size()));
+                storeAppointments.add(appointment);
+            }
+            storeAppointments = appointmentRepository.saveAll(storeAppointments);
+            appointments.addAll(storeAppointments);
+
+            for (int i = 0; i < storeAppointments.size(); i++) {
+                AppointmentEntity appointment = storeAppointments.get(i);
+                if (i % 3 == 0) {
+                    PaymentEntity payment = new PaymentEntity();
+                    payment.setAppointment(appointment);
+                    payment.setStaff(appointment.getStaff());
+                    payment.setPayment_method(i % 2 == 0 ? "cash" : "vnpay");
+                    payment.setPrice(appointment.getService().getPrice());
+                    payment.setStatus("paid");
+                    payment.setPayment_date(appointment.getAppointment_date().atTime(appointment.getAppointment_time()));
+                    payments.add(payment);
+                }
+                if (i % 5 == 1) {
+                    ReviewEntity review = new ReviewEntity();
+                    review.setAppointment(appointment);
+                    review.setUser(appointment.getCustomer());
+                    review.setRating(1 + i % 5);
+                    review.setComment("Dịch vụ tốt");
+                    reviews.add(review);
+                }
+            }
+        }
+
+        paymentRepository.saveAll(payments);
+        reviewRepository.saveAll(reviews);
+    }
+
+    private void seedOrders() {
+        for (int i = 0; i < ORDERS; i++) {
+            OrderEntity order = new OrderEntity();
+            order.setUser(customers.get(i % customers.size()));
+            order.setStore(stores.get(i % stores.size()));
+            order.setOrder_date(LocalDateTime.now().minusDays(i % 60));
+            order.setStatus("completed");
+            order.setTotal_amount(150000.0 + (i % 10) * 10000);
+            order.setShipping_address(i + " Lê Lợi, Quận 1, TP. Hồ Chí Minh");
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    private void seedAddresses() {
+        for (int i = 0; i < CUSTOMERS_WITH_ADDRESSES; i++) {
+            UserEntity customer = customers.get(i);
+            for (int a = 0; a < ADDRESSES_PER_CUSTOMER; a++) {
+                AddressBookEntity address = new AddressBookEntity();
+                address.setName(customer.getName());
+                address.setPhone(customer.getPhone());
+                address.setAddress(a + " Trần Hưng Đạo, Quận 1, TP. Hồ Chí Minh");
+                address.setType(a == 0 ? "home" : "office");
+                address.setUser(customer);
+                addresses.add(address);
+            }
+        }
+        addressBookRepository.saveAll(addresses);
+
+        // The first address of each customer is their default
+        for (int i = 0; i < CUSTOMERS_WITH_ADDRESSES; i++) {
+            UserEntity customer = customers.get(i);
+            customer.setDefault_address_id(addresses.get(i * ADDRESSES_PER_CUSTOMER).getId());
+            addresses.get(i * ADDRESSES_PER_CUSTOMER).setIs_default(true);
+        }
+        userRepository.saveAll(customers.subList(0, CUSTOMERS_WITH_ADDRESSES));
+    }
+
+    private void seedCarts() {
+        for (int i = 0; i < CUSTOMERS_WITH_CARTS; i++) {
+            List<ProductEntity> products = productsByStore.get(stores.get(i % stores.size()).getId());
+            for (int p = 0; p < ITEMS_PER_CART; p++) {
+                cartService.changeQuantity(customers.get(i).getId(), products.get((i + p) % products.size()).getId(), 1 + p);
+            }
+        }
+        // Carts are written behind; put them in the database now
+        try {
+            cartStore.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private UserEntity user(String name, String handle, RoleEntity role) {
+        UserEntity user = new UserEntity();
+        user.setName(name);
+        user.setEmail(handle + "@example.com");
+        user.setPhone(String.format("09%08d", ++phoneSequence));
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z4EKAo9kXzh0F1T4k4C7mP0u");
+        user.setRole(role);
+        return user;
+    }
+
+    // A product outside the seeded set, for tests that drain or delete its stock
+    public long newProduct(StoreEntity store, int stock, boolean sale) {
+        ProductEntity product = new ProductEntity();
+        product.setName("Test product " + System.nanoTime());
+        product.setPrice(25000.0);
+        product.setStock_quantity(stock);
+        product.setIs_in_stock(stock > 0);
+        product.set_sale(sale);
+        product.setStatus("1");
+        product.setStore(store);
+        product.setCategory(getProducts(store).get(0).getCategory());
+        return productRepository.save(product).getId();
+    }
+
+    public List<StoreEntity> getStores() {
+        return stores;
+    }
+
+    public StoreEntity getStore(int index) {
+        return stores.get(index);
+    }
+
+    public List<UserEntity> getCustomers() {
+        return customers;
+    }
+
+    public UserEntity getCustomer(int index) {
+        return customers.get(index);
+    }
+
+    public UserEntity getOwner(int index) {
+        return owners.get(index);
+    }
+
+    public List<UserEntity> getStaff(StoreEntity store) {
+        return staffByStore.get(store.getId());
+    }
+
+    public List<ServiceEntity> getServices(StoreEntity store) {
+        return servicesByStore.get(store.getId());
+    }
+
+    public List<ProductEntity> getProducts(StoreEntity store) {
+        return productsByStore.get(store.getId());
+    }
+
+    public List<CategoryOfServiceEntity> getCategoriesOfServices() {
+        return categoriesOfServices;
+    }
+
+    public List<AppointmentEntity> getAppointments() {
+        return appointments;
+    }
+
+    public List<OrderEntity> getOrders() {
+        return orders;
+    }
+
+    public List<AddressBookEntity> getAddresses() {
+        return addresses;
+    }
+
+    public RoleEntity getStaffRole() {
+        return staffRole;
+    }
+}
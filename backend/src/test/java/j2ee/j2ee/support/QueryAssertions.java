@@ -0,0 +1,28 @@
+package j2ee.j2ee.support;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import j2ee.j2ee.config.RequestMetrics;
+
+// Counts the SQL statements Hibernate prepares while a block runs, using the
+// same StatementInspector that feeds the Server-Timing header.
+public final class QueryAssertions {
+
+    private QueryAssertions() {
+    }
+
+    public static int countQueries(Runnable block) {
+        RequestMetrics metrics = RequestMetrics.begin();
+        try {
+            block.run();
+            return metrics.getStatementCount();
+        } finally {
+            RequestMetrics.end();
+        }
+    }
+
+    public static void assertQueries(int max, Runnable block) {
+        int count = countQueries(block);
+        assertTrue(count <= max, () -> "Expected at most " + max + " SQL statements but " + count + " were issued");
+    }
+}
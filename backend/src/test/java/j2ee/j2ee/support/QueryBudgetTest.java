@@ -0,0 +1,21 @@
+package j2ee.j2ee.support;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+// Base class for per-service query budget tests. The fixture is seeded once and
+// shared by every test class running in the same Spring context.
+@SpringBootTest
+@Import(FixtureSeeder.class)
+public abstract class QueryBudgetTest {
+
+    @Autowired
+    protected FixtureSeeder fixture;
+
+    @BeforeEach
+    void seedFixture() {
+        fixture.seed();
+    }
+}
@@ -72,6 +72,24 @@ const Checkout = () => {
 			}
 		};
 
+		// Preselect the default address; 404 means the user has none
+		const fetchDefaultAddress = async () => {
+			try {
+				const response = await AddressService.getDefaultByUserId(user?.id);
+				if (response?.status === 200 && response?.data?.id) {
+					setAddressOption("saved");
+					setFormData((prev) => ({
+						...prev,
+						selectedAddress: String(response.data.id),
+					}));
+				}
+			} catch (error) {
+				if (error?.response?.status !== 404) {
+					console.error("Fetching default address failed", error);
+				}
+			}
+		};
+
 		const fetchProvinces = async () => {
 			try {
 				const response = await AddressService.getProvinces();
@@ -86,6 +104,7 @@ const Checkout = () => {
 
 		if (user?.id) {
 			fetchAddressList();
+			fetchDefaultAddress();
 		}
 		fetchProvinces();
 	}, [user?.id]);
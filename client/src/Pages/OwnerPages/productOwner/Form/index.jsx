@@ -92,6 +92,8 @@ const Form = ({
         status: fields.status,
         weight: parseFloat(fields.weight), 
         category: { id: parseInt(fields.category, 10) },
+        // Stock is absolute: the server refuses the edit if it changed since this read
+        version: initialData?.version,
       };
 
       let response;
@@ -108,7 +110,11 @@ const Form = ({
       }
     } catch (error) {
       console.error("Lỗi khi lưu:", error);
-      showToast("Lỗi khi lưu sản phẩm", "error");
+      if (error?.response?.status === 409) {
+        showToast("Sản phẩm đã thay đổi, vui lòng tải lại trước khi lưu", "error");
+      } else {
+        showToast("Lỗi khi lưu sản phẩm", "error");
+      }
     } finally {
       setPending(false);
     }
@@ -163,12 +163,17 @@ const ProductOwner = () => {
 	const handleDeleteMultiple = async () => {
 		const ids = selectedRows.map((row) => row.id);
 		try {
-			await ProductService.deleteMultipleProducts(ids);
+			const { data: result } = await ProductService.deleteMultipleProducts(ids);
+			const deleted = result?.deletedIds ?? ids;
 			setProductData(
-				ProductData.filter((product) => !ids.includes(product.id))
+				ProductData.filter((product) => !deleted.includes(product.id))
 			);
 			setSelectedRows([]);
-			showToast("Xóa nhiều thành công", "success");
+			if (result?.skipped > 0) {
+				showToast(`Đã xóa ${result.deleted}, bỏ qua ${result.skipped} (đang được sử dụng)`, "warning");
+			} else {
+				showToast("Xóa nhiều thành công", "success");
+			}
 		} catch (error) {
 			console.error("Lỗi khi xóa nhiều:", error);
 			showToast("Lỗi khi xóa nhiều", "error");
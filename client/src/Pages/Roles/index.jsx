@@ -135,10 +135,15 @@ const Roles = () => {
 		const ids = selectedRows.map((row) => row.id);
 		console.log("ids:" + ids);
 		try {
-			await RoleService.deleteMultipleRoles(ids);
-			setRolesData(rolesData.filter((role) => !ids.includes(role.id)));
+			const { data: result } = await RoleService.deleteMultipleRoles(ids);
+			const deleted = result?.deletedIds ?? ids;
+			setRolesData(rolesData.filter((role) => !deleted.includes(role.id)));
 			setSelectedRows([]);
-			showToast("Xóa nhiều roles thành công", "success");
+			if (result?.skipped > 0) {
+				showToast(`Đã xóa ${result.deleted}, bỏ qua ${result.skipped} (đang được sử dụng)`, "warning");
+			} else {
+				showToast("Xóa nhiều roles thành công", "success");
+			}
 		} catch (error) {
 			console.error("Lỗi khi xóa nhiều roles:", error);
 			showToast("Lỗi khi xóa nhiều roles", "error");
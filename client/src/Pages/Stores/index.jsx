@@ -159,10 +159,15 @@ const Stores = () => {
 	const handleDeleteMultiple = async () => {
 		const ids = selectedRows.map((row) => row.id);
 		try {
-			await StoreService.deleteMultipleStores(ids);
-			setStoresData(storesData.filter((store) => !ids.includes(store.id)));
+			const { data: result } = await StoreService.deleteMultipleStores(ids);
+			const deleted = result?.deletedIds ?? ids;
+			setStoresData(storesData.filter((store) => !deleted.includes(store.id)));
 			setSelectedRows([]);
-			showToast("Xóa nhiều thành công", "success");
+			if (result?.skipped > 0) {
+				showToast(`Đã xóa ${result.deleted}, bỏ qua ${result.skipped} (đang được sử dụng)`, "warning");
+			} else {
+				showToast("Xóa nhiều thành công", "success");
+			}
 		} catch (error) {
 			console.error("Lỗi khi xóa nhiều:", error);
 			showToast("Lỗi khi xóa nhiều", "error");
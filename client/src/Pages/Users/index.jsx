@@ -152,10 +152,15 @@ const Users = () => {
 	const handleDeleteMultiple = async () => {
 		const ids = selectedRows.map((row) => row.id);
 		try {
-			await UserService.deleteMultipleUsers(ids);
-			setUsersData(usersData.filter((user) => !ids.includes(user.id)));
+			const { data: result } = await UserService.deleteMultipleUsers(ids);
+			const deleted = result?.deletedIds ?? ids;
+			setUsersData(usersData.filter((user) => !deleted.includes(user.id)));
 			setSelectedRows([]);
-			showToast("Xóa nhiều thành công", "success");
+			if (result?.skipped > 0) {
+				showToast(`Đã xóa ${result.deleted}, bỏ qua ${result.skipped} (đang được sử dụng)`, "warning");
+			} else {
+				showToast("Xóa nhiều thành công", "success");
+			}
 		} catch (error) {
 			console.error("Lỗi khi xóa nhiều:", error);
 			showToast("Lỗi khi xóa nhiều", "error");
@@ -13,6 +13,10 @@ class AddressService {
 		);
 	};
 
+	static getDefaultByUserId = async (userId) => {
+		return await apiInstance.get(`${baseURL}/addresses/users/${userId}/default`);
+	};
+
 	static create = async (payload) => {
 		return await apiInstance.post(`${baseURL}/addresses`, payload);
 	};
@@ -17,6 +17,14 @@ class CartService {
 		);
 	};
 
+	// operations: [{ op: "set" | "increment" | "remove", productId, quantity }]
+	static updateCart = async (userId, operations) => {
+		return apiInstance.patch(`${baseURL}/carts`, {
+			userId,
+			operations,
+		});
+	};
+
 	static getCartByCustomerId = async (customerId) => {
 		return apiInstance.get(
 			`${baseURL}/carts/customers?customer_id=${customerId}`
@@ -72,9 +72,11 @@ class ProductService {
 	};
 
 	// Xóa nhiều sản phẩm
-	static deleteMultipleProducts = async (productIds) => {
+	// mode: "hard" (default) or "soft"; the response has the affected counts and deletedIds
+	static deleteMultipleProducts = async (productIds, mode = "hard") => {
 		return await apiInstance.delete(`${baseURL}/products`, {
 			data: productIds,
+			params: { mode },
 			headers: {
 				"Content-Type": "application/json",
 			},
@@ -68,9 +68,11 @@ class ServiceService {
 	};
 
 	// Xóa nhiều sản phẩm
-	static deleteMultipleServices = async (serviceIds) => {
+	// mode: "hard" (default) or "soft"; the response has the affected counts and deletedIds
+	static deleteMultipleServices = async (serviceIds, mode = "hard") => {
 		return await apiInstance.delete(`${baseURL}/services`, {
 			data: serviceIds,
+			params: { mode },
 			headers: {
 				"Content-Type": "application/json",
 			},
@@ -17,9 +17,11 @@ class StoreService {
 	};
 
 	// Xóa nhiều Store
-	static deleteMultipleStores = async (storeIds) => {
+	// mode: "hard" (default) or "soft"; the response has the affected counts and deletedIds
+	static deleteMultipleStores = async (storeIds, mode = "hard") => {
 		return await apiInstance.delete(`${baseURL}/stores/delete-multiple`, {
 			data: storeIds,
+			params: { mode },
 			headers: {
 				"Content-Type": "application/json",
 			},